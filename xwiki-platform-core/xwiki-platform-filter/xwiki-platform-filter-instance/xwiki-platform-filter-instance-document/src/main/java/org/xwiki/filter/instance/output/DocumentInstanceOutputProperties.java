@@ -76,6 +76,11 @@ public class DocumentInstanceOutputProperties extends InstanceOutputProperties
      */
     private boolean stoppedWhenSaveFail = true;
 
+    /**
+     * @see #getSaveThreads()
+     */
+    private int saveThreads = 1;
+
     /**
      * @return The base reference to use to resolve reference from events
      */
@@ -237,4 +242,24 @@ public void setStoppedWhenSaveFail(boolean stoppedWhenSaveFail)
     {
         this.stoppedWhenSaveFail = stoppedWhenSaveFail;
     }
+
+    /**
+     * @return the number of threads saving documents in parallel
+     * @since 10.0RC1
+     */
+    @PropertyName("Save threads")
+    @PropertyDescription("The number of threads saving documents in parallel")
+    public int getSaveThreads()
+    {
+        return this.saveThreads;
+    }
+
+    /**
+     * @param saveThreads the number of threads saving documents in parallel
+     * @since 10.0RC1
+     */
+    public void setSaveThreads(int saveThreads)
+    {
+        this.saveThreads = saveThreads;
+    }
 }
@@ -66,9 +66,9 @@ public void send(XARInputFilter proxyFilter) throws FilterException
                 } catch (IOException e) {
                     throw new FilterException(e);
                 } finally {
-                    if (this.content.isInMemory()) {
-                        this.content.getFile().delete();
-                    }
+                    // Get rid of the temporary file as soon as possible instead of waiting for finalization, it can be
+                    // big and a XAR can contain a lot of attachments
+                    this.content.getFile().delete();
                 }
             } else {
                 proxyFilter.onWikiAttachment(this.name, null, this.size, this.parameters);
@@ -143,6 +143,13 @@ public WikiAttachment read(XMLStreamReader xmlReader, XARInputProperties propert
                             throw new FilterException(e);
                         }
                     }
+
+                    // Release the temporary file (if any)
+                    try {
+                        wikiAttachment.content.close();
+                    } catch (IOException e) {
+                        throw new FilterException(e);
+                    }
                 }
             }
         }
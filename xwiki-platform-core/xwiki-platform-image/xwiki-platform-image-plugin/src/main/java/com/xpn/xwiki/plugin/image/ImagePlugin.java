@@ -21,10 +21,23 @@
 
 import java.awt.Image;
 import java.awt.image.RenderedImage;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -34,6 +47,7 @@
 import org.xwiki.cache.CacheManager;
 import org.xwiki.cache.config.CacheConfiguration;
 import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.environment.Environment;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -82,6 +96,25 @@ public class ImagePlugin extends XWikiDefaultPlugin
      */
     private ImageProcessor imageProcessor;
 
+    /**
+     * Thumbnails which are being computed, indexed by cache key. Used to make sure concurrent requests for the same
+     * thumbnail wait for a single computation.
+     */
+    private final ConcurrentMap<String, FutureTask<XWikiAttachment>> thumbnailsInProgress =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Limit the number of images transformed at the same time. This parameter can be configured using the key
+     * {@code xwiki.plugin.image.maxSimultaneousTransformations}.
+     */
+    private Semaphore transformationsSemaphore;
+
+    /**
+     * The directory where computed thumbnails are stored so that they survive restarts, {@code null} if disabled. This
+     * can be disabled by setting {@code xwiki.plugin.image.store} to 0.
+     */
+    private File thumbnailsDirectory;
+
     /**
      * Creates a new instance of this plugin.
      *
@@ -119,6 +152,12 @@ public void init(XWikiContext context)
         String imageProcessorHint = context.getWiki().Param("xwiki.plugin.image.processorHint", "thumbnailator");
         this.imageProcessor = Utils.getComponent(ImageProcessor.class, imageProcessorHint);
 
+        int maxSimultaneousTransformations = (int) context.getWiki().ParamAsLong(
+            "xwiki.plugin.image.maxSimultaneousTransformations", Runtime.getRuntime().availableProcessors());
+        this.transformationsSemaphore = new Semaphore(Math.max(1, maxSimultaneousTransformations), true);
+
+        initStore(context);
+
         String defaultQualityParam = context.getWiki().Param("xwiki.plugin.image.defaultQuality");
         if (!StringUtils.isBlank(defaultQualityParam)) {
             try {
@@ -166,6 +205,33 @@ private void initCache(XWikiContext context)
         }
     }
 
+    /**
+     * Initializes the directory where thumbnails are stored and removes the thumbnails which have not been used for a
+     * long time (e.g. the thumbnails of a previous version of the attachment).
+     *
+     * @param context the XWiki context
+     */
+    private void initStore(XWikiContext context)
+    {
+        if (context.getWiki().ParamAsLong("xwiki.plugin.image.store", 1) != 0) {
+            File permanentDirectory = Utils.getComponent(Environment.class).getPermanentDirectory();
+            if (permanentDirectory != null) {
+                this.thumbnailsDirectory = new File(permanentDirectory, "cache/image");
+                this.thumbnailsDirectory.mkdirs();
+
+                File[] files = this.thumbnailsDirectory.listFiles();
+                if (files != null) {
+                    long limit = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30);
+                    for (File file : files) {
+                        if (file.lastModified() < limit) {
+                            FileUtils.deleteQuietly(file);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public void flushCache()
     {
@@ -280,18 +346,137 @@ private XWikiAttachment downloadImage(XWikiAttachment image, int width, int heig
     private XWikiAttachment downloadImageFromCache(XWikiAttachment image, int width, int height,
         boolean keepAspectRatio, float quality, XWikiContext context) throws Exception
     {
-        String key =
-            String.format("%s;%s;%s;%s;%s;%s", image.getId(), image.getVersion(), width, height, keepAspectRatio,
-                quality);
+        String key = getCacheKey(image, width, height, keepAspectRatio, quality);
 
         XWikiAttachment thumbnail = this.imageCache.get(key);
         if (thumbnail == null) {
-            thumbnail = shrinkImage(image, width, height, keepAspectRatio, quality, context);
+            thumbnail = getThumbnail(key, image, width, height, keepAspectRatio, quality, context);
             this.imageCache.set(key, thumbnail);
         }
         return thumbnail;
     }
 
+    /**
+     * @param image the image to be downloaded
+     * @param width the desired image width
+     * @param height the desired image height
+     * @param keepAspectRatio {@code true} to preserve aspect ratio when resizing the image, {@code false} otherwise
+     * @param quality the desired compression quality
+     * @return the identifier of the thumbnail, shared by the memory cache and the thumbnails store
+     */
+    private String getCacheKey(XWikiAttachment image, int width, int height, boolean keepAspectRatio, float quality)
+    {
+        // The attachment identifier does not contain the wiki and the version restarts from 1.1 when an attachment is
+        // deleted and uploaded again, so use the full reference and the date of the attachment.
+        Date date = image.getDate();
+
+        return String.format("%s;%s;%s;%s;%s;%s;%s", image.getReference(), image.getVersion(),
+            date != null ? date.getTime() : null, width, height, keepAspectRatio, quality);
+    }
+
+    /**
+     * Computes the requested thumbnail, making sure it is computed only once when several threads ask for it at the
+     * same time.
+     *
+     * @param key the identifier of the thumbnail
+     * @param image the image to be downloaded
+     * @param width the desired image width
+     * @param height the desired image height
+     * @param keepAspectRatio {@code true} to preserve aspect ratio when resizing the image, {@code false} otherwise
+     * @param quality the desired compression quality
+     * @param context the XWiki context
+     * @return the transformed image
+     * @throws Exception if transforming the image fails
+     */
+    private XWikiAttachment getThumbnail(String key, XWikiAttachment image, int width, int height,
+        boolean keepAspectRatio, float quality, XWikiContext context) throws Exception
+    {
+        FutureTask<XWikiAttachment> task = new FutureTask<>(
+            () -> loadOrShrinkImage(key, image, width, height, keepAspectRatio, quality, context));
+
+        FutureTask<XWikiAttachment> currentTask = this.thumbnailsInProgress.putIfAbsent(key, task);
+        if (currentTask == null) {
+            // Nobody is computing this thumbnail yet
+            currentTask = task;
+            try {
+                task.run();
+            } finally {
+                this.thumbnailsInProgress.remove(key, task);
+            }
+        }
+
+        try {
+            return currentTask.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the requested thumbnail from the thumbnails store or computes it and stores it.
+     *
+     * @param key the identifier of the thumbnail
+     * @param image the image to be downloaded
+     * @param width the desired image width
+     * @param height the desired image height
+     * @param keepAspectRatio {@code true} to preserve aspect ratio when resizing the image, {@code false} otherwise
+     * @param quality the desired compression quality
+     * @param context the XWiki context
+     * @return the transformed image
+     * @throws Exception if transforming the image fails
+     */
+    private XWikiAttachment loadOrShrinkImage(String key, XWikiAttachment image, int width, int height,
+        boolean keepAspectRatio, float quality, XWikiContext context) throws Exception
+    {
+        // The key contains the attachment version so a new version of the attachment gets new thumbnails
+        File file = this.thumbnailsDirectory != null
+            ? new File(this.thumbnailsDirectory, DigestUtils.sha256Hex(key)) : null;
+
+        if (file != null && file.exists()) {
+            // Read the stored thumbnail when it's downloaded instead of copying it (and loading the original image)
+            XWikiAttachment thumbnail = (XWikiAttachment) image.clone();
+            thumbnail.setAttachment_content(new StoredThumbnailContent(file, thumbnail));
+            thumbnail.setLongSize(file.length());
+
+            // Remember that the thumbnail is still in use
+            file.setLastModified(System.currentTimeMillis());
+
+            return thumbnail;
+        }
+
+        XWikiAttachment thumbnail = shrinkImage(image, width, height, keepAspectRatio, quality, context);
+
+        if (file != null && thumbnail != image) {
+            storeThumbnail(thumbnail, file);
+        }
+
+        return thumbnail;
+    }
+
+    /**
+     * @param thumbnail the thumbnail to store
+     * @param file the file where to store the thumbnail
+     */
+    private void storeThumbnail(XWikiAttachment thumbnail, File file)
+    {
+        try {
+            File tmpFile = File.createTempFile(file.getName(), null, this.thumbnailsDirectory);
+            try (InputStream stream = thumbnail.getAttachment_content().getContentInputStream()) {
+                FileUtils.copyInputStreamToFile(stream, tmpFile);
+            }
+
+            // Make sure other threads never see a partially written file
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Failed to store the thumbnail of attachment [{}].", thumbnail.getFilename(), e);
+        }
+    }
+
     /**
      * Reduces the size (i.e. the number of bytes) of an image by scaling its width and height and by reducing its
      * compression quality. This helps decreasing the time needed to download the image attachment.
@@ -311,6 +496,19 @@ private XWikiAttachment downloadImageFromCache(XWikiAttachment image, int width,
      */
     private XWikiAttachment shrinkImage(XWikiAttachment attachment, int requestedWidth, int requestedHeight,
         boolean keepAspectRatio, float requestedQuality, XWikiContext context) throws Exception
+    {
+        // Transforming an image takes a lot of CPU and memory so limit the number of simultaneous transformations
+        this.transformationsSemaphore.acquire();
+        try {
+            return shrinkImageInternal(attachment, requestedWidth, requestedHeight, keepAspectRatio,
+                requestedQuality, context);
+        } finally {
+            this.transformationsSemaphore.release();
+        }
+    }
+
+    private XWikiAttachment shrinkImageInternal(XWikiAttachment attachment, int requestedWidth, int requestedHeight,
+        boolean keepAspectRatio, float requestedQuality, XWikiContext context) throws Exception
     {
         Image image = this.imageProcessor.readImage(attachment.getContentInputStream(context));
 
@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.image;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.AutoCloseInputStream;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiAttachmentContent;
+
+/**
+ * The content of a thumbnail stored in the permanent directory. The file is read when the thumbnail is downloaded
+ * instead of being copied when the thumbnail is loaded.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+class StoredThumbnailContent extends XWikiAttachmentContent
+{
+    private final File storageFile;
+
+    /**
+     * @param storageFile the file where the thumbnail is stored
+     * @param attachment the thumbnail
+     */
+    StoredThumbnailContent(File storageFile, XWikiAttachment attachment)
+    {
+        super(attachment, null);
+
+        this.storageFile = storageFile;
+    }
+
+    @Override
+    public StoredThumbnailContent clone()
+    {
+        return new StoredThumbnailContent(this.storageFile, getAttachment());
+    }
+
+    @Override
+    @Deprecated
+    public byte[] getContent()
+    {
+        if (getFileItem() != null) {
+            return super.getContent();
+        }
+
+        try {
+            return FileUtils.readFileToByteArray(this.storageFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read the stored thumbnail", e);
+        }
+    }
+
+    @Override
+    public InputStream getContentInputStream()
+    {
+        if (getFileItem() != null) {
+            return super.getContentInputStream();
+        }
+
+        try {
+            return new AutoCloseInputStream(new FileInputStream(this.storageFile));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read the stored thumbnail", e);
+        }
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException
+    {
+        if (getFileItem() != null) {
+            return super.transferTo(position, count, target);
+        }
+
+        return transferTo(this.storageFile, position, count, target);
+    }
+
+    @Override
+    public long getLongSize()
+    {
+        if (getFileItem() != null) {
+            return super.getLongSize();
+        }
+
+        return this.storageFile.length();
+    }
+}
@@ -22,23 +22,32 @@
 import java.awt.Image;
 import java.awt.image.RenderedImage;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.apache.commons.io.IOUtils;
 
 import org.apache.commons.codec.binary.Base64;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheManager;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.DocumentReference;
 
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiAttachmentContent;
+import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.test.MockitoOldcoreRule;
 import com.xpn.xwiki.web.XWikiServletRequest;
 
@@ -89,10 +98,15 @@
     @Rule
     public MockitoOldcoreRule oldCore = new MockitoOldcoreRule();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private ImagePlugin plugin;
 
     private ImageProcessor imageProcessor;
 
+    private File thumbnailsDirectory;
+
     @Before
     public void configure() throws Exception
     {
@@ -103,6 +117,12 @@ public void configure() throws Exception
 
         this.oldCore.getMocker().registerMockComponent(CacheManager.class);
 
+        File permanentDirectory = this.folder.newFolder();
+        this.thumbnailsDirectory = new File(permanentDirectory, "cache/image");
+        Environment environment = this.oldCore.getMocker().registerMockComponent(Environment.class);
+        Mockito.when(environment.getPermanentDirectory()).thenReturn(permanentDirectory);
+        Mockito.when(environment.getTemporaryDirectory()).thenReturn(this.folder.newFolder());
+
         this.imageProcessor = this.oldCore.getMocker().registerMockComponent(ImageProcessor.class, "test");
         Mockito.when(this.imageProcessor.isMimeTypeSupported("image/png")).thenReturn(true);
 
@@ -152,7 +172,7 @@ public void testCacheOfScaledAttachment() throws Exception
 
         XWikiAttachment scaled = plugin.downloadAttachment(attachment, xcontext);
 
-        String cacheKey = "0;null;30;30;false;-1.0";
+        String cacheKey = "null;null;null;30;30;false;-1.0";
         Mockito.when(imageCache.get(cacheKey)).thenReturn(scaled);
 
         // Load again, this time from cache.
@@ -162,4 +182,103 @@ public void testCacheOfScaledAttachment() throws Exception
                 "image/png", .5F, attachmentOutputStream);
         Mockito.verify(imageCache, Mockito.times(1)).set(cacheKey, attachment);
     }
+
+    @Test
+    public void testStoredThumbnailIsReusedAfterRestart() throws Exception
+    {
+        XWikiContext xcontext = prepareScaling();
+
+        XWikiAttachment image = createImage("wiki", new Date(1000L));
+        plugin.downloadAttachment(image, xcontext);
+
+        Assert.assertEquals(1, this.thumbnailsDirectory.list().length);
+
+        // A new plugin instance starts with an empty memory cache
+        this.plugin = new ImagePlugin("image", ImagePlugin.class.getName(), xcontext);
+        XWikiAttachment thumbnail = plugin.downloadAttachment(createImage("wiki", new Date(1000L)), xcontext);
+
+        // The stored thumbnail is read as it is downloaded, the original image is not read again
+        Assert.assertTrue(thumbnail.getAttachment_content() instanceof StoredThumbnailContent);
+        Assert.assertEquals("thumbnail", IOUtils.toString(thumbnail.getContentInputStream(xcontext),
+            StandardCharsets.UTF_8));
+        Assert.assertEquals(9, thumbnail.getLongSize());
+        Mockito.verify(imageProcessor, Mockito.times(1)).readImage(ArgumentMatchers.any());
+        Mockito.verify(imageProcessor, Mockito.times(1)).writeImage(ArgumentMatchers.any(),
+            ArgumentMatchers.any(), ArgumentMatchers.anyFloat(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testStoredThumbnailIsScopedToTheWiki() throws Exception
+    {
+        XWikiContext xcontext = prepareScaling();
+
+        // Same space, page and file name in two different wikis
+        plugin.downloadAttachment(createImage("wiki1", new Date(1000L)), xcontext);
+        plugin.downloadAttachment(createImage("wiki2", new Date(1000L)), xcontext);
+
+        Assert.assertEquals(2, this.thumbnailsDirectory.list().length);
+        Mockito.verify(imageProcessor, Mockito.times(2)).writeImage(ArgumentMatchers.any(),
+            ArgumentMatchers.any(), ArgumentMatchers.anyFloat(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testStoredThumbnailIsNotUsedForNewAttachment() throws Exception
+    {
+        XWikiContext xcontext = prepareScaling();
+
+        plugin.downloadAttachment(createImage("wiki", new Date(1000L)), xcontext);
+
+        // The attachment has been deleted and uploaded again: same version but different date
+        plugin.downloadAttachment(createImage("wiki", new Date(2000L)), xcontext);
+
+        // New version of the attachment
+        XWikiAttachment image = createImage("wiki", new Date(2000L));
+        image.setVersion("2.1");
+        plugin.downloadAttachment(image, xcontext);
+
+        Assert.assertEquals(3, this.thumbnailsDirectory.list().length);
+        Mockito.verify(imageProcessor, Mockito.times(3)).writeImage(ArgumentMatchers.any(),
+            ArgumentMatchers.any(), ArgumentMatchers.anyFloat(), ArgumentMatchers.any());
+    }
+
+    private XWikiContext prepareScaling() throws Exception
+    {
+        XWikiContext xcontext = this.oldCore.getXWikiContext();
+
+        // The memory cache never contains the thumbnails so that the thumbnails store is used
+        CacheManager cacheManager = this.oldCore.getMocker().getInstance(CacheManager.class);
+        Cache<Object> imageCache = Mockito.mock(Cache.class);
+        Mockito.when(cacheManager.createNewLocalCache(ArgumentMatchers.any())).thenReturn(imageCache);
+
+        XWikiServletRequest request = Mockito.mock(XWikiServletRequest.class);
+        Mockito.when(request.getParameter("width")).thenReturn("30");
+        Mockito.when(request.getParameter("height")).thenReturn("30");
+        xcontext.setRequest(request);
+
+        Image image = Mockito.mock(Image.class);
+        Mockito.when(image.getWidth(null)).thenReturn(400);
+        Mockito.when(image.getHeight(null)).thenReturn(300);
+        Mockito.when(imageProcessor.readImage(ArgumentMatchers.any())).thenReturn(image);
+        RenderedImage renderedImage = Mockito.mock(RenderedImage.class);
+        Mockito.when(imageProcessor.scaleImage(image, 30, 30)).thenReturn(renderedImage);
+        Mockito.doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("thumbnail".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(imageProcessor).writeImage(ArgumentMatchers.eq(renderedImage), ArgumentMatchers.eq("image/png"),
+            ArgumentMatchers.anyFloat(), ArgumentMatchers.any());
+
+        return xcontext;
+    }
+
+    private XWikiAttachment createImage(String wiki, Date date) throws Exception
+    {
+        XWikiDocument document = new XWikiDocument(new DocumentReference(wiki, "Space", "Page"));
+        XWikiAttachment image = new XWikiAttachment(document, "image.png");
+        image.setMimeType("image/png");
+        image.setContent(new ByteArrayInputStream(testPngImageContent));
+        image.setDate(date);
+        image.setVersion("1.1");
+
+        return image;
+    }
 }
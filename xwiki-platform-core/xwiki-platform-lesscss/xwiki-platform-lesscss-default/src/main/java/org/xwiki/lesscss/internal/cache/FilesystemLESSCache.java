@@ -0,0 +1,226 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+
+/**
+ * Store the CSS produced by the LESS compiler in the permanent directory so that it survives restarts. Entries are
+ * identified by a hash of the compiled LESS code and remember the hash of each imported template so that the caller
+ * can make sure they did not change.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component(roles = FilesystemLESSCache.class)
+@Singleton
+public class FilesystemLESSCache implements Initializable
+{
+    private static final String CSS_EXTENSION = ".css";
+
+    private static final String IMPORTS_EXTENSION = ".imports";
+
+    /**
+     * Entries which have not been used for that long are removed at startup.
+     */
+    private static final long MAX_UNUSED_TIME = TimeUnit.DAYS.toMillis(30);
+
+    /**
+     * The result of a compilation.
+     *
+     * @version $Id$
+     */
+    public static class Entry
+    {
+        private final String css;
+
+        private final Map<String, String> imports;
+
+        /**
+         * @param css the compiled CSS
+         * @param imports the imported templates and the hash of their content
+         */
+        public Entry(String css, Map<String, String> imports)
+        {
+            this.css = css;
+            this.imports = imports;
+        }
+
+        /**
+         * @return the compiled CSS
+         */
+        public String getCSS()
+        {
+            return this.css;
+        }
+
+        /**
+         * @return the imported templates and the hash of their content
+         */
+        public Map<String, String> getImports()
+        {
+            return this.imports;
+        }
+    }
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private LESSConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    private File directory;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        if (this.configuration.isPersistentCacheEnabled()) {
+            this.directory = new File(this.environment.getPermanentDirectory(), "cache/lesscss");
+            this.directory.mkdirs();
+
+            removeUnusedEntries();
+        }
+    }
+
+    private void removeUnusedEntries()
+    {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            long limit = System.currentTimeMillis() - MAX_UNUSED_TIME;
+            for (File file : files) {
+                if (file.lastModified() < limit) {
+                    FileUtils.deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the persistent cache is enabled
+     */
+    public boolean isEnabled()
+    {
+        return this.directory != null;
+    }
+
+    /**
+     * @param key the identifier of the entry
+     * @return the stored entry or null if none could be found
+     */
+    public Entry get(String key)
+    {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        File cssFile = new File(this.directory, key + CSS_EXTENSION);
+        File importsFile = new File(this.directory, key + IMPORTS_EXTENSION);
+
+        if (cssFile.exists() && importsFile.exists()) {
+            try {
+                Properties properties = new Properties();
+                try (InputStream stream = new FileInputStream(importsFile)) {
+                    properties.load(stream);
+                }
+                Map<String, String> imports = new HashMap<>();
+                for (String name : properties.stringPropertyNames()) {
+                    imports.put(name, properties.getProperty(name));
+                }
+
+                String css = FileUtils.readFileToString(cssFile, StandardCharsets.UTF_8);
+
+                // Remember that the entry is still in use (both files are checked independently at startup)
+                long now = System.currentTimeMillis();
+                cssFile.setLastModified(now);
+                importsFile.setLastModified(now);
+
+                return new Entry(css, imports);
+            } catch (IOException e) {
+                this.logger.warn("Failed to read the stored LESS compilation result [{}]: {}", key, e.getMessage());
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param key the identifier of the entry
+     * @param entry the entry to store
+     */
+    public void set(String key, Entry entry)
+    {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            Properties properties = new Properties();
+            properties.putAll(entry.getImports());
+
+            // Write the imports first since an entry is only valid if its CSS file exists
+            File importsFile = new File(this.directory, key + IMPORTS_EXTENSION);
+            File tmpImportsFile = File.createTempFile(key, IMPORTS_EXTENSION, this.directory);
+            try (OutputStream stream = new FileOutputStream(tmpImportsFile)) {
+                properties.store(stream, null);
+            }
+            move(tmpImportsFile, importsFile);
+
+            File cssFile = new File(this.directory, key + CSS_EXTENSION);
+            File tmpCSSFile = File.createTempFile(key, CSS_EXTENSION, this.directory);
+            FileUtils.writeStringToFile(tmpCSSFile, entry.getCSS(), StandardCharsets.UTF_8);
+            move(tmpCSSFile, cssFile);
+        } catch (IOException e) {
+            this.logger.warn("Failed to store the LESS compilation result [{}]: {}", key, e.getMessage());
+        }
+    }
+
+    private void move(File source, File target) throws IOException
+    {
+        // Make sure other threads never see a partially written file
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+}
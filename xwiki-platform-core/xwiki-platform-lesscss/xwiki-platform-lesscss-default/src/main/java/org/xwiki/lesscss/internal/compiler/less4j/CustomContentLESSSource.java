@@ -19,6 +19,8 @@
  */
 package org.xwiki.lesscss.internal.compiler.less4j;
 
+import java.util.Map;
+
 import org.xwiki.skin.Skin;
 import org.xwiki.template.TemplateManager;
 
@@ -40,7 +42,20 @@ public class CustomContentLESSSource extends AbstractLESSSource
      */
     public CustomContentLESSSource(String lessCode, TemplateManager templateManager, Skin skin)
     {
-        super(templateManager, skin, "less");
+        this(lessCode, templateManager, skin, null);
+    }
+
+    /**
+     * @param lessCode the LESS code to compile
+     * @param templateManager the template manager component
+     * @param skin the skin holding the template
+     * @param imports where to record the imported templates and the hash of their content, can be null
+     * @since 10.0RC1
+     */
+    public CustomContentLESSSource(String lessCode, TemplateManager templateManager, Skin skin,
+        Map<String, String> imports)
+    {
+        super(templateManager, skin, "less", imports);
         this.lessCode = lessCode;
     }
 
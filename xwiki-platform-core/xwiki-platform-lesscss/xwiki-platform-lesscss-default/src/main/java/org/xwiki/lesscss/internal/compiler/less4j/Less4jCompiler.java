@@ -19,10 +19,16 @@
  */
 package org.xwiki.lesscss.internal.compiler.less4j;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.lesscss.internal.cache.FilesystemLESSCache;
+import org.xwiki.skin.Skin;
 import org.xwiki.skin.SkinManager;
 import org.xwiki.template.TemplateManager;
 
@@ -47,6 +53,9 @@
     @Inject
     private SkinManager skinManager;
 
+    @Inject
+    private FilesystemLESSCache persistentCache;
+
     /**
      * Compile the LESS code and get the included files from the skin templates.
      * @param lessCode code to compile
@@ -57,14 +66,55 @@
      */
     public String compile(String lessCode, String skin, boolean inlineSourceMap) throws Less4jException
     {
+        Skin skinObject = skinManager.getSkin(skin);
+
+        // Reuse the result of a previous compilation of the same code if available
+        String key = null;
+        if (persistentCache.isEnabled()) {
+            key = DigestUtils.sha256Hex(String.format("%s%n%s%n%s", skin, inlineSourceMap, lessCode));
+
+            String css = getStoredCSS(key, skinObject);
+            if (css != null) {
+                return css;
+            }
+        }
+
         LessCompiler lessCompiler = new DefaultLessCompiler();
         LessCompiler.Configuration options = new LessCompiler.Configuration();
         options.setCompressing(true);
         options.getSourceMapConfiguration().setInline(inlineSourceMap);
         options.getSourceMapConfiguration().setIncludeSourcesContent(true);
+        Map<String, String> imports = new HashMap<>();
         LessSource lessSource = 
-            new CustomContentLESSSource(lessCode, templateManager, skinManager.getSkin(skin));
+            new CustomContentLESSSource(lessCode, templateManager, skinObject, imports);
         LessCompiler.CompilationResult lessResult = lessCompiler.compile(lessSource, options);
+
+        if (key != null) {
+            persistentCache.set(key, new FilesystemLESSCache.Entry(lessResult.getCss(), imports));
+        }
+
         return lessResult.getCss();
     }
+
+    private String getStoredCSS(String key, Skin skin)
+    {
+        FilesystemLESSCache.Entry entry = persistentCache.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        // The stored CSS is only valid if the imported templates did not change since it was compiled
+        for (Map.Entry<String, String> imported : entry.getImports().entrySet()) {
+            try {
+                String content = new TemplateLESSSource(templateManager, skin, imported.getKey()).getContent();
+                if (!imported.getValue().equals(DigestUtils.sha256Hex(content))) {
+                    return null;
+                }
+            } catch (LessSource.FileNotFound | LessSource.CannotReadFile e) {
+                return null;
+            }
+        }
+
+        return entry.getCSS();
+    }
 }
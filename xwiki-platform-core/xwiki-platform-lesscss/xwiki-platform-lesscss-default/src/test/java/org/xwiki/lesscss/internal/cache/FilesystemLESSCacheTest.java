@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link FilesystemLESSCache}.
+ *
+ * @version $Id$
+ */
+public class FilesystemLESSCacheTest
+{
+    @Rule
+    public MockitoComponentMockingRule<FilesystemLESSCache> mocker =
+        new MockitoComponentMockingRule<>(FilesystemLESSCache.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File permanentDirectory;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.permanentDirectory = this.folder.newFolder();
+
+        Environment environment = this.mocker.getInstance(Environment.class);
+        when(environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+    }
+
+    @Test
+    public void setAndGet() throws Exception
+    {
+        LESSConfiguration configuration = this.mocker.getInstance(LESSConfiguration.class);
+        when(configuration.isPersistentCacheEnabled()).thenReturn(true);
+
+        FilesystemLESSCache cache = this.mocker.getComponentUnderTest();
+
+        assertTrue(cache.isEnabled());
+        assertNull(cache.get("key"));
+
+        cache.set("key", new FilesystemLESSCache.Entry(".a{color:red}",
+            Collections.singletonMap("less/style.less.vm", "hash")));
+
+        FilesystemLESSCache.Entry entry = cache.get("key");
+        assertEquals(".a{color:red}", entry.getCSS());
+        assertEquals(Collections.singletonMap("less/style.less.vm", "hash"), entry.getImports());
+
+        assertTrue(new File(this.permanentDirectory, "cache/lesscss/key.css").exists());
+    }
+
+    @Test
+    public void getMarksBothFilesAsUsed() throws Exception
+    {
+        LESSConfiguration configuration = this.mocker.getInstance(LESSConfiguration.class);
+        when(configuration.isPersistentCacheEnabled()).thenReturn(true);
+
+        FilesystemLESSCache cache = this.mocker.getComponentUnderTest();
+        cache.set("key", new FilesystemLESSCache.Entry(".a{color:red}", Collections.emptyMap()));
+
+        File cssFile = new File(this.permanentDirectory, "cache/lesscss/key.css");
+        File importsFile = new File(this.permanentDirectory, "cache/lesscss/key.imports");
+        long lastYear = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(365);
+        cssFile.setLastModified(lastYear);
+        importsFile.setLastModified(lastYear);
+
+        assertNotNull(cache.get("key"));
+
+        // Otherwise one of the files would be removed at next startup, invalidating the entry
+        assertTrue(cssFile.lastModified() > lastYear);
+        assertTrue(importsFile.lastModified() > lastYear);
+    }
+
+    @Test
+    public void disabled() throws Exception
+    {
+        FilesystemLESSCache cache = this.mocker.getComponentUnderTest();
+
+        assertFalse(cache.isEnabled());
+
+        cache.set("key", new FilesystemLESSCache.Entry(".a{color:red}", Collections.emptyMap()));
+
+        assertNull(cache.get("key"));
+        assertFalse(new File(this.permanentDirectory, "cache/lesscss").exists());
+    }
+}
@@ -21,11 +21,14 @@
 
 import java.io.FileInputStream;
 import java.io.StringWriter;
+import java.util.Collections;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.xwiki.lesscss.internal.cache.FilesystemLESSCache;
 import org.xwiki.skin.Resource;
 import org.xwiki.skin.Skin;
 import org.xwiki.skin.SkinManager;
@@ -39,7 +42,11 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -140,4 +147,33 @@ public void compileWhenImportDoesNotExist() throws Exception
         IOUtils.copy(new FileInputStream(getClass().getResource("/lessException.txt").getFile()), exceptionMessage);
         assertEquals(exceptionMessage.toString(), caughtException.getMessage());
     }
+
+    @Test
+    public void compileWithPersistentCache() throws Exception
+    {
+        // Mocks
+        when(skinManager.getSkin("skin")).thenReturn(skin);
+        when(skin.getResource("less/style.less.vm")).thenReturn(mock(Resource.class));
+        when(templateManager.renderFromSkin("less/style.less.vm", skin)).thenReturn("@size: 1px;");
+
+        FilesystemLESSCache persistentCache = mocker.getInstance(FilesystemLESSCache.class);
+        when(persistentCache.isEnabled()).thenReturn(true);
+        when(persistentCache.get(anyString())).thenReturn(new FilesystemLESSCache.Entry(".a{width:1px}",
+            Collections.singletonMap("less/style.less.vm", DigestUtils.sha256Hex("@size: 1px;"))));
+
+        String lessCode = "@import (reference) \"style.less.vm\";\n.a { width: @size; }";
+
+        // Test
+        assertEquals(".a{width:1px}", mocker.getComponentUnderTest().compile(lessCode, "skin", false));
+        verify(persistentCache, never()).set(anyString(), any());
+
+        // The stored CSS is not used anymore when an imported template is modified
+        when(templateManager.renderFromSkin("less/style.less.vm", skin)).thenReturn("@size: 2px;");
+
+        String result = mocker.getComponentUnderTest().compile(lessCode, "skin", false);
+
+        // Verify
+        assertTrue(result.contains("2px"));
+        verify(persistentCache).set(anyString(), any());
+    }
 }
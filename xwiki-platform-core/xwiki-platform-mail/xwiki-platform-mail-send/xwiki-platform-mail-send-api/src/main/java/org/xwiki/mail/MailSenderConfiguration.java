@@ -101,4 +101,15 @@
      * @since 6.4RC1
      */
     long getSendWaitTime();
+
+    /**
+     * @return the number of threads sending mails in parallel, each one holding its own connection to the SMTP server.
+     *         Note that the {@link #getSendWaitTime() send wait time} is enforced per SMTP server, whatever the number
+     *         of threads
+     * @since 10.0RC1
+     */
+    default int getSendThreadCount()
+    {
+        return 1;
+    }
 }
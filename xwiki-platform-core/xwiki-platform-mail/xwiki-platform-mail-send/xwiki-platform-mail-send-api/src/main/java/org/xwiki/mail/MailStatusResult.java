@@ -45,6 +45,26 @@
      */
     long getProcessedMailCount();
 
+    /**
+     * @return the number of mails of this batch which are still waiting to be processed, or -1 if the total number of
+     *         mails is not known yet (see {@link #getTotalMailCount()})
+     * @since 10.0RC1
+     */
+    default long getPendingMailCount()
+    {
+        long total = getTotalMailCount();
+        return total < 0 ? -1 : Math.max(0, total - getProcessedMailCount());
+    }
+
+    /**
+     * @return the average number of mails processed per second since the batch started, or -1 if unknown
+     * @since 10.0RC1
+     */
+    default double getThroughput()
+    {
+        return -1;
+    }
+
     /**
      * Wait till all messages on the sending queue have been sent (for this batch) before returning.
      *
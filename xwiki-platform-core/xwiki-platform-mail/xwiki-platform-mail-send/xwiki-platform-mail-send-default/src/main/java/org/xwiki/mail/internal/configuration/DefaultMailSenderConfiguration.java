@@ -103,6 +103,7 @@ public class DefaultMailSenderConfiguration implements MailSenderConfiguration
     private static final String PASSWORD_PROPERTY = "password";
     private static final String PROPERTIES_PROPERTY = "properties";
     private static final String SEND_WAIT_TIME = "sendWaitTime";
+    private static final String SEND_THREAD_COUNT = "sendThreadCount";
 
     @Inject
     private Logger logger;
@@ -318,4 +319,10 @@ public long getSendWaitTime()
 
         return waitTime;
     }
+
+    @Override
+    public int getSendThreadCount()
+    {
+        return this.xwikiPropertiesSource.getProperty(PREFIX + SEND_THREAD_COUNT, 1);
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.concurrent.TimeUnit;
+
 import org.xwiki.component.annotation.Role;
 
 /**
@@ -55,4 +57,15 @@
      * @return true if the removal was successful, false otherwise
      */
     boolean removeMessageFromQueue(T mailQueueItem);
+
+    /**
+     * Removes and returns the next mail on the queue, waiting for one to be added if the queue is empty.
+     *
+     * @param timeout the maximum time to wait for a mail to be added on the queue
+     * @param unit the unit of the timeout parameter
+     * @return the next mail on the queue or null if none was added before the timeout elapsed
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 10.0RC1
+     */
+    T waitForMessage(long timeout, TimeUnit unit) throws InterruptedException;
 }
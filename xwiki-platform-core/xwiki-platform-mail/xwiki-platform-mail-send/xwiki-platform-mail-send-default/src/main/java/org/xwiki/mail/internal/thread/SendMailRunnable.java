@@ -19,7 +19,13 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,11 +43,14 @@
 import org.xwiki.mail.ExtendedMimeMessage;
 import org.xwiki.mail.MailContentStore;
 import org.xwiki.mail.MailListener;
+import org.xwiki.mail.MailSenderConfiguration;
 
 import com.xpn.xwiki.XWikiContext;
 
 /**
- * Runnable that regularly check for mails on a Queue, and for each mail tries to send it.
+ * Runnable that waits for mails on a Queue, and for each mail tries to send it. Mails are sent in parallel by
+ * {@link MailSenderConfiguration#getSendThreadCount() several workers}, each one holding its own SMTP connection, while
+ * the {@link MailSenderConfiguration#getSendWaitTime() send wait time} is enforced per SMTP server.
  *
  * @version $Id$
  * @since 6.4
@@ -51,6 +60,11 @@
 @Singleton
 public class SendMailRunnable extends AbstractMailRunnable
 {
+    /**
+     * The maximum time to wait for a new mail on the queue before checking if the thread should be stopped.
+     */
+    private static final long WAIT_TIMEOUT = 1000L;
+
     @Inject
     private MailQueueManager<SendMailQueueItem> sendMailQueueManager;
 
@@ -64,15 +78,61 @@ public class SendMailRunnable extends AbstractMailRunnable
     @Inject
     private Provider<XWikiContext> contextProvider;
 
-    private Transport currentTransport;
+    /**
+     * The time before which no mail can be sent, for each SMTP server.
+     */
+    private final ConcurrentMap<String, AtomicLong> nextSendTimes = new ConcurrentHashMap<>();
+
+    /**
+     * The SMTP connection of the current worker.
+     */
+    private final ThreadLocal<SendMailWorker> currentWorker = new ThreadLocal<>();
+
+    /**
+     * Holds the SMTP connection of a worker thread, so that it can be reused for several mails.
+     */
+    private static class SendMailWorker
+    {
+        private Transport transport;
 
-    private Session currentSession;
+        private Session session;
 
-    private int count;
+        private int count;
+    }
 
     @Override
     public void run()
     {
+        // The current thread is the first worker, the other ones are started here and stopped with it.
+        List<Thread> workerThreads = new ArrayList<>();
+        String threadName = Thread.currentThread().getName();
+        for (int i = 1; i < this.configuration.getSendThreadCount(); i++) {
+            Thread workerThread = new Thread(this::runWorker);
+            workerThread.setName(String.format("%s %d", threadName, i + 1));
+            workerThread.setDaemon(true);
+            workerThread.start();
+            workerThreads.add(workerThread);
+        }
+
+        try {
+            runWorker();
+        } finally {
+            for (Thread workerThread : workerThreads) {
+                workerThread.interrupt();
+            }
+            for (Thread workerThread : workerThreads) {
+                try {
+                    workerThread.join();
+                } catch (InterruptedException e) {
+                    this.logger.debug("Interrupted while waiting for [{}] to stop", workerThread.getName(), e);
+                }
+            }
+        }
+    }
+
+    private void runWorker()
+    {
+        this.currentWorker.set(new SendMailWorker());
         try {
             // Make sure we initialize an execution context.
             prepareContext();
@@ -83,6 +143,7 @@ public void run()
             logger.error("Failed to initialize the send mail thread's execution context", e);
         } finally {
             closeTransport();
+            this.currentWorker.remove();
         }
     }
 
@@ -105,24 +166,27 @@ private void runInternal()
     {
         do {
             try {
-                // Handle next message in the queue
-                if (this.sendMailQueueManager.hasMessage()) {
-                    // Important: only remove the mail item from the queue after the mail has been sent as
-                    // otherwise, MailSender.waitTillSent() may return before the mail is actually sent!
-                    SendMailQueueItem mailItem = this.sendMailQueueManager.peekMessage();
+                // Handle next message in the queue, waiting for one to be added if there's none. The timeout allows
+                // to regularly check if the thread should be stopped.
+                // Note: the mail item is removed from the queue before being sent so that the other workers don't send
+                // it too. MailStatusResult#waitTillProcessed() relies on the listener to know when it has been sent.
+                SendMailQueueItem mailItem =
+                    this.sendMailQueueManager.waitForMessage(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (mailItem != null) {
+                    // Email throttling: Wait till the SMTP server can be used again
+                    // Note: it's important that we wait before sending the mail and not after it in order to let users
+                    // know as soon as possible that their mail has been sent (otherwise when sending a synchronous
+                    // mail, the user would have to wait the send wait time!).
                     try {
-                        sendMail(mailItem);
-                    } finally {
-                        this.sendMailQueueManager.removeMessageFromQueue(mailItem);
+                        prepareContextForQueueItem(mailItem);
+                        waitSendWaitTime(mailItem.getSession());
+                    } catch (InterruptedException e) {
+                        // Put back the mail on the queue since it's not going to be sent by this worker
+                        this.sendMailQueueManager.addToQueue(mailItem);
+                        throw e;
                     }
-                    // Email throttling: Wait before processing the next mail queue item
-                    // Note: it's important that we wait after the previous item has been removed from the queue in
-                    // order to let users know as soon as possible that their mail has been sent (otherwise when sending
-                    // a synchronous mail, the user would have to wait the send wait time!).
-                    waitSendWaitTime();
+                    sendMail(mailItem);
                 }
-                // Note: a short pause to catch thread interruptions and to be kind on CPU.
-                Thread.sleep(50L);
             } catch (InterruptedException e) {
                 // Thread has been stopped, exit
                 this.logger.debug("Mail Sender Thread was forcefully stopped", e);
@@ -161,20 +225,21 @@ protected void sendMail(SendMailQueueItem item)
             // the current Transport, get a new one and reconnect.
             // Also do that every 100 mails sent.
             // TODO: explain why!
-            if (item.getSession() != this.currentSession || (this.count % 100) == 0) {
+            SendMailWorker worker = getWorker();
+            if (item.getSession() != worker.session || (worker.count % 100) == 0) {
                 closeTransport();
-                this.currentSession = item.getSession();
-                this.currentTransport = this.currentSession.getTransport("smtp");
-                this.currentTransport.connect();
-            } else if (!this.currentTransport.isConnected()) {
-                this.currentTransport.connect();
+                worker.session = item.getSession();
+                worker.transport = worker.session.getTransport("smtp");
+                worker.transport.connect();
+            } else if (!worker.transport.isConnected()) {
+                worker.transport.connect();
             }
 
             // Step 3: Send the mail
             // Unlike the static send method, the sendMessage method does not call the saveChanges method on the
             // message; this prevent the MessageID header to be changed.
-            this.currentTransport.sendMessage(message, message.getAllRecipients());
-            this.count++;
+            worker.transport.sendMessage(message, message.getAllRecipients());
+            worker.count++;
 
             // Step 4: Notify the user of the success if a listener has been provided
             if (listener != null) {
@@ -188,17 +253,49 @@ protected void sendMail(SendMailQueueItem item)
         }
     }
 
-    private void waitSendWaitTime() throws InterruptedException
+    private SendMailWorker getWorker()
+    {
+        SendMailWorker worker = this.currentWorker.get();
+        if (worker == null) {
+            // sendMail() called outside of a worker thread
+            worker = new SendMailWorker();
+            this.currentWorker.set(worker);
+        }
+
+        return worker;
+    }
+
+    private void waitSendWaitTime(Session session) throws InterruptedException
     {
         long sendWaitTime = this.configuration.getSendWaitTime();
-        Thread.sleep(sendWaitTime);
+        if (sendWaitTime <= 0) {
+            return;
+        }
+
+        // Reserve the next send slot of the SMTP server, shared by all the workers
+        String server = String.format("%s:%s", session.getProperty("mail.smtp.host"),
+            session.getProperty("mail.smtp.port"));
+        AtomicLong nextSendTime = this.nextSendTimes.computeIfAbsent(server, key -> new AtomicLong());
+        long now;
+        long sendTime;
+        long current;
+        do {
+            now = System.currentTimeMillis();
+            current = nextSendTime.get();
+            sendTime = Math.max(now, current);
+        } while (!nextSendTime.compareAndSet(current, sendTime + sendWaitTime));
+
+        if (sendTime > now) {
+            Thread.sleep(sendTime - now);
+        }
     }
 
     private void closeTransport()
     {
-        if (this.currentTransport != null) {
+        SendMailWorker worker = this.currentWorker.get();
+        if (worker != null && worker.transport != null) {
             try {
-                this.currentTransport.close();
+                worker.transport.close();
             } catch (MessagingException e) {
                 this.logger.warn("Failed to close JavaMail Transport connection. Reason [{}]",
                     ExceptionUtils.getRootCauseMessage(e));
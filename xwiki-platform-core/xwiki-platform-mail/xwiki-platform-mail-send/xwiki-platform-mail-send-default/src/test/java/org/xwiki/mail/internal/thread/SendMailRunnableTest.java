@@ -25,6 +25,7 @@
 import java.util.UUID;
 
 import javax.inject.Provider;
+import javax.mail.Message.RecipientType;
 import javax.mail.Session;
 import javax.mail.internet.MimeMessage;
 
@@ -36,6 +37,7 @@
 import org.xwiki.mail.ExtendedMimeMessage;
 import org.xwiki.mail.MailContentStore;
 import org.xwiki.mail.MailListener;
+import org.xwiki.mail.MailSenderConfiguration;
 import org.xwiki.mail.MailState;
 import org.xwiki.mail.MailStatus;
 import org.xwiki.mail.MailStoreException;
@@ -44,6 +46,8 @@
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
+import com.icegreen.greenmail.junit.GreenMailRule;
+import com.icegreen.greenmail.util.ServerSetupTest;
 import com.xpn.xwiki.XWikiContext;
 
 import static org.junit.Assert.assertEquals;
@@ -62,6 +66,9 @@
 })
 public class SendMailRunnableTest
 {
+    @Rule
+    public GreenMailRule mail = new GreenMailRule(ServerSetupTest.SMTP);
+
     @Rule
     public MockitoComponentMockingRule<SendMailRunnable> mocker =
         new MockitoComponentMockingRule<>(SendMailRunnable.class);
@@ -206,4 +213,58 @@ public void sendMailWhenMailRetrievalFails() throws Exception
         }
         assertEquals(2, errorCount);
     }
+
+    @Test
+    public void sendMailWithSeveralWorkers() throws Exception
+    {
+        MailSenderConfiguration configuration = this.mocker.getInstance(MailSenderConfiguration.class);
+        when(configuration.getSendThreadCount()).thenReturn(3);
+
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.port", String.valueOf(this.mail.getSmtp().getPort()));
+        Session session = Session.getInstance(properties);
+
+        MemoryMailListener listener = this.mocker.getInstance(MailListener.class, "memory");
+        String batchId = UUID.randomUUID().toString();
+        listener.onPrepareBegin(batchId, Collections.<String, Object>emptyMap());
+        ((UpdateableMailStatusResult) listener.getMailStatusResult()).setTotalSize(10);
+
+        MailQueueManager mailQueueManager = this.mocker.getInstance(
+            new DefaultParameterizedType(null, MailQueueManager.class, SendMailQueueItem.class));
+        MailContentStore contentStore = this.mocker.getInstance(MailContentStore.class, "filesystem");
+        for (int i = 0; i < 10; i++) {
+            MimeMessage msg = new MimeMessage(session);
+            msg.setRecipients(RecipientType.TO, "john@doe.com");
+            msg.setText("Content" + i);
+            ExtendedMimeMessage message = new ExtendedMimeMessage(msg);
+            String id = message.getUniqueMessageId();
+            when(contentStore.load(session, batchId, id)).thenReturn(message);
+            mailQueueManager.addToQueue(new SendMailQueueItem(id, session, listener, batchId, "xwiki"));
+        }
+
+        MailRunnable runnable = this.mocker.getComponentUnderTest();
+        Thread thread = new Thread(runnable);
+        thread.start();
+
+        // Wait for the mails to have been processed.
+        try {
+            listener.getMailStatusResult().waitTillProcessed(10000L);
+        } finally {
+            runnable.stopProcessing();
+            thread.interrupt();
+            thread.join();
+        }
+
+        Iterator<MailStatus> statuses = listener.getMailStatusResult().getByState(MailState.SEND_SUCCESS);
+        int successCount = 0;
+        while (statuses.hasNext()) {
+            statuses.next();
+            successCount++;
+        }
+        assertEquals(10, successCount);
+        assertEquals(10, this.mail.getReceivedMessages().length);
+        assertEquals(0, listener.getMailStatusResult().getPendingMailCount());
+        assertTrue(listener.getMailStatusResult().getThroughput() > 0);
+    }
 }
@@ -33,6 +33,8 @@
  * component to resolve {@link DocumentReference} objects from their string representation. This implementation uses
  * fixed default values when parts of the Reference are missing in the string representation. Default values are
  * retrieved from the {@link org.xwiki.model.ModelConfiguration} class.
+ * <p>
+ * The document references resolved without parameters are cached since they don't depend on the context.
  * 
  * @version $Id$
  * @since 2.2M1
@@ -41,14 +43,37 @@
 @Singleton
 public class DefaultStringDocumentReferenceResolver implements DocumentReferenceResolver<String>
 {
+    /**
+     * The maximum number of cached document references.
+     */
+    private static final int CACHE_SIZE = 10000;
+
     /**
      * Default entity reference resolver used for resolution.
      */
     @Inject
     private EntityReferenceResolver<String> entityReferenceResolver;
 
+    private final ReferenceCache<String, DocumentReference> references = new ReferenceCache<>(CACHE_SIZE);
+
     @Override
     public DocumentReference resolve(String documentReferenceRepresentation, Object... parameters)
+    {
+        // Parameters can make the result depend on the caller
+        if (documentReferenceRepresentation == null || parameters.length > 0) {
+            return resolveDocumentReference(documentReferenceRepresentation, parameters);
+        }
+
+        DocumentReference reference = this.references.get(documentReferenceRepresentation);
+        if (reference == null) {
+            reference = this.references.put(documentReferenceRepresentation,
+                resolveDocumentReference(documentReferenceRepresentation));
+        }
+
+        return reference;
+    }
+
+    private DocumentReference resolveDocumentReference(String documentReferenceRepresentation, Object... parameters)
     {
         return new DocumentReference(this.entityReferenceResolver.resolve(documentReferenceRepresentation,
             EntityType.DOCUMENT, parameters));
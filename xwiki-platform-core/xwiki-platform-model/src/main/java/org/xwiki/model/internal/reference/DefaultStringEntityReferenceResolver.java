@@ -19,6 +19,9 @@
  */
 package org.xwiki.model.internal.reference;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -31,6 +34,9 @@
  * Generic implementation that resolve {@link org.xwiki.model.reference.EntityReference} objects from their string
  * representation. This implementation uses fixed default values when parts of the Reference are missing in the string
  * representation. Default values are retrieved from the {@link org.xwiki.model.ModelConfiguration} class.
+ * <p>
+ * Since the default values don't depend on the context, the references resolved without parameters are cached and
+ * their parents (wiki, spaces, etc.) are shared between the cached references.
  * 
  * @version $Id$
  * @since 2.2M1
@@ -39,12 +45,67 @@
 @Singleton
 public class DefaultStringEntityReferenceResolver extends AbstractStringEntityReferenceResolver
 {
+    /**
+     * The maximum number of references cached for each entity type.
+     */
+    private static final int CACHE_SIZE = 10000;
+
     /**
      * Entity reference value provider used to provide default value.
      */
     @Inject
     private EntityReferenceProvider provider;
 
+    private final Map<EntityType, ReferenceCache<String, EntityReference>> references = createCaches();
+
+    private final ReferenceCache<EntityReference, EntityReference> parents = new ReferenceCache<>(CACHE_SIZE);
+
+    private static Map<EntityType, ReferenceCache<String, EntityReference>> createCaches()
+    {
+        Map<EntityType, ReferenceCache<String, EntityReference>> caches = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            caches.put(type, new ReferenceCache<>(CACHE_SIZE));
+        }
+
+        return caches;
+    }
+
+    @Override
+    public EntityReference resolve(String entityReferenceRepresentation, EntityType type, Object... parameters)
+    {
+        // Parameters can make the result depend on the caller
+        if (entityReferenceRepresentation == null || type == null || parameters.length > 0) {
+            return super.resolve(entityReferenceRepresentation, type, parameters);
+        }
+
+        ReferenceCache<String, EntityReference> cache = this.references.get(type);
+
+        EntityReference reference = cache.get(entityReferenceRepresentation);
+        if (reference == null) {
+            reference = super.resolve(entityReferenceRepresentation, type);
+            if (reference != null) {
+                reference = cache.put(entityReferenceRepresentation, shareParents(reference));
+            }
+        }
+
+        return reference;
+    }
+
+    private EntityReference shareParents(EntityReference reference)
+    {
+        EntityReference parent = reference.getParent();
+        if (parent == null) {
+            return reference;
+        }
+
+        EntityReference sharedParent = this.parents.get(parent);
+        if (sharedParent == null) {
+            sharedParent = this.parents.put(parent, shareParents(parent));
+        }
+
+        return sharedParent == parent ? reference : new EntityReference(reference, sharedParent);
+    }
+
     @Override
     protected EntityReference getDefaultReference(EntityType type, Object... parameters)
     {
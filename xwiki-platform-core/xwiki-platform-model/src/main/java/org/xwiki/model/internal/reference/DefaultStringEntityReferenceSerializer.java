@@ -83,10 +83,15 @@ protected void serializeEntityReference(EntityReference currentReference, String
             }
         }
 
-        // Escape characters that require escaping for the current type
-        representation.append(StringUtils.replaceEach(currentReference.getName(),
-            getSymbolScheme().getSymbolsRequiringEscapes(currentType),
-            getSymbolScheme().getReplacementSymbols(currentType)));
+        // Escape characters that require escaping for the current type (most names don't have any)
+        String name = currentReference.getName();
+        String[] symbolsRequiringEscapes = getSymbolScheme().getSymbolsRequiringEscapes(currentType);
+        if (StringUtils.indexOfAny(name, symbolsRequiringEscapes) >= 0) {
+            representation.append(StringUtils.replaceEach(name, symbolsRequiringEscapes,
+                getSymbolScheme().getReplacementSymbols(currentType)));
+        } else {
+            representation.append(name);
+        }
     }
 
     protected SymbolScheme getSymbolScheme()
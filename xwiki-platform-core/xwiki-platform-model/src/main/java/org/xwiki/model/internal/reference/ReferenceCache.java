@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.model.internal.reference;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.collections.map.LRUMap;
+import org.xwiki.model.reference.EntityReference;
+
+/**
+ * Bounded map used to share immutable references between resolutions. The least recently used references are evicted
+ * when the maximum size is reached. The number of hits and misses is counted to check the efficiency of the cache.
+ *
+ * @param <K> the type of the keys
+ * @param <R> the type of the cached references
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public class ReferenceCache<K, R extends EntityReference>
+{
+    private final Map<K, R> references;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize the maximum number of references to keep
+     */
+    @SuppressWarnings("unchecked")
+    public ReferenceCache(int maxSize)
+    {
+        this.references = Collections.synchronizedMap(new LRUMap(maxSize));
+    }
+
+    /**
+     * @param key the key of the reference
+     * @return the cached reference or {@code null} if there is none
+     */
+    public R get(K key)
+    {
+        R reference = this.references.get(key);
+
+        if (reference != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+        }
+
+        return reference;
+    }
+
+    /**
+     * Cache the passed reference, unless another thread already cached one for the same key.
+     *
+     * @param key the key of the reference
+     * @param reference the reference to cache
+     * @return the reference now associated with the key
+     */
+    public R put(K key, R reference)
+    {
+        R existingReference = this.references.putIfAbsent(key, reference);
+
+        return existingReference != null ? existingReference : reference;
+    }
+
+    /**
+     * @return the number of references currently cached
+     */
+    public int size()
+    {
+        return this.references.size();
+    }
+
+    /**
+     * @return the number of calls to {@link #get(Object)} which found a reference
+     */
+    public long getHits()
+    {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link #get(Object)} which did not find a reference
+     */
+    public long getMisses()
+    {
+        return this.misses.sum();
+    }
+}
@@ -61,4 +61,14 @@ public void resolveWithExplicitDocumentReference()
         Assert.assertEquals("space", reference.getLastSpaceReference().getName());
         Assert.assertEquals("wiki", reference.getWikiReference().getName());
     }
+
+    @Test
+    public void resolveReusesCachedReferences()
+    {
+        DocumentReference reference = this.resolver.resolve("wiki:space.page");
+
+        Assert.assertEquals(new DocumentReference("wiki", "space", "page"), reference);
+        Assert.assertSame(reference, this.resolver.resolve("wiki:space.page"));
+        Assert.assertNotSame(reference, this.resolver.resolve("wiki:space.page", new DocumentReference("a", "b", "c")));
+    }
 }
@@ -489,4 +489,28 @@ public void testResolveWikiReference()
         reference = new WikiReference(resolver.resolve("dev\\:lab\\.uix", EntityType.WIKI));
         assertEquals("dev:lab.uix", reference.getName());
     }
+
+    @Test
+    public void resolveReusesCachedReferences()
+    {
+        EntityReference reference = resolver.resolve("wiki:space.page", EntityType.DOCUMENT);
+        assertSame(reference, resolver.resolve("wiki:space.page", EntityType.DOCUMENT));
+        assertEquals(new DocumentReference("wiki", "space", "page"), new DocumentReference(reference));
+
+        // The parents are shared between the cached references
+        EntityReference otherReference = resolver.resolve("wiki:space.other", EntityType.DOCUMENT);
+        assertSame(reference.getParent(), otherReference.getParent());
+        assertSame(reference.getParent().getParent(),
+            resolver.resolve("wiki:otherspace.page", EntityType.DOCUMENT).getParent().getParent());
+
+        // The same string resolved for another type is a different reference
+        assertEquals(EntityType.SPACE, resolver.resolve("wiki:space.page", EntityType.SPACE).getType());
+
+        // Resolutions with parameters are not cached
+        DocumentReference baseReference = new DocumentReference("math", "Theorems", "Pitagora");
+        assertEquals("math", resolver.resolve("space.page", EntityType.DOCUMENT, baseReference)
+            .extractReference(EntityType.WIKI).getName());
+        assertEquals(DEFAULT_WIKI,
+            resolver.resolve("space.page", EntityType.DOCUMENT).extractReference(EntityType.WIKI).getName());
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.model.internal.reference;
+
+import org.junit.Test;
+import org.xwiki.model.reference.WikiReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link ReferenceCache}.
+ *
+ * @version $Id$
+ */
+public class ReferenceCacheTest
+{
+    @Test
+    public void putKeepsTheFirstReference()
+    {
+        ReferenceCache<String, WikiReference> cache = new ReferenceCache<>(10);
+
+        WikiReference reference = new WikiReference("wiki");
+        assertSame(reference, cache.put("wiki", reference));
+        assertSame(reference, cache.put("wiki", new WikiReference("wiki")));
+        assertSame(reference, cache.get("wiki"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed()
+    {
+        ReferenceCache<String, WikiReference> cache = new ReferenceCache<>(2);
+
+        cache.put("wiki1", new WikiReference("wiki1"));
+        cache.put("wiki2", new WikiReference("wiki2"));
+        cache.get("wiki1");
+        cache.put("wiki3", new WikiReference("wiki3"));
+
+        assertEquals(2, cache.size());
+        assertEquals(new WikiReference("wiki1"), cache.get("wiki1"));
+        assertNull(cache.get("wiki2"));
+        assertEquals(new WikiReference("wiki3"), cache.get("wiki3"));
+
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void frequentlyUsedReferencesStayCachedWhenFull()
+    {
+        ReferenceCache<String, WikiReference> cache = new ReferenceCache<>(100);
+
+        // A few references resolved all the time mixed with many references resolved only once
+        long hotMisses = 0;
+        for (int i = 0; i < 10000; ++i) {
+            for (int j = 0; j < 10; ++j) {
+                String key = "hot" + j;
+                if (cache.get(key) == null) {
+                    cache.put(key, new WikiReference(key));
+                    ++hotMisses;
+                }
+            }
+
+            String key = "cold" + i;
+            if (cache.get(key) == null) {
+                cache.put(key, new WikiReference(key));
+            }
+        }
+
+        // Only the first resolution of each frequently used reference is a miss
+        assertEquals(10, hotMisses);
+        assertEquals(100, cache.size());
+        assertEquals(10000 * 10 - 10, cache.getHits());
+        assertEquals(10000 + 10, cache.getMisses());
+    }
+}
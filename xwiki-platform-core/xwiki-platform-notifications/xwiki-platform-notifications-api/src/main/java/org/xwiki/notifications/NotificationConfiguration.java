@@ -51,4 +51,13 @@
      * @since 9.6RC1
      */
     int liveNotificationsGraceTime();
+
+    /**
+     * Get the number of seconds during which the notifications computed for a user are kept in memory. If the value
+     * is 0, then the notifications are computed again each time they are requested.
+     *
+     * @return the number of seconds during which the notifications of a user are cached
+     * @since 10.0RC1
+     */
+    int eventsCacheLifespan();
 }
@@ -60,4 +60,12 @@ public int liveNotificationsGraceTime()
 
         return (graceTime < 0) ? 0 : graceTime;
     }
+
+    @Override
+    public int eventsCacheLifespan()
+    {
+        int lifespan = configurationSource.getProperty(CONFIGURATION_PREFIX + "eventsCache.lifespan", 300);
+
+        return (lifespan < 0) ? 0 : lifespan;
+    }
 }
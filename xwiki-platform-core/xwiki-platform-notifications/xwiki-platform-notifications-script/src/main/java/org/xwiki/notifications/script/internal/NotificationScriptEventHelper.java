@@ -37,6 +37,7 @@
 import org.xwiki.notifications.CompositeEventStatus;
 import org.xwiki.notifications.CompositeEventStatusManager;
 import org.xwiki.notifications.script.NotificationScriptService;
+import org.xwiki.notifications.sources.NotificationEventsCache;
 
 /**
  * Helper for event related operations on the {@link NotificationScriptService}.
@@ -61,6 +62,9 @@
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
+    @Inject
+    private NotificationEventsCache eventsCache;
+
     /**
      * Just as {@link NotificationScriptService#getEventStatuses(List)}, get the list of statuses concerning the given
      * events and the current user.
@@ -105,5 +109,8 @@ public void saveEventStatus(String eventId, boolean isRead) throws Exception
         event.setId(eventId);
         String userId = entityReferenceSerializer.serialize(documentAccessBridge.getCurrentUserReference());
         eventStatusManager.saveEventStatus(new DefaultEventStatus(event, userId, isRead));
+
+        // The unread notifications of the user have changed
+        eventsCache.remove(userId);
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources;
+
+import java.util.List;
+import java.util.Set;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.eventstream.Event;
+import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Keep in memory the last notifications computed for each user so that displaying the notification tray does not
+ * require to query and group the events again as long as nothing changed for the user.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Role
+@Unstable
+public interface NotificationEventsCache
+{
+    /**
+     * @param userId the serialized reference of the user
+     * @param key the parameters used to compute the notifications
+     * @return a copy of the cached notifications or {@code null} if they need to be computed
+     */
+    List<CompositeEvent> get(String userId, String key);
+
+    /**
+     * Indicate that the notifications of the passed user are about to be computed. Must be called before querying the
+     * events so that an event recorded while they are computed prevents caching outdated notifications.
+     *
+     * @param userId the serialized reference of the user
+     * @param eventTypes the types of the events the notifications are selected from or {@code null} if they might
+     *            include events of any type
+     * @return the stamp to pass to {@link #set(String, String, List, long)}
+     */
+    long prepare(String userId, Set<String> eventTypes);
+
+    /**
+     * @param userId the serialized reference of the user
+     * @param key the parameters used to compute the notifications
+     * @param events the notifications to cache, a copy is kept
+     * @param stamp the value returned by {@link #prepare(String, Set)} before computing the notifications, they are
+     *            not cached if the notifications of the user have been invalidated since then
+     */
+    void set(String userId, String key, List<CompositeEvent> events, long stamp);
+
+    /**
+     * Forget the notifications of the passed user.
+     *
+     * @param userId the serialized reference of the user
+     */
+    void remove(String userId);
+
+    /**
+     * Forget the notifications of the users who might receive the passed event: its targets when it has some, the
+     * users whose notifications can include events of its type otherwise.
+     *
+     * @param event the event added to or removed from the event stream
+     */
+    void remove(Event event);
+}
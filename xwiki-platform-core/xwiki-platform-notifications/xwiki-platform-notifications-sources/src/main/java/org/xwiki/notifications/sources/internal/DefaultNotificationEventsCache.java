@@ -0,0 +1,260 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.eventstream.Event;
+import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.notifications.NotificationConfiguration;
+import org.xwiki.notifications.sources.NotificationEventsCache;
+
+/**
+ * Default implementation of {@link NotificationEventsCache}.
+ * <p>
+ * The cached users are indexed by the types of events their notifications are selected from so that an event only
+ * invalidates the notifications of the users who might receive it. The index contains at most one entry per user and
+ * event type and the entries of a user are removed when its notifications leave the cache. Each invalidation of the
+ * notifications of a user changes its generation so that notifications computed in the meantime are not cached.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component
+@Singleton
+public class DefaultNotificationEventsCache
+    implements NotificationEventsCache, CacheEntryListener<Map<String, List<CompositeEvent>>>, Initializable,
+    Disposable
+{
+    private static final int CACHE_CAPACITY = 10000;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private NotificationConfiguration configuration;
+
+    /**
+     * The notifications of each user, indexed by the parameters used to compute them.
+     */
+    private Cache<Map<String, List<CompositeEvent>>> cache;
+
+    /**
+     * The users whose cached notifications might include events of a given type.
+     */
+    private final Map<String, Set<String>> usersByEventType = new ConcurrentHashMap<>();
+
+    /**
+     * The users whose cached notifications might include events of any type.
+     */
+    private final Set<String> usersForAnyEventType = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of times the notifications of each user have been invalidated.
+     */
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int lifespan = this.configuration.eventsCacheLifespan();
+
+        if (lifespan > 0) {
+            LRUCacheConfiguration cacheConfiguration =
+                new LRUCacheConfiguration("notifications.events", CACHE_CAPACITY);
+            cacheConfiguration.getLRUEvictionConfiguration().setLifespan(lifespan);
+
+            try {
+                this.cache = this.cacheManager.createNewCache(cacheConfiguration);
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the notifications cache", e);
+            }
+
+            this.cache.addCacheEntryListener(this);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    @Override
+    public List<CompositeEvent> get(String userId, String key)
+    {
+        if (this.cache != null && userId != null) {
+            Map<String, List<CompositeEvent>> userEvents = this.cache.get(userId);
+
+            if (userEvents != null) {
+                List<CompositeEvent> events = userEvents.get(key);
+
+                if (events != null) {
+                    // Composite events are mutable so never give access to the cached ones
+                    return copy(events);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public long prepare(String userId, Set<String> eventTypes)
+    {
+        if (this.cache != null && userId != null) {
+            // Index the user before its notifications are computed so that an event recorded in the meantime changes
+            // its generation
+            if (eventTypes == null) {
+                this.usersForAnyEventType.add(userId);
+            } else {
+                for (String eventType : eventTypes) {
+                    this.usersByEventType.computeIfAbsent(eventType, k -> ConcurrentHashMap.newKeySet())
+                        .add(userId);
+                }
+            }
+
+            return getGeneration(userId);
+        }
+
+        return 0;
+    }
+
+    @Override
+    public void set(String userId, String key, List<CompositeEvent> events, long stamp)
+    {
+        if (this.cache != null && userId != null && getGeneration(userId) == stamp) {
+            Map<String, List<CompositeEvent>> userEvents = this.cache.get(userId);
+
+            if (userEvents == null) {
+                userEvents = new ConcurrentHashMap<>();
+                this.cache.set(userId, userEvents);
+            }
+
+            userEvents.put(key, Collections.unmodifiableList(copy(events)));
+
+            // The notifications might have been invalidated before being stored
+            if (getGeneration(userId) != stamp) {
+                this.cache.remove(userId);
+            }
+        }
+    }
+
+    @Override
+    public void remove(String userId)
+    {
+        if (this.cache != null && userId != null) {
+            // Change the generation first so that the notifications being computed are not cached
+            this.generations.merge(userId, 1L, Long::sum);
+
+            this.cache.remove(userId);
+
+            // The user might have been prepared without its notifications being cached
+            unindex(userId);
+        }
+    }
+
+    @Override
+    public void remove(Event event)
+    {
+        if (this.cache != null) {
+            if (event.getTarget() != null && !event.getTarget().isEmpty()) {
+                // Only the targeted users can receive this event
+                for (String target : event.getTarget()) {
+                    remove(target);
+                }
+            } else {
+                Set<String> users = new HashSet<>(this.usersForAnyEventType);
+                Set<String> eventTypeUsers = this.usersByEventType.get(event.getType());
+                if (eventTypeUsers != null) {
+                    users.addAll(eventTypeUsers);
+                }
+
+                for (String user : users) {
+                    remove(user);
+                }
+            }
+        }
+    }
+
+    private long getGeneration(String userId)
+    {
+        return this.generations.getOrDefault(userId, 0L);
+    }
+
+    private void unindex(String userId)
+    {
+        this.usersForAnyEventType.remove(userId);
+        for (Set<String> users : this.usersByEventType.values()) {
+            users.remove(userId);
+        }
+    }
+
+    private List<CompositeEvent> copy(List<CompositeEvent> events)
+    {
+        return events.stream().map(CompositeEvent::new).collect(Collectors.toList());
+    }
+
+    @Override
+    public void cacheEntryAdded(CacheEntryEvent<Map<String, List<CompositeEvent>>> event)
+    {
+        // The user is indexed before its notifications are computed
+    }
+
+    @Override
+    public void cacheEntryRemoved(CacheEntryEvent<Map<String, List<CompositeEvent>>> event)
+    {
+        // Called both for invalidated and evicted entries
+        String userId = event.getEntry().getKey();
+
+        // Notifications being computed for the user are not indexed anymore and thus must not be cached
+        this.generations.merge(userId, 1L, Long::sum);
+
+        unindex(userId);
+    }
+
+    @Override
+    public void cacheEntryModified(CacheEntryEvent<Map<String, List<CompositeEvent>>> event)
+    {
+        // Nothing to do
+    }
+}
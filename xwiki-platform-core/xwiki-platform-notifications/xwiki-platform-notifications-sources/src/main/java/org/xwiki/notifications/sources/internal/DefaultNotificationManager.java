@@ -22,7 +22,9 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -40,9 +42,14 @@
 import org.xwiki.notifications.NotificationFormat;
 import org.xwiki.notifications.filters.NotificationFilter;
 import org.xwiki.notifications.filters.NotificationFilterManager;
+import org.xwiki.notifications.filters.NotificationFilterPreference;
+import org.xwiki.notifications.filters.NotificationFilterProperty;
+import org.xwiki.notifications.filters.NotificationFilterType;
 import org.xwiki.notifications.internal.SimilarityCalculator;
 import org.xwiki.notifications.preferences.NotificationPreference;
 import org.xwiki.notifications.preferences.NotificationPreferenceManager;
+import org.xwiki.notifications.preferences.NotificationPreferenceProperty;
+import org.xwiki.notifications.sources.NotificationEventsCache;
 import org.xwiki.notifications.sources.NotificationManager;
 import org.xwiki.query.Query;
 import org.xwiki.security.authorization.AuthorizationManager;
@@ -85,6 +92,9 @@ public class DefaultNotificationManager implements NotificationManager
     @Inject
     private EntityReferenceSerializer<String> entityReferenceSerializer;
 
+    @Inject
+    private NotificationEventsCache eventsCache;
+
     /**
      * For internal use, avoid to give more than 7 parameters to methods.
      */
@@ -118,7 +128,7 @@ public class DefaultNotificationManager implements NotificationManager
     public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int expectedCount)
             throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                     documentReferenceResolver.resolve(userId),
                     NotificationFormat.ALERT,
@@ -135,7 +145,7 @@ public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int exp
     public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int count, Date untilDate,
             List<String> blackList) throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                         documentReferenceResolver.resolve(userId),
                         NotificationFormat.ALERT,
@@ -152,7 +162,7 @@ public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int cou
     public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int expectedCount, Date untilDate,
             Date fromDate, List<String> blackList) throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                         documentReferenceResolver.resolve(userId),
                         NotificationFormat.ALERT,
@@ -169,7 +179,7 @@ public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int exp
     public List<CompositeEvent> getEvents(String userId, NotificationFormat format, boolean onlyUnread,
             int expectedCount, Date untilDate, Date fromDate, List<String> blackList) throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                         documentReferenceResolver.resolve(userId),
                         format,
@@ -187,7 +197,7 @@ public long getEventsCount(String userId, boolean onlyUnread, int maxCount) thro
     {
         DocumentReference user = documentReferenceResolver.resolve(userId);
 
-        List<CompositeEvent> events = getEvents(new ArrayList<>(),
+        List<CompositeEvent> events = getEvents(
                 new Parameters(
                         user,
                         NotificationFormat.ALERT,
@@ -202,6 +212,67 @@ public long getEventsCount(String userId, boolean onlyUnread, int maxCount) thro
         return events.size();
     }
 
+    private List<CompositeEvent> getEvents(Parameters parameters) throws NotificationException
+    {
+        // Only the most recent notifications (i.e. what the notification tray displays) are cached
+        boolean cacheable =
+            parameters.endDate == null && parameters.fromDate == null && parameters.blackList.isEmpty();
+
+        String cacheKey = null;
+        long cacheStamp = 0;
+        if (cacheable) {
+            cacheKey = String.format("%s/%s/%s", parameters.format, parameters.onlyUnread, parameters.expectedCount);
+
+            List<CompositeEvent> cachedEvents = this.eventsCache.get(parameters.userId, cacheKey);
+            if (cachedEvents != null) {
+                return cachedEvents;
+            }
+
+            // Must be done before querying the events so that the events recorded in the meantime are not missed
+            cacheStamp = this.eventsCache.prepare(parameters.userId, getEventTypes(parameters));
+        }
+
+        List<CompositeEvent> events = getEvents(new ArrayList<>(), parameters);
+
+        if (cacheable) {
+            this.eventsCache.set(parameters.userId, cacheKey, events, cacheStamp);
+        }
+
+        return events;
+    }
+
+    /**
+     * @param parameters the parameters used to compute the notifications
+     * @return the types of the events the notifications of the user are selected from, {@code null} if they might be
+     *         of any type
+     */
+    private Set<String> getEventTypes(Parameters parameters) throws NotificationException
+    {
+        Set<String> eventTypes = new HashSet<>();
+
+        for (NotificationPreference preference : this.notificationPreferenceManager
+            .getPreferences(parameters.userReference, true, parameters.format)) {
+            Object eventType = preference.getProperties().get(NotificationPreferenceProperty.EVENT_TYPE);
+            if (eventType != null) {
+                eventTypes.add((String) eventType);
+            }
+        }
+
+        // Inclusive filters can select events which are not enabled in the preferences
+        for (NotificationFilterPreference filterPreference : this.notificationFilterManager
+            .getFilterPreferences(parameters.userReference)) {
+            if (filterPreference.isActive() && filterPreference.getFilterType() == NotificationFilterType.INCLUSIVE) {
+                List<String> filterEventTypes = filterPreference.getProperties(NotificationFilterProperty.EVENT_TYPE);
+                if (filterEventTypes == null || filterEventTypes.isEmpty()) {
+                    return null;
+                }
+                eventTypes.addAll(filterEventTypes);
+            }
+        }
+
+        return eventTypes;
+    }
+
     private List<CompositeEvent> getEvents(List<CompositeEvent> results, Parameters parameters)
             throws NotificationException
     {
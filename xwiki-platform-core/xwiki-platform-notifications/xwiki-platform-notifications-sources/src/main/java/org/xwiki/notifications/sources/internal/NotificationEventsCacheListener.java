@@ -0,0 +1,85 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.eventstream.events.EventStreamAddedEvent;
+import org.xwiki.eventstream.events.EventStreamDeletedEvent;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.notifications.sources.NotificationEventsCache;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+
+/**
+ * Invalidate the notifications cached by {@link NotificationEventsCache} when they might have changed.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component
+@Singleton
+@Named(NotificationEventsCacheListener.NAME)
+public class NotificationEventsCacheListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "NotificationEventsCacheListener";
+
+    private static final List<Event> EVENTS = Arrays.<Event>asList(new EventStreamAddedEvent(),
+        new EventStreamDeletedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent());
+
+    @Inject
+    private NotificationEventsCache cache;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    /**
+     * Default constructor.
+     */
+    public NotificationEventsCacheListener()
+    {
+        super(NAME, EVENTS);
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof EventStreamAddedEvent || event instanceof EventStreamDeletedEvent) {
+            this.cache.remove((org.xwiki.eventstream.Event) source);
+        } else {
+            // The notification preferences of a user are stored in the user profile
+            DocumentModelBridge document = (DocumentModelBridge) source;
+
+            this.cache.remove(this.serializer.serialize(document.getDocumentReference()));
+        }
+    }
+}
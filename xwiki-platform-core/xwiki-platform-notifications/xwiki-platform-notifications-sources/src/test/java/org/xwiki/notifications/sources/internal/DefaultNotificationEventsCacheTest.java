@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheEntry;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.eventstream.Event;
+import org.xwiki.notifications.CompositeEvent;
+import org.xwiki.notifications.NotificationConfiguration;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DefaultNotificationEventsCache}.
+ *
+ * @version $Id$
+ */
+public class DefaultNotificationEventsCacheTest
+{
+    @Rule
+    public final MockitoComponentMockingRule<DefaultNotificationEventsCache> mocker =
+        new MockitoComponentMockingRule<>(DefaultNotificationEventsCache.class);
+
+    private final Map<String, Map<String, List<CompositeEvent>>> cacheContent = new HashMap<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() throws Exception
+    {
+        NotificationConfiguration configuration = this.mocker.getInstance(NotificationConfiguration.class);
+        when(configuration.eventsCacheLifespan()).thenReturn(300);
+
+        // Simulate a cache which notifies its listener when an entry is removed
+        Cache<Map<String, List<CompositeEvent>>> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> this.cacheContent.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheContent.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(cache).set(anyString(), any());
+        doAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            if (this.cacheContent.remove(key) != null) {
+                CacheEntry<Map<String, List<CompositeEvent>>> entry = mock(CacheEntry.class);
+                when(entry.getKey()).thenReturn(key);
+                CacheEntryEvent<Map<String, List<CompositeEvent>>> event = mock(CacheEntryEvent.class);
+                when(event.getEntry()).thenReturn(entry);
+                this.mocker.getComponentUnderTest().cacheEntryRemoved(event);
+            }
+            return null;
+        }).when(cache).remove(anyString());
+
+        CacheManager cacheManager = this.mocker.getInstance(CacheManager.class);
+        when(cacheManager.<Map<String, List<CompositeEvent>>>createNewCache(any(CacheConfiguration.class)))
+            .thenReturn(cache);
+    }
+
+    private Event mockEvent(String type, String... targets)
+    {
+        Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getDate()).thenReturn(new Date());
+        when(event.getTarget()).thenReturn(new HashSet<>(Arrays.asList(targets)));
+        return event;
+    }
+
+    private void cache(String userId, List<CompositeEvent> events, Set<String> eventTypes) throws Exception
+    {
+        DefaultNotificationEventsCache eventsCache = this.mocker.getComponentUnderTest();
+        eventsCache.set(userId, "key", events, eventsCache.prepare(userId, eventTypes));
+    }
+
+    @Test
+    public void getReturnsCopies() throws Exception
+    {
+        CompositeEvent compositeEvent = new CompositeEvent(mockEvent("create"));
+        cache("userA", Arrays.asList(compositeEvent), Collections.singleton("create"));
+
+        // Modifying the provided events does not modify the cache
+        compositeEvent.add(mockEvent("create"), 1);
+
+        List<CompositeEvent> events = this.mocker.getComponentUnderTest().get("userA", "key");
+        assertEquals(1, events.size());
+        assertNotSame(compositeEvent, events.get(0));
+        assertEquals(1, events.get(0).getEvents().size());
+
+        // Modifying the returned events does not modify the cache either
+        events.get(0).add(mockEvent("create"), 1);
+        events.clear();
+
+        events = this.mocker.getComponentUnderTest().get("userA", "key");
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).getEvents().size());
+
+        assertNull(this.mocker.getComponentUnderTest().get("userA", "otherKey"));
+        assertNull(this.mocker.getComponentUnderTest().get("userB", "key"));
+    }
+
+    @Test
+    public void removeEventInvalidatesUsersOfTheEventType() throws Exception
+    {
+        DefaultNotificationEventsCache eventsCache = this.mocker.getComponentUnderTest();
+        List<CompositeEvent> events = Collections.emptyList();
+        cache("userA", events, Collections.singleton("create"));
+        cache("userB", events, Collections.singleton("update"));
+        cache("userC", events, null);
+
+        // Only the users who might receive an event of that type are invalidated
+        eventsCache.remove(mockEvent("delete"));
+
+        assertNotNull(eventsCache.get("userA", "key"));
+        assertNotNull(eventsCache.get("userB", "key"));
+        assertNull(eventsCache.get("userC", "key"));
+
+        eventsCache.remove(mockEvent("create"));
+
+        assertNull(eventsCache.get("userA", "key"));
+        assertNotNull(eventsCache.get("userB", "key"));
+
+        // Removed users are not indexed anymore
+        cache("userA", events, Collections.singleton("update"));
+        eventsCache.remove(mockEvent("create"));
+
+        assertNotNull(eventsCache.get("userA", "key"));
+    }
+
+    @Test
+    public void removeTargetedEventInvalidatesTargets() throws Exception
+    {
+        DefaultNotificationEventsCache eventsCache = this.mocker.getComponentUnderTest();
+        List<CompositeEvent> events = Collections.emptyList();
+        cache("userA", events, Collections.singleton("create"));
+        cache("userB", events, Collections.singleton("create"));
+        cache("userC", events, null);
+
+        eventsCache.remove(mockEvent("create", "userA"));
+
+        assertNull(eventsCache.get("userA", "key"));
+        assertNotNull(eventsCache.get("userB", "key"));
+        assertNotNull(eventsCache.get("userC", "key"));
+    }
+
+    @Test
+    public void setIgnoresNotificationsInvalidatedWhileComputed() throws Exception
+    {
+        DefaultNotificationEventsCache eventsCache = this.mocker.getComponentUnderTest();
+        List<CompositeEvent> events = Collections.emptyList();
+
+        // An event of the type the notifications are selected from is recorded while they are computed
+        long stamp = eventsCache.prepare("userA", Collections.singleton("create"));
+        eventsCache.remove(mockEvent("create"));
+        eventsCache.set("userA", "key", events, stamp);
+
+        assertNull(eventsCache.get("userA", "key"));
+
+        // An event of another type does not prevent caching the notifications
+        stamp = eventsCache.prepare("userA", Collections.singleton("create"));
+        eventsCache.remove(mockEvent("update"));
+        eventsCache.set("userA", "key", events, stamp);
+
+        assertNotNull(eventsCache.get("userA", "key"));
+
+        // Same for an event targeting the user
+        stamp = eventsCache.prepare("userB", null);
+        eventsCache.remove(mockEvent("update", "userB"));
+        eventsCache.set("userB", "key", events, stamp);
+
+        assertNull(eventsCache.get("userB", "key"));
+    }
+}
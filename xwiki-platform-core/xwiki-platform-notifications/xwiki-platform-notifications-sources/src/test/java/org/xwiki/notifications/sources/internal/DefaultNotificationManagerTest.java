@@ -27,11 +27,13 @@
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.eventstream.Event;
 import org.xwiki.eventstream.EventStream;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.notifications.CompositeEvent;
 import org.xwiki.notifications.NotificationException;
 import org.xwiki.notifications.NotificationFormat;
@@ -39,6 +41,7 @@
 import org.xwiki.notifications.preferences.NotificationPreference;
 import org.xwiki.notifications.preferences.NotificationPreferenceManager;
 import org.xwiki.notifications.preferences.NotificationPreferenceProperty;
+import org.xwiki.notifications.sources.NotificationEventsCache;
 import org.xwiki.query.Query;
 import org.xwiki.security.authorization.AuthorizationManager;
 import org.xwiki.security.authorization.Right;
@@ -50,10 +53,13 @@
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -143,6 +149,51 @@ public void getEventsWith2Queries() throws Exception
         assertEquals(event5, results.get(1).getEvents().get(0));
     }
 
+    @Test
+    public void getEventsFromCache() throws Exception
+    {
+        EntityReferenceSerializer<String> serializer = mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(userReference)).thenReturn("xwiki:XWiki.UserA");
+        NotificationEventsCache eventsCache = mocker.getInstance(NotificationEventsCache.class);
+
+        CompositeEvent compositeEvent = new CompositeEvent(createMockedEvent());
+        when(eventsCache.get("xwiki:XWiki.UserA", "ALERT/true/2")).thenReturn(Arrays.asList(compositeEvent));
+
+        List<CompositeEvent> results = mocker.getComponentUnderTest().getEvents("xwiki:XWiki.UserA", true, 2);
+
+        assertEquals(Arrays.asList(compositeEvent), results);
+        verifyZeroInteractions(eventStream);
+    }
+
+    @Test
+    public void getEventsFillsCache() throws Exception
+    {
+        EntityReferenceSerializer<String> serializer = mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(userReference)).thenReturn("xwiki:XWiki.UserA");
+        NotificationEventsCache eventsCache = mocker.getInstance(NotificationEventsCache.class);
+
+        Event event1 = createMockedEvent();
+        when(event1.getType()).thenReturn("type1");
+        when(eventStream.searchEvents(query)).thenReturn(Arrays.asList(event1));
+
+        when(eventsCache.prepare(eq("xwiki:XWiki.UserA"), any())).thenReturn(42L);
+
+        List<CompositeEvent> results = mocker.getComponentUnderTest().getEvents("xwiki:XWiki.UserA", true, 2);
+
+        assertEquals(1, results.size());
+        // The cache is prepared before the events are queried
+        InOrder inOrder = inOrder(eventsCache, eventStream);
+        inOrder.verify(eventsCache).prepare(eq("xwiki:XWiki.UserA"), any());
+        inOrder.verify(eventStream).searchEvents(query);
+        inOrder.verify(eventsCache).set("xwiki:XWiki.UserA", "ALERT/true/2", results, 42L);
+
+        // Events older than a given date are not cached
+        mocker.getComponentUnderTest().getEvents("xwiki:XWiki.UserA", true, 2, new Date(), Collections.emptyList());
+
+        verify(eventsCache).prepare(any(), any());
+        verify(eventsCache).set(any(), any(), any(), anyLong());
+    }
+
     private Event createMockedEvent()
     {
         Event event = mock(Event.class);
@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.bridge.DocumentModelBridge;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.eventstream.Event;
+import org.xwiki.eventstream.events.EventStreamAddedEvent;
+import org.xwiki.eventstream.events.EventStreamDeletedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.notifications.sources.NotificationEventsCache;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link NotificationEventsCacheListener}.
+ *
+ * @version $Id$
+ */
+public class NotificationEventsCacheListenerTest
+{
+    @Rule
+    public final MockitoComponentMockingRule<NotificationEventsCacheListener> mocker =
+        new MockitoComponentMockingRule<>(NotificationEventsCacheListener.class);
+
+    @Test
+    public void onEventStreamAddedEvent() throws Exception
+    {
+        Event event = mock(Event.class);
+
+        this.mocker.getComponentUnderTest().onEvent(new EventStreamAddedEvent(), event, null);
+
+        NotificationEventsCache cache = this.mocker.getInstance(NotificationEventsCache.class);
+        verify(cache).remove(event);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    public void onEventStreamDeletedEvent() throws Exception
+    {
+        Event event = mock(Event.class);
+
+        this.mocker.getComponentUnderTest().onEvent(new EventStreamDeletedEvent(), event, null);
+
+        NotificationEventsCache cache = this.mocker.getInstance(NotificationEventsCache.class);
+        verify(cache).remove(event);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    public void onDocumentUpdated() throws Exception
+    {
+        DocumentReference userReference = new DocumentReference("xwiki", "XWiki", "UserA");
+        DocumentModelBridge document = mock(DocumentModelBridge.class);
+        when(document.getDocumentReference()).thenReturn(userReference);
+        EntityReferenceSerializer<String> serializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(userReference)).thenReturn("xwiki:XWiki.UserA");
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(userReference), document, null);
+
+        NotificationEventsCache cache = this.mocker.getInstance(NotificationEventsCache.class);
+        verify(cache).remove("xwiki:XWiki.UserA");
+        verifyNoMoreInteractions(cache);
+    }
+}
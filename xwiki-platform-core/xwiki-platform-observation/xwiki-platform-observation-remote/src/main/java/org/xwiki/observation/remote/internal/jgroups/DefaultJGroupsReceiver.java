@@ -19,6 +19,8 @@
  */
 package org.xwiki.observation.remote.internal.jgroups;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -79,10 +81,33 @@ public RemoteObservationManager getRemoteObservationManager()
     @Override
     public void receive(Message msg)
     {
-        RemoteEventData remoteEvent = (RemoteEventData) msg.getObject();
+        if (RemoteEventDataBatch.isBatch(msg.getRawBuffer(), msg.getOffset(), msg.getLength())) {
+            receiveBatch(msg);
+        } else {
+            RemoteEventData remoteEvent = (RemoteEventData) msg.getObject();
+
+            this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
+
+            getRemoteObservationManager().notify(remoteEvent);
+        }
+    }
+
+    private void receiveBatch(Message msg)
+    {
+        List<RemoteEventData> remoteEvents;
+        try {
+            remoteEvents = RemoteEventDataBatch.decode(msg.getRawBuffer(), msg.getOffset(), msg.getLength());
+        } catch (Exception e) {
+            this.logger.error("Failed to read a batch of remote events received from [{}]", msg.getSrc(), e);
 
-        this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
+            return;
+        }
 
-        getRemoteObservationManager().notify(remoteEvent);
+        this.logger.debug("Received a batch of [{}] JGroups remote events", remoteEvents.size());
+
+        // Don't notify several times in a row the same event (several invalidations of the same document for example)
+        for (RemoteEventData remoteEvent : RemoteEventDataBatch.collapse(remoteEvents)) {
+            getRemoteObservationManager().notify(remoteEvent);
+        }
     }
 }
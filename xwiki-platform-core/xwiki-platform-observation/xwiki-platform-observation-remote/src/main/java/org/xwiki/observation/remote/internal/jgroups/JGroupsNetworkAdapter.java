@@ -23,8 +23,13 @@
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -42,6 +47,10 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.environment.Environment;
 import org.xwiki.observation.remote.NetworkAdapter;
 import org.xwiki.observation.remote.RemoteEventData;
@@ -50,6 +59,10 @@
 
 /**
  * JGroups based implementation of {@link NetworkAdapter}.
+ * <p>
+ * When {@value #CONFIGURATION_BATCH_MAXEVENTS} is greater than 1, the events are not sent right away but gathered and
+ * sent in a single message when the configured number of events is reached or when the configured delay elapsed since
+ * the first event of the batch (see {@link RemoteEventDataBatch}).
  *
  * @version $Id$
  * @since 2.0RC1
@@ -57,13 +70,35 @@
 @Component
 @Named("jgroups")
 @Singleton
-public class JGroupsNetworkAdapter implements NetworkAdapter
+public class JGroupsNetworkAdapter implements NetworkAdapter, Initializable, Disposable
 {
     /**
      * Relative path where to find jgroups channels configurations.
      */
     public static final String CONFIGURATION_PATH = "observation/remote/jgroups/";
 
+    /**
+     * The name of the property containing the maximum number of events to send in a single message.
+     *
+     * @since 10.0RC1
+     */
+    public static final String CONFIGURATION_BATCH_MAXEVENTS = "observation.remote.jgroups.batch.maxEvents";
+
+    /**
+     * The name of the property containing the maximum time to wait for other events before sending a batch, in
+     * milliseconds.
+     *
+     * @since 10.0RC1
+     */
+    public static final String CONFIGURATION_BATCH_MAXDELAY = "observation.remote.jgroups.batch.maxDelay";
+
+    /**
+     * The name of the property indicating if the batches should be compressed.
+     *
+     * @since 10.0RC1
+     */
+    public static final String CONFIGURATION_BATCH_COMPRESS = "observation.remote.jgroups.batch.compress";
+
     /**
      * Used to lookup the receiver corresponding to the channel identifier.
      */
@@ -76,26 +111,138 @@ public class JGroupsNetworkAdapter implements NetworkAdapter
     @Inject
     private Logger logger;
 
+    /**
+     * Used to read the batch configuration.
+     */
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configurationSource;
+
     /**
      * The network channels.
      */
     private Map<String, JChannel> channels = new ConcurrentHashMap<String, JChannel>();
 
+    /**
+     * The maximum number of events to send in a single message.
+     */
+    private int batchMaxEvents;
+
+    /**
+     * The maximum time to wait for other events before sending a batch, in milliseconds.
+     */
+    private long batchMaxDelay;
+
+    /**
+     * True if the batches should be compressed.
+     */
+    private boolean batchCompress;
+
+    /**
+     * The events waiting to be sent.
+     */
+    private List<RemoteEventData> batch = new ArrayList<>();
+
+    /**
+     * Make sure the batches are sent one at a time and in the order they have been filled.
+     */
+    private final Object batchSendLock = new Object();
+
+    /**
+     * Used to send a batch when the maximum delay elapsed.
+     */
+    private ScheduledExecutorService batchExecutor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.batchMaxEvents = this.configurationSource.getProperty(CONFIGURATION_BATCH_MAXEVENTS, 1);
+        this.batchMaxDelay = this.configurationSource.getProperty(CONFIGURATION_BATCH_MAXDELAY, 100L);
+        this.batchCompress = this.configurationSource.getProperty(CONFIGURATION_BATCH_COMPRESS, true);
+
+        if (this.batchMaxEvents > 1) {
+            this.batchExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "JGroups remote events batch sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        if (this.batchExecutor != null) {
+            flush();
+            this.batchExecutor.shutdownNow();
+        }
+    }
+
     @Override
     public void send(RemoteEventData remoteEvent)
     {
         this.logger.debug("Send JGroups remote event [" + remoteEvent + "]");
 
-        // Send the message to the whole group
-        Message message = new Message(null, remoteEvent);
+        if (this.batchExecutor != null) {
+            addToBatch(remoteEvent);
+        } else {
+            // Send the message to the whole group
+            send(new Message(null, remoteEvent), remoteEvent);
+        }
+    }
+
+    private void addToBatch(RemoteEventData remoteEvent)
+    {
+        boolean full;
+        synchronized (this) {
+            this.batch.add(remoteEvent);
+            full = this.batch.size() >= this.batchMaxEvents;
+            if (!full && this.batch.size() == 1) {
+                // First event of the batch: make sure it's not going to wait more than the maximum delay
+                this.batchExecutor.schedule(this::flush, this.batchMaxDelay, TimeUnit.MILLISECONDS);
+            }
+        }
 
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Send the events waiting in the current batch.
+     */
+    private void flush()
+    {
+        // Taking, encoding and sending the batch must not be interleaved with another flush (from the sender thread or
+        // from a full batch in the thread of the event), otherwise the batches could be received out of order
+        synchronized (this.batchSendLock) {
+            List<RemoteEventData> events;
+            synchronized (this) {
+                if (this.batch.isEmpty()) {
+                    return;
+                }
+                events = this.batch;
+                this.batch = new ArrayList<>();
+            }
+
+            try {
+                byte[] buffer = RemoteEventDataBatch.encode(events, this.batchCompress);
+                send(new Message(null, buffer), events);
+            } catch (Exception e) {
+                this.logger.error("Failed to serialize a batch of [{}] remote events", events.size(), e);
+            }
+        }
+    }
+
+    private void send(Message message, Object remoteEvents)
+    {
         // Send message to JGroups channels
         for (Map.Entry<String, JChannel> entry : this.channels.entrySet()) {
             try {
                 entry.getValue().send(message);
             } catch (Exception e) {
                 this.logger
-                    .error("Failed to send message [" + remoteEvent + "] to the channel [" + entry.getKey() + "]", e);
+                    .error("Failed to send message [" + remoteEvents + "] to the channel [" + entry.getKey() + "]", e);
             }
         }
     }
@@ -137,6 +284,9 @@ public void stopChannel(String channelId) throws RemoteEventException
             throw new RemoteEventException(MessageFormat.format("Channel [{0}] is not started", channelId));
         }
 
+        // Make sure the pending events are sent before closing the channel
+        flush();
+
         channel.close();
 
         this.channels.remove(channelId);
@@ -218,6 +368,9 @@ private ProtocolStackConfigurator loadChannelConfiguration(String channelId) thr
     @Override
     public void stopAllChannels() throws RemoteEventException
     {
+        // Make sure the pending events are sent before closing the channels
+        flush();
+
         for (Map.Entry<String, JChannel> channelEntry : this.channels.entrySet()) {
             channelEntry.getValue().close();
         }
@@ -0,0 +1,156 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.xwiki.observation.remote.RemoteEventData;
+
+/**
+ * Encode and decode several {@link RemoteEventData} sent in a single network message.
+ * <p>
+ * A batch starts with a marker followed by a flag indicating if the rest of the message is compressed, the number of
+ * events and the event, source and data of each event. All the events are written in the same object stream so that
+ * the descriptions of the classes and the objects shared by several events are written only once.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public final class RemoteEventDataBatch
+{
+    /**
+     * The marker indicating a batch of events. It can't be mixed up with the type identifier JGroups writes at the
+     * beginning of a serialized object.
+     */
+    private static final byte[] MARKER = { 'X', 'R', 'E', 'B' };
+
+    private static final int COMPRESSED = 1;
+
+    private RemoteEventDataBatch()
+    {
+        // Utility class
+    }
+
+    /**
+     * @param events the events to encode
+     * @param compress true if the events should be compressed
+     * @return the encoded events
+     * @throws IOException when failing to serialize the events
+     */
+    public static byte[] encode(List<RemoteEventData> events, boolean compress) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(MARKER);
+        bytes.write(compress ? COMPRESSED : 0);
+
+        OutputStream stream = compress ? new DeflaterOutputStream(bytes) : bytes;
+        try (ObjectOutputStream out = new ObjectOutputStream(stream)) {
+            out.writeInt(events.size());
+            for (RemoteEventData event : events) {
+                out.writeObject(event.getEvent());
+                out.writeObject(event.getSource());
+                out.writeObject(event.getData());
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param buffer the message buffer
+     * @param offset the offset of the message in the buffer
+     * @param length the length of the message
+     * @return true if the message contains a batch of events
+     */
+    public static boolean isBatch(byte[] buffer, int offset, int length)
+    {
+        return buffer != null && length > MARKER.length
+            && Arrays.equals(MARKER, Arrays.copyOfRange(buffer, offset, offset + MARKER.length));
+    }
+
+    /**
+     * @param buffer the message buffer
+     * @param offset the offset of the message in the buffer
+     * @param length the length of the message
+     * @return the decoded events
+     * @throws IOException when failing to deserialize the events
+     * @throws ClassNotFoundException when the class of a serialized object cannot be found
+     */
+    public static List<RemoteEventData> decode(byte[] buffer, int offset, int length)
+        throws IOException, ClassNotFoundException
+    {
+        int start = offset + MARKER.length;
+        InputStream stream = new ByteArrayInputStream(buffer, start + 1, length - MARKER.length - 1);
+        if (buffer[start] == COMPRESSED) {
+            stream = new InflaterInputStream(stream);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(stream)) {
+            int size = in.readInt();
+            List<RemoteEventData> events = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                RemoteEventData event = new RemoteEventData();
+                event.setEvent((Serializable) in.readObject());
+                event.setSource((Serializable) in.readObject());
+                event.setData((Serializable) in.readObject());
+                events.add(event);
+            }
+
+            return events;
+        }
+    }
+
+    /**
+     * Remove the events which are repeated in a row in the passed list (same event, source and data), typically several
+     * invalidations of the same document. Events which are not adjacent are all kept since the listeners might depend
+     * on the order of the events (e.g. A, B, A is not equivalent to A, B).
+     *
+     * @param events the events to filter
+     * @return the events without consecutive repetitions, in the same order
+     */
+    public static List<RemoteEventData> collapse(List<RemoteEventData> events)
+    {
+        List<RemoteEventData> result = new ArrayList<>(events.size());
+        RemoteEventData previous = null;
+        for (RemoteEventData event : events) {
+            if (previous == null || !Objects.equals(event.getEvent(), previous.getEvent())
+                || !Objects.equals(event.getSource(), previous.getSource())
+                || !Objects.equals(event.getData(), previous.getData())) {
+                result.add(event);
+            }
+            previous = event;
+        }
+
+        return result;
+    }
+}
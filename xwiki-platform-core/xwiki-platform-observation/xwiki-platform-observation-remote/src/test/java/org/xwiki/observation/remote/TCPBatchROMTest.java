@@ -0,0 +1,143 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.Description;
+import org.jmock.Expectations;
+import org.jmock.Sequence;
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.remote.internal.jgroups.JGroupsNetworkAdapter;
+import org.xwiki.observation.remote.test.AbstractROMTestCase;
+import org.xwiki.observation.remote.test.TestEvent;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validate sending remote events in batches.
+ *
+ * @version $Id$
+ */
+public class TCPBatchROMTest extends AbstractROMTestCase
+{
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        System.setProperty("jgroups.bind_addr", "localhost");
+
+        getConfigurationSource1().setProperty("observation.remote.channels", Arrays.asList("tcp"));
+        getConfigurationSource1().setProperty(JGroupsNetworkAdapter.CONFIGURATION_BATCH_MAXEVENTS, 10);
+        getConfigurationSource1().setProperty(JGroupsNetworkAdapter.CONFIGURATION_BATCH_MAXDELAY, 500L);
+        RemoteObservationManager rom = getComponentManager2().getInstance(RemoteObservationManager.class);
+        rom.startChannel("tcp");
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        this.mockery.assertIsSatisfied();
+    }
+
+    /**
+     * Count down the passed latch when invoked.
+     */
+    private static final class CountDownAction implements Action
+    {
+        private final CountDownLatch latch;
+
+        CountDownAction(CountDownLatch latch)
+        {
+            this.latch = latch;
+        }
+
+        @Override
+        public Object invoke(Invocation invocation)
+        {
+            this.latch.countDown();
+
+            return null;
+        }
+
+        @Override
+        public void describeTo(Description description)
+        {
+            description.appendText("count down");
+        }
+    }
+
+    @Test
+    public void testBatchedEvents() throws InterruptedException
+    {
+        final EventListener localListener = this.mockery.mock(EventListener.class, "local");
+        final EventListener remoteListener = this.mockery.mock(EventListener.class, "remote");
+
+        final TestEvent event = new TestEvent();
+
+        final CountDownLatch received = new CountDownLatch(3);
+        final Sequence remoteSequence = this.mockery.sequence("remote");
+
+        this.mockery.checking(new Expectations()
+        {{
+                allowing(localListener).getName();
+                will(returnValue("mylistener"));
+                allowing(remoteListener).getName();
+                will(returnValue("mylistener"));
+                allowing(localListener).getEvents();
+                will(returnValue(Arrays.asList(event)));
+                allowing(remoteListener).getEvents();
+                will(returnValue(Arrays.asList(event)));
+                exactly(3).of(localListener).onEvent(with(same(event)), with(equal("source1")), with(equal("data")));
+                oneOf(localListener).onEvent(with(same(event)), with(equal("source2")), with(equal("data")));
+                // The same event sent several times in a row in the same batch is received only once, and the
+                // order of the events is kept
+                oneOf(remoteListener).onEvent(with(equal(event)), with(equal("source1")), with(equal("data")));
+                inSequence(remoteSequence);
+                will(new CountDownAction(received));
+                oneOf(remoteListener).onEvent(with(equal(event)), with(equal("source2")), with(equal("data")));
+                inSequence(remoteSequence);
+                will(new CountDownAction(received));
+                oneOf(remoteListener).onEvent(with(equal(event)), with(equal("source1")), with(equal("data")));
+                inSequence(remoteSequence);
+                will(new CountDownAction(received));
+            }});
+
+        getObservationManager1().addListener(localListener);
+        getObservationManager2().addListener(remoteListener);
+
+        getObservationManager1().notify(event, "source1", "data");
+        getObservationManager1().notify(event, "source2", "data");
+        getObservationManager1().notify(event, "source1", "data");
+        getObservationManager1().notify(event, "source1", "data");
+
+        // Wait for the batch to be sent after the maximum delay and received
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.xwiki.observation.remote.RemoteEventData;
+import org.xwiki.observation.remote.test.TestEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validate {@link RemoteEventDataBatch}.
+ *
+ * @version $Id$
+ */
+public class RemoteEventDataBatchTest
+{
+    private RemoteEventData event(Serializable source)
+    {
+        RemoteEventData event = new RemoteEventData();
+        event.setEvent(new TestEvent());
+        event.setSource(source);
+        event.setData("data");
+
+        return event;
+    }
+
+    @Test
+    public void encodeAndDecode() throws Exception
+    {
+        for (boolean compress : Arrays.asList(true, false)) {
+            byte[] buffer = RemoteEventDataBatch.encode(Arrays.asList(event("source1"), event("source2")), compress);
+
+            assertTrue(RemoteEventDataBatch.isBatch(buffer, 0, buffer.length));
+
+            List<RemoteEventData> events = RemoteEventDataBatch.decode(buffer, 0, buffer.length);
+
+            assertEquals(2, events.size());
+            assertEquals("source1", events.get(0).getSource());
+            assertEquals("source2", events.get(1).getSource());
+            assertEquals("data", events.get(1).getData());
+        }
+
+        assertFalse(RemoteEventDataBatch.isBatch(new byte[] { 1, 2, 3 }, 0, 3));
+    }
+
+    @Test
+    public void collapseKeepsTheOrder()
+    {
+        RemoteEventData a1 = event("a");
+        RemoteEventData a2 = event("a");
+        RemoteEventData b = event("b");
+        RemoteEventData a3 = event("a");
+
+        // Only the repetitions in a row are removed: A, A, B, A becomes A, B, A and not A, B
+        List<RemoteEventData> events = RemoteEventDataBatch.collapse(Arrays.asList(a1, a2, b, a3));
+
+        assertEquals(3, events.size());
+        assertSame(a1, events.get(0));
+        assertSame(b, events.get(1));
+        assertSame(a3, events.get(2));
+    }
+}
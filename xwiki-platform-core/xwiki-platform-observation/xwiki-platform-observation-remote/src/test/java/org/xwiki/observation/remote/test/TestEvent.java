@@ -46,4 +46,10 @@ public boolean equals(Object obj)
     {
         return obj instanceof TestEvent;
     }
+
+    @Override
+    public int hashCode()
+    {
+        return TestEvent.class.hashCode();
+    }
 }
@@ -37,12 +37,14 @@
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -182,6 +184,7 @@
 import com.xpn.xwiki.internal.XWikiCfgConfigurationSource;
 import com.xpn.xwiki.internal.XWikiConfigDelegate;
 import com.xpn.xwiki.internal.XWikiInitializerJob;
+import com.xpn.xwiki.internal.cache.rendering.RenderingCacheDependencies;
 import com.xpn.xwiki.internal.event.XObjectPropertyAddedEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyDeletedEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyEvent;
@@ -1832,6 +1835,9 @@ public XWikiDocument getDocument(XWikiDocument doc, XWikiContext context) throws
         try {
             context.setWikiId(doc.getDocumentReference().getWikiReference().getName());
 
+            // Make sure cached renderings using this document are invalidated when it's modified
+            RenderingCacheDependencies.add(doc.getDocumentReference(), context);
+
             return getStore().loadXWikiDoc(doc, context);
         } finally {
             context.setWikiId(currentWiki);
@@ -1895,6 +1901,61 @@ public XWikiDocument getDocument(DocumentReference reference, XWikiContext conte
         return getDocument(doc, context);
     }
 
+    /**
+     * Load several documents at once. Documents located in the same wiki are loaded together which allow the store to
+     * retrieve them in a lot less requests than when calling {@link #getDocument(DocumentReference, XWikiContext)}
+     * for each of them.
+     *
+     * @param references the references of the documents to load
+     * @param context see {@link XWikiContext}
+     * @return the documents, in the same order as the passed references
+     * @throws XWikiException when failing to load the documents
+     * @since 10.0RC1
+     */
+    public List<XWikiDocument> getDocuments(Collection<DocumentReference> references, XWikiContext context)
+        throws XWikiException
+    {
+        // Group the documents by wiki, remembering their position
+        Map<String, List<Integer>> indexesByWiki = new LinkedHashMap<>();
+        List<XWikiDocument> documents = new ArrayList<>(references.size());
+        for (DocumentReference reference : references) {
+            XWikiDocument doc = new XWikiDocument(
+                reference.getLocale() != null ? new DocumentReference(reference, null) : reference,
+                reference.getLocale());
+            doc.setContentDirty(true);
+
+            indexesByWiki.computeIfAbsent(reference.getWikiReference().getName(), k -> new ArrayList<>())
+                .add(documents.size());
+            documents.add(doc);
+        }
+
+        String currentWiki = context.getWikiId();
+        try {
+            for (Map.Entry<String, List<Integer>> entry : indexesByWiki.entrySet()) {
+                context.setWikiId(entry.getKey());
+
+                List<XWikiDocument> wikiDocuments = new ArrayList<>(entry.getValue().size());
+                for (int index : entry.getValue()) {
+                    XWikiDocument doc = documents.get(index);
+
+                    // Make sure cached renderings using this document are invalidated when it's modified
+                    RenderingCacheDependencies.add(doc.getDocumentReference(), context);
+
+                    wikiDocuments.add(doc);
+                }
+
+                List<XWikiDocument> loadedDocuments = getStore().loadXWikiDocs(wikiDocuments, context);
+                for (int i = 0; i < loadedDocuments.size(); ++i) {
+                    documents.set(entry.getValue().get(i), loadedDocuments.get(i));
+                }
+            }
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+
+        return documents;
+    }
+
     /**
      * @param fullname the reference of the document as String
      * @param context see {@link XWikiContext}
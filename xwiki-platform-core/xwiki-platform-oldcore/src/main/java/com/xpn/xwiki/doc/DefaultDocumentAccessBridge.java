@@ -22,6 +22,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -122,6 +123,21 @@ public DocumentModelBridge getDocument(DocumentReference documentReference) thro
         return xcontext.getWiki().getDocument(documentReference, xcontext).getTranslatedDocument(xcontext);
     }
 
+    @Override
+    public List<DocumentModelBridge> getDocuments(Collection<DocumentReference> documentReferences) throws Exception
+    {
+        XWikiContext xcontext = getContext();
+
+        List<XWikiDocument> documents = xcontext.getWiki().getDocuments(documentReferences, xcontext);
+
+        List<DocumentModelBridge> translatedDocuments = new ArrayList<>(documents.size());
+        for (XWikiDocument document : documents) {
+            translatedDocuments.add(document.getTranslatedDocument(xcontext));
+        }
+
+        return translatedDocuments;
+    }
+
     @Override
     public DocumentReference getCurrentDocumentReference()
     {
@@ -23,6 +23,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
@@ -831,6 +832,35 @@ public byte[] getContent(XWikiContext context) throws XWikiException
      * @since 2.3M2
      */
     public InputStream getContentInputStream(XWikiContext context) throws XWikiException
+    {
+        loadVersionContent(context);
+
+        return this.content.getContentInputStream();
+    }
+
+    /**
+     * Write a range of the content of this attachment to the passed channel. Contrary to
+     * {@link #getContentInputStream(XWikiContext)} the bytes located before the range don't have to be read and, when
+     * the content is stored in a file, it's transferred without being copied through the Java heap.
+     *
+     * @param position the position of the first byte to write
+     * @param count the maximum number of bytes to write
+     * @param target the channel to write to
+     * @param context current XWikiContext
+     * @return the number of bytes written
+     * @throws XWikiException when failing to load the content
+     * @throws IOException when failing to write the content
+     * @since 10.0RC1
+     */
+    public long transferContentTo(long position, long count, WritableByteChannel target, XWikiContext context)
+        throws XWikiException, IOException
+    {
+        loadVersionContent(context);
+
+        return this.content.transferTo(position, count, target);
+    }
+
+    private void loadVersionContent(XWikiContext context) throws XWikiException
     {
         if (this.content == null && context != null) {
             if (Objects.equals(getVersion(), getLatestStoredVersion(context))) {
@@ -851,8 +881,6 @@ public InputStream getContentInputStream(XWikiContext context) throws XWikiExcep
                 }
             }
         }
-
-        return this.content.getContentInputStream();
     }
 
     /**
@@ -24,6 +24,10 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.disk.DiskFileItem;
@@ -246,6 +250,60 @@ public InputStream getContentInputStream()
         }
     }
 
+    /**
+     * Write a range of the binary content of this attachment to the passed channel. When the content is stored in a
+     * file the bytes located before the range are not read and the data is transferred by the file system (see
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}) instead of being copied through the Java heap.
+     *
+     * @param position the position of the first byte to write
+     * @param count the maximum number of bytes to write
+     * @param target the channel to write to
+     * @return the number of bytes written
+     * @throws IOException when failing to write the content
+     * @since 10.0RC1
+     */
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException
+    {
+        if (this.file instanceof DiskFileItem && !this.file.isInMemory()) {
+            return transferTo(((DiskFileItem) this.file).getStoreLocation(), position, count, target);
+        }
+
+        try (InputStream stream = getContentInputStream()) {
+            // Don't close the output stream since it would close the target channel
+            return IOUtils.copyLarge(stream, Channels.newOutputStream(target), position, count);
+        }
+    }
+
+    /**
+     * Write a range of the passed file to the passed channel.
+     *
+     * @param storageFile the file to read
+     * @param position the position of the first byte to write
+     * @param count the maximum number of bytes to write
+     * @param target the channel to write to
+     * @return the number of bytes written
+     * @throws IOException when failing to write the content
+     * @since 10.0RC1
+     */
+    protected static long transferTo(File storageFile, long position, long count, WritableByteChannel target)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(storageFile.toPath(), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, channel.size());
+            long current = position;
+            while (current < end) {
+                // The transfer can be partial (depending on the target and the operating system)
+                long transferred = channel.transferTo(current, end - current, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                current += transferred;
+            }
+
+            return Math.max(current - position, 0);
+        }
+    }
+
     /**
      * Set the content of the attachment by writing to a provided OutputStream. Content is *not* appended, this method
      * clears the content and creates new content. If you want to append content, you can call
@@ -19,17 +19,22 @@
  */
 package com.xpn.xwiki.doc;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import org.apache.commons.collections4.map.LRUMap;
 import org.suigeneris.jrcs.rcs.Version;
 import org.suigeneris.jrcs.util.ToString;
 
@@ -48,6 +53,9 @@
  */
 public class XWikiDocumentArchive
 {
+    /** The maximum number of rebuilt versions kept in memory. */
+    private static final int VERSION_CACHE_SIZE = 10;
+
     /** =docId. */
     private long id;
 
@@ -69,6 +77,13 @@
     /** Set of {@link XWikiRCSNodeContent} which need to update. */
     private Set<XWikiRCSNodeContent> updatedNodeContents = new TreeSet<XWikiRCSNodeContent>();
 
+    /**
+     * The lines of the recently rebuilt versions, used as starting point to rebuild the other versions (when comparing
+     * consecutive versions for example) instead of applying again all the patches from the nearest full version.
+     */
+    private Map<Version, SoftReference<String[]>> versionCache =
+        Collections.synchronizedMap(new LRUMap<Version, SoftReference<String[]>>(VERSION_CACHE_SIZE));
+
     /** @param id = {@link XWikiDocument#getId()} */
     public XWikiDocumentArchive(long id)
     {
@@ -310,6 +325,8 @@ public void removeVersions(Version newerVersion, Version olderVersion, XWikiCont
             this.deletedNodes.add(ni);
             it.remove();
         }
+        // The removed version numbers might be reused for new content
+        this.versionCache.clear();
     }
 
     /**
@@ -350,7 +367,8 @@ public XWikiDocument loadDocument(Version version, XWikiContext context)
 
     /**
      * Return the XML corresponding to a version. If the version node contains just a diff, then restore the complete
-     * XML by applying all patches from the nearest full version to the requested version.
+     * XML by applying all patches from the nearest full version (or the nearest recently rebuilt version) to the
+     * requested version.
      *
      * @param version The version to retrieve.
      * @param context The {@link com.xpn.xwiki.XWikiContext context}.
@@ -359,15 +377,58 @@ public XWikiDocument loadDocument(Version version, XWikiContext context)
      */
     public String getVersionXml(Version version, XWikiContext context) throws XWikiException
     {
-        Version nearestFullVersion = getNearestFullVersion(version);
+        return ToString.arrayToString(getVersionLines(version, context));
+    }
+
+    /**
+     * @param version the version to retrieve
+     * @param context the XWiki context used to load the node contents
+     * @return the lines of the XML corresponding to the version
+     * @throws XWikiException if any error occurs
+     */
+    private String[] getVersionLines(Version version, XWikiContext context) throws XWikiException
+    {
+        String[] lines = getCachedVersionLines(version);
+        if (lines != null) {
+            return lines;
+        }
 
-        List<XWikiRCSNodeContent> lstContent = loadRCSNodeContents(nearestFullVersion, version, context);
+        // Ordered from the nearest full version to the requested version
+        List<XWikiRCSNodeInfo> nodes =
+            new ArrayList<XWikiRCSNodeInfo>(getNodes(getNearestFullVersion(version), version));
+
+        // Start from the closest rebuilt version if any so that only the patches located after it are loaded
         List<String> origText = new ArrayList<String>();
-        for (XWikiRCSNodeContent nodeContent : lstContent) {
-            nodeContent.getPatch().patch(origText);
+        int start = 0;
+        for (int i = nodes.size() - 2; i > 0; --i) {
+            String[] cachedLines = getCachedVersionLines(nodes.get(i).getVersion());
+            if (cachedLines != null) {
+                origText.addAll(Arrays.asList(cachedLines));
+                start = i + 1;
+                break;
+            }
         }
 
-        return ToString.arrayToString(origText.toArray());
+        // Load the patches one by one, only when they are applied
+        for (XWikiRCSNodeInfo nodeInfo : nodes.subList(start, nodes.size())) {
+            nodeInfo.getContent(context).getPatch().patch(origText);
+        }
+
+        lines = origText.toArray(new String[origText.size()]);
+        this.versionCache.put(version, new SoftReference<String[]>(lines));
+
+        return lines;
+    }
+
+    /**
+     * @param version the version
+     * @return the lines of the XML corresponding to the version if it was recently rebuilt, {@code null} otherwise
+     */
+    private String[] getCachedVersionLines(Version version)
+    {
+        SoftReference<String[]> reference = this.versionCache.get(version);
+
+        return reference != null ? reference.get() : null;
     }
 
     /**
@@ -431,29 +492,12 @@ public Version getNearestFullVersion(Version ver)
         return (headSet.size() == 0) ? null : headSet.last();
     }
 
-    /**
-     * @return List of {@link XWikiRCSNodeContent} where vfrom<=version<=vto order by version
-     * @param vfrom - start version
-     * @param vto - end version
-     * @param context - used everywhere
-     * @throws XWikiException if any error
-     */
-    private List<XWikiRCSNodeContent> loadRCSNodeContents(Version vfrom, Version vto, XWikiContext context)
-        throws XWikiException
-    {
-        List<XWikiRCSNodeContent> result = new ArrayList<XWikiRCSNodeContent>();
-        for (XWikiRCSNodeInfo nodeInfo : getNodes(vfrom, vto)) {
-            XWikiRCSNodeContent nodeContent = nodeInfo.getContent(context);
-            result.add(nodeContent);
-        }
-        return result;
-    }
-
     /** reset history. history becomes empty. */
     public void resetArchive()
     {
         this.versionToNode.clear();
         this.fullVersions.clear();
+        this.versionCache.clear();
         this.deletedNodes.addAll(this.updatedNodeInfos);
         this.updatedNodeInfos.clear();
         this.updatedNodeContents.clear();
@@ -45,9 +45,9 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
- * Specialized cache component related to documents. It automatically clean the cache when the document is related.
- * <p>
- * TODO: add support for dependencies
+ * Specialized cache component related to documents. It automatically clean the cache when the document or one of the
+ * documents it depends on (see {@link #addDependencies(Collection, DocumentReference, Object...)}) is modified. Since
+ * the document events are also received from the other members of a cluster, the cache is invalidated on all of them.
  *
  * @param <C> the type of the data stored in the cache
  * @version $Id$
@@ -157,6 +157,28 @@ public void set(C data, DocumentReference documentReference, Object... extension
         String key = getKey(documentReference, extensions);
         this.cache.set(key, data);
 
+        addMapping(documentReference, key);
+    }
+
+    @Override
+    public void addDependencies(Collection<DocumentReference> dependencies, DocumentReference documentReference,
+        Object... extensions)
+    {
+        String key = getKey(documentReference, extensions);
+
+        for (DocumentReference dependency : dependencies) {
+            addMapping(dependency, key);
+        }
+    }
+
+    /**
+     * Associate a cache key to a document so that it's removed when the document is modified.
+     *
+     * @param documentReference the reference of the document
+     * @param key the cache key
+     */
+    private void addMapping(DocumentReference documentReference, String key)
+    {
         String documentReferenceString = this.serializer.serialize(documentReference);
 
         Collection<String> keys = this.mappingCache.get(documentReferenceString);
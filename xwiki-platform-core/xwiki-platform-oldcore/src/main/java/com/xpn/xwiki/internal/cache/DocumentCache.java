@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.internal.cache;
 
+import java.util.Collection;
+
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.config.CacheConfiguration;
 import org.xwiki.component.annotation.ComponentRole;
@@ -64,6 +66,18 @@
      */
     void set(C data, DocumentReference documentReference, Object... extensions);
 
+    /**
+     * Indicate that the value associated with the provided key depends on other documents: it will be removed from the
+     * cache when any of these documents is modified.
+     *
+     * @param dependencies the references of the documents the value depends on
+     * @param documentReference the reference of the document
+     * @param extensions the extensions to the document reference
+     * @since 10.0RC1
+     */
+    void addDependencies(Collection<DocumentReference> dependencies, DocumentReference documentReference,
+        Object... extensions);
+
     /**
      * Remove from the cache the value associated to the provided key elements.
      *
@@ -24,6 +24,7 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -130,6 +131,11 @@ public String getRenderedContent(DocumentReference documentReference, String sou
                     renderedContent = restoreCachedItem(context, cachedItem);
                 }
             }
+
+            if (renderedContent == null) {
+                // The document is going to be rendered, remember the documents it uses
+                RenderingCacheDependencies.start(documentReference, context);
+            }
         }
 
         return renderedContent;
@@ -140,8 +146,18 @@ public void setRenderedContent(DocumentReference documentReference, String sourc
         XWikiContext context)
     {
         if (this.configuration.isCached(documentReference)) {
-            this.cache.set(buildCachedItem(context, renderedContent), documentReference, source, getAction(context),
-                context.getLanguage(), getRequestParameters(context));
+            String action = getAction(context);
+            String language = context.getLanguage();
+            String requestParameters = getRequestParameters(context);
+
+            this.cache.set(buildCachedItem(context, renderedContent), documentReference, source, action, language,
+                requestParameters);
+
+            Set<DocumentReference> dependencies = RenderingCacheDependencies.stop(documentReference, context);
+            if (dependencies != null) {
+                this.cache.addDependencies(dependencies, documentReference, source, action, language,
+                    requestParameters);
+            }
         }
     }
 
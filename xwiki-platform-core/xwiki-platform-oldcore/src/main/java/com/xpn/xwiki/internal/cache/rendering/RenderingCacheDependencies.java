@@ -0,0 +1,143 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.rendering;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Record the documents used by the renderings which are going to be cached so that the cached result can be
+ * invalidated when any of them is modified (included documents, sheets, documents used by macros, translations, etc.).
+ * <p>
+ * The recording state is stored in the {@link XWikiContext} and renderings can be nested: a document used by a nested
+ * rendering is also a dependency of all the enclosing renderings.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public final class RenderingCacheDependencies
+{
+    /**
+     * The key under which the stack of renderings being recorded is stored in the XWiki context.
+     */
+    private static final String CONTEXT_KEY = "renderingcache.dependencies";
+
+    /**
+     * A rendering being recorded.
+     *
+     * @version $Id$
+     */
+    private static final class Recording
+    {
+        private final DocumentReference documentReference;
+
+        private final Set<DocumentReference> dependencies = new HashSet<>();
+
+        Recording(DocumentReference documentReference)
+        {
+            this.documentReference = documentReference;
+        }
+    }
+
+    private RenderingCacheDependencies()
+    {
+        // Utility class
+    }
+
+    /**
+     * Start recording the dependencies of the rendering of the passed document.
+     *
+     * @param documentReference the reference of the document being rendered
+     * @param context the XWiki context
+     */
+    static void start(DocumentReference documentReference, XWikiContext context)
+    {
+        Deque<Recording> recordings = getRecordings(context);
+        if (recordings == null) {
+            recordings = new ArrayDeque<>();
+            context.put(CONTEXT_KEY, recordings);
+        }
+
+        recordings.push(new Recording(withoutLocale(documentReference)));
+    }
+
+    /**
+     * Stop recording the dependencies of the rendering of the passed document. The recordings started after it which
+     * were not stopped (because the rendering failed) are discarded.
+     *
+     * @param documentReference the reference of the document being rendered
+     * @param context the XWiki context
+     * @return the documents used by the rendering, {@code null} if no recording was started for this document
+     */
+    static Set<DocumentReference> stop(DocumentReference documentReference, XWikiContext context)
+    {
+        Deque<Recording> recordings = getRecordings(context);
+        if (recordings != null) {
+            DocumentReference reference = withoutLocale(documentReference);
+            for (Recording recording : recordings) {
+                if (recording.documentReference.equals(reference)) {
+                    Recording stopped;
+                    do {
+                        stopped = recordings.pop();
+                    } while (stopped != recording);
+
+                    return recording.dependencies;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Indicate that a document is used by the renderings being recorded, if any.
+     *
+     * @param documentReference the reference of the used document
+     * @param context the XWiki context
+     */
+    public static void add(DocumentReference documentReference, XWikiContext context)
+    {
+        Deque<Recording> recordings = getRecordings(context);
+        if (recordings != null && !recordings.isEmpty()) {
+            DocumentReference reference = withoutLocale(documentReference);
+            for (Recording recording : recordings) {
+                recording.dependencies.add(reference);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Deque<Recording> getRecordings(XWikiContext context)
+    {
+        return (Deque<Recording>) context.get(CONTEXT_KEY);
+    }
+
+    private static DocumentReference withoutLocale(DocumentReference documentReference)
+    {
+        return documentReference.getLocale() != null ? new DocumentReference(documentReference, null)
+            : documentReference;
+    }
+}
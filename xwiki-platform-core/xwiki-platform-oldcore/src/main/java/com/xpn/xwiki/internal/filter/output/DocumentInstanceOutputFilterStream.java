@@ -20,8 +20,18 @@
 package com.xpn.xwiki.internal.filter.output;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -38,6 +48,9 @@
 import org.xwiki.filter.event.model.WikiDocumentFilter;
 import org.xwiki.filter.instance.output.DocumentInstanceOutputProperties;
 import org.xwiki.filter.output.AbstractBeanOutputFilterStream;
+import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.logging.marker.TranslationMarker;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -49,8 +62,18 @@
 import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.util.AbstractXWikiRunnable;
 
 /**
+ * Save the documents coming from the events.
+ * <p>
+ * When {@link DocumentInstanceOutputProperties#getSaveThreads()} is greater than 1, each document (with all its
+ * revisions) is saved by a pool of threads while the following documents are being read. The number of documents
+ * waiting to be saved is bounded so that the memory used stays constant whatever the size of the input: a document
+ * with a long history is sent to the save threads in batches of {@value #MAX_DOCUMENTS_PER_SAVE} revisions and at
+ * most twice the number of threads batches wait to be saved. The logs produced by the save threads are forwarded to
+ * the thread reading the events, in the order of the documents.
+ *
  * @version $Id$
  * @since 6.2M1
  */
@@ -69,6 +92,11 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     private static final TranslationMarker LOG_DOCUMENT_FAILSAVE =
         new TranslationMarker("filter.instance.log.document.failsave", WikiDocumentFilter.LOG_DOCUMENT_ERROR);
 
+    /**
+     * The maximum number of revisions and locales of a document kept in memory before being sent to the save threads.
+     */
+    private static final int MAX_DOCUMENTS_PER_SAVE = 100;
+
     @Inject
     private FilterDescriptorManager filterManager;
 
@@ -90,11 +118,106 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
     @Inject
     private EntityOutputFilterStream<XWikiDocument> documentListener;
 
+    @Inject
+    private LoggerManager loggerManager;
+
     @Inject
     private Logger logger;
 
     private boolean documentDeleted;
 
+    /**
+     * The documents (revisions and locales) of the current wiki document waiting to be saved by the save threads.
+     */
+    private List<XWikiDocument> currentDocuments = new ArrayList<>();
+
+    /**
+     * The documents being saved, in the order they have been read.
+     */
+    private Deque<SaveDocumentsRunnable> pendingSaves = new LinkedList<>();
+
+    private ExecutorService saveExecutor;
+
+    /**
+     * Limit the number of documents waiting to be saved.
+     */
+    private Semaphore saveSlots;
+
+    /**
+     * The last save of the current wiki document sent to the save threads.
+     */
+    private SaveDocumentsRunnable lastSave;
+
+    /**
+     * The first error of the save threads when the output should stop when failing to save a document.
+     */
+    private volatile FilterException saveError;
+
+    /**
+     * Save the revisions and locales of a wiki document in a save thread.
+     */
+    private final class SaveDocumentsRunnable extends AbstractXWikiRunnable
+    {
+        private final DocumentReference reference;
+
+        private List<XWikiDocument> documents;
+
+        private final LogQueue logs = new LogQueue();
+
+        private FilterException error;
+
+        private Future<?> future;
+
+        /**
+         * The previous save of the same wiki document, completed before this one starts.
+         */
+        private SaveDocumentsRunnable previous;
+
+        private boolean deleted;
+
+        SaveDocumentsRunnable(List<XWikiDocument> documents, SaveDocumentsRunnable previous, XWikiContext xcontext)
+        {
+            super(XWikiContext.EXECUTIONCONTEXT_KEY, xcontext.clone());
+
+            this.reference = documents.get(0).getDocumentReference();
+            this.documents = documents;
+            this.previous = previous;
+        }
+
+        @Override
+        protected void runInternal()
+        {
+            // Isolate the log to send it to the reading thread
+            loggerManager.pushLogListener(new LoggerListener(UUID.randomUUID().toString(), this.logs));
+
+            try {
+                // Continue where the previous batch of revisions of the same document stopped
+                this.deleted = this.previous != null && this.previous.deleted;
+                this.previous = null;
+
+                for (XWikiDocument document : this.documents) {
+                    // Don't save anything else once the import is going to fail
+                    if (saveError != null) {
+                        break;
+                    }
+
+                    this.deleted = saveDocument(document, this.deleted);
+                }
+            } catch (FilterException e) {
+                this.error = e;
+                if (saveError == null) {
+                    saveError = e;
+                }
+            } finally {
+                loggerManager.popLogListener();
+
+                // Free the memory as soon as possible
+                this.documents = null;
+                saveSlots.release();
+            }
+        }
+    }
+
     private FilterEventParameters currentLocaleParameters;
 
     private FilterEventParameters currentRevisionParameters;
@@ -113,7 +236,19 @@ protected Object createFilter() throws FilterException
     @Override
     public void close() throws IOException
     {
-        // Nothing to close
+        if (this.saveExecutor != null) {
+            try {
+                // Wait for all the documents to be saved
+                while (!this.pendingSaves.isEmpty()) {
+                    completeSave(this.pendingSaves.poll());
+                }
+            } catch (FilterException e) {
+                throw new IOException("Failed to save documents", e);
+            } finally {
+                this.saveExecutor.shutdownNow();
+                this.saveExecutor = null;
+            }
+        }
     }
 
     @Override
@@ -122,6 +257,16 @@ public void setProperties(DocumentInstanceOutputProperties properties) throws Fi
         super.setProperties(properties);
 
         this.documentListener.setProperties(properties);
+
+        int saveThreads = properties.getSaveThreads();
+        if (saveThreads > 1 && this.saveExecutor == null) {
+            this.saveExecutor = Executors.newFixedThreadPool(saveThreads, runnable -> {
+                Thread thread = new Thread(runnable, "Document instance output save thread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.saveSlots = new Semaphore(saveThreads * 2);
+        }
     }
 
     // Events
@@ -140,6 +285,11 @@ public void endWikiDocument(String name, FilterEventParameters parameters) throw
     {
         maybeSaveDocument();
 
+        if (this.saveExecutor != null) {
+            submitDocuments();
+            this.lastSave = null;
+        }
+
         // Reset
         this.currentRevisionParameters = null;
         this.currentLocaleParameters = null;
@@ -186,13 +336,98 @@ private void maybeSaveDocument() throws FilterException
             return;
         }
 
+        if (this.saveExecutor != null) {
+            // The document will be saved by a save thread once complete (or once enough revisions are waiting)
+            this.currentDocuments.add(inputDocument);
+            if (this.currentDocuments.size() >= MAX_DOCUMENTS_PER_SAVE) {
+                submitDocuments();
+            }
+        } else {
+            this.documentDeleted = saveDocument(inputDocument, this.documentDeleted);
+        }
+    }
+
+    private void submitDocuments() throws FilterException
+    {
+        // Stop reading as soon as a save thread failed instead of waiting for the end of the input
+        if (this.saveError != null) {
+            // Forward the logs of the saves already started, up to the failed one
+            while (!this.pendingSaves.isEmpty()) {
+                completeSave(this.pendingSaves.poll());
+            }
+
+            throw this.saveError;
+        }
+
+        if (this.currentDocuments.isEmpty()) {
+            return;
+        }
+
+        SaveDocumentsRunnable save =
+            new SaveDocumentsRunnable(this.currentDocuments, this.lastSave, this.xcontextProvider.get());
+        this.currentDocuments = new ArrayList<>();
+        this.lastSave = save;
+
+        // Forward the logs of the documents already saved
+        while (!this.pendingSaves.isEmpty() && this.pendingSaves.peek().future.isDone()) {
+            completeSave(this.pendingSaves.poll());
+        }
+
+        // Make sure the locales of a same document are saved in the right order
+        while (this.pendingSaves.stream().anyMatch(pending -> pending.reference.equals(save.reference))) {
+            completeSave(this.pendingSaves.poll());
+        }
+
+        // Wait for a save thread if too many documents are already waiting
+        try {
+            this.saveSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new FilterException("Interrupted while waiting to save document [" + save.reference + "]", e);
+        }
+
+        save.future = this.saveExecutor.submit(save);
+        this.pendingSaves.add(save);
+    }
+
+    private void completeSave(SaveDocumentsRunnable save) throws FilterException
+    {
+        try {
+            save.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new FilterException("Interrupted while waiting for document [" + save.reference + "] save", e);
+        } catch (ExecutionException e) {
+            throw new FilterException("Failed to save document [" + save.reference + "]", e);
+        }
+
+        // Send the logs produced by the save thread to the current thread log
+        save.logs.log(this.logger);
+
+        if (save.error != null) {
+            throw save.error;
+        }
+    }
+
+    /**
+     * @param inputDocument the document to save
+     * @param previousDeleted true if the existing document has already been deleted
+     * @return true if the existing document has been deleted or should not be deleted anymore
+     * @throws FilterException when failing to save the document and the output is configured to stop in such case
+     */
+    private boolean saveDocument(XWikiDocument inputDocument, boolean previousDeleted) throws FilterException
+    {
+        boolean deleted = previousDeleted;
+
         XWikiContext xcontext = this.xcontextProvider.get();
 
         try {
             XWikiDocument document =
                 xcontext.getWiki().getDocument(inputDocument.getDocumentReferenceWithLocale(), xcontext);
 
-            if (!this.documentDeleted && !document.isNew() && this.properties.isPreviousDeleted()) {
+            if (!deleted && !document.isNew() && this.properties.isPreviousDeleted()) {
                 XWikiDocument originalDocument = document;
 
                 // Save current context wiki
@@ -209,7 +444,7 @@ private void maybeSaveDocument() throws FilterException
 
                     // Make sure to not generate DocumentDeletedEvent since from listener point of view it's not
                     xcontext.getWiki().getStore().deleteXWikiDoc(document, xcontext);
-                    this.documentDeleted = true;
+                    deleted = true;
                 } finally {
                     // Restore current context wiki
                     xcontext.setWikiReference(currentWiki);
@@ -222,7 +457,7 @@ private void maybeSaveDocument() throws FilterException
                 document.setOriginalDocument(originalDocument);
             } else {
                 // Make sure to remember that the document should not be deleted anymore
-                this.documentDeleted = true;
+                deleted = true;
             }
 
             // Remember if it's a creation or an update
@@ -299,6 +534,8 @@ private void maybeSaveDocument() throws FilterException
                 throw new FilterException("Failed to save document", e);
             }
         }
+
+        return deleted;
     }
 
     private void setAuthorReference(XWikiDocument document, DocumentReference authorReference)
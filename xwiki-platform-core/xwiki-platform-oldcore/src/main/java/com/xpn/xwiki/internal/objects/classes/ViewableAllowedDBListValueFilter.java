@@ -19,9 +19,12 @@
  */
 package com.xpn.xwiki.internal.objects.classes;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -62,25 +65,45 @@ public String filterStatement(String statement, String language)
     @Override
     public List filterResults(List results)
     {
+        // Check the rights of all the documents at once so that the rights of common ancestors are resolved only once.
+        List<DocumentReference> documentReferences = new ArrayList<>(results.size());
+        for (Object result : results) {
+            String fullName = getFullName(result);
+            if (fullName != null) {
+                documentReferences.add(this.documentReferenceResolver.resolve(fullName));
+            }
+        }
+        Set<DocumentReference> viewableReferences =
+            new HashSet<>(this.authorization.filter(Right.VIEW, documentReferences));
+
         List<Object> filteredResults = new LinkedList<>();
+        int index = 0;
         for (Object result : results) {
-            if (result instanceof String) {
-                DocumentReference documentReference = this.documentReferenceResolver.resolve((String) result);
-                if (this.authorization.hasAccess(Right.VIEW, documentReference)) {
+            if (getFullName(result) != null && viewableReferences.contains(documentReferences.get(index++))) {
+                if (result instanceof Object[]) {
+                    Object[] row = (Object[]) result;
+                    // The document full name column was added just to be able to check view right. We can discard it
+                    // now and return only the relevant columns.
+                    filteredResults.add(row.length > 1 ? Arrays.copyOfRange(row, 1, row.length) : row);
+                } else {
                     filteredResults.add(result);
                 }
-            } else if (result instanceof Object[]) {
-                Object[] row = (Object[]) result;
-                if (row.length > 0 && row[0] instanceof String) {
-                    DocumentReference documentReference = this.documentReferenceResolver.resolve((String) row[0]);
-                    if (this.authorization.hasAccess(Right.VIEW, documentReference)) {
-                        // The document full name column was added just to be able to check view right. We can discard
-                        // it now and return only the relevant columns.
-                        filteredResults.add(row.length > 1 ? Arrays.copyOfRange(row, 1, row.length) : row);
-                    }
-                }
             }
         }
         return filteredResults;
     }
+
+    private String getFullName(Object result)
+    {
+        if (result instanceof String) {
+            return (String) result;
+        } else if (result instanceof Object[]) {
+            Object[] row = (Object[]) result;
+            if (row.length > 0 && row[0] instanceof String) {
+                return (String) row[0];
+            }
+        }
+
+        return null;
+    }
 }
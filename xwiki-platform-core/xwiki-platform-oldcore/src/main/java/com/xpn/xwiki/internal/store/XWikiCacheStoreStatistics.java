@@ -0,0 +1,154 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Counters maintained by {@link com.xpn.xwiki.store.XWikiCacheStore}. The number of removed entries is maintained by
+ * listening to the document cache.
+ * 
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public class XWikiCacheStoreStatistics implements XWikiCacheStoreStatisticsMXBean, CacheEntryListener<XWikiDocument>
+{
+    private final LongAdder documentCacheHits = new LongAdder();
+
+    private final LongAdder documentCacheMisses = new LongAdder();
+
+    private final LongAdder notExistingDocumentHits = new LongAdder();
+
+    private final LongAdder existCacheHits = new LongAdder();
+
+    private final LongAdder existCacheMisses = new LongAdder();
+
+    private final LongAdder documentCacheRemovals = new LongAdder();
+
+    /**
+     * A document has been found in the document cache.
+     */
+    public void documentCacheHit()
+    {
+        this.documentCacheHits.increment();
+    }
+
+    /**
+     * A document had to be loaded from the underlying store.
+     */
+    public void documentCacheMiss()
+    {
+        this.documentCacheMisses.increment();
+    }
+
+    /**
+     * The page exist cache indicated that the document to load does not exist.
+     */
+    public void notExistingDocumentHit()
+    {
+        this.notExistingDocumentHits.increment();
+    }
+
+    /**
+     * An existence check has been answered by the page exist cache.
+     */
+    public void existCacheHit()
+    {
+        this.existCacheHits.increment();
+    }
+
+    /**
+     * An existence check had to be forwarded to the underlying store.
+     */
+    public void existCacheMiss()
+    {
+        this.existCacheMisses.increment();
+    }
+
+    @Override
+    public long getDocumentCacheHits()
+    {
+        return this.documentCacheHits.sum();
+    }
+
+    @Override
+    public long getDocumentCacheMisses()
+    {
+        return this.documentCacheMisses.sum();
+    }
+
+    @Override
+    public long getNotExistingDocumentHits()
+    {
+        return this.notExistingDocumentHits.sum();
+    }
+
+    @Override
+    public long getExistCacheHits()
+    {
+        return this.existCacheHits.sum();
+    }
+
+    @Override
+    public long getExistCacheMisses()
+    {
+        return this.existCacheMisses.sum();
+    }
+
+    @Override
+    public long getDocumentCacheRemovals()
+    {
+        return this.documentCacheRemovals.sum();
+    }
+
+    @Override
+    public void reset()
+    {
+        this.documentCacheHits.reset();
+        this.documentCacheMisses.reset();
+        this.notExistingDocumentHits.reset();
+        this.existCacheHits.reset();
+        this.existCacheMisses.reset();
+        this.documentCacheRemovals.reset();
+    }
+
+    @Override
+    public void cacheEntryAdded(CacheEntryEvent<XWikiDocument> event)
+    {
+        // Not counted
+    }
+
+    @Override
+    public void cacheEntryRemoved(CacheEntryEvent<XWikiDocument> event)
+    {
+        this.documentCacheRemovals.increment();
+    }
+
+    @Override
+    public void cacheEntryModified(CacheEntryEvent<XWikiDocument> event)
+    {
+        // Not counted
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+/**
+ * Exposes the statistics of the document cache store through JMX.
+ * 
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public interface XWikiCacheStoreStatisticsMXBean
+{
+    /**
+     * @return the number of documents returned from the document cache
+     */
+    long getDocumentCacheHits();
+
+    /**
+     * @return the number of documents which had to be loaded from the underlying store
+     */
+    long getDocumentCacheMisses();
+
+    /**
+     * @return the number of document loads answered by the page exist cache because the document does not exist
+     */
+    long getNotExistingDocumentHits();
+
+    /**
+     * @return the number of existence checks answered by the page exist cache
+     */
+    long getExistCacheHits();
+
+    /**
+     * @return the number of existence checks which had to be forwarded to the underlying store
+     */
+    long getExistCacheMisses();
+
+    /**
+     * @return the number of documents removed from the document cache, either evicted or invalidated
+     */
+    long getDocumentCacheRemovals();
+
+    /**
+     * Reset all the counters.
+     */
+    void reset();
+}
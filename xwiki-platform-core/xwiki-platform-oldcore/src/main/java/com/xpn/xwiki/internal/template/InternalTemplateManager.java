@@ -43,9 +43,17 @@
 
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
 import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.environment.Environment;
 import org.xwiki.filter.input.InputSource;
@@ -98,7 +106,7 @@
  */
 @Component(roles = InternalTemplateManager.class)
 @Singleton
-public class InternalTemplateManager
+public class InternalTemplateManager implements Initializable, Disposable
 {
     private static final Pattern PROPERTY_LINE = Pattern.compile("^##!(.+)=(.*)$\r?\n?", Pattern.MULTILINE);
 
@@ -161,9 +169,39 @@
     @Inject
     private JobProgressManager progress;
 
+    @Inject
+    private CacheManager cacheManager;
+
     @Inject
     private Logger logger;
 
+    /**
+     * The result of the parsing of the templates with a source syntax, indexed by template id.
+     */
+    private Cache<ParsedTemplate> xdomCache;
+
+    private static class ParsedTemplate
+    {
+        private final String content;
+
+        private final Syntax syntax;
+
+        private final XDOM xdom;
+
+        ParsedTemplate(String content, Syntax syntax, XDOM xdom)
+        {
+            this.content = content;
+            this.syntax = syntax;
+            this.xdom = xdom;
+        }
+
+        boolean matches(TemplateContent templateContent)
+        {
+            return this.syntax.equals(templateContent.getSourceSyntax())
+                && this.content.equals(templateContent.getContent());
+        }
+    }
+
     private static abstract class AbtractTemplate<T extends TemplateContent, R extends Resource<?>> implements Template
     {
         protected R resource;
@@ -442,6 +480,33 @@ public void setPrivileged(boolean privileged)
         }
     }
 
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.xdomCache = this.cacheManager.createNewCache(new LRUCacheConfiguration("templates.xdom", 1000));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to initialize templates cache", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.xdomCache.dispose();
+    }
+
+    /**
+     * Forget the result of the parsing of the passed template.
+     *
+     * @param templateId the identifier of the modified template
+     * @since 10.0RC1
+     */
+    public void removeCachedXDOM(String templateId)
+    {
+        this.xdomCache.remove(templateId);
+    }
+
     private String getResourcePath(String suffixPath, String templateName, boolean testExist)
     {
         String templatePath = suffixPath + templateName;
@@ -565,7 +630,7 @@ private XDOM getXDOM(Template template, TemplateContent content) throws Exceptio
         XDOM xdom;
 
         if (content.getSourceSyntax() != null) {
-            xdom = this.parser.parse(content.getContent(), content.getSourceSyntax());
+            xdom = parse(template, content);
         } else {
             String result = evaluateContent(template, content);
             xdom = new XDOM(Arrays.asList(new RawBlock(result,
@@ -575,6 +640,26 @@ private XDOM getXDOM(Template template, TemplateContent content) throws Exceptio
         return xdom;
     }
 
+    private XDOM parse(Template template, TemplateContent content) throws Exception
+    {
+        // String templates all share the same id
+        if (template == null || template.getId() == null || template instanceof StringTemplate) {
+            return this.parser.parse(content.getContent(), content.getSourceSyntax());
+        }
+
+        // The content is compared to make sure the template was not modified (for example a filesystem template) since
+        // it was parsed, which is much cheaper than parsing it again
+        ParsedTemplate parsedTemplate = this.xdomCache.get(template.getId());
+        if (parsedTemplate == null || !parsedTemplate.matches(content)) {
+            XDOM xdom = this.parser.parse(content.getContent(), content.getSourceSyntax());
+            parsedTemplate = new ParsedTemplate(content.getContent(), content.getSourceSyntax(), xdom);
+            this.xdomCache.set(template.getId(), parsedTemplate);
+        }
+
+        // The XDOM is modified by the transformations
+        return parsedTemplate.xdom.clone();
+    }
+
     public XDOM getXDOM(String templateName) throws Exception
     {
         Template template = getTemplate(templateName);
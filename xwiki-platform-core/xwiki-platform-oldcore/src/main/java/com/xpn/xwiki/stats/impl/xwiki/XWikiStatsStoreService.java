@@ -25,18 +25,25 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.hibernate.HibernateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.stats.impl.StatsUtil;
 import com.xpn.xwiki.stats.impl.VisitStats;
+import com.xpn.xwiki.store.XWikiHibernateStore;
 import com.xpn.xwiki.util.AbstractXWikiRunnable;
 import com.xpn.xwiki.web.DownloadAction;
 import com.xpn.xwiki.web.SaveAction;
+import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.ViewAction;
 
 /**
@@ -57,6 +64,21 @@ public class XWikiStatsStoreService extends AbstractXWikiRunnable
      */
     private ArrayBlockingQueue<XWikiStatsStoreItem> queue;
 
+    /**
+     * The maximum number of statistics to merge before storing them.
+     */
+    private int queueSize;
+
+    /**
+     * The time in milliseconds during which statistics are merged before being stored.
+     */
+    private long flushInterval;
+
+    /**
+     * The number of statistics dropped because the queue was full since last time they were stored.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
     /**
      * The thread on which the storing service is running.
      */
@@ -75,8 +97,9 @@ public class XWikiStatsStoreService extends AbstractXWikiRunnable
     public XWikiStatsStoreService(XWikiContext context)
     {
         this.xwikiContext = context.clone();
-        long queueSize = context.getWiki().ParamAsLong("stats.queue.size", 200);
-        this.queue = new ArrayBlockingQueue<XWikiStatsStoreItem>((int) queueSize);
+        this.queueSize = (int) context.getWiki().ParamAsLong("stats.queue.size", 200);
+        this.flushInterval = context.getWiki().ParamAsLong("stats.queue.flushInterval", 5000);
+        this.queue = new ArrayBlockingQueue<XWikiStatsStoreItem>(this.queueSize);
     }
 
     @Override
@@ -100,11 +123,10 @@ public void start()
     }
 
     /**
-     * Stop storing thread.
+     * Stop storing thread. The statistics still waiting in the queue are stored before the thread stops.
      */
     public void stop()
     {
-        this.queue.clear();
         try {
             this.queue.put(new StopStatsRegisterObject());
             this.thread.join();
@@ -136,6 +158,9 @@ public void runInternal()
 
     /**
      * Store the statistics in the queue.
+     * <p>
+     * The statistics received during {@code stats.queue.flushInterval} milliseconds are merged by id so that each
+     * statistics object is saved only once per interval.
      *
      * @throws InterruptedException thread has been interrupted.
      * @throws StopStatsStoreException service received stop order.
@@ -144,11 +169,17 @@ private void register() throws InterruptedException, StopStatsStoreException
     {
         XWikiStatsStoreItem stat = this.queue.take();
 
+        long flushTime = System.currentTimeMillis() + this.flushInterval;
+        int count = 0;
+
         List<List<XWikiStatsStoreItem>> statsList = new ArrayList<List<XWikiStatsStoreItem>>();
         Map<String, List<XWikiStatsStoreItem>> statsMap = new HashMap<String, List<XWikiStatsStoreItem>>();
 
         do {
             if (stat instanceof StopStatsRegisterObject) {
+                // Don't lose what has been merged so far
+                store(statsList);
+
                 throw new StopStatsStoreException();
             }
 
@@ -165,11 +196,88 @@ private void register() throws InterruptedException, StopStatsStoreException
 
             stats.add(stat);
 
-            stat = this.queue.poll();
+            // Don't wait more if too many statistics have been merged already
+            if (++count < this.queueSize) {
+                long remaining = flushTime - System.currentTimeMillis();
+                stat = remaining > 0 ? this.queue.poll(remaining, TimeUnit.MILLISECONDS) : this.queue.poll();
+            } else {
+                stat = null;
+            }
         } while (stat != null);
 
+        long droppedCount = this.dropped.getAndSet(0);
+        if (droppedCount > 0) {
+            LOGGER.warn("[{}] statistics have been dropped because the statistics queue was full", droppedCount);
+        }
+
+        store(statsList);
+    }
+
+    /**
+     * Store the merged statistics, each one in its own transaction so that a failing statistic does not prevent the
+     * others from being stored.
+     *
+     * @param statsList the statistics to store
+     */
+    private void store(List<List<XWikiStatsStoreItem>> statsList)
+    {
         for (List<XWikiStatsStoreItem> stats : statsList) {
-            stats.get(0).store(stats);
+            XWikiStatsStoreItem stat = stats.get(0);
+
+            if (stat instanceof AbstractStatsStoreItem) {
+                storeInTransaction(stats, ((AbstractStatsStoreItem) stat).context);
+            } else {
+                try {
+                    stat.store(stats);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to store statistics [{}]", stat.getId(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Store a merged statistic in a transaction.
+     *
+     * @param stats the statistic to store, one item per merged occurrence
+     * @param xcontext the XWiki context targeting the wiki of the statistic
+     */
+    private void storeInTransaction(List<XWikiStatsStoreItem> stats, XWikiContext xcontext)
+    {
+        XWikiStatsStoreItem stat = stats.get(0);
+        XWikiHibernateStore store = xcontext.getWiki().getHibernateStore();
+
+        // Start a transaction which will be reused by all the database operations of the statistic
+        boolean transaction = false;
+        if (store != null) {
+            ExecutionContext econtext = Utils.getComponent(Execution.class).getContext();
+            Object currentContext = econtext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+            try {
+                econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, xcontext);
+
+                transaction = store.beginTransaction(xcontext);
+            } catch (XWikiException e) {
+                LOGGER.warn("Failed to start statistics transaction for wiki [{}]", xcontext.getWikiId(), e);
+            } finally {
+                econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, currentContext);
+            }
+        }
+
+        boolean commit = false;
+        try {
+            stat.store(stats);
+
+            commit = true;
+        } catch (Exception e) {
+            LOGGER.error("Failed to store statistics [{}]", stat.getId(), e);
+        } finally {
+            if (transaction) {
+                try {
+                    store.endTransaction(xcontext, commit);
+                } catch (HibernateException e) {
+                    LOGGER.error("Failed to save statistics [{}]", stat.getId(), e);
+                }
+            }
         }
     }
 
@@ -179,15 +287,15 @@ private void register() throws InterruptedException, StopStatsStoreException
 
     /**
      * Add new statistic to store.
+     * <p>
+     * The statistic is dropped if the queue is full to never slow down the request producing it.
      *
      * @param statsRegisterItem the statistic store item.
      */
     public void add(XWikiStatsStoreItem statsRegisterItem)
     {
-        try {
-            this.queue.put(statsRegisterItem);
-        } catch (InterruptedException e) {
-            LOGGER.error("Statistics storage thread has been interrupted", e);
+        if (!this.queue.offer(statsRegisterItem)) {
+            this.dropped.incrementAndGet();
         }
     }
 
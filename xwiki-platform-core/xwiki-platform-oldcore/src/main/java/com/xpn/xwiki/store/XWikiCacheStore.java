@@ -19,7 +19,9 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -32,10 +34,12 @@
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheManager;
 import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.ApplicationStoppedEvent;
 import org.xwiki.observation.event.Event;
 import org.xwiki.observation.remote.RemoteObservationManagerContext;
 import org.xwiki.query.QueryManager;
@@ -45,6 +49,7 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiLink;
 import com.xpn.xwiki.doc.XWikiLock;
+import com.xpn.xwiki.internal.store.XWikiCacheStoreStatistics;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.web.Utils;
 
@@ -58,12 +63,19 @@ public class XWikiCacheStore implements XWikiCacheStoreInterface, EventListener
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiCacheStore.class);
 
+    /**
+     * The name under which the statistics of the cache store are registered against the JMX server.
+     */
+    private static final String STATISTICS_MBEAN_NAME = "type=Store,name=XWikiCacheStore";
+
     private XWikiStoreInterface store;
 
     private Cache<XWikiDocument> cache;
 
     private Cache<Boolean> pageExistCache;
 
+    private final XWikiCacheStoreStatistics statistics = new XWikiCacheStoreStatistics();
+
     /**
      * Used to know if a received event is a local or remote one.
      */
@@ -86,6 +98,47 @@ public XWikiCacheStore(XWikiStoreInterface store, XWikiContext context) throws X
         this.observationManager = Utils.getComponent(ObservationManager.class);
         this.observationManager.addListener(this);
         this.uidStringEntityReferenceSerializer = Utils.getComponent(EntityReferenceSerializer.TYPE_STRING, "uid");
+
+        registerStatistics();
+    }
+
+    /**
+     * Register the cache statistics against the JMX server.
+     */
+    private void registerStatistics()
+    {
+        try {
+            Utils.getComponent(JMXBeanRegistration.class).registerMBean(this.statistics, STATISTICS_MBEAN_NAME);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to register the document cache statistics against the JMX Server", e);
+        }
+    }
+
+    /**
+     * Stop listening to document events and unregister the cache statistics from the JMX server. Called when the
+     * application is stopped.
+     * <p>
+     * The caches are not disposed here since requests might still be loading documents: they are disposed with the
+     * cache manager.
+     */
+    private void unregister()
+    {
+        this.observationManager.removeListener(getName());
+
+        try {
+            Utils.getComponent(JMXBeanRegistration.class).unregisterMBean(STATISTICS_MBEAN_NAME);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to unregister the document cache statistics from the JMX Server", e);
+        }
+    }
+
+    /**
+     * @return the hit, miss and removal counters of the caches
+     * @since 10.0RC1
+     */
+    public XWikiCacheStoreStatistics getStatistics()
+    {
+        return this.statistics;
     }
 
     @Override
@@ -98,7 +151,7 @@ public String getName()
     public List<Event> getEvents()
     {
         return Arrays.<Event>asList(new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent(),
-            new WikiDeletedEvent());
+            new WikiDeletedEvent(), new ApplicationStoppedEvent());
     }
 
     public void initCache(XWikiContext context) throws XWikiException
@@ -109,6 +162,7 @@ public void initCache(XWikiContext context) throws XWikiException
             int pageCacheCapacity = (int) context.getWiki().ParamAsLong("xwiki.store.cache.capacity", 500);
             this.cache =
                 cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.store.pagecache", pageCacheCapacity));
+            this.cache.addCacheEntryListener(this.statistics);
 
             int pageExistCacheCapacity =
                 (int) context.getWiki().ParamAsLong("xwiki.store.cache.pageexistcapacity", 10000);
@@ -176,8 +230,10 @@ public void flushCache()
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
-        // only react to remote events since local actions are already taken into account
-        if (this.remoteObservationManagerContext.isRemoteState()) {
+        if (event instanceof ApplicationStoppedEvent) {
+            unregister();
+        } else if (this.remoteObservationManagerContext.isRemoteState()) {
+            // only react to remote events since local actions are already taken into account
             if (event instanceof WikiDeletedEvent) {
                 flushCache();
             } else {
@@ -249,6 +305,91 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throw
 
         LOGGER.debug("Cache: Trying to get doc {} from cache", key);
 
+        XWikiDocument cachedoc = getCachedDocument(key);
+
+        if (cachedoc == null) {
+            Boolean result = getPageExistCache().get(key);
+
+            if (result == Boolean.FALSE) {
+                cachedoc = getNotExistingDocument(key, doc);
+            } else {
+                LOGGER.debug("Cache: Trying to get doc {} from persistent storage", key);
+
+                this.statistics.documentCacheMiss();
+
+                cachedoc = this.store.loadXWikiDoc(doc, context);
+
+                LOGGER.debug("Cache: Got doc {} from storage", key);
+
+                cacheLoadedDocument(key, cachedoc);
+            }
+
+            cachedoc.setStore(this.store);
+        }
+
+        LOGGER.debug("Cache: end for doc {} in cache", key);
+
+        return cachedoc;
+    }
+
+    @Override
+    public List<XWikiDocument> loadXWikiDocs(Collection<XWikiDocument> docs, XWikiContext context)
+        throws XWikiException
+    {
+        List<XWikiDocument> result = new ArrayList<>(docs);
+
+        // Resolve what can be resolved from the caches and remember the position of the other documents
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<XWikiDocument> missingDocuments = new ArrayList<>();
+        List<String> missingKeys = new ArrayList<>();
+        for (int i = 0; i < result.size(); ++i) {
+            XWikiDocument doc = result.get(i);
+            String key = getKey(doc, context);
+
+            XWikiDocument cachedoc = getCachedDocument(key);
+            if (cachedoc == null) {
+                if (getPageExistCache().get(key) == Boolean.FALSE) {
+                    cachedoc = getNotExistingDocument(key, doc);
+                    cachedoc.setStore(this.store);
+                } else {
+                    this.statistics.documentCacheMiss();
+
+                    missingIndexes.add(i);
+                    missingDocuments.add(doc);
+                    missingKeys.add(key);
+
+                    continue;
+                }
+            }
+
+            result.set(i, cachedoc);
+        }
+
+        // Load all the other documents at once
+        if (!missingDocuments.isEmpty()) {
+            LOGGER.debug("Cache: Trying to get docs {} from persistent storage", missingKeys);
+
+            List<XWikiDocument> loadedDocuments = this.store.loadXWikiDocs(missingDocuments, context);
+
+            for (int i = 0; i < loadedDocuments.size(); ++i) {
+                XWikiDocument loadedDocument = loadedDocuments.get(i);
+
+                cacheLoadedDocument(missingKeys.get(i), loadedDocument);
+                loadedDocument.setStore(this.store);
+
+                result.set(missingIndexes.get(i), loadedDocument);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param key the cache key of the document
+     * @return the document from the cache or {@code null} if it's not in the cache
+     */
+    private XWikiDocument getCachedDocument(String key)
+    {
         XWikiDocument cachedoc;
         try {
             cachedoc = getCache().get(key);
@@ -259,46 +400,52 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throw
         }
 
         if (cachedoc != null) {
+            this.statistics.documentCacheHit();
+
             cachedoc.setFromCache(true);
 
             LOGGER.debug("Cache: got doc {} from cache", key);
-        } else {
-            Boolean result = getPageExistCache().get(key);
-
-            if (result == Boolean.FALSE) {
-                LOGGER.debug("Cache: The document {} does not exist, return an empty one", key);
+        }
 
-                cachedoc = doc;
-                cachedoc.setNew(true);
+        return cachedoc;
+    }
 
-                // Make sure to always return a document with an original version, even for one that does not exist.
-                // Allow writing more generic code.
-                cachedoc.setOriginalDocument(new XWikiDocument(cachedoc.getDocumentReference(), cachedoc.getLocale()));
-            } else {
-                LOGGER.debug("Cache: Trying to get doc {} from persistent storage", key);
+    /**
+     * @param key the cache key of the document
+     * @param doc the document to load, known to not exist
+     * @return the passed document, initialized as a new document
+     */
+    private XWikiDocument getNotExistingDocument(String key, XWikiDocument doc)
+    {
+        LOGGER.debug("Cache: The document {} does not exist, return an empty one", key);
 
-                cachedoc = this.store.loadXWikiDoc(doc, context);
+        this.statistics.notExistingDocumentHit();
 
-                LOGGER.debug("Cache: Got doc {} from storage", key);
+        doc.setNew(true);
 
-                if (cachedoc.isNew()) {
-                    getPageExistCache().set(key, Boolean.FALSE);
-                } else {
-                    getCache().set(key, cachedoc);
+        // Make sure to always return a document with an original version, even for one that does not exist.
+        // Allow writing more generic code.
+        doc.setOriginalDocument(new XWikiDocument(doc.getDocumentReference(), doc.getLocale()));
 
-                    // Also update exist cache
-                    getPageExistCache().set(key, Boolean.TRUE);
-                }
+        return doc;
+    }
 
-                LOGGER.debug("Cache: put doc {} in cache", key);
-            }
+    /**
+     * @param key the cache key of the document
+     * @param doc the document loaded from the underlying store
+     */
+    private void cacheLoadedDocument(String key, XWikiDocument doc)
+    {
+        if (doc.isNew()) {
+            getPageExistCache().set(key, Boolean.FALSE);
+        } else {
+            getCache().set(key, doc);
 
-            cachedoc.setStore(this.store);
+            // Also update exist cache
+            getPageExistCache().set(key, Boolean.TRUE);
         }
 
-        LOGGER.debug("Cache: end for doc {} in cache", key);
-
-        return cachedoc;
+        LOGGER.debug("Cache: put doc {} in cache", key);
     }
 
     @Override
@@ -622,11 +769,15 @@ public boolean exists(XWikiDocument doc, XWikiContext context) throws XWikiExcep
             Boolean result = getPageExistCache().get(key);
 
             if (result != null) {
+                this.statistics.existCacheHit();
+
                 return result;
             }
         } catch (Exception e) {
         }
 
+        this.statistics.existCacheMiss();
+
         boolean result = this.store.exists(doc, context);
         getPageExistCache().set(key, Boolean.valueOf(result));
 
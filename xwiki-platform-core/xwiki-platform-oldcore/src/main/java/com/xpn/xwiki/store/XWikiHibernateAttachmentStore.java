@@ -19,6 +19,11 @@
  */
 package com.xpn.xwiki.store;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
 
@@ -26,8 +31,12 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.hibernate.ObjectNotFoundException;
 import org.hibernate.Query;
 import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.PersistentClass;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
@@ -55,6 +64,11 @@ public class XWikiHibernateAttachmentStore extends XWikiHibernateBaseStore imple
     @Named(HINT)
     private AttachmentVersioningStore attachmentVersioningStore;
 
+    /**
+     * The SQL query used to stream the content of an attachment, lazily built from the Hibernate mapping.
+     */
+    private volatile String contentQuery;
+
     /**
      * This allows to initialize our storage engine. The hibernate config file path is taken from xwiki.cfg or directly
      * in the WEB-INF directory.
@@ -239,9 +253,9 @@ public void loadAttachmentContent(XWikiAttachment attachment, XWikiContext input
             Session session = getSession(context);
 
             XWikiAttachmentContent content = new XWikiAttachmentContent(attachment);
-            session.load(content, Long.valueOf(content.getId()));
+            loadAttachmentContent(content, session);
 
-            // Hibernate calls setContent which causes isContentDirty to be true. This is not what we want.
+            // setContent causes isContentDirty to be true. This is not what we want.
             content.setContentDirty(false);
 
             attachment.setAttachment_content(content);
@@ -268,6 +282,52 @@ public void loadAttachmentContent(XWikiAttachment attachment, XWikiContext input
         }
     }
 
+    /**
+     * Copy the content of the attachment by chunks from the database into the attachment content storage instead of
+     * letting Hibernate load the whole content in memory.
+     *
+     * @param content the attachment content to fill
+     * @param session the Hibernate session
+     */
+    private void loadAttachmentContent(XWikiAttachmentContent content, Session session)
+    {
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(getContentQuery())) {
+                statement.setLong(1, content.getId());
+
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next()) {
+                        throw new ObjectNotFoundException(content.getId(), XWikiAttachmentContent.class.getName());
+                    }
+
+                    try (InputStream stream = result.getBinaryStream(1)) {
+                        if (stream != null) {
+                            content.setContent(stream);
+                        }
+                    } catch (IOException e) {
+                        throw new SQLException("Failed to read the attachment content", e);
+                    }
+                }
+            }
+        });
+    }
+
+    private String getContentQuery()
+    {
+        if (this.contentQuery == null) {
+            PersistentClass mapping = getConfiguration().getClassMapping(XWikiAttachmentContent.class.getName());
+            Dialect dialect = getDialect();
+
+            Column idColumn = (Column) mapping.getIdentifier().getColumnIterator().next();
+            Column contentColumn = (Column) mapping.getProperty("content").getColumnIterator().next();
+
+            this.contentQuery = String.format("select %s from %s where %s = ?", contentColumn.getQuotedName(dialect),
+                mapping.getTable().getQuotedName(dialect), idColumn.getQuotedName(dialect));
+        }
+
+        return this.contentQuery;
+    }
+
     @Override
     public void deleteXWikiAttachment(XWikiAttachment attachment, XWikiContext context, boolean bTransaction)
         throws XWikiException
@@ -30,7 +30,9 @@
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -64,11 +66,10 @@
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.component.phase.InitializationException;
-import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
-import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.observation.EventListener;
@@ -116,6 +117,14 @@
 @Singleton
 public class XWikiHibernateStore extends XWikiHibernateBaseStore implements XWikiStoreInterface
 {
+    /**
+     * The maximum number of values passed to a IN clause in a single query.
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private static final LocalDocumentReference GROUPS_CLASS_REFERENCE =
+        new LocalDocumentReference("XWiki", "XWikiGroups");
+
     @Inject
     private Logger logger;
 
@@ -904,18 +913,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                 loadAttachmentList(doc, context, false);
             }
 
-            // TODO: handle the case where there are no xWikiClass and xWikiObject in the Database
-            BaseClass bclass = new BaseClass();
-            String cxml = doc.getXClassXML();
-            if (cxml != null) {
-                bclass.fromXML(cxml);
-                doc.setXClass(bclass);
-                bclass.setDirty(false);
-            }
-
-            // Store this XWikiClass in the context so that we can use it in case of recursive usage
-            // of classes
-            context.addBaseClass(bclass);
+            BaseClass bclass = loadXClass(doc, context);
 
             if (doc.hasElement(XWikiDocument.HAS_OBJECTS)) {
                 Query query = session
@@ -924,10 +922,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                 @SuppressWarnings("unchecked")
                 Iterator<BaseObject> it = query.list().iterator();
 
-                EntityReference localGroupEntityReference = new EntityReference("XWikiGroups", EntityType.DOCUMENT,
-                    new EntityReference("XWiki", EntityType.SPACE));
-                DocumentReference groupsDocumentReference = new DocumentReference(context.getWikiId(),
-                    localGroupEntityReference.getParent().getName(), localGroupEntityReference.getName());
+                DocumentReference groupsDocumentReference = getGroupsDocumentReference(context);
 
                 boolean hasGroups = false;
                 while (it.hasNext()) {
@@ -944,20 +939,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                         continue;
                     }
 
-                    BaseObject newobject;
-                    if (classReference.equals(doc.getDocumentReference())) {
-                        newobject = bclass.newCustomClassInstance(context);
-                    } else {
-                        newobject = BaseClass.newCustomClassInstance(classReference, context);
-                    }
-                    if (newobject != null) {
-                        newobject.setId(object.getId());
-                        newobject.setXClassReference(object.getRelativeXClassReference());
-                        newobject.setDocumentReference(object.getDocumentReference());
-                        newobject.setNumber(object.getNumber());
-                        newobject.setGuid(object.getGuid());
-                        object = newobject;
-                    }
+                    object = newXObject(object, bclass, doc, context);
 
                     if (classReference.equals(groupsDocumentReference)) {
                         // Groups objects are handled differently.
@@ -981,14 +963,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                     Iterator<Object[]> it2 = query2.list().iterator();
                     while (it2.hasNext()) {
                         Object[] result = it2.next();
-                        Integer number = (Integer) result[0];
-                        String member = (String) result[1];
-                        BaseObject obj = BaseClass.newCustomClassInstance(groupsDocumentReference, context);
-                        obj.setDocumentReference(doc.getDocumentReference());
-                        obj.setXClassReference(localGroupEntityReference);
-                        obj.setNumber(number.intValue());
-                        obj.setStringValue("member", member);
-                        doc.setXObject(obj.getNumber(), obj);
+                        addGroupMember(doc, (Integer) result[0], (String) result[1], context);
                     }
                 }
             }
@@ -1026,6 +1001,427 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
         return doc;
     }
 
+    @Override
+    public List<XWikiDocument> loadXWikiDocs(Collection<XWikiDocument> docs, XWikiContext inputxcontext)
+        throws XWikiException
+    {
+        XWikiContext context = getXWikiContext(inputxcontext);
+
+        boolean bTransaction = true;
+        MonitorPlugin monitor = Util.getMonitorPlugin(context);
+        try {
+            // Start monitoring timer
+            if (monitor != null) {
+                monitor.startTimer(HINT);
+            }
+            checkHibernate(context);
+
+            // Load all the documents in the same session, with the custom mappings of all of them (as for a single
+            // document)
+            SessionFactory sfactory = injectCustomMappingsInSessionFactory(docs, context);
+            bTransaction = bTransaction && beginTransaction(sfactory, context);
+            Session session = getSession(context);
+            session.setFlushMode(FlushMode.MANUAL);
+
+            // Load the rows of all the existing documents in a few queries, missing documents are simply not returned
+            Map<Long, XWikiDocument> loadedDocuments = loadDocuments(docs, session);
+
+            Map<XWikiDocument, BaseClass> classes = new IdentityHashMap<>(loadedDocuments.size());
+            for (XWikiDocument doc : loadedDocuments.values()) {
+                doc.setStore(this);
+                doc.setNew(false);
+                doc.setMostRecent(true);
+                // Fix for XWIKI-1651
+                doc.setDate(new Date(doc.getDate().getTime()));
+                doc.setCreationDate(new Date(doc.getCreationDate().getTime()));
+                doc.setContentUpdateDate(new Date(doc.getContentUpdateDate().getTime()));
+
+                classes.put(doc, loadXClass(doc, context));
+            }
+
+            loadAttachmentLists(loadedDocuments.values(), session);
+            loadXObjects(classes, session, context);
+
+            List<XWikiDocument> result = new ArrayList<>(docs.size());
+            for (XWikiDocument doc : docs) {
+                XWikiDocument loadedDocument = loadedDocuments.get(doc.getId());
+                if (loadedDocument != null) {
+                    result.add(loadedDocument);
+                } else {
+                    doc.setStore(this);
+                    doc.setNew(true);
+
+                    // Make sure to always return a document with an original version, even for one that does not
+                    // exist. Allow writing more generic code.
+                    doc.setOriginalDocument(new XWikiDocument(doc.getDocumentReference(), doc.getLocale()));
+
+                    result.add(doc);
+                }
+            }
+
+            for (XWikiDocument doc : loadedDocuments.values()) {
+                doc.setContentDirty(false);
+                doc.setMetaDataDirty(false);
+
+                // We need to ensure that the loaded document becomes the original document
+                doc.setOriginalDocument(doc.clone());
+            }
+
+            if (bTransaction) {
+                endTransaction(context, false);
+            }
+
+            return result;
+        } catch (XWikiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_READING_DOC, "Exception while reading documents", e);
+        } finally {
+            try {
+                if (bTransaction) {
+                    endTransaction(context, false);
+                }
+            } catch (Exception e) {
+            }
+
+            // End monitoring timer
+            if (monitor != null) {
+                monitor.endTimer(HINT);
+            }
+        }
+    }
+
+    /**
+     * Execute a query with a {@code ids} IN clause parameter, splitting the values in several queries when needed.
+     *
+     * @param session the Hibernate session
+     * @param statement the HQL statement, with a {@code ids} list parameter
+     * @param values the values of the {@code ids} parameter
+     * @param parameters the other parameters of the statement
+     * @return the results of all the queries
+     */
+    private List<Object> listInChunks(Session session, String statement, List<?> values,
+        Map<String, Object> parameters)
+    {
+        List<Object> results = new ArrayList<>();
+
+        // Some databases (e.g. Oracle) limit the number of elements in a IN clause
+        for (int start = 0; start < values.size(); start += MAX_IN_CLAUSE_SIZE) {
+            Query query = session.createQuery(statement);
+            query.setParameterList("ids", values.subList(start, Math.min(start + MAX_IN_CLAUSE_SIZE, values.size())));
+            for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                query.setParameter(parameter.getKey(), parameter.getValue());
+            }
+            results.addAll(query.list());
+        }
+
+        return results;
+    }
+
+    /**
+     * @param docs the documents to load
+     * @param session the Hibernate session
+     * @return the documents which exist in the database, indexed by identifier
+     */
+    private Map<Long, XWikiDocument> loadDocuments(Collection<XWikiDocument> docs, Session session)
+    {
+        Set<Long> ids = new LinkedHashSet<>(docs.size());
+        for (XWikiDocument doc : docs) {
+            ids.add(doc.getId());
+        }
+
+        Map<Long, XWikiDocument> loadedDocuments = new HashMap<>(ids.size());
+        for (Object result : listInChunks(session, "from XWikiDocument as doc where doc.id in (:ids)",
+            new ArrayList<>(ids), Collections.emptyMap())) {
+            XWikiDocument doc = (XWikiDocument) result;
+            loadedDocuments.put(doc.getId(), doc);
+        }
+
+        return loadedDocuments;
+    }
+
+    /**
+     * Load the attachments of several documents at once.
+     *
+     * @param docs the loaded documents
+     * @param session the Hibernate session
+     */
+    private void loadAttachmentLists(Collection<XWikiDocument> docs, Session session)
+    {
+        Map<Long, XWikiDocument> documentsWithAttachments = new HashMap<>();
+        for (XWikiDocument doc : docs) {
+            if (doc.hasElement(XWikiDocument.HAS_ATTACHMENTS)) {
+                documentsWithAttachments.put(doc.getId(), doc);
+            }
+        }
+
+        for (Object result : listInChunks(session, "from XWikiAttachment as attach where attach.docId in (:ids)",
+            new ArrayList<>(documentsWithAttachments.keySet()), Collections.emptyMap())) {
+            XWikiAttachment attachment = (XWikiAttachment) result;
+            XWikiDocument doc = documentsWithAttachments.get(attachment.getDocId());
+            if (doc != null) {
+                doc.setAttachment(attachment);
+            }
+        }
+    }
+
+    /**
+     * Load the objects of several documents at once. The properties of the objects are loaded with one query per
+     * property type and the objects which cannot be loaded that way (custom mapping, property stored in an unexpected
+     * table) fallback on {@link #loadXWikiCollectionInternal(BaseCollection, XWikiDocument, XWikiContext, boolean,
+     * boolean)}.
+     *
+     * @param classes the loaded documents and their class
+     * @param session the Hibernate session
+     * @param context the XWiki context
+     * @throws XWikiException when failing to load the objects
+     */
+    private void loadXObjects(Map<XWikiDocument, BaseClass> classes, Session session, XWikiContext context)
+        throws XWikiException
+    {
+        // Documents are indexed by reference since the database might match names in a case insensitive way
+        Map<DocumentReference, XWikiDocument> documentsWithObjects = new HashMap<>();
+        List<XWikiDocument> translations = new ArrayList<>();
+        for (XWikiDocument doc : classes.keySet()) {
+            if (doc.hasElement(XWikiDocument.HAS_OBJECTS)) {
+                XWikiDocument holder = documentsWithObjects.get(doc.getDocumentReference());
+                if (holder == null) {
+                    documentsWithObjects.put(doc.getDocumentReference(), doc);
+                } else if (doc.getTranslation() == 0) {
+                    // The objects (and the class used to create them) belong to the default locale
+                    documentsWithObjects.put(doc.getDocumentReference(), doc);
+                    translations.add(holder);
+                } else {
+                    translations.add(doc);
+                }
+            }
+        }
+
+        List<String> names = new ArrayList<>(documentsWithObjects.size());
+        for (XWikiDocument doc : documentsWithObjects.values()) {
+            names.add(doc.getFullName());
+        }
+
+        DocumentReference groupsDocumentReference = getGroupsDocumentReference(context);
+
+        Map<String, XWikiDocument> documentsWithGroups = new HashMap<>();
+        List<BaseObject> batchedObjects = new ArrayList<>();
+        for (Object result : listInChunks(session,
+            "from BaseObject as bobject where bobject.name in (:ids) order by bobject.number", names,
+            Collections.emptyMap())) {
+            BaseObject object = (BaseObject) result;
+            DocumentReference classReference = object.getXClassReference();
+            XWikiDocument doc = documentsWithObjects.get(object.getDocumentReference());
+
+            if (classReference == null || doc == null) {
+                continue;
+            }
+
+            BaseClass bclass = classes.get(doc);
+            object = newXObject(object, bclass, doc, context);
+
+            if (classReference.equals(groupsDocumentReference)) {
+                // Groups objects are loaded with a single query, see below
+                documentsWithGroups.put(doc.getFullName(), doc);
+            } else if (hasCustomMapping(object, bclass, context)) {
+                loadXWikiCollectionInternal(object, doc, context, false, true);
+            } else {
+                batchedObjects.add(object);
+            }
+            doc.setXObject(object.getNumber(), object);
+        }
+
+        loadXObjectsProperties(batchedObjects, documentsWithObjects, session, context);
+
+        if (!documentsWithGroups.isEmpty()) {
+            for (Object result : listInChunks(session,
+                "select bobject.name, bobject.number, prop.value from StringProperty as prop, BaseObject as bobject"
+                    + " where bobject.name in (:ids) and bobject.className='XWiki.XWikiGroups'"
+                    + " and bobject.id=prop.id.id and prop.id.name='member' order by bobject.number",
+                new ArrayList<>(documentsWithGroups.keySet()), Collections.emptyMap())) {
+                Object[] row = (Object[]) result;
+                XWikiDocument doc = documentsWithGroups.get(row[0]);
+                if (doc != null) {
+                    addGroupMember(doc, (Integer) row[1], (String) row[2], context);
+                }
+            }
+        }
+
+        // Other locales of the same document share the same objects
+        for (XWikiDocument translation : translations) {
+            XWikiDocument doc = documentsWithObjects.get(translation.getDocumentReference());
+            for (List<BaseObject> objects : doc.getXObjects().values()) {
+                for (BaseObject object : objects) {
+                    if (object != null) {
+                        translation.setXObject(object.getNumber(), object.clone());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the properties of several objects at once, with one query per property type.
+     *
+     * @param objects the objects
+     * @param documents the documents the objects belong to
+     * @param session the Hibernate session
+     * @param context the XWiki context
+     * @throws XWikiException when failing to load the objects
+     */
+    private void loadXObjectsProperties(List<BaseObject> objects, Map<DocumentReference, XWikiDocument> documents,
+        Session session, XWikiContext context) throws XWikiException
+    {
+        List<Long> ids = new ArrayList<>(objects.size());
+        for (BaseObject object : objects) {
+            ids.add(object.getId());
+        }
+
+        // Find out the type of each property
+        Map<Long, Integer> propertiesCount = new HashMap<>();
+        Map<String, Set<Long>> idsByType = new LinkedHashMap<>();
+        Set<Long> unmappedIds = new HashSet<>();
+        for (Object result : listInChunks(session,
+            "select prop.id.id, prop.classType from BaseProperty as prop where prop.id.id in (:ids)", ids,
+            Collections.emptyMap())) {
+            Object[] row = (Object[]) result;
+            Long id = (Long) row[0];
+            String classType = (String) row[1];
+
+            propertiesCount.merge(id, 1, Integer::sum);
+            if (getConfiguration().getClassMapping(classType) != null) {
+                idsByType.computeIfAbsent(classType, k -> new LinkedHashSet<>()).add(id);
+            } else {
+                unmappedIds.add(id);
+            }
+        }
+
+        // Load the values of the properties, one query per type. The type is also used as a filter since
+        // several types are stored in the same table.
+        Map<Long, Map<String, BaseProperty>> properties = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> entry : idsByType.entrySet()) {
+            for (Object result : listInChunks(session,
+                "from " + entry.getKey() + " as prop where prop.id.id in (:ids) and prop.classType = :classType",
+                new ArrayList<>(entry.getValue()), Collections.singletonMap("classType", entry.getKey()))) {
+                BaseProperty property = (BaseProperty) result;
+                properties.computeIfAbsent(property.getId(), k -> new HashMap<>()).put(property.getName(), property);
+            }
+        }
+
+        for (BaseObject object : objects) {
+            Map<String, BaseProperty> objectProperties =
+                properties.getOrDefault(object.getId(), Collections.emptyMap());
+
+            if (unmappedIds.contains(object.getId())
+                || objectProperties.size() != propertiesCount.getOrDefault(object.getId(), 0)) {
+                // Some property could not be loaded that way (e.g. a property stored in the table of another type)
+                for (BaseProperty property : objectProperties.values()) {
+                    session.evict(property);
+                }
+                loadXWikiCollectionInternal(object, documents.get(object.getDocumentReference()), context, false,
+                    true);
+            } else {
+                for (BaseProperty property : objectProperties.values()) {
+                    property.setObject(object);
+                    initializeLoadedProperty(property);
+                    object.addField(property.getName(), property);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse the class of a loaded document and register it in the context so that it can be used in case of
+     * recursive usage of classes.
+     *
+     * @param doc the loaded document
+     * @param context the XWiki context
+     * @return the class of the document
+     * @throws XWikiException when failing to parse the class
+     */
+    private BaseClass loadXClass(XWikiDocument doc, XWikiContext context) throws XWikiException
+    {
+        // TODO: handle the case where there are no xWikiClass and xWikiObject in the Database
+        BaseClass bclass = new BaseClass();
+        String cxml = doc.getXClassXML();
+        if (cxml != null) {
+            bclass.fromXML(cxml);
+            doc.setXClass(bclass);
+            bclass.setDirty(false);
+        }
+
+        // Store this XWikiClass in the context so that we can use it in case of recursive usage
+        // of classes
+        context.addBaseClass(bclass);
+
+        return bclass;
+    }
+
+    private DocumentReference getGroupsDocumentReference(XWikiContext context)
+    {
+        return new DocumentReference(GROUPS_CLASS_REFERENCE, new WikiReference(context.getWikiId()));
+    }
+
+    /**
+     * @param object the object loaded from the database
+     * @param bclass the class of the document holding the object
+     * @param doc the document holding the object
+     * @param context the XWiki context
+     * @return an instance of the object class initialized with the metadata of the loaded object
+     * @throws XWikiException when failing to create the object
+     */
+    private BaseObject newXObject(BaseObject object, BaseClass bclass, XWikiDocument doc, XWikiContext context)
+        throws XWikiException
+    {
+        DocumentReference classReference = object.getXClassReference();
+
+        BaseObject newobject;
+        if (classReference.equals(doc.getDocumentReference())) {
+            newobject = bclass.newCustomClassInstance(context);
+        } else {
+            newobject = BaseClass.newCustomClassInstance(classReference, context);
+        }
+        if (newobject != null) {
+            newobject.setId(object.getId());
+            newobject.setXClassReference(object.getRelativeXClassReference());
+            newobject.setDocumentReference(object.getDocumentReference());
+            newobject.setNumber(object.getNumber());
+            newobject.setGuid(object.getGuid());
+
+            return newobject;
+        }
+
+        return object;
+    }
+
+    private boolean hasCustomMapping(BaseObject object, BaseClass documentClass, XWikiContext context)
+    {
+        if (!context.getWiki().hasCustomMappings()) {
+            return false;
+        }
+
+        BaseClass bclass;
+        if (object.getXClassReference().equals(object.getDocumentReference())) {
+            bclass = documentClass;
+        } else {
+            bclass = object.getXClass(context);
+        }
+
+        return bclass != null && bclass.hasCustomMapping();
+    }
+
+    private void addGroupMember(XWikiDocument doc, Integer number, String member, XWikiContext context)
+        throws XWikiException
+    {
+        BaseObject obj = BaseClass.newCustomClassInstance(getGroupsDocumentReference(context), context);
+        obj.setDocumentReference(doc.getDocumentReference());
+        obj.setXClassReference(GROUPS_CLASS_REFERENCE);
+        obj.setNumber(number.intValue());
+        obj.setStringValue("member", member);
+        doc.setXObject(obj.getNumber(), obj);
+    }
+
     @Override
     public void deleteXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext) throws XWikiException
     {
@@ -1541,28 +1937,12 @@ private void loadXWikiProperty(PropertyInterface property, XWikiContext context,
 
             try {
                 session.load(property, (Serializable) property);
-                // In Oracle, empty string are converted to NULL. Since an undefined property is not found at all, it is
-                // safe to assume that a retrieved NULL value should actually be an empty string.
-                if (property instanceof BaseStringProperty) {
-                    BaseStringProperty stringProperty = (BaseStringProperty) property;
-                    if (stringProperty.getValue() == null) {
-                        stringProperty.setValue("");
-                    }
-                }
-                ((BaseProperty) property).setValueDirty(false);
+                initializeLoadedProperty((BaseProperty) property);
             } catch (ObjectNotFoundException e) {
                 // Let's accept that there is no data in property tables but log it
                 this.logger.error("No data for property [{}] of object id [{}]", property.getName(), property.getId());
             }
 
-            // TODO: understand why collections are lazy loaded
-            // Let's force reading lists if there is a list
-            // This seems to be an issue since Hibernate 3.0
-            // Without this test ViewEditTest.testUpdateAdvanceObjectProp fails
-            if (property instanceof ListProperty) {
-                ((ListProperty) property).getList();
-            }
-
             if (bTransaction) {
                 endTransaction(context, false, false);
             }
@@ -1583,6 +1963,27 @@ private void loadXWikiProperty(PropertyInterface property, XWikiContext context,
         }
     }
 
+    private void initializeLoadedProperty(BaseProperty property)
+    {
+        // In Oracle, empty string are converted to NULL. Since an undefined property is not found at all, it is
+        // safe to assume that a retrieved NULL value should actually be an empty string.
+        if (property instanceof BaseStringProperty) {
+            BaseStringProperty stringProperty = (BaseStringProperty) property;
+            if (stringProperty.getValue() == null) {
+                stringProperty.setValue("");
+            }
+        }
+        property.setValueDirty(false);
+
+        // TODO: understand why collections are lazy loaded
+        // Let's force reading lists if there is a list
+        // This seems to be an issue since Hibernate 3.0
+        // Without this test ViewEditTest.testUpdateAdvanceObjectProp fails
+        if (property instanceof ListProperty) {
+            ((ListProperty) property).getList();
+        }
+    }
+
     private void saveXWikiPropertyInternal(final PropertyInterface property, final XWikiContext context,
         final boolean runInOwnTransaction) throws XWikiException
     {
@@ -2787,6 +3188,25 @@ private SessionFactory injectCustomMappingsInSessionFactory(XWikiDocument doc, X
         return sfactory;
     }
 
+    private SessionFactory injectCustomMappingsInSessionFactory(Collection<XWikiDocument> docs, XWikiContext context)
+        throws XWikiException
+    {
+        // If we haven't turned of dynamic custom mappings we should not inject them
+        if (!context.getWiki().hasDynamicCustomMappings()) {
+            return getSessionFactory();
+        }
+
+        boolean result = false;
+        for (XWikiDocument doc : docs) {
+            result |= injectCustomMappings(doc, context);
+        }
+        if (!result) {
+            return getSessionFactory();
+        }
+
+        return injectInSessionFactory(getConfiguration());
+    }
+
     @Override
     public void injectCustomMappings(XWikiContext context) throws XWikiException
     {
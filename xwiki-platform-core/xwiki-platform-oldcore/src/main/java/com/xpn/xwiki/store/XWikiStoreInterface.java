@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.xwiki.component.annotation.Role;
@@ -41,6 +43,29 @@
 
     XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
+    /**
+     * Load several documents at once. This is equivalent to calling {@link #loadXWikiDoc(XWikiDocument, XWikiContext)}
+     * for each document but allows implementations to reduce the number of round trips to the storage. All the
+     * documents are expected to be located in the current wiki.
+     *
+     * @param docs the documents to load
+     * @param context the XWiki context
+     * @return the loaded documents, in the same order as the passed documents
+     * @throws XWikiException when failing to load the documents
+     * @since 10.0RC1
+     */
+    default List<XWikiDocument> loadXWikiDocs(Collection<XWikiDocument> docs, XWikiContext context)
+        throws XWikiException
+    {
+        List<XWikiDocument> result = new ArrayList<>(docs.size());
+
+        for (XWikiDocument doc : docs) {
+            result.add(loadXWikiDoc(doc, context));
+        }
+
+        return result;
+    }
+
     void deleteXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
     List<String> getClassList(XWikiContext context) throws XWikiException;
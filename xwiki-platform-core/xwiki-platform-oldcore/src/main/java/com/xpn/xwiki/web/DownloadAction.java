@@ -20,7 +20,8 @@
 package com.xpn.xwiki.web;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.IllegalCharsetNameException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,8 +34,6 @@
 
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -263,9 +262,6 @@ private void writeByteRange(final XWikiAttachment attachment, Long start, Long e
         throws XWikiException, IOException
     {
         if (start >= 0 && start < attachment.getContentSize(context)) {
-            InputStream data = attachment.getContentInputStream(context);
-            data = new BoundedInputStream(data, end + 1);
-            data.skip(start);
             setCommonHeaders(attachment, request, response, context);
             response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
             if ((end - start + 1L) < Integer.MAX_VALUE) {
@@ -273,7 +269,8 @@ private void writeByteRange(final XWikiAttachment attachment, Long start, Long e
             }
             response.setHeader("Content-Range", "bytes " + start + "-" + end + SEPARATOR
                 + attachment.getContentSize(context));
-            IOUtils.copyLarge(data, response.getOutputStream());
+            // Only the requested range is read from the attachment content
+            attachment.transferContentTo(start, end - start + 1, getOutputChannel(response), context);
         } else {
             response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
         }
@@ -296,23 +293,28 @@ private void sendContent(final XWikiAttachment attachment,
         final XWikiContext context)
         throws XWikiException
     {
-        InputStream stream = null;
         try {
             setCommonHeaders(attachment, request, response, context);
             response.setContentLength(attachment.getContentSize(context));
-            stream = attachment.getContentInputStream(context);
-            IOUtils.copy(stream, response.getOutputStream());
+            attachment.transferContentTo(0, attachment.getContentLongSize(context), getOutputChannel(response),
+                context);
         } catch (IOException e) {
             throw new XWikiException(XWikiException.MODULE_XWIKI_APP,
                 XWikiException.ERROR_XWIKI_APP_SEND_RESPONSE_EXCEPTION,
                 "Exception while sending response", e);
-        } finally {
-            if (stream != null) {
-                IOUtils.closeQuietly(stream);
-            }
         }
     }
 
+    /**
+     * @param response the response to write to
+     * @return a channel writing to the response output stream
+     * @throws IOException if the response output stream cannot be retrieved
+     */
+    private WritableByteChannel getOutputChannel(XWikiResponse response) throws IOException
+    {
+        return Channels.newChannel(response.getOutputStream());
+    }
+
     /**
      * @return the filename of the attachment or null if the URL didn't point to an attachment
      */
@@ -233,7 +233,7 @@ private void importPackageOld(XWikiAttachment packFile, XWikiRequest request, XW
         importer.install();
     }
 
-    private void importPackageFilterStream(XWikiAttachment packFile, XWikiRequest request, XWikiContext context)
+    void importPackageFilterStream(XWikiAttachment packFile, XWikiRequest request, XWikiContext context)
         throws IOException, XWikiException, FilterException
     {
         String[] pages = request.getParameterValues("pages");
@@ -286,6 +286,10 @@ private void importPackageFilterStream(XWikiAttachment packFile, XWikiRequest re
             instanceProperties.setAuthorPreserved(false);
         }
 
+        // Save documents in parallel if configured (the save threads are created with the output filter stream)
+        instanceProperties
+            .setSaveThreads((int) context.getWiki().ParamAsLong("xwiki.action.import.xar.saveThreads", 1));
+
         BeanInputFilterStreamFactory<XARInputProperties> xarFilterStreamFactory =
             Utils.getComponent((Type) InputFilterStreamFactory.class, FilterStreamType.XWIKI_XAR_CURRENT.serialize());
         BeanInputFilterStream<XARInputProperties> xarFilterStream =
@@ -20,9 +20,12 @@
 package com.xpn.xwiki.doc;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Arrays;
 import java.util.Date;
 
 import org.apache.commons.io.IOUtils;
@@ -46,6 +49,7 @@
 import com.xpn.xwiki.test.component.XWikiDocumentFilterUtilsComponentList;
 import com.xpn.xwiki.user.api.XWikiRightService;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -209,6 +213,30 @@ public void testSetContentWithMaxSize() throws Exception
         assertEquals("12345", IOUtils.toString(attachment.getContentInputStream(null)));
     }
 
+    @Test
+    public void transferContentTo() throws Exception
+    {
+        XWikiAttachment attachment = new XWikiAttachment();
+
+        // Small content kept in memory
+        attachment.setContent(new ReaderInputStream(new StringReader("0123456789")));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(4, attachment.transferContentTo(3, 4, Channels.newChannel(output), null));
+        assertEquals("3456", output.toString());
+
+        // Big content stored in a file
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) i;
+        }
+        attachment.setContent(new ByteArrayInputStream(content));
+
+        output = new ByteArrayOutputStream();
+        assertEquals(10, attachment.transferContentTo(99990, 100, Channels.newChannel(output), null));
+        assertArrayEquals(Arrays.copyOfRange(content, 99990, 100000), output.toByteArray());
+    }
+
     @Test
     public void testGetMime() throws Exception
     {
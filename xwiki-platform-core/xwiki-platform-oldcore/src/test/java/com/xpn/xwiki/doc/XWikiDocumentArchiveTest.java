@@ -326,6 +326,29 @@ public void testVerifyDiffAndFullRevisionAlgorithm() throws Exception
         assertFalse(archive.getNode(new Version(6, 1)).isDiff());
     }
 
+    public void testLoadVersionsFromRebuiltVersions() throws Exception
+    {
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        doc.setDocumentArchive(archive);
+        String author = "XWiki.some author";
+
+        for (int i = 1; i <= 9; ++i) {
+            addRevisionToHistory(archive, doc, "content\n" + i + ".1", author, i + ".1");
+        }
+
+        // Rebuild the versions in an order which reuses the previously rebuilt versions
+        for (int i : new int[] {4, 3, 2, 1, 8, 6, 7, 9}) {
+            assertEquals("content\n" + i + ".1", archive.loadDocument(new Version(i, 1), context).getContent());
+        }
+
+        archive.removeVersions(new Version(9, 1), new Version(8, 1), context);
+        addRevisionToHistory(archive, doc, "new content 8.1", author, "8.1");
+
+        assertEquals("new content 8.1", archive.loadDocument(new Version(8, 1), context).getContent());
+        assertEquals("content\n7.1", archive.loadDocument(new Version(7, 1), context).getContent());
+    }
+
     private void addRevisionToHistory(XWikiDocumentArchive archive, XWikiDocument document, String content,
         String author, String comment) throws XWikiException
     {
@@ -138,6 +138,32 @@ public void testGetSetRenderedContent() throws Exception
     }
 
 
+    @Test
+    public void testDependencyInvalidation() throws Exception
+    {
+        getConfigurationSource().setProperty("core.renderingcache.documents",
+            Collections.singletonList(this.document.getPrefixedFullName()));
+
+        DocumentReference includedReference = new DocumentReference("wiki", "space", "included");
+
+        // Simulate the rendering of a document including another document
+        Assert.assertNull(this.renderingCache.getRenderedContent(this.document.getDocumentReference(), "source",
+            getContext()));
+        RenderingCacheDependencies.add(includedReference, getContext());
+        this.renderingCache.setRenderedContent(this.document.getDocumentReference(), "source", "renderedContent",
+            getContext());
+
+        Assert.assertEquals("renderedContent",
+            this.renderingCache.getRenderedContent(this.document.getDocumentReference(), "source", getContext()));
+
+        ObservationManager observationManager = getComponentManager().getInstance(ObservationManager.class);
+        observationManager.notify(new DocumentUpdatedEvent(includedReference), new XWikiDocument(includedReference),
+            getContext());
+
+        Assert.assertNull(this.renderingCache.getRenderedContent(this.document.getDocumentReference(), "source",
+            getContext()));
+    }
+
     private static class TestRenderingCacheAware extends XWikiDefaultPlugin implements RenderingCacheAware {
         public TestRenderingCacheAware(String name, String className, XWikiContext context) {
              super(name, className, context);
@@ -43,6 +43,13 @@
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.objects.classes.NumberClass;
 
+import static com.xpn.xwiki.test.mockito.OldcoreMatchers.anyXWikiContext;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 /**
  * Validate {@link DocumentInstanceOutputFilterStream}.
  * 
@@ -289,6 +296,79 @@ public void testDocumentwithunexistingobjectproperty() throws FilterException, X
         Assert.assertEquals(1, documentObject.getIntValue("prop1"));
     }
 
+    @Test
+    public void testImportDocumentsWithSeveralSaveThreads() throws FilterException, XWikiException
+    {
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVersionPreserved(true);
+        outputProperties.setVerbose(false);
+        outputProperties.setSaveThreads(2);
+
+        importFromXML("document1", outputProperties);
+
+        XWikiDocument document =
+            this.oldcore.getSpyXWiki().getDocument(new DocumentReference("wiki", "space", "page"),
+                this.oldcore.getXWikiContext());
+
+        Assert.assertFalse(document.isNew());
+        Assert.assertEquals("content", document.getContent());
+        Assert.assertEquals("1.42", document.getVersion());
+
+        XWikiAttachment attachment = document.getAttachment("attachment.txt");
+        Assert.assertTrue(Arrays.equals(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9},
+            attachment.getContent(this.oldcore.getXWikiContext())));
+    }
+
+    @Test
+    public void testImportDocumentWithManyRevisionsWithSeveralSaveThreads() throws FilterException, XWikiException
+    {
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVersionPreserved(true);
+        outputProperties.setVerbose(false);
+        outputProperties.setSaveThreads(2);
+
+        // More revisions than what is sent at once to the save threads
+        importFromXML("documentwithmanyrevisions", outputProperties);
+
+        XWikiDocument document =
+            this.oldcore.getSpyXWiki().getDocument(new DocumentReference("wiki", "space", "page"),
+                this.oldcore.getXWikiContext());
+
+        Assert.assertFalse(document.isNew());
+        Assert.assertEquals("1.250", document.getVersion());
+
+        verify(this.oldcore.getSpyXWiki(), times(250)).saveDocument(any(XWikiDocument.class), any(), anyBoolean(),
+            anyXWikiContext());
+    }
+
+    @Test
+    public void testImportStopsAtFirstSaveFailureWithSeveralSaveThreads() throws XWikiException
+    {
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVersionPreserved(true);
+        outputProperties.setVerbose(false);
+        outputProperties.setStoppedWhenSaveFail(true);
+        outputProperties.setSaveThreads(2);
+
+        doThrow(new XWikiException()).when(this.oldcore.getSpyXWiki()).saveDocument(any(XWikiDocument.class), any(),
+            anyBoolean(), anyXWikiContext());
+
+        try {
+            importFromXML("documentwithmanyrevisions", outputProperties);
+
+            Assert.fail("The import should have failed");
+        } catch (FilterException e) {
+            // Expected
+        }
+
+        // Nothing is saved after the first failure
+        verify(this.oldcore.getSpyXWiki()).saveDocument(any(XWikiDocument.class), any(), anyBoolean(),
+            anyXWikiContext());
+    }
+
     @Test
     public void testDocumentwithnumberversion() throws FilterException, XWikiException
     {
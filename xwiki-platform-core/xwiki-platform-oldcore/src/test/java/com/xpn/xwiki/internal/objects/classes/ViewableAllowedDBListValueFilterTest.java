@@ -65,6 +65,8 @@ public void configure() throws Exception
         DocumentReference bobReference = new DocumentReference("wiki", "User", "bob");
         when(this.documentReferenceResolver.resolve("bob")).thenReturn(bobReference);
         when(this.authorization.hasAccess(Right.VIEW, bobReference)).thenReturn(true);
+
+        when(this.authorization.filter(any(), any())).thenCallRealMethod();
     }
 
     @Test
@@ -89,8 +89,9 @@ public void afterComponent() throws Exception
 
     private void setTemplateContent(String content) throws UnsupportedEncodingException, MalformedURLException
     {
+        byte[] bytes = content.getBytes("UTF8");
         when(this.environmentMock.getResourceAsStream("/templates/template"))
-            .thenReturn(new ByteArrayInputStream(content.getBytes("UTF8")));
+            .thenAnswer(invocation -> new ByteArrayInputStream(bytes));
         when(this.environmentMock.getResource("/templates/template")).thenReturn(new URL("http://url"));
     }
 
@@ -131,6 +132,19 @@ public void testRenderWiki() throws Exception
         assertEquals("<p>first line<br/>second line</p>", mocker.getComponentUnderTest().render("template"));
     }
 
+    @Test
+    public void testRenderWikiWhenContentChanges() throws Exception
+    {
+        setTemplateContent("##!source.syntax=xwiki/2.1\nfirst content");
+
+        assertEquals("<p>first content</p>", mocker.getComponentUnderTest().render("template"));
+        assertEquals("<p>first content</p>", mocker.getComponentUnderTest().render("template"));
+
+        setTemplateContent("##!source.syntax=xwiki/2.1\nsecond content");
+
+        assertEquals("<p>second content</p>", mocker.getComponentUnderTest().render("template"));
+    }
+
     @Test
     public void testRenderClassloaderTemplate() throws ComponentLookupException, Exception
     {
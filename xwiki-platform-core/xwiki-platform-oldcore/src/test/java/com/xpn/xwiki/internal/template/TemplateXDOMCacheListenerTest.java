@@ -0,0 +1,62 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.template;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.observation.EventListener;
+import org.xwiki.template.event.TemplateDeletedEvent;
+import org.xwiki.template.event.TemplateUpdatedEvent;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link TemplateXDOMCacheListener}.
+ *
+ * @version $Id$
+ */
+public class TemplateXDOMCacheListenerTest
+{
+    @Rule
+    public MockitoComponentMockingRule<EventListener> mocker =
+        new MockitoComponentMockingRule<>(TemplateXDOMCacheListener.class);
+
+    private InternalTemplateManager templateManager;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.templateManager = this.mocker.registerMockComponent(InternalTemplateManager.class);
+    }
+
+    @Test
+    public void onTemplateUpdatedAndDeleted() throws Exception
+    {
+        this.mocker.getComponentUnderTest().onEvent(new TemplateUpdatedEvent("wiki:XWiki.Skin^template.vm"), null,
+            null);
+        this.mocker.getComponentUnderTest().onEvent(new TemplateDeletedEvent("wiki:XWiki.Skin@other.vm"), null,
+            null);
+
+        verify(this.templateManager).removeCachedXDOM("wiki:XWiki.Skin^template.vm");
+        verify(this.templateManager).removeCachedXDOM("wiki:XWiki.Skin@other.vm");
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.context.ExecutionContextManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.test.MockitoOldcoreRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link XWikiStatsStoreService} behavior.
+ *
+ * @version $Id$
+ */
+public class XWikiStatsStoreServiceTest
+{
+    @Rule
+    public MockitoOldcoreRule oldcore = new MockitoOldcoreRule();
+
+    private final List<List<XWikiStatsStoreItem>> stored = Collections.synchronizedList(new ArrayList<>());
+
+    private CountDownLatch storeLatch = new CountDownLatch(0);
+
+    private XWikiHibernateStore hibernateStore;
+
+    private class TestStatsStoreItem extends AbstractStatsStoreItem
+    {
+        TestStatsStoreItem(String name)
+        {
+            super(name, new Date(), PeriodType.DAY, oldcore.getXWikiContext());
+        }
+
+        @Override
+        public String getId()
+        {
+            return this.name;
+        }
+
+        @Override
+        protected void storeInternal(List<XWikiStatsStoreItem> statsList)
+        {
+            storeLatch.countDown();
+            if (this.name.startsWith("failing")) {
+                throw new RuntimeException("Failed to store " + this.name);
+            }
+            stored.add(new ArrayList<>(statsList));
+        }
+    }
+
+    @Before
+    public void before() throws Exception
+    {
+        this.oldcore.getMocker().registerMockComponent(ExecutionContextManager.class);
+
+        this.hibernateStore = this.oldcore.getSpyXWiki().getHibernateStore();
+        when(this.hibernateStore.beginTransaction(any(XWikiContext.class))).thenReturn(true);
+    }
+
+    private XWikiStatsStoreService createService(long queueSize, long flushInterval)
+    {
+        this.oldcore.getMockXWikiCfg().setProperty("stats.queue.size", queueSize);
+        this.oldcore.getMockXWikiCfg().setProperty("stats.queue.flushInterval", flushInterval);
+
+        return new XWikiStatsStoreService(this.oldcore.getXWikiContext());
+    }
+
+    @Test
+    public void storeMergedStatistics() throws Exception
+    {
+        // The statistics are stored as soon as 3 of them have been merged, long before the flush interval
+        XWikiStatsStoreService service = createService(3, 60000);
+        this.storeLatch = new CountDownLatch(2);
+
+        TestStatsStoreItem a1 = new TestStatsStoreItem("a");
+        TestStatsStoreItem b1 = new TestStatsStoreItem("b");
+        TestStatsStoreItem a2 = new TestStatsStoreItem("a");
+
+        service.start();
+        service.add(a1);
+        service.add(b1);
+        service.add(a2);
+
+        assertTrue(this.storeLatch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(Arrays.asList(a1, a2), Arrays.asList(b1)), this.stored);
+
+        service.stop();
+
+        // Each merged statistic is stored in its own transaction
+        verify(this.hibernateStore, times(2)).beginTransaction(any(XWikiContext.class));
+        verify(this.hibernateStore, times(2)).endTransaction(any(XWikiContext.class), eq(true));
+    }
+
+    @Test
+    public void storeOtherStatisticsWhenOneFails() throws Exception
+    {
+        // The flush interval is never reached during the test
+        XWikiStatsStoreService service = createService(200, 60000);
+
+        TestStatsStoreItem a1 = new TestStatsStoreItem("a");
+        TestStatsStoreItem failing = new TestStatsStoreItem("failing");
+        TestStatsStoreItem b1 = new TestStatsStoreItem("b");
+
+        service.start();
+        service.add(a1);
+        service.add(failing);
+        service.add(b1);
+
+        service.stop();
+
+        assertEquals(Arrays.asList(Arrays.asList(a1), Arrays.asList(b1)), this.stored);
+        verify(this.hibernateStore, times(2)).endTransaction(any(XWikiContext.class), eq(true));
+        verify(this.hibernateStore).endTransaction(any(XWikiContext.class), eq(false));
+    }
+
+    @Test
+    public void storePendingStatisticsOnStop() throws Exception
+    {
+        // The flush interval is never reached during the test
+        XWikiStatsStoreService service = createService(200, 60000);
+
+        TestStatsStoreItem a1 = new TestStatsStoreItem("a");
+        TestStatsStoreItem a2 = new TestStatsStoreItem("a");
+        TestStatsStoreItem b1 = new TestStatsStoreItem("b");
+
+        service.start();
+        service.add(a1);
+        service.add(a2);
+        service.add(b1);
+
+        service.stop();
+
+        assertEquals(Arrays.asList(Arrays.asList(a1, a2), Arrays.asList(b1)), this.stored);
+        verify(this.hibernateStore, times(2)).endTransaction(any(XWikiContext.class), anyBoolean());
+    }
+
+    @Test
+    public void dropStatisticsWhenQueueIsFull() throws Exception
+    {
+        XWikiStatsStoreService service = createService(1, 60000);
+
+        TestStatsStoreItem a1 = new TestStatsStoreItem("a");
+        TestStatsStoreItem b1 = new TestStatsStoreItem("b");
+
+        // The storing thread is not started yet so the second statistic does not fit in the queue, adding it should
+        // not block
+        service.add(a1);
+        service.add(b1);
+
+        service.start();
+        service.stop();
+
+        assertEquals(Arrays.asList(Arrays.asList(a1)), this.stored);
+    }
+}
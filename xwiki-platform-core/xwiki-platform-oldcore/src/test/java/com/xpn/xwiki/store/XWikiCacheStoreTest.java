@@ -19,14 +19,21 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheManager;
+import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.model.internal.reference.UidStringEntityReferenceSerializer;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.ApplicationStoppedEvent;
 import org.xwiki.observation.remote.RemoteObservationManagerContext;
 import org.xwiki.test.annotation.ComponentList;
 
@@ -34,11 +41,15 @@
 import com.xpn.xwiki.test.MockitoOldcoreRule;
 
 import static com.xpn.xwiki.test.mockito.OldcoreMatchers.isCacheConfiguration;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -59,11 +70,14 @@
 
     private Cache<Boolean> existCache;
 
+    private JMXBeanRegistration jmxRegistration;
+
     @Before
     public void before() throws Exception
     {
         this.oldcore.getMocker().registerMockComponent(RemoteObservationManagerContext.class);
         this.oldcore.getMocker().registerMockComponent(ObservationManager.class);
+        this.jmxRegistration = this.oldcore.getMocker().registerMockComponent(JMXBeanRegistration.class);
 
         CacheManager cacheManager = this.oldcore.getMocker().registerMockComponent(CacheManager.class);
         cache = mock(Cache.class);
@@ -87,6 +101,8 @@ public void testLoadXWikiDoc() throws Exception
 
         XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
 
+        verify(this.cache).addCacheEntryListener(store.getStatistics());
+
         XWikiDocument existingDocument =
             store.loadXWikiDoc(new XWikiDocument(reference), this.oldcore.getXWikiContext());
 
@@ -114,5 +130,98 @@ public void testLoadXWikiDoc() throws Exception
 
         verifyNoMoreInteractions(this.cache);
         verifyNoMoreInteractions(this.existCache);
+
+        assertEquals(0, store.getStatistics().getDocumentCacheHits());
+        assertEquals(2, store.getStatistics().getDocumentCacheMisses());
+    }
+
+    @Test
+    public void loadXWikiDocUpdatesStatistics() throws Exception
+    {
+        this.oldcore.getXWikiContext().setWikiId("wiki");
+
+        XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
+
+        DocumentReference reference = new DocumentReference("wiki", "space", "page");
+        when(this.cache.get("4:wiki5:space4:page")).thenReturn(new XWikiDocument(reference));
+        when(this.existCache.get("4:wiki5:space6:nopage")).thenReturn(Boolean.FALSE);
+
+        store.loadXWikiDoc(new XWikiDocument(reference), this.oldcore.getXWikiContext());
+        store.loadXWikiDoc(new XWikiDocument(new DocumentReference("wiki", "space", "nopage")),
+            this.oldcore.getXWikiContext());
+        store.exists(new XWikiDocument(new DocumentReference("wiki", "space", "nopage")),
+            this.oldcore.getXWikiContext());
+
+        assertEquals(1, store.getStatistics().getDocumentCacheHits());
+        assertEquals(0, store.getStatistics().getDocumentCacheMisses());
+        assertEquals(1, store.getStatistics().getNotExistingDocumentHits());
+        assertEquals(1, store.getStatistics().getExistCacheHits());
+        assertEquals(0, store.getStatistics().getExistCacheMisses());
+    }
+
+    @Test
+    public void loadXWikiDocs() throws Exception
+    {
+        this.oldcore.getXWikiContext().setWikiId("wiki");
+        this.oldcore.getSpyXWiki().saveDocument(new XWikiDocument(new DocumentReference("wiki", "space", "page")),
+            this.oldcore.getXWikiContext());
+
+        XWikiStoreInterface mockStore = this.oldcore.getMockStore();
+        when(mockStore.loadXWikiDocs(any(), any())).then(invocation -> {
+            List<XWikiDocument> documents = new ArrayList<>();
+            for (XWikiDocument document : invocation.<Collection<XWikiDocument>>getArgument(0)) {
+                documents.add(mockStore.loadXWikiDoc(document, invocation.getArgument(1)));
+            }
+            return documents;
+        });
+
+        XWikiCacheStore store = new XWikiCacheStore(mockStore, this.oldcore.getXWikiContext());
+
+        DocumentReference cachedReference = new DocumentReference("wiki", "space", "cached");
+        XWikiDocument cachedDocument = new XWikiDocument(cachedReference);
+        when(this.cache.get("4:wiki5:space6:cached")).thenReturn(cachedDocument);
+        when(this.existCache.get("4:wiki5:space7:missing")).thenReturn(Boolean.FALSE);
+
+        List<XWikiDocument> documents = store.loadXWikiDocs(
+            Arrays.asList(new XWikiDocument(new DocumentReference("wiki", "space", "page")),
+                new XWikiDocument(cachedReference),
+                new XWikiDocument(new DocumentReference("wiki", "space", "missing")),
+                new XWikiDocument(new DocumentReference("wiki", "space", "nopage"))),
+            this.oldcore.getXWikiContext());
+
+        assertEquals(4, documents.size());
+        assertFalse(documents.get(0).isNew());
+        assertSame(cachedDocument, documents.get(1));
+        assertTrue(documents.get(2).isNew());
+        assertTrue(documents.get(3).isNew());
+
+        // Only the documents which were not in the cache are loaded from the store, in one call
+        verify(mockStore).loadXWikiDocs(argThat(missingDocuments -> missingDocuments.size() == 2), any());
+
+        verify(this.cache).set("4:wiki5:space4:page", documents.get(0));
+        verify(this.existCache).set("4:wiki5:space4:page", Boolean.TRUE);
+        verify(this.existCache).set("4:wiki5:space6:nopage", Boolean.FALSE);
+
+        assertEquals(1, store.getStatistics().getDocumentCacheHits());
+        assertEquals(2, store.getStatistics().getDocumentCacheMisses());
+        assertEquals(1, store.getStatistics().getNotExistingDocumentHits());
+    }
+
+    @Test
+    public void registerAndUnregisterStatistics() throws Exception
+    {
+        XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
+
+        verify(this.jmxRegistration).registerMBean(store.getStatistics(), "type=Store,name=XWikiCacheStore");
+
+        store.onEvent(new ApplicationStoppedEvent(), null, null);
+
+        ObservationManager observation = this.oldcore.getMocker().getInstance(ObservationManager.class);
+        verify(observation).removeListener(store.getName());
+        verify(this.jmxRegistration).unregisterMBean("type=Store,name=XWikiCacheStore");
+
+        // The caches are still usable by the requests which are not finished yet
+        verify(this.cache, never()).dispose();
+        verify(this.existCache, never()).dispose();
     }
 }
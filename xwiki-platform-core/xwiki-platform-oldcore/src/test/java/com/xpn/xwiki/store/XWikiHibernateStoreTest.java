@@ -19,9 +19,11 @@
  */
 package com.xpn.xwiki.store;
 
+import java.io.Serializable;
 import java.sql.Statement;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
@@ -44,6 +46,7 @@
 import org.xwiki.query.QueryManager;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
+import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseProperty;
@@ -56,6 +59,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -330,4 +334,104 @@ public void getTranslationList() throws Exception
         verify(query).bindValue("space", "Path.To");
         verify(query).bindValue("name", documentReference.getName());
     }
+
+    @Test
+    public void loadXWikiDocsWithBatchedQueries() throws Exception
+    {
+        XWikiDocument firstDocument = mock(XWikiDocument.class, "first");
+        when(firstDocument.getId()).thenReturn(1L);
+        XWikiDocument secondDocument = mock(XWikiDocument.class, "second");
+        when(secondDocument.getId()).thenReturn(2L);
+
+        XWikiDocument firstLoadedDocument = mockLoadedDocument(1L);
+        when(firstLoadedDocument.hasElement(XWikiDocument.HAS_ATTACHMENTS)).thenReturn(true);
+        XWikiDocument secondLoadedDocument = mockLoadedDocument(2L);
+
+        Query documentQuery = mock(Query.class);
+        when(session.createQuery("from XWikiDocument as doc where doc.id in (:ids)")).thenReturn(documentQuery);
+        when(documentQuery.list()).thenReturn(Arrays.asList(secondLoadedDocument, firstLoadedDocument));
+
+        XWikiAttachment attachment = mock(XWikiAttachment.class);
+        when(attachment.getDocId()).thenReturn(1L);
+        Query attachmentQuery = mock(Query.class);
+        when(session.createQuery("from XWikiAttachment as attach where attach.docId in (:ids)"))
+            .thenReturn(attachmentQuery);
+        when(attachmentQuery.list()).thenReturn(Collections.singletonList(attachment));
+
+        assertEquals(Arrays.asList(firstLoadedDocument, secondLoadedDocument),
+            store.loadXWikiDocs(Arrays.asList(firstDocument, secondDocument), xcontext));
+
+        verify(documentQuery).setParameterList("ids", Arrays.asList(1L, 2L));
+        verify(attachmentQuery).setParameterList("ids", Collections.singletonList(1L));
+        verify(firstLoadedDocument).setAttachment(attachment);
+        verify(firstLoadedDocument).setNew(false);
+        verify(secondLoadedDocument).setNew(false);
+
+        // No document has objects and the documents are never loaded one by one
+        verify(session, never()).createQuery(startsWith("from BaseObject"));
+        verify(session, never()).load(any(Object.class), any(Serializable.class));
+    }
+
+    @Test
+    public void loadXWikiDocsWithTranslationsKeepsObjectsInDefaultLocale() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+
+        XWikiDocument translation = mock(XWikiDocument.class, "translation");
+        when(translation.getId()).thenReturn(2L);
+        XWikiDocument defaultDocument = mock(XWikiDocument.class, "default");
+        when(defaultDocument.getId()).thenReturn(1L);
+
+        // The translation is returned first by the database
+        XWikiDocument loadedTranslation = mockLoadedDocument(2L);
+        when(loadedTranslation.getTranslation()).thenReturn(1);
+        XWikiDocument loadedDefaultDocument = mockLoadedDocument(1L);
+        for (XWikiDocument document : Arrays.asList(loadedTranslation, loadedDefaultDocument)) {
+            when(document.getDocumentReference()).thenReturn(documentReference);
+            when(document.getFullName()).thenReturn("Space.Page");
+            when(document.hasElement(XWikiDocument.HAS_OBJECTS)).thenReturn(true);
+        }
+
+        Query documentQuery = mock(Query.class);
+        when(session.createQuery("from XWikiDocument as doc where doc.id in (:ids)")).thenReturn(documentQuery);
+        when(documentQuery.list()).thenReturn(Arrays.asList(loadedTranslation, loadedDefaultDocument));
+
+        // An object of the class defined by the document itself
+        BaseObject object = mock(BaseObject.class);
+        when(object.getId()).thenReturn(42L);
+        when(object.getDocumentReference()).thenReturn(documentReference);
+        when(object.getXClassReference()).thenReturn(documentReference);
+        Query objectQuery = mock(Query.class);
+        when(session.createQuery(startsWith("from BaseObject as bobject"))).thenReturn(objectQuery);
+        when(objectQuery.list()).thenReturn(Collections.singletonList(object));
+
+        Query propertyQuery = mock(Query.class);
+        when(session.createQuery(startsWith("select prop.id.id, prop.classType from BaseProperty")))
+            .thenReturn(propertyQuery);
+        when(propertyQuery.list()).thenReturn(Collections.emptyList());
+
+        Query attachmentQuery = mock(Query.class);
+        when(session.createQuery("from XWikiAttachment as attach where attach.docId in (:ids)"))
+            .thenReturn(attachmentQuery);
+        when(attachmentQuery.list()).thenReturn(Collections.emptyList());
+
+        store.loadXWikiDocs(Arrays.asList(defaultDocument, translation), xcontext);
+
+        // The objects are created from the class of the default locale and held by it, the translation only gets
+        // copies of them
+        verify(objectQuery).setParameterList("ids", Collections.singletonList("Space.Page"));
+        verify(loadedDefaultDocument).setXObject(eq(0), any(BaseObject.class));
+        verify(loadedTranslation, never()).setXObject(eq(0), any(BaseObject.class));
+    }
+
+    private XWikiDocument mockLoadedDocument(long id)
+    {
+        XWikiDocument document = mock(XWikiDocument.class, "loaded" + id);
+        when(document.getId()).thenReturn(id);
+        when(document.getDate()).thenReturn(new Date());
+        when(document.getCreationDate()).thenReturn(new Date());
+        when(document.getContentUpdateDate()).thenReturn(new Date());
+
+        return document;
+    }
 }
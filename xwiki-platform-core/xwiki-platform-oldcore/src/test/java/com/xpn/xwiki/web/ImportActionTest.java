@@ -0,0 +1,120 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.web;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.filter.input.BeanInputFilterStream;
+import org.xwiki.filter.input.BeanInputFilterStreamFactory;
+import org.xwiki.filter.input.InputFilterStreamFactory;
+import org.xwiki.filter.instance.output.DocumentInstanceOutputProperties;
+import org.xwiki.filter.output.BeanOutputFilterStream;
+import org.xwiki.filter.output.BeanOutputFilterStreamFactory;
+import org.xwiki.filter.output.OutputFilterStreamFactory;
+import org.xwiki.filter.type.FilterStreamType;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiAttachment;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ImportAction}.
+ *
+ * @version $Id$
+ */
+public class ImportActionTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    private ImportAction importAction = new ImportAction();
+
+    private XWikiContext context = mock(XWikiContext.class);
+
+    private XWikiRequest request = mock(XWikiRequest.class);
+
+    private XWiki xwiki = mock(XWiki.class);
+
+    private BeanInputFilterStream<?> xarFilterStream = mock(BeanInputFilterStream.class);
+
+    private BeanOutputFilterStream<?> instanceFilterStream = mock(BeanOutputFilterStream.class);
+
+    /**
+     * The number of save threads of the output properties at the time the output filter stream is created.
+     */
+    private List<Integer> saveThreads = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        Utils.setComponentManager(this.mocker);
+
+        when(this.context.getWiki()).thenReturn(this.xwiki);
+
+        BeanInputFilterStreamFactory<?> xarFilterStreamFactory = mock(BeanInputFilterStreamFactory.class);
+        this.mocker.registerComponent(InputFilterStreamFactory.class, FilterStreamType.XWIKI_XAR_CURRENT.serialize(),
+            xarFilterStreamFactory);
+        when(xarFilterStreamFactory.createInputFilterStream(any())).thenAnswer(invocation -> this.xarFilterStream);
+
+        BeanOutputFilterStreamFactory<?> instanceFilterStreamFactory = mock(BeanOutputFilterStreamFactory.class);
+        this.mocker.registerComponent(OutputFilterStreamFactory.class, FilterStreamType.XWIKI_INSTANCE.serialize(),
+            instanceFilterStreamFactory);
+        when(instanceFilterStreamFactory.createOutputFilterStream(any())).thenAnswer(invocation -> {
+            // The document instance output reads its properties when it is created
+            this.saveThreads.add(((DocumentInstanceOutputProperties) invocation.getArgument(0)).getSaveThreads());
+            return this.instanceFilterStream;
+        });
+
+        this.mocker.registerMockComponent(ObservationManager.class);
+        this.mocker.registerMockComponent(LoggerManager.class);
+        this.mocker.registerMockComponent(EntityReferenceSerializer.TYPE_STRING, "local");
+    }
+
+    @Test
+    public void importWithSeveralSaveThreads() throws Exception
+    {
+        when(this.xwiki.ParamAsLong("xwiki.action.import.xar.saveThreads", 1)).thenReturn(4L);
+
+        XWikiAttachment packFile = mock(XWikiAttachment.class);
+        when(packFile.getContentInputStream(this.context)).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+        this.importAction.importPackageFilterStream(packFile, this.request, this.context);
+
+        assertEquals(1, this.saveThreads.size());
+        assertEquals(4, this.saveThreads.get(0).intValue());
+        verify(this.xarFilterStream).read(any());
+        verify(this.instanceFilterStream).close();
+    }
+}
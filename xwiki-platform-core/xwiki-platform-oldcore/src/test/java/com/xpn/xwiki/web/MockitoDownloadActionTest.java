@@ -19,9 +19,10 @@
  */
 package com.xpn.xwiki.web;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 import java.util.Date;
 
@@ -87,7 +88,9 @@ public void renderWhenAttachmentIsInANestedSpace() throws Exception
         Date now = new Date();
         when(attachment.getDate()).thenReturn(now);
         when(attachment.getFilename()).thenReturn("file.ext");
-        when(attachment.getContentInputStream(xcontext)).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(attachment.transferContentTo(anyLong(), anyLong(), any(WritableByteChannel.class), same(xcontext)))
+            .then(invocation -> (long) invocation.<WritableByteChannel>getArgument(2)
+                .write(ByteBuffer.wrap("test".getBytes())));
         when(attachment.getMimeType(xcontext)).thenReturn("mimetype");
 
         // Set the current doc
@@ -160,7 +163,9 @@ public void renderWhenZipExplorerPluginURL() throws Exception
         Date now = new Date();
         when(attachment.getDate()).thenReturn(now);
         when(attachment.getFilename()).thenReturn("file.ext");
-        when(attachment.getContentInputStream(xcontext)).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(attachment.transferContentTo(anyLong(), anyLong(), any(WritableByteChannel.class), same(xcontext)))
+            .then(invocation -> (long) invocation.<WritableByteChannel>getArgument(2)
+                .write(ByteBuffer.wrap("test".getBytes())));
         when(attachment.getMimeType(xcontext)).thenReturn("mimetype");
         when(attachment.clone()).thenReturn(attachment);
 
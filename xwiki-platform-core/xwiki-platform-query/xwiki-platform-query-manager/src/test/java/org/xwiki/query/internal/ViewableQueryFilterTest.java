@@ -61,6 +61,7 @@ public void configure() throws Exception
         this.authorization = this.mocker.getInstance(ContextualAuthorizationManager.class);
         when(this.authorization.hasAccess(Right.VIEW, authorized)).thenReturn(true);
         when(this.authorization.hasAccess(Right.VIEW, unauthorized)).thenReturn(false);
+        when(this.authorization.filter(any(), any())).thenCallRealMethod();
     }
 
     @Test
@@ -19,6 +19,9 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 
@@ -41,6 +44,20 @@
     void renameLinks(DocumentReference documentReference, DocumentReference oldLinkTarget,
         DocumentReference newLinkTarget);
 
+    /**
+     * Renames the links from the content of the specified documents, using the given threads. Each document is updated
+     * by a single thread and the progress and logs are reported in the calling thread, in the order of the passed
+     * documents. The executor is not shut down, so that it can be reused for the next documents.
+     *
+     * @param documentReferences the documents whose content needs to be updated
+     * @param oldLinkTarget the link target that needs to be replaced
+     * @param newLinkTarget the new link target
+     * @param executor the threads used to update the documents, or {@code null} to update them in the calling thread
+     * @since 10.0RC1
+     */
+    void renameLinks(Collection<DocumentReference> documentReferences, DocumentReference oldLinkTarget,
+        DocumentReference newLinkTarget, ExecutorService executor);
+
     /**
      * Updates the relative links from the content of a document after it has been renamed or moved. This ensures that
      * the links from the content of the renamed/moved document are relative to the new reference.
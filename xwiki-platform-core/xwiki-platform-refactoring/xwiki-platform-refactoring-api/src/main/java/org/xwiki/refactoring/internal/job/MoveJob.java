@@ -19,10 +19,13 @@
  */
 package org.xwiki.refactoring.internal.job;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -67,6 +70,11 @@ public class MoveJob extends AbstractEntityJob<MoveRequest, EntityJobStatus<Move
     @Inject
     private WikiDescriptorManager wikiDescriptorManager;
 
+    /**
+     * The threads used to update the back-links, shared by all the documents moved by this job.
+     */
+    private ExecutorService updateLinksExecutor;
+
     @Override
     public String getType()
     {
@@ -77,7 +85,23 @@ public String getType()
     protected void runInternal() throws Exception
     {
         if (this.request.getDestination() != null) {
-            super.runInternal();
+            int threads = this.request.getUpdateLinksThreads();
+            if (threads > 1) {
+                this.updateLinksExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "Link refactoring thread");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            try {
+                super.runInternal();
+            } finally {
+                if (this.updateLinksExecutor != null) {
+                    this.updateLinksExecutor.shutdownNow();
+                    this.updateLinksExecutor = null;
+                }
+            }
         }
     }
 
@@ -314,6 +338,20 @@ private void updateBackLinks(DocumentReference oldReference, DocumentReference n
         this.logger.info("Updating the back-links for document [{}] in wiki [{}].", oldReference, wikiId);
         List<DocumentReference> backlinkDocumentReferences =
             this.modelBridge.getBackLinkedReferences(oldReference, wikiId);
+
+        if (this.updateLinksExecutor != null) {
+            List<DocumentReference> editableReferences = new ArrayList<>(backlinkDocumentReferences.size());
+            for (DocumentReference backlinkDocumentReference : backlinkDocumentReferences) {
+                if (hasAccess(Right.EDIT, backlinkDocumentReference)) {
+                    editableReferences.add(backlinkDocumentReference);
+                }
+            }
+            this.linkRefactoring.renameLinks(editableReferences, oldReference, newReference,
+                this.updateLinksExecutor);
+
+            return;
+        }
+
         this.progressManager.pushLevelProgress(backlinkDocumentReferences.size(), this);
 
         try {
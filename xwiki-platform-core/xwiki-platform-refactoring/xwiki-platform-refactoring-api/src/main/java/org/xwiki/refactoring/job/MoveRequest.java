@@ -55,6 +55,11 @@ public class MoveRequest extends EntityRequest
      */
     private static final String PROPERTY_UPDATE_LINKS_ON_FARM = "updateLinksOnFarm";
 
+    /**
+     * @see #getUpdateLinksThreads()
+     */
+    private static final String PROPERTY_UPDATE_LINKS_THREADS = "updateLinksThreads";
+
     /**
      * @see #isAutoRedirect()
      */
@@ -148,6 +153,31 @@ public void setUpdateLinksOnFarm(boolean updateLinksOnFarm)
         setProperty(PROPERTY_UPDATE_LINKS_ON_FARM, updateLinksOnFarm);
     }
 
+    /**
+     * @return the number of threads used to update the links that target the old entity reference, {@code 1} to update
+     *         them one after the other in the job thread
+     * @since 10.0RC1
+     */
+    public int getUpdateLinksThreads()
+    {
+        return getProperty(PROPERTY_UPDATE_LINKS_THREADS, 1);
+    }
+
+    /**
+     * Sets the number of threads used to update the links that target the old entity reference (before the move).
+     * Each document is still updated by a single thread, and the documents are reported in the job log and progress
+     * in the order they were found.
+     * <p>
+     * Note that this parameter has no effect if {@link #isUpdateLinks()} is {@code false}.
+     *
+     * @param updateLinksThreads the number of threads updating the links in parallel
+     * @since 10.0RC1
+     */
+    public void setUpdateLinksThreads(int updateLinksThreads)
+    {
+        setProperty(PROPERTY_UPDATE_LINKS_THREADS, updateLinksThreads);
+    }
+
     /**
      * @return {@code true} if the original pages should be redirected automatically to the new location when accessed
      *         by the user, in order to preserve external links, {@code false} otherwise
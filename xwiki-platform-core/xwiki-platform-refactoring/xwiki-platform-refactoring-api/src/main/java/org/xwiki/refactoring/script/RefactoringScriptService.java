@@ -33,6 +33,7 @@
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.context.Execution;
 import org.xwiki.job.Job;
 import org.xwiki.job.JobException;
@@ -99,6 +100,13 @@ public class RefactoringScriptService implements ScriptService
     @Inject
     private ModelContext modelContext;
 
+    /**
+     * Used to get the default number of threads updating the links.
+     */
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
     /**
      * Creates a request to move the specified source entities to the specified destination entity (which becomes their
      * new parent).
@@ -250,6 +258,10 @@ private MoveRequest createMoveRequest(String type, Collection<EntityReference> s
         request.setUpdateLinks(true);
         request.setAutoRedirect(true);
         request.setUpdateParentField(true);
+        Integer updateLinksThreads = this.configuration.getProperty("refactoring.updateLinksThreads", Integer.class);
+        if (updateLinksThreads != null) {
+            request.setUpdateLinksThreads(updateLinksThreads);
+        }
         return request;
     }
 
@@ -22,13 +22,16 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.Job;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.refactoring.internal.LinkRefactoring;
@@ -216,6 +219,84 @@ public void updateLinksOnFarm() throws Exception
         verify(linkRefactoring).renameLinks(bobReference, oldReference, newReference);
     }
 
+    @Test
+    public void updateLinksWithSeveralThreads() throws Exception
+    {
+        DocumentReference oldReference = new DocumentReference("wiki", "One", "Page");
+        when(this.modelBridge.exists(oldReference)).thenReturn(true);
+
+        DocumentReference newReference = new DocumentReference("wiki", "Two", "Page");
+        when(this.modelBridge.exists(newReference)).thenReturn(false);
+
+        when(this.modelBridge.copy(oldReference, newReference)).thenReturn(true);
+
+        DocumentReference aliceReference = new DocumentReference("wiki", "Alice", "BackLink");
+        DocumentReference bobReference = new DocumentReference("wiki", "Bob", "BackLink");
+        when(this.modelBridge.getBackLinkedReferences(oldReference, "wiki"))
+            .thenReturn(Arrays.asList(aliceReference, bobReference));
+
+        DocumentReference userReference = new DocumentReference("wiki", "Users", "Carol");
+        when(this.authorization.hasAccess(any(Right.class), eq(userReference), any(EntityReference.class)))
+            .thenReturn(true);
+        when(this.authorization.hasAccess(Right.EDIT, userReference, bobReference)).thenReturn(false);
+
+        MoveRequest request = createRequest(oldReference, newReference.getParent());
+        request.setCheckRights(true);
+        request.setInteractive(false);
+        request.setUserReference(userReference);
+        request.setUpdateLinksThreads(4);
+        run(request);
+
+        // Only the documents the user can edit are updated.
+        LinkRefactoring linkRefactoring = getMocker().getInstance(LinkRefactoring.class);
+        ArgumentCaptor<ExecutorService> executor = ArgumentCaptor.forClass(ExecutorService.class);
+        verify(linkRefactoring).renameLinks(eq(Arrays.asList(aliceReference)), eq(oldReference), eq(newReference),
+            executor.capture());
+        verify(linkRefactoring, never()).renameLinks(any(DocumentReference.class), any(DocumentReference.class),
+            any(DocumentReference.class));
+
+        // The threads are released at the end of the job.
+        assertTrue(executor.getValue().isShutdown());
+    }
+
+    @Test
+    public void updateLinksWithSeveralThreadsWhenMovingSpace() throws Exception
+    {
+        SpaceReference sourceSpace = new SpaceReference("wiki", "A");
+        DocumentReference oldX = new DocumentReference("X", sourceSpace);
+        DocumentReference oldY = new DocumentReference("Y", sourceSpace);
+        when(this.modelBridge.getDocumentReferences(sourceSpace)).thenReturn(Arrays.asList(oldX, oldY));
+        when(this.modelBridge.exists(oldX)).thenReturn(true);
+        when(this.modelBridge.exists(oldY)).thenReturn(true);
+
+        DocumentReference newX = new DocumentReference("wiki", Arrays.asList("C", "A"), "X");
+        DocumentReference newY = new DocumentReference("wiki", Arrays.asList("C", "A"), "Y");
+        when(this.modelBridge.copy(oldX, newX)).thenReturn(true);
+        when(this.modelBridge.copy(oldY, newY)).thenReturn(true);
+
+        DocumentReference aliceReference = new DocumentReference("wiki", "Alice", "BackLink");
+        when(this.modelBridge.getBackLinkedReferences(oldX, "wiki")).thenReturn(Arrays.asList(aliceReference));
+        DocumentReference bobReference = new DocumentReference("wiki", "Bob", "BackLink");
+        when(this.modelBridge.getBackLinkedReferences(oldY, "wiki")).thenReturn(Arrays.asList(bobReference));
+
+        MoveRequest request = createRequest(sourceSpace, new SpaceReference("wiki", "C"));
+        request.setCheckRights(false);
+        request.setInteractive(false);
+        request.setUpdateLinksThreads(2);
+        run(request);
+
+        LinkRefactoring linkRefactoring = getMocker().getInstance(LinkRefactoring.class);
+        ArgumentCaptor<ExecutorService> executor = ArgumentCaptor.forClass(ExecutorService.class);
+        verify(linkRefactoring).renameLinks(eq(Arrays.asList(aliceReference)), eq(oldX), eq(newX),
+            executor.capture());
+        verify(linkRefactoring).renameLinks(eq(Arrays.asList(bobReference)), eq(oldY), eq(newY),
+            executor.capture());
+
+        // The same threads are used for all the moved documents.
+        assertSame(executor.getAllValues().get(0), executor.getAllValues().get(1));
+        assertTrue(executor.getValue().isShutdown());
+    }
+
     @Test
     public void moveDocumentToSpaceHome() throws Exception
     {
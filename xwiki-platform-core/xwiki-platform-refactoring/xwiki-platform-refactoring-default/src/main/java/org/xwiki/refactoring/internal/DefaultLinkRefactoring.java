@@ -19,8 +19,15 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -32,6 +39,9 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -49,6 +59,7 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.render.LinkedResourceHelper;
+import com.xpn.xwiki.util.AbstractXWikiRunnable;
 
 /**
  * Default implementation of {@link LinkRefactoring}.
@@ -60,6 +71,11 @@
 @Singleton
 public class DefaultLinkRefactoring implements LinkRefactoring
 {
+    /**
+     * The maximum number of documents submitted to the threads and not yet reported.
+     */
+    private static final int MAX_PENDING_DOCUMENTS = 100;
+
     @Inject
     private Logger logger;
 
@@ -102,6 +118,58 @@ public class DefaultLinkRefactoring implements LinkRefactoring
     @Inject
     private LinkedResourceHelper linkedResourceHelper;
 
+    @Inject
+    private LoggerManager loggerManager;
+
+    /**
+     * Rename the links of a document (and its translations) in a worker thread.
+     */
+    private final class RenameLinksRunnable extends AbstractXWikiRunnable
+    {
+        private final DocumentReference documentReference;
+
+        private final DocumentReference oldLinkTarget;
+
+        private final DocumentReference newLinkTarget;
+
+        private final LogQueue logs = new LogQueue();
+
+        private Future<?> future;
+
+        RenameLinksRunnable(DocumentReference documentReference, DocumentReference oldLinkTarget,
+            DocumentReference newLinkTarget, XWikiContext xcontext)
+        {
+            super(XWikiContext.EXECUTIONCONTEXT_KEY, xcontext.clone());
+
+            this.documentReference = documentReference;
+            this.oldLinkTarget = oldLinkTarget;
+            this.newLinkTarget = newLinkTarget;
+        }
+
+        @Override
+        protected void runInternal()
+        {
+            // Isolate the log to send it to the calling thread
+            loggerManager.pushLogListener(new LoggerListener(UUID.randomUUID().toString(), this.logs));
+
+            try {
+                XWikiContext xcontext = xcontextProvider.get();
+                XWikiDocument document = xcontext.getWiki().getDocument(this.documentReference, xcontext);
+
+                renameLinks(document, this.oldLinkTarget, this.newLinkTarget);
+                for (Locale locale : document.getTranslationLocales(xcontext)) {
+                    renameLinks(document.getTranslatedDocument(locale, xcontext), this.oldLinkTarget,
+                        this.newLinkTarget);
+                }
+            } catch (XWikiException e) {
+                logger.error("Failed to rename the links that target [{}] from [{}].", this.oldLinkTarget,
+                    this.documentReference, e);
+            } finally {
+                loggerManager.popLogListener();
+            }
+        }
+    }
+
     @Override
     public void renameLinks(DocumentReference documentReference, DocumentReference oldLinkTarget,
         DocumentReference newLinkTarget)
@@ -136,6 +204,77 @@ public void renameLinks(DocumentReference documentReference, DocumentReference o
         }
     }
 
+    @Override
+    public void renameLinks(Collection<DocumentReference> documentReferences, DocumentReference oldLinkTarget,
+        DocumentReference newLinkTarget, ExecutorService executor)
+    {
+        this.progressManager.pushLevelProgress(documentReferences.size(), this);
+
+        if (executor == null) {
+            try {
+                for (DocumentReference documentReference : documentReferences) {
+                    this.progressManager.startStep(this);
+                    renameLinks(documentReference, oldLinkTarget, newLinkTarget);
+                    this.progressManager.endStep(this);
+                }
+            } finally {
+                this.progressManager.popLevelProgress(this);
+            }
+
+            return;
+        }
+
+        // The documents being updated, in the order they have been submitted
+        Deque<RenameLinksRunnable> pending = new LinkedList<>();
+
+        try {
+            XWikiContext xcontext = this.xcontextProvider.get();
+            for (DocumentReference documentReference : documentReferences) {
+                // Limit the number of documents (and logs) waiting to be reported
+                if (pending.size() >= MAX_PENDING_DOCUMENTS) {
+                    completeRenameLinks(pending.poll());
+                }
+
+                RenameLinksRunnable rename =
+                    new RenameLinksRunnable(documentReference, oldLinkTarget, newLinkTarget, xcontext);
+                rename.future = executor.submit(rename);
+                pending.add(rename);
+            }
+
+            while (!pending.isEmpty()) {
+                completeRenameLinks(pending.poll());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            this.logger.warn("Interrupted while renaming the links that target [{}].", oldLinkTarget);
+        } finally {
+            // The executor is shared so we only stop the documents of this call
+            for (RenameLinksRunnable rename : pending) {
+                rename.future.cancel(true);
+            }
+
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private void completeRenameLinks(RenameLinksRunnable rename) throws InterruptedException
+    {
+        this.progressManager.startStep(this);
+
+        try {
+            rename.future.get();
+        } catch (ExecutionException e) {
+            this.logger.error("Failed to rename the links that target [{}] from [{}].", rename.oldLinkTarget,
+                rename.documentReference, e.getCause());
+        }
+
+        // Send the logs produced by the worker thread to the current thread log
+        rename.logs.log(this.logger);
+
+        this.progressManager.endStep(this);
+    }
+
     private void renameLinks(XWikiDocument document, DocumentReference oldTarget, DocumentReference newTarget)
         throws XWikiException
     {
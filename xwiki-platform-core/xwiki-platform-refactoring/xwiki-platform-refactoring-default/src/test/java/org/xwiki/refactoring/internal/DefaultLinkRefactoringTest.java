@@ -22,15 +22,27 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Provider;
 
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.slf4j.Logger;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReference;
@@ -51,13 +63,19 @@
 
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.render.DefaultLinkedResourceHelper;
+import com.xpn.xwiki.web.Utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -81,6 +99,15 @@
 
     private EntityReferenceResolver<ResourceReference> resourceReferenceResolver;
 
+    /**
+     * The log listener pushed by each worker thread.
+     */
+    private final ThreadLocal<LoggerListener> logListener = new ThreadLocal<>();
+
+    private final List<Thread> workerThreads = new CopyOnWriteArrayList<>();
+
+    private final List<Thread> logThreads = new CopyOnWriteArrayList<>();
+
     @Before
     public void configure() throws Exception
     {
@@ -101,6 +128,18 @@ public void configure() throws Exception
             this.mocker.registerMockComponent(
                 new DefaultParameterizedType(null, Provider.class, ComponentManager.class), "context");
         when(contextComponentManagerProvider.get()).thenReturn(this.mocker);
+
+        // Used by the worker threads
+        Utils.setComponentManager(this.mocker);
+        this.mocker.registerMockComponent(Execution.class);
+        this.mocker.registerMockComponent(ExecutionContextManager.class);
+        when(this.xcontext.clone()).thenReturn(this.xcontext);
+
+        LoggerManager loggerManager = this.mocker.getInstance(LoggerManager.class);
+        doAnswer(invocation -> {
+            this.logListener.set(invocation.getArgument(0));
+            return null;
+        }).when(loggerManager).pushLogListener(any(LoggerListener.class));
     }
 
     @Test
@@ -427,6 +466,136 @@ public void renameLinksFromLinksAndMacros() throws Exception
         verifyDocumentSave(document, "Renamed back-links.", false);
     }
 
+    @Test
+    public void renameLinksWithSeveralThreads() throws Exception
+    {
+        DocumentReference oldLinkTarget = new DocumentReference("wiki", "A", "B");
+        DocumentReference newLinkTarget = new DocumentReference("wiki", "X", "Y");
+
+        DocumentReference aliceReference = new DocumentReference("wiki", "Alice", "Page");
+        DocumentReference bobReference = new DocumentReference("wiki", "Bob", "Page");
+        DocumentReference carolReference = new DocumentReference("wiki", "Carol", "Page");
+
+        this.mocker.registerMockComponent(BlockRenderer.class, Syntax.XWIKI_2_1.toIdString());
+
+        Logger logger = this.mocker.getMockedLogger();
+        LogEvent aliceLog = mockLogEvent();
+        LogEvent bobLog = mockLogEvent();
+        LogEvent carolLog = mockLogEvent();
+
+        XWikiDocument alice = mockDocumentWithLink(aliceReference, oldLinkTarget, newLinkTarget, aliceLog);
+        XWikiDocument bob = mockDocumentWithLink(bobReference, oldLinkTarget, newLinkTarget, bobLog);
+        XWikiDocument carol = mockDocumentWithLink(carolReference, oldLinkTarget, newLinkTarget, carolLog);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            this.mocker.getComponentUnderTest().renameLinks(
+                Arrays.asList(aliceReference, bobReference, carolReference), oldLinkTarget, newLinkTarget, executor);
+
+            // The executor belongs to the caller.
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verifyDocumentSave(alice, "Renamed back-links.", false);
+        verifyDocumentSave(bob, "Renamed back-links.", false);
+        verifyDocumentSave(carol, "Renamed back-links.", false);
+
+        // The documents are loaded by the worker threads...
+        assertEquals(3, this.workerThreads.size());
+        assertFalse(this.workerThreads.contains(Thread.currentThread()));
+
+        // ...but the progress and the logs are reported in the calling thread, in the order of the documents.
+        assertEquals(Arrays.asList(Thread.currentThread(), Thread.currentThread(), Thread.currentThread()),
+            this.logThreads);
+        JobProgressManager progressManager = this.mocker.getInstance(JobProgressManager.class);
+        InOrder inOrder = inOrder(progressManager, aliceLog, bobLog, carolLog);
+        inOrder.verify(progressManager).pushLevelProgress(3, this.mocker.getComponentUnderTest());
+        for (LogEvent log : Arrays.asList(aliceLog, bobLog, carolLog)) {
+            inOrder.verify(progressManager).startStep(this.mocker.getComponentUnderTest());
+            inOrder.verify(log).log(logger);
+            inOrder.verify(progressManager).endStep(this.mocker.getComponentUnderTest());
+        }
+        inOrder.verify(progressManager).popLevelProgress(this.mocker.getComponentUnderTest());
+    }
+
+    @Test
+    public void renameLinksWithSeveralThreadsWhenSomeDocumentsFail() throws Exception
+    {
+        DocumentReference oldLinkTarget = new DocumentReference("wiki", "A", "B");
+        DocumentReference newLinkTarget = new DocumentReference("wiki", "X", "Y");
+
+        DocumentReference aliceReference = new DocumentReference("wiki", "Alice", "Page");
+        DocumentReference bobReference = new DocumentReference("wiki", "Bob", "Page");
+        DocumentReference carolReference = new DocumentReference("wiki", "Carol", "Page");
+
+        this.mocker.registerMockComponent(BlockRenderer.class, Syntax.XWIKI_2_1.toIdString());
+        XWikiDocument alice = mockDocumentWithLink(aliceReference, oldLinkTarget, newLinkTarget, mockLogEvent());
+
+        XWikiException loadError = new XWikiException();
+        when(this.xcontext.getWiki().getDocument(bobReference, this.xcontext)).thenThrow(loadError);
+
+        RuntimeException unexpectedError = new RuntimeException();
+        when(this.xcontext.getWiki().getDocument(carolReference, this.xcontext)).thenThrow(unexpectedError);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            this.mocker.getComponentUnderTest().renameLinks(
+                Arrays.asList(aliceReference, bobReference, carolReference), oldLinkTarget, newLinkTarget, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The other documents are still updated.
+        verifyDocumentSave(alice, "Renamed back-links.", false);
+        verify(this.xcontext.getWiki(), times(1)).saveDocument(any(XWikiDocument.class), any(String.class),
+            eq(false), eq(this.xcontext));
+
+        Logger logger = this.mocker.getMockedLogger();
+        verify(logger).error("Failed to rename the links that target [{}] from [{}].", oldLinkTarget, bobReference,
+            loadError);
+        verify(logger).error("Failed to rename the links that target [{}] from [{}].", oldLinkTarget, carolReference,
+            unexpectedError);
+
+        JobProgressManager progressManager = this.mocker.getInstance(JobProgressManager.class);
+        verify(progressManager).popLevelProgress(this.mocker.getComponentUnderTest());
+    }
+
+    private LogEvent mockLogEvent()
+    {
+        LogEvent log = mock(LogEvent.class);
+        doAnswer(invocation -> this.logThreads.add(Thread.currentThread())).when(log).log(any(Logger.class));
+        return log;
+    }
+
+    private XWikiDocument mockDocumentWithLink(DocumentReference documentReference, DocumentReference oldLinkTarget,
+        DocumentReference newLinkTarget, LogEvent log) throws Exception
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(this.xcontext.getWiki().getDocument(documentReference, this.xcontext)).thenAnswer(invocation -> {
+            this.workerThreads.add(Thread.currentThread());
+            // Simulate a log produced while the document is updated
+            this.logListener.get().onEvent(log, null, null);
+            return document;
+        });
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+
+        XDOM xdom = mock(XDOM.class);
+        when(document.getXDOM()).thenReturn(xdom);
+
+        ResourceReference linkReference = new ResourceReference("A.B", ResourceType.DOCUMENT);
+        LinkBlock linkBlock = new LinkBlock(Collections.<Block>emptyList(), linkReference, false);
+        when(xdom.getBlocks(any(), eq(Block.Axes.DESCENDANT))).thenReturn(Arrays.<Block>asList(linkBlock));
+
+        when(this.resourceReferenceResolver.resolve(linkReference, null, documentReference)).thenReturn(oldLinkTarget);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(oldLinkTarget)).thenReturn(oldLinkTarget);
+        when(this.compactEntityReferenceSerializer.serialize(newLinkTarget, documentReference)).thenReturn("X.Y");
+
+        return document;
+    }
+
     private void verifyDocumentSave(XWikiDocument document, String comment, boolean minorEdit) throws Exception
     {
         // Verify we preserve the content author.
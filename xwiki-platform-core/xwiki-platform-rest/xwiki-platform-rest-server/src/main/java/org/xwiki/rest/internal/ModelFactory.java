@@ -418,6 +418,19 @@ public Wiki toRestWiki(URI baseUri, String wikiName)
     }
 
     public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, Document home)
+    {
+        return toRestSpace(baseUri, wikiName, spaces, home != null ? home.getDocumentReference() : null);
+    }
+
+    /**
+     * @param baseUri the base URI of the REST resources
+     * @param wikiName the wiki of the space
+     * @param spaces the space and its parents
+     * @param home the reference of the space home page or {@code null} if it does not exist
+     * @return the space
+     * @since 10.0RC1
+     */
+    public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, DocumentReference home)
     {
         Space space = this.objectFactory.createSpace();
         space.setId(Utils.getSpaceId(wikiName, spaces));
@@ -425,9 +438,10 @@ public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, Docu
         // the name of the space is the last element of the spaces list
         space.setName(spaces.get(spaces.size() - 1));
         if (home != null) {
-            space.setHome(home.getPrefixedFullName());
-            space.setXwikiRelativeUrl(home.getURL("view"));
-            space.setXwikiAbsoluteUrl(home.getExternalURL("view"));
+            XWikiContext xcontext = this.xcontextProvider.get();
+            space.setHome(this.serializer.serialize(home));
+            space.setXwikiRelativeUrl(xcontext.getWiki().getURL(home, "view", xcontext));
+            space.setXwikiAbsoluteUrl(xcontext.getWiki().getExternalURL(home, "view", null, null, xcontext));
         }
 
         String pagesUri = Utils.createURI(baseUri, PagesResource.class, wikiName, spaces).toString();
@@ -455,29 +469,42 @@ public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, Docu
 
     public Translations toRestTranslations(URI baseUri, Document doc) throws XWikiException
     {
-        Translations translations = this.objectFactory.createTranslations();
-
-        List<String> languages = doc.getTranslationList();
+        return toRestTranslations(baseUri, doc.getWiki(), Utils.getSpacesFromSpaceId(doc.getSpace()), doc.getName(),
+            doc.getDefaultLanguage(), doc.getTranslationList());
+    }
 
-        List<String> spaces = Utils.getSpacesFromSpaceId(doc.getSpace());
+    /**
+     * @param baseUri the base URI of the REST resources
+     * @param wiki the wiki of the document
+     * @param spaces the spaces of the document
+     * @param name the name of the document
+     * @param defaultLanguage the default language of the document
+     * @param languages the languages of the existing translations of the document
+     * @return the translations of the document
+     * @since 10.0RC1
+     */
+    public Translations toRestTranslations(URI baseUri, String wiki, List<String> spaces, String name,
+        String defaultLanguage, List<String> languages)
+    {
+        Translations translations = this.objectFactory.createTranslations();
 
         if (!languages.isEmpty()) {
-            if (!doc.getDefaultLanguage().equals("")) {
-                translations.setDefault(doc.getDefaultLanguage());
+            if (!defaultLanguage.equals("")) {
+                translations.setDefault(defaultLanguage);
 
                 Translation translation = this.objectFactory.createTranslation();
-                translation.setLanguage(doc.getDefaultLanguage());
+                translation.setLanguage(defaultLanguage);
 
                 /* Add the default page with the default translation explicitely */
                 String pageTranslationUri =
-                    Utils.createURI(baseUri, PageResource.class, doc.getWiki(), spaces, doc.getName()).toString();
+                    Utils.createURI(baseUri, PageResource.class, wiki, spaces, name).toString();
                 Link pageTranslationLink = this.objectFactory.createLink();
                 pageTranslationLink.setHref(pageTranslationUri);
                 pageTranslationLink.setRel(Relations.PAGE);
                 translation.getLinks().add(pageTranslationLink);
 
                 String historyUri = Utils
-                    .createURI(baseUri, PageHistoryResource.class, doc.getWiki(), spaces, doc.getName()).toString();
+                    .createURI(baseUri, PageHistoryResource.class, wiki, spaces, name).toString();
                 Link historyLink = this.objectFactory.createLink();
                 historyLink.setHref(historyUri);
                 historyLink.setRel(Relations.HISTORY);
@@ -492,15 +519,15 @@ public Translations toRestTranslations(URI baseUri, Document doc) throws XWikiEx
             translation.setLanguage(language);
 
             String pageTranslationUri =
-                Utils.createURI(baseUri, PageTranslationResource.class, doc.getWiki(), spaces, doc.getName(), language)
+                Utils.createURI(baseUri, PageTranslationResource.class, wiki, spaces, name, language)
                     .toString();
             Link pageTranslationLink = this.objectFactory.createLink();
             pageTranslationLink.setHref(pageTranslationUri);
             pageTranslationLink.setRel(Relations.PAGE);
             translation.getLinks().add(pageTranslationLink);
 
-            String historyUri = Utils.createURI(baseUri, PageTranslationHistoryResource.class, doc.getWiki(), spaces,
-                doc.getName(), language).toString();
+            String historyUri = Utils.createURI(baseUri, PageTranslationHistoryResource.class, wiki, spaces,
+                name, language).toString();
             Link historyLink = this.objectFactory.createLink();
             historyLink.setHref(historyUri);
             historyLink.setRel(Relations.HISTORY);
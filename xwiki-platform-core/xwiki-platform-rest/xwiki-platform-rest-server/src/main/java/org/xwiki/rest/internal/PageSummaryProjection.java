@@ -0,0 +1,591 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceProvider;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.Relations;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.ObjectFactory;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.rest.resources.SyntaxesResource;
+import org.xwiki.rest.resources.attachments.AttachmentsResource;
+import org.xwiki.rest.resources.comments.CommentsResource;
+import org.xwiki.rest.resources.objects.ObjectsResource;
+import org.xwiki.rest.resources.pages.PageChildrenResource;
+import org.xwiki.rest.resources.pages.PageHistoryResource;
+import org.xwiki.rest.resources.pages.PageResource;
+import org.xwiki.rest.resources.pages.PageTagsResource;
+import org.xwiki.rest.resources.spaces.SpaceResource;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+
+/**
+ * Build {@link PageSummary} instances from the columns selected by a projection query instead of loading each
+ * document. The information which is not stored in the document table (translations, children, comments,
+ * attachments, objects and tags) is retrieved with one query for all the listed pages.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component(roles = PageSummaryProjection.class)
+@Singleton
+public class PageSummaryProjection
+{
+    /**
+     * The select clause of the HQL queries returning the rows expected by
+     * {@link #toRestPageSummaries(URI, String, List, Pattern, Boolean)}, using {@code doc} as the document alias.
+     */
+    public static final String SELECT = "select doc.fullName, doc.id, doc.title, doc.syntaxId, doc.version, "
+        + "doc.author, doc.parent, doc.defaultLanguage from XWikiDocument doc";
+
+    private static final String COMMENTS_CLASS = "XWiki.XWikiComments";
+
+    private static final String VIEW = "view";
+
+    /**
+     * The maximum number of values bound to a single {@code in} clause, some databases having a limit.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The characters which prevent to use the raw title as display title: they are either interpreted when the title
+     * is evaluated or escaped when it is rendered.
+     */
+    private static final String TITLE_SPECIAL_CHARACTERS = "$#&<>\"'{}[]";
+
+    private final ObjectFactory objectFactory = new ObjectFactory();
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private QueryManager queryManager;
+
+    /**
+     * Used to lookup the hidden filter which depends on the current user preferences.
+     */
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    @Named("explicit")
+    private DocumentReferenceResolver<EntityReference> explicitResolver;
+
+    @Inject
+    @Named("relative")
+    private EntityReferenceResolver<String> relativeResolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private EntityReferenceProvider defaultReferenceProvider;
+
+    @Inject
+    private ModelFactory modelFactory;
+
+    /**
+     * The columns of a row selected with {@link PageSummaryProjection#SELECT}.
+     */
+    private static final class Row
+    {
+        private final DocumentReference reference;
+
+        private final String fullName;
+
+        private final Long id;
+
+        private final String title;
+
+        private final String syntaxId;
+
+        private final String version;
+
+        private final String author;
+
+        private final String parent;
+
+        private final String defaultLanguage;
+
+        private DocumentReference parentReference;
+
+        private boolean parentExists;
+
+        private List<String> languages;
+
+        private Set<String> classNames;
+
+        private boolean hasTags;
+
+        private boolean hasAttachments;
+
+        private boolean hasChildren;
+
+        Row(Object[] columns, DocumentReference reference)
+        {
+            this.reference = reference;
+            this.fullName = (String) columns[0];
+            this.id = (Long) columns[1];
+            this.title = (String) columns[2];
+            this.syntaxId = (String) columns[3];
+            this.version = (String) columns[4];
+            this.author = (String) columns[5];
+            this.parent = (String) columns[6];
+            this.defaultLanguage = StringUtils.defaultString((String) columns[7]);
+        }
+    }
+
+    /**
+     * @param baseUri the base URI of the REST resources
+     * @param wikiName the wiki where the query was executed, which must also be the current wiki
+     * @param rows the rows returned by a query starting with {@link #SELECT}
+     * @param parentFilter if not null, only the pages with a parent matching this pattern are returned (the parent of
+     *            pages without an existing parent being the empty string)
+     * @param withPrettyNames true if the users are displayed with their full name
+     * @return the summaries of the pages the current user is allowed to view, in the order of the rows
+     * @throws QueryException when failing to retrieve the information not stored in the document table
+     * @throws XWikiException when failing to render a title
+     * @throws ComponentLookupException when failing to lookup the hidden documents filter
+     */
+    public List<PageSummary> toRestPageSummaries(URI baseUri, String wikiName, List<Object[]> rows,
+        Pattern parentFilter, Boolean withPrettyNames) throws QueryException, XWikiException, ComponentLookupException
+    {
+        WikiReference wikiReference = new WikiReference(wikiName);
+
+        // Filter the rows the current user cannot view (the rights are resolved from the security cache)
+        List<DocumentReference> references = new ArrayList<>(rows.size());
+        for (Object[] columns : rows) {
+            references.add(this.resolver.resolve((String) columns[0], wikiReference));
+        }
+        Set<DocumentReference> viewableReferences = new HashSet<>(this.authorization.filter(Right.VIEW, references));
+
+        List<Row> visibleRows = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); ++i) {
+            DocumentReference reference = references.get(i);
+            if (viewableReferences.contains(reference)) {
+                Row row = new Row(rows.get(i), reference);
+                if (StringUtils.isNotEmpty(row.parent)) {
+                    row.parentReference = this.explicitResolver
+                        .resolve(this.relativeResolver.resolve(row.parent, EntityType.DOCUMENT), reference);
+                }
+                visibleRows.add(row);
+            }
+        }
+
+        if (visibleRows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<DocumentReference> existingParents = getExistingParents(visibleRows, wikiReference);
+        for (Row row : visibleRows) {
+            row.parentExists = existingParents.contains(row.parentReference);
+        }
+
+        if (parentFilter != null) {
+            Set<DocumentReference> viewableParents =
+                new HashSet<>(this.authorization.filter(Right.VIEW, existingParents));
+
+            List<Row> filteredRows = new ArrayList<>(visibleRows.size());
+            for (Row row : visibleRows) {
+                String parentId = "";
+                if (viewableParents.contains(row.parentReference)) {
+                    parentId = this.serializer.serialize(row.parentReference);
+                }
+                if (parentFilter.matcher(parentId).matches()) {
+                    filteredRows.add(row);
+                }
+            }
+            visibleRows = filteredRows;
+
+            if (visibleRows.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<String> fullNames = new ArrayList<>(visibleRows.size());
+        List<Long> ids = new ArrayList<>(visibleRows.size());
+        for (Row row : visibleRows) {
+            fullNames.add(row.fullName);
+            ids.add(row.id);
+        }
+
+        Map<String, List<String>> translations = getTranslations(fullNames);
+        Map<String, Set<String>> classes = getClasses(fullNames);
+        Set<String> withTags = getDocumentsWithTags(fullNames);
+        Set<Long> withAttachments = getDocumentsWithAttachments(ids);
+        Set<String> parentsWithChildren = getParentsWithChildren(visibleRows);
+
+        List<PageSummary> pageSummaries = new ArrayList<>(visibleRows.size());
+        for (Row row : visibleRows) {
+            row.languages = translations.getOrDefault(row.fullName, Collections.<String>emptyList());
+            row.classNames = classes.getOrDefault(row.fullName, Collections.<String>emptySet());
+            row.hasTags = withTags.contains(row.fullName);
+            row.hasAttachments = withAttachments.contains(row.id);
+            row.hasChildren = parentsWithChildren.contains(this.serializer.serialize(row.reference))
+                || parentsWithChildren.contains(row.fullName)
+                || parentsWithChildren.contains(getChildKey(row.reference.getName(), row.reference));
+
+            pageSummaries.add(toRestPageSummary(baseUri, row, withPrettyNames));
+        }
+
+        return pageSummaries;
+    }
+
+    /**
+     * @param fullNames the local full names of documents in the current wiki
+     * @return the rows expected by {@link #toRestPageSummaries(URI, String, List, Pattern, Boolean)} for the existing
+     *         documents, in the order of the passed names
+     * @throws QueryException when failing to select the rows
+     */
+    public List<Object[]> getRows(List<String> fullNames) throws QueryException
+    {
+        List<Object[]> results =
+            execute(SELECT + " where doc.fullName in (:values) and doc.language = ''", fullNames, null);
+
+        Map<String, Object[]> rowsByName = new HashMap<>();
+        for (Object[] result : results) {
+            rowsByName.put((String) result[0], result);
+        }
+
+        List<Object[]> rows = new ArrayList<>(rowsByName.size());
+        for (String fullName : fullNames) {
+            Object[] row = rowsByName.get(fullName);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * @param wikiName the wiki where to look for the documents
+     * @param fullNames the local full names of documents
+     * @return the names of the passed documents which exist
+     * @throws QueryException when failing to select the existing documents
+     */
+    public Set<String> getExistingDocuments(String wikiName, Collection<String> fullNames) throws QueryException
+    {
+        List<String> existingNames = execute("select doc.fullName from XWikiDocument doc "
+            + "where doc.fullName in (:values) and doc.language = ''", fullNames, null, wikiName);
+
+        return new HashSet<>(existingNames);
+    }
+
+    private PageSummary toRestPageSummary(URI baseUri, Row row, Boolean withPrettyNames) throws XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        XWiki xwiki = xcontext.getWiki();
+
+        DocumentReference reference = row.reference;
+        String wiki = reference.getWikiReference().getName();
+        String space = this.localSerializer.serialize(reference.getLastSpaceReference());
+        List<String> spaces = Utils.getSpacesFromSpaceId(space);
+
+        PageSummary pageSummary = this.objectFactory.createPageSummary();
+        pageSummary.setWiki(wiki);
+        pageSummary.setFullName(row.fullName);
+        pageSummary.setId(this.serializer.serialize(reference));
+        pageSummary.setSpace(space);
+        pageSummary.setName(reference.getName());
+        pageSummary.setTitle(getDisplayTitle(row, xcontext));
+        pageSummary.setXwikiRelativeUrl(xwiki.getURL(reference, VIEW, xcontext));
+        pageSummary.setXwikiAbsoluteUrl(xwiki.getExternalURL(reference, VIEW, null, null, xcontext));
+        pageSummary.setTranslations(this.modelFactory.toRestTranslations(baseUri, wiki, spaces, reference.getName(),
+            row.defaultLanguage, row.languages));
+        pageSummary.setSyntax(
+            StringUtils.isEmpty(row.syntaxId) ? xwiki.getDefaultDocumentSyntax() : row.syntaxId);
+        pageSummary.setVersion(row.version);
+        pageSummary.setAuthor(row.author);
+        if (Boolean.TRUE.equals(withPrettyNames)) {
+            pageSummary.setAuthorName(xwiki.getUserName(row.author, null, false, xcontext));
+        }
+
+        pageSummary.setParent(row.parent);
+        // parentId must not be set if the parent document does not exist.
+        if (row.parentExists) {
+            pageSummary.setParentId(this.serializer.serialize(row.parentReference));
+        } else {
+            pageSummary.setParentId("");
+        }
+
+        addLink(pageSummary, Utils.createURI(baseUri, SpaceResource.class, wiki, spaces), Relations.SPACE);
+
+        if (row.parentExists) {
+            addLink(pageSummary, Utils.createURI(baseUri, PageResource.class,
+                row.parentReference.getWikiReference().getName(), spaces, row.parentReference.getName()),
+                Relations.PARENT);
+        }
+
+        String name = reference.getName();
+        addLink(pageSummary, Utils.createURI(baseUri, PageHistoryResource.class, wiki, spaces, name),
+            Relations.HISTORY);
+
+        if (row.hasChildren) {
+            addLink(pageSummary, Utils.createURI(baseUri, PageChildrenResource.class, wiki, spaces, name),
+                Relations.CHILDREN);
+        }
+
+        if (row.classNames.contains(COMMENTS_CLASS)) {
+            addLink(pageSummary, Utils.createURI(baseUri, CommentsResource.class, wiki, spaces, name),
+                Relations.COMMENTS);
+        }
+
+        if (row.hasAttachments) {
+            addLink(pageSummary, Utils.createURI(baseUri, AttachmentsResource.class, wiki, spaces, name),
+                Relations.ATTACHMENTS);
+        }
+
+        if (!row.classNames.isEmpty()) {
+            addLink(pageSummary, Utils.createURI(baseUri, ObjectsResource.class, wiki, spaces, name),
+                Relations.OBJECTS);
+        }
+
+        if (row.hasTags) {
+            addLink(pageSummary, Utils.createURI(baseUri, PageTagsResource.class, wiki, spaces, name),
+                Relations.TAGS);
+        }
+
+        addLink(pageSummary, Utils.createURI(baseUri, SyntaxesResource.class), Relations.SYNTAXES);
+
+        addLink(pageSummary, Utils.createURI(baseUri, PageResource.class, wiki, spaces, name), Relations.PAGE);
+
+        return pageSummary;
+    }
+
+    private void addLink(PageSummary pageSummary, URI uri, String relation)
+    {
+        Link link = this.objectFactory.createLink();
+        link.setHref(uri.toString());
+        link.setRel(relation);
+        pageSummary.getLinks().add(link);
+    }
+
+    /**
+     * The display title is the raw title (or the page name when there is no title) as long as it contains nothing to
+     * evaluate or escape. The document is loaded to render the title only otherwise.
+     */
+    private String getDisplayTitle(Row row, XWikiContext xcontext) throws XWikiException
+    {
+        String title = row.title;
+        if (StringUtils.isEmpty(title) && !"1".equals(xcontext.getWiki().Param("xwiki.title.compatibility", "0"))) {
+            title = row.reference.getName();
+            if (this.defaultReferenceProvider.getDefaultReference(EntityType.DOCUMENT).getName().equals(title)) {
+                // The home page of a space is displayed with the space name
+                title = row.reference.getParent().getName();
+            }
+        }
+
+        if (StringUtils.isEmpty(title) || StringUtils.containsAny(title, TITLE_SPECIAL_CHARACTERS)) {
+            title = xcontext.getWiki().getDocument(row.reference, xcontext).getRenderedTitle(xcontext);
+        }
+
+        return title;
+    }
+
+    private Set<DocumentReference> getExistingParents(List<Row> rows, WikiReference wikiReference)
+        throws XWikiException, QueryException
+    {
+        Set<DocumentReference> existingParents = new HashSet<>();
+
+        Map<String, DocumentReference> localParents = new HashMap<>();
+        for (Row row : rows) {
+            if (row.parentReference != null) {
+                if (row.parentReference.getWikiReference().equals(wikiReference)) {
+                    localParents.put(this.localSerializer.serialize(row.parentReference), row.parentReference);
+                } else if (!existingParents.contains(row.parentReference)) {
+                    XWikiContext xcontext = this.xcontextProvider.get();
+                    if (xcontext.getWiki().exists(row.parentReference, xcontext)) {
+                        existingParents.add(row.parentReference);
+                    }
+                }
+            }
+        }
+
+        if (!localParents.isEmpty()) {
+            for (String existingName : getExistingDocuments(wikiReference.getName(), localParents.keySet())) {
+                existingParents.add(localParents.get(existingName));
+            }
+        }
+
+        return existingParents;
+    }
+
+    private Map<String, List<String>> getTranslations(Collection<String> fullNames) throws QueryException
+    {
+        List<Object[]> results = execute("select doc.fullName, doc.language from XWikiDocument doc "
+            + "where doc.fullName in (:values) and doc.language <> '' order by doc.language", fullNames, null);
+
+        Map<String, List<String>> translations = new HashMap<>();
+        for (Object[] result : results) {
+            translations.computeIfAbsent((String) result[0], key -> new ArrayList<>()).add((String) result[1]);
+        }
+
+        return translations;
+    }
+
+    private Map<String, Set<String>> getClasses(Collection<String> fullNames) throws QueryException
+    {
+        List<Object[]> results =
+            execute("select distinct obj.name, obj.className from BaseObject obj where obj.name in (:values)",
+                fullNames, null);
+
+        Map<String, Set<String>> classes = new HashMap<>();
+        for (Object[] result : results) {
+            classes.computeIfAbsent((String) result[0], key -> new HashSet<>()).add((String) result[1]);
+        }
+
+        return classes;
+    }
+
+    /**
+     * Mimic {@code ModelFactory#toRestPageSummary}: the tags link is displayed when the first tag object has a tags
+     * property.
+     */
+    private Set<String> getDocumentsWithTags(Collection<String> fullNames) throws QueryException
+    {
+        List<String> results = execute("select distinct obj.name from BaseObject obj, DBStringListProperty prop "
+            + "where obj.name in (:values) and obj.className = 'XWiki.TagClass' and obj.number = 0 "
+            + "and obj.id = prop.id.id and prop.id.name = 'tags'", fullNames, null);
+
+        return new HashSet<>(results);
+    }
+
+    private Set<Long> getDocumentsWithAttachments(Collection<Long> ids) throws QueryException
+    {
+        List<Long> results = execute("select distinct attachment.docId from XWikiAttachment attachment "
+            + "where attachment.docId in (:values)", ids, null);
+
+        return new HashSet<>(results);
+    }
+
+    /**
+     * Mimic {@code XWikiDocument#getChildrenReferences}: a child can reference its parent with the prefixed full name,
+     * the local full name or only the page name when they are in the same space.
+     */
+    private Set<String> getParentsWithChildren(List<Row> rows) throws QueryException, ComponentLookupException
+    {
+        Set<String> parents = new HashSet<>();
+        for (Row row : rows) {
+            parents.add(this.serializer.serialize(row.reference));
+            parents.add(row.fullName);
+            parents.add(row.reference.getName());
+        }
+
+        List<Object[]> results =
+            execute("select distinct doc.parent, doc.space from XWikiDocument doc where doc.parent in (:values)",
+                parents, this.componentManagerProvider.get().<QueryFilter>getInstance(QueryFilter.class, "hidden"));
+
+        Set<String> parentsWithChildren = new HashSet<>();
+        for (Object[] result : results) {
+            String parent = (String) result[0];
+            parentsWithChildren.add(parent);
+            parentsWithChildren.add(getChildKey(parent, (String) result[1]));
+        }
+
+        return parentsWithChildren;
+    }
+
+    /**
+     * Execute a HQL statement with a {@code :values} parameter bound to at most {@link #BATCH_SIZE} values at a time.
+     */
+    private <T> List<T> execute(String statement, Collection<?> values, QueryFilter filter) throws QueryException
+    {
+        return execute(statement, values, filter, null);
+    }
+
+    private <T> List<T> execute(String statement, Collection<?> values, QueryFilter filter, String wikiName)
+        throws QueryException
+    {
+        List<?> valueList = new ArrayList<>(values);
+
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < valueList.size(); i += BATCH_SIZE) {
+            Query query = this.queryManager.createQuery(statement, Query.HQL);
+            query.bindValue("values", valueList.subList(i, Math.min(i + BATCH_SIZE, valueList.size())));
+            if (filter != null) {
+                query.addFilter(filter);
+            }
+            if (wikiName != null) {
+                query.setWiki(wikiName);
+            }
+            results.addAll(query.<T>execute());
+        }
+
+        return results;
+    }
+
+    private String getChildKey(String pageName, DocumentReference reference)
+    {
+        return getChildKey(pageName, this.localSerializer.serialize(reference.getLastSpaceReference()));
+    }
+
+    private String getChildKey(String pageName, String space)
+    {
+        // A character which cannot be part of a space reference without being escaped
+        return space + ':' + pageName;
+    }
+}
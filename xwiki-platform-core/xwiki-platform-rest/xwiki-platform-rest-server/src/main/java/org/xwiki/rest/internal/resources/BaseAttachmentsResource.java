@@ -261,22 +261,53 @@ protected Attachments getAttachmentsForDocument(Document doc, int start, int num
             new RangeIterable<com.xpn.xwiki.api.Attachment>(xwikiAttachments, start, number);
 
         for (com.xpn.xwiki.api.Attachment xwikiAttachment : ri) {
-            URL url = Utils.getXWikiContext(componentManager).getURLFactory().createAttachmentURL(
-                xwikiAttachment.getFilename(), doc.getSpace(), doc.getName(), "download", null, doc.getWiki(),
-                Utils.getXWikiContext(componentManager));
-            String attachmentXWikiAbsoluteUrl = url.toString();
-            String attachmentXWikiRelativeUrl = Utils.getXWikiContext(componentManager).getURLFactory().getURL(url,
-                Utils.getXWikiContext(componentManager));
-
-            attachments.getAttachments()
-                .add(DomainObjectFactory.createAttachment(objectFactory, uriInfo.getBaseUri(), xwikiAttachment,
-                    attachmentXWikiRelativeUrl, attachmentXWikiAbsoluteUrl, Utils.getXWikiApi(componentManager),
-                    withPrettyNames));
+            attachments.getAttachments().add(toRestAttachment(doc, xwikiAttachment, withPrettyNames));
         }
 
         return attachments;
     }
 
+    /**
+     * Same as {@link #getAttachmentsForDocument(Document, int, int, Boolean)} for the current version of a document,
+     * but only the attachments in the requested range are wrapped in API objects.
+     *
+     * @since 10.0RC1
+     */
+    protected Attachments getAttachmentsForCurrentDocument(Document doc, int start, int number,
+        Boolean withPrettyNames) throws XWikiException
+    {
+        Attachments attachments = objectFactory.createAttachments();
+
+        XWikiContext xcontext = Utils.getXWikiContext(componentManager);
+        XWikiDocument xwikiDocument =
+            Utils.getXWiki(componentManager).getDocument(doc.getDocumentReference(), xcontext);
+
+        RangeIterable<XWikiAttachment> ri =
+            new RangeIterable<XWikiAttachment>(xwikiDocument.getAttachmentList(), start, number);
+
+        for (XWikiAttachment xwikiAttachment : ri) {
+            attachments.getAttachments().add(toRestAttachment(doc,
+                new com.xpn.xwiki.api.Attachment(doc, xwikiAttachment, xcontext), withPrettyNames));
+        }
+
+        return attachments;
+    }
+
+    private Attachment toRestAttachment(Document doc, com.xpn.xwiki.api.Attachment xwikiAttachment,
+        Boolean withPrettyNames)
+    {
+        URL url = Utils.getXWikiContext(componentManager).getURLFactory().createAttachmentURL(
+            xwikiAttachment.getFilename(), doc.getSpace(), doc.getName(), "download", null, doc.getWiki(),
+            Utils.getXWikiContext(componentManager));
+        String attachmentXWikiAbsoluteUrl = url.toString();
+        String attachmentXWikiRelativeUrl = Utils.getXWikiContext(componentManager).getURLFactory().getURL(url,
+            Utils.getXWikiContext(componentManager));
+
+        return DomainObjectFactory.createAttachment(objectFactory, uriInfo.getBaseUri(), xwikiAttachment,
+            attachmentXWikiRelativeUrl, attachmentXWikiAbsoluteUrl, Utils.getXWikiApi(componentManager),
+            withPrettyNames);
+    }
+
     protected AttachmentInfo storeAttachment(Document doc, String attachmentName, byte[] content) throws XWikiException
     {
         XWikiContext xcontext = Utils.getXWikiContext(componentManager);
@@ -20,8 +20,7 @@
 package org.xwiki.rest.internal.resources.attachments;
 
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import javax.inject.Named;
 import javax.ws.rs.WebApplicationException;
@@ -62,13 +61,8 @@ public Attachments getAttachmentHistory(String wikiName, String spaceName, Strin
 
             Attachments attachments = new Attachments();
 
-            Version[] versions = xwikiAttachment.getVersions();
-            List<Version> versionList = new ArrayList<Version>();
-            for (Version version : versions) {
-                versionList.add(version);
-            }
-
-            RangeIterable<Version> ri = new RangeIterable<Version>(versionList, start, number);
+            RangeIterable<Version> ri =
+                new RangeIterable<Version>(Arrays.asList(xwikiAttachment.getVersions()), start, number);
 
             for (Version version : ri) {
                 com.xpn.xwiki.api.Attachment xwikiAttachmentAtVersion =
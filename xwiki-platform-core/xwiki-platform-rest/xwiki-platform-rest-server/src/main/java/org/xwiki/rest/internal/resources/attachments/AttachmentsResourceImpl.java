@@ -61,7 +61,7 @@ public Attachments getAttachments(String wikiName, String spaceName, String page
             DocumentInfo documentInfo = getDocumentInfo(wikiName, spaceName, pageName, null, null, true, false);
             Document doc = documentInfo.getDocument();
 
-            return getAttachmentsForDocument(doc, start, number, withPrettyNames);
+            return getAttachmentsForCurrentDocument(doc, start, number, withPrettyNames);
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
         }
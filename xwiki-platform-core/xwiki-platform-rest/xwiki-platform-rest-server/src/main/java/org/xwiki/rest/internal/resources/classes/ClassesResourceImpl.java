@@ -19,17 +19,17 @@
  */
 package org.xwiki.rest.internal.resources.classes;
 
-import java.util.Collections;
 import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.ModelFactory;
-import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Classes;
 import org.xwiki.rest.resources.classes.ClassesResource;
@@ -54,20 +54,25 @@ public Classes getClasses(String wikiName, Integer start, Integer number) throws
         try {
             getXWikiContext().setWikiId(wikiName);
 
-            List<String> classNames = Utils.getXWikiApi(componentManager).getClassList();
-            Collections.sort(classNames);
+            Classes classes = objectFactory.createClasses();
 
-            RangeIterable<String> ri = new RangeIterable<String>(classNames, start, number);
+            // A query limit of 0 means no limit
+            if (number == 0) {
+                return classes;
+            }
 
-            Classes classes = objectFactory.createClasses();
+            // Let the database sort and paginate the class names instead of getting them all
+            List<String> classNames = queryManager.createQuery("select doc.fullName from XWikiDocument as doc "
+                + "where (doc.xWikiClassXML is not null and doc.xWikiClassXML like '<%') order by doc.fullName",
+                Query.HQL).setOffset(start).setLimit(number).execute();
 
-            for (String className : ri) {
+            for (String className : classNames) {
                 com.xpn.xwiki.api.Class xwikiClass = Utils.getXWikiApi(componentManager).getClass(className);
                 classes.getClazzs().add(this.utils.toRestClass(uriInfo.getBaseUri(), xwikiClass));
             }
 
             return classes;
-        } catch (XWikiException e) {
+        } catch (XWikiException | QueryException e) {
             throw new XWikiRestException(e);
         } finally {
             Utils.getXWikiContext(componentManager).setWikiId(database);
@@ -19,9 +19,9 @@
  */
 package org.xwiki.rest.internal.resources.comments;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Vector;
 
 import javax.inject.Named;
 import javax.ws.rs.core.Response;
@@ -30,15 +30,17 @@
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
-import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Comment;
 import org.xwiki.rest.model.jaxb.Comments;
 import org.xwiki.rest.resources.comments.CommentResource;
 import org.xwiki.rest.resources.comments.CommentsResource;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.api.Document;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
 
 /**
  * @version $Id$
@@ -58,15 +60,15 @@ public Comments getComments(String wikiName, String spaceName, String pageName,
 
             Comments comments = objectFactory.createComments();
 
-            Vector<com.xpn.xwiki.api.Object> xwikiComments = doc.getComments();
+            XWikiContext xcontext = Utils.getXWikiContext(componentManager);
+            List<BaseObject> xwikiComments = Utils.getXWiki(componentManager)
+                .getDocument(doc.getDocumentReference(), xcontext).getXObjects(XWikiDocument.COMMENTSCLASS_REFERENCE);
 
-            RangeIterable<com.xpn.xwiki.api.Object> ri =
-                    new RangeIterable<com.xpn.xwiki.api.Object>(xwikiComments, start, number);
-
-            for (com.xpn.xwiki.api.Object xwikiComment : ri) {
-                comments.getComments().add(
-                        DomainObjectFactory.createComment(objectFactory, uriInfo.getBaseUri(), doc, xwikiComment,
-                                Utils.getXWikiApi(componentManager), withPrettyNames));
+            // Only create the API objects of the comments in the requested range
+            for (BaseObject xwikiComment : getRange(xwikiComments, start, number)) {
+                comments.getComments().add(DomainObjectFactory.createComment(objectFactory, uriInfo.getBaseUri(),
+                    doc, xwikiComment.newObjectApi(xwikiComment, xcontext), Utils.getXWikiApi(componentManager),
+                    withPrettyNames));
             }
 
             return comments;
@@ -75,6 +77,35 @@ public Comments getComments(String wikiName, String spaceName, String pageName,
         }
     }
 
+    /**
+     * @param xwikiComments the comment objects of a document, {@code null} for the deleted comments
+     * @param start the index of the first comment to return, ignoring the deleted comments
+     * @param number the maximum number of comments to return, all the following comments when negative
+     * @return the comments in the requested range
+     */
+    static List<BaseObject> getRange(List<BaseObject> xwikiComments, int start, int number)
+    {
+        List<BaseObject> range = new ArrayList<>();
+
+        if (xwikiComments != null) {
+            int first = Math.max(start, 0);
+            int index = 0;
+            for (BaseObject xwikiComment : xwikiComments) {
+                if (xwikiComment != null) {
+                    if (number >= 0 && index >= first + number) {
+                        break;
+                    }
+                    if (index >= first) {
+                        range.add(xwikiComment);
+                    }
+                    index++;
+                }
+            }
+        }
+
+        return range;
+    }
+
     @Override
     public Response postComment(String wikiName, String spaceName, String pageName, Comment comment)
             throws XWikiRestException
@@ -20,6 +20,7 @@
 package org.xwiki.rest.internal.resources.objects;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -61,6 +62,53 @@ protected List<BaseObject> getBaseObjects(Document doc) throws XWikiException
         return objectList;
     }
 
+    /**
+     * Same as {@link #getBaseObjects(Document)} restricted to the range (start, number), without going through the
+     * objects before the range.
+     *
+     * @since 10.0RC1
+     */
+    protected List<BaseObject> getBaseObjects(Document doc, int start, int number) throws XWikiException
+    {
+        XWikiDocument xwikiDocument =
+            Utils.getXWiki(componentManager).getDocument(doc.getDocumentReference(),
+                Utils.getXWikiContext(componentManager));
+
+        return getRange(xwikiDocument.getXObjects().values(), start, number);
+    }
+
+    /**
+     * @param objects the objects of a document, grouped by class
+     * @param start the index of the first object to return
+     * @param number the maximum number of objects to return, all the following objects when negative
+     * @return the objects in the requested range
+     * @since 10.0RC1
+     */
+    protected static List<BaseObject> getRange(Collection<List<BaseObject>> objects, int start, int number)
+    {
+        List<BaseObject> objectList = new ArrayList<BaseObject>();
+
+        int skip = Math.max(start, 0);
+        for (List<BaseObject> xwikiObjects : objects) {
+            if (number >= 0 && objectList.size() >= number) {
+                break;
+            }
+
+            // Skip the whole list of objects of a class when it's before the range
+            if (skip >= xwikiObjects.size()) {
+                skip -= xwikiObjects.size();
+                continue;
+            }
+
+            int end = number >= 0 ? Math.min(xwikiObjects.size(), skip + number - objectList.size())
+                : xwikiObjects.size();
+            objectList.addAll(xwikiObjects.subList(skip, end));
+            skip = 0;
+        }
+
+        return objectList;
+    }
+
     protected List<BaseObject> getBaseObjects(Document doc, String className) throws XWikiException
     {
         XWikiDocument xwikiDocument = Utils.getXWiki(componentManager).getDocument(doc.getDocumentReference(),
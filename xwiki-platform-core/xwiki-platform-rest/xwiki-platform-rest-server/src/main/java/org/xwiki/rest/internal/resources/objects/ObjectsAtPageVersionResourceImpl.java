@@ -19,14 +19,11 @@
  */
 package org.xwiki.rest.internal.resources.objects;
 
-import java.util.List;
-
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
-import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Objects;
 import org.xwiki.rest.resources.objects.ObjectsAtPageVersionResource;
@@ -52,12 +49,8 @@ public Objects getObjects(String wikiName, String spaceName, String pageName, St
 
             Objects objects = objectFactory.createObjects();
 
-            List<com.xpn.xwiki.objects.BaseObject> objectList = getBaseObjects(doc);
-
-            RangeIterable<com.xpn.xwiki.objects.BaseObject> ri =
-                    new RangeIterable<com.xpn.xwiki.objects.BaseObject>(objectList, start, number);
-
-            for (com.xpn.xwiki.objects.BaseObject object : ri) {
+            // Only go through the objects of the requested range
+            for (com.xpn.xwiki.objects.BaseObject object : getBaseObjects(doc, start, number)) {
                 /* By deleting objects, some of them might become null, so we must check for this */
                 if (object != null) {
                     objects.getObjectSummaries().add(DomainObjectFactory
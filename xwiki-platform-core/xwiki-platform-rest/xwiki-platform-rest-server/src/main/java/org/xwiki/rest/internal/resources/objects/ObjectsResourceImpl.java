@@ -29,7 +29,6 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
-import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Object;
 import org.xwiki.rest.model.jaxb.Objects;
@@ -61,11 +60,8 @@ public Objects getObjects(String wikiName, String spaceName, String pageName, In
 
             Objects objects = objectFactory.createObjects();
 
-            List<BaseObject> objectList = getBaseObjects(doc);
-
-            RangeIterable<BaseObject> ri = new RangeIterable<BaseObject>(objectList, start, number);
-
-            for (BaseObject object : ri) {
+            // Only go through the objects of the requested range
+            for (BaseObject object : getBaseObjects(doc, start, number)) {
                 /* By deleting objects, some of them might become null, so we must check for this */
                 if (object != null) {
                     objects.getObjectSummaries().add(
@@ -22,6 +22,7 @@
 import java.util.List;
 import java.util.regex.Pattern;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
@@ -29,13 +30,11 @@
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.PageSummaryProjection;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.pages.PagesResource;
 
-import com.xpn.xwiki.api.Document;
-
 /**
  * @version $Id$
  */
@@ -43,28 +42,28 @@
 @Named("org.xwiki.rest.internal.resources.pages.PagesResourceImpl")
 public class PagesResourceImpl extends XWikiResource implements PagesResource
 {
+    @Inject
+    private PageSummaryProjection pageSummaryProjection;
+
     @Override
     public Pages getPages(String wikiName, String spaceName, Integer start, Integer number,
             String parentFilterExpression, String order, Boolean withPrettyNames)
             throws XWikiRestException
     {
         String database = Utils.getXWikiContext(componentManager).getWikiId();
-        List<String> spaces = parseSpaceSegments(spaceName);
-        String spaceId = Utils.getLocalSpaceId(spaces);
+        String spaceId = Utils.getLocalSpaceId(parseSpaceSegments(spaceName));
 
         Pages pages = objectFactory.createPages();
 
         try {
             Utils.getXWikiContext(componentManager).setWikiId(wikiName);
 
-            Query query = ("date".equals(order)) ? queryManager.createQuery(
-                    "select doc.name from Document doc where doc.space=:space and language='' order by doc.date desc",
-                    "xwql") : queryManager.getNamedQuery("getSpaceDocsName");
-
-            /* Use an explicit query to improve performance */
-            List<String> pageNames =
-                    query.addFilter(componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden"))
-                        .bindValue("space", spaceId).setOffset(start).setLimit(number).execute();
+            // Select only the columns needed to build the summaries instead of loading each document
+            String statement = PageSummaryProjection.SELECT + " where doc.space = :space and doc.language = '' "
+                + ("date".equals(order) ? "order by doc.date desc" : "order by doc.name asc");
+            List<Object[]> rows = queryManager.createQuery(statement, Query.HQL)
+                .addFilter(componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden"))
+                .bindValue("space", spaceId).setOffset(start).setLimit(number).execute();
 
             Pattern parentFilter = null;
             if (parentFilterExpression != null) {
@@ -75,36 +74,8 @@ public Pages getPages(String wikiName, String spaceName, Integer start, Integer
                 }
             }
 
-            for (String pageName : pageNames) {
-                String pageFullName = Utils.getPageId(wikiName, spaces, pageName);
-
-                if (!Utils.getXWikiApi(componentManager).exists(pageFullName)) {
-                    getLogger().warn("Page [{}] appears to be in space [{}] but no information is available.", pageName,
-                        spaceId);
-                } else {
-                    Document doc = Utils.getXWikiApi(componentManager).getDocument(pageFullName);
-
-                    /* We only add pages we have the right to access */
-                    if (doc != null) {
-                        boolean add = true;
-
-                        Document parent = Utils.getParentDocument(doc, Utils.getXWikiApi(componentManager));
-
-                        if (parentFilter != null) {
-                            String parentId = "";
-                            if (parent != null && !parent.isNew()) {
-                                parentId = parent.getPrefixedFullName();
-                            }
-                            add = parentFilter.matcher(parentId).matches();
-                        }
-
-                        if (add) {
-                            pages.getPageSummaries().add(DomainObjectFactory.createPageSummary(objectFactory,
-                                    uriInfo.getBaseUri(), doc, Utils.getXWikiApi(componentManager), withPrettyNames));
-                        }
-                    }
-                }
-            }
+            pages.getPageSummaries().addAll(this.pageSummaryProjection.toRestPageSummaries(uriInfo.getBaseUri(),
+                wikiName, rows, parentFilter, withPrettyNames));
         } catch (Exception e) {
             throw new XWikiRestException(e);
         } finally {
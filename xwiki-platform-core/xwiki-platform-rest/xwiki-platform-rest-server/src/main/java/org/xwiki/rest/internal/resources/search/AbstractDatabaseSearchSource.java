@@ -110,8 +110,9 @@ public List<SearchResult> search(String partialQueryString, String wikiName, Str
 
         WikiReference wikiReference = new WikiReference(wikiName);
 
-        /* Build the result. */
-        List<SearchResult> result = new ArrayList<>();
+        // Load all the viewable documents at once
+        List<DocumentReference> documentReferences = new ArrayList<>(queryResult.size());
+        List<String> languages = new ArrayList<>(queryResult.size());
         for (Object object : queryResult) {
             Object[] fields = (Object[]) object;
 
@@ -122,60 +123,70 @@ public List<SearchResult> search(String partialQueryString, String wikiName, Str
 
             /* Check if the user has the right to see the found document */
             if (this.authorization.hasAccess(Right.VIEW, documentReference)) {
-                Document doc = xwikiApi.getDocument(documentReference);
-                String title = doc.getDisplayTitle();
-
-                SearchResult searchResult = this.objectFactory.createSearchResult();
-                searchResult.setType("page");
-                searchResult.setId(doc.getPrefixedFullName());
-                searchResult.setPageFullName(doc.getFullName());
-                searchResult.setTitle(title);
-                searchResult.setWiki(wikiName);
-                searchResult.setSpace(doc.getSpace());
-                searchResult.setPageName(doc.getName());
-                searchResult.setVersion(doc.getVersion());
-                searchResult.setAuthor(doc.getAuthor());
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTime(doc.getDate());
-                searchResult.setModified(calendar);
-
-                if (withPrettyNames) {
-                    searchResult.setAuthorName(xwikiApi.getUserName(doc.getAuthor(), false));
-                }
+                documentReferences.add(documentReference);
+                languages.add(language);
+            }
+        }
+        List<XWikiDocument> documents = xwikiContext.getWiki().getDocuments(documentReferences, xwikiContext);
 
-                /*
-                 * Avoid to return object information if the user is not authenticated. This will prevent crawlers to
-                 * retrieve information such as email addresses and passwords from user's profiles.
-                 */
-                if (StringUtils.isNotEmpty(className) && xwikiContext.getUserReference() != null) {
-                    XWikiDocument xdocument =
-                        xwikiContext.getWiki().getDocument(doc.getDocumentReference(), xwikiContext);
-                    BaseObject baseObject = xdocument.getObject(className);
-                    if (baseObject != null) {
-                        searchResult.setObject(
-                            this.modelFactory.toRestObject(uriInfo.getBaseUri(), doc, baseObject, false, false));
-                    }
-                }
+        /* Build the result. */
+        List<SearchResult> result = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            DocumentReference documentReference = documentReferences.get(i);
+            String language = languages.get(i);
+            XWikiDocument xdocument = documents.get(i);
+
+            Document doc = xdocument.newDocument(xwikiContext);
+            String title = doc.getDisplayTitle();
+
+            SearchResult searchResult = this.objectFactory.createSearchResult();
+            searchResult.setType("page");
+            searchResult.setId(doc.getPrefixedFullName());
+            searchResult.setPageFullName(doc.getFullName());
+            searchResult.setTitle(title);
+            searchResult.setWiki(wikiName);
+            searchResult.setSpace(doc.getSpace());
+            searchResult.setPageName(doc.getName());
+            searchResult.setVersion(doc.getVersion());
+            searchResult.setAuthor(doc.getAuthor());
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(doc.getDate());
+            searchResult.setModified(calendar);
+
+            if (withPrettyNames) {
+                searchResult.setAuthorName(xwikiApi.getUserName(doc.getAuthor(), false));
+            }
 
-                String pageUri;
-                if (StringUtils.isBlank(language)) {
-                    pageUri = Utils.createURI(uriInfo.getBaseUri(), PageResource.class, wikiName,
-                        Utils.getSpacesHierarchy(documentReference.getLastSpaceReference()),
-                        documentReference.getName()).toString();
-                } else {
-                    searchResult.setLanguage(language);
-                    pageUri = Utils.createURI(uriInfo.getBaseUri(), PageTranslationResource.class, wikiName,
-                        Utils.getSpacesHierarchy(documentReference.getLastSpaceReference()),
-                        documentReference.getName(), language).toString();
+            /*
+             * Avoid to return object information if the user is not authenticated. This will prevent crawlers to
+             * retrieve information such as email addresses and passwords from user's profiles.
+             */
+            if (StringUtils.isNotEmpty(className) && xwikiContext.getUserReference() != null) {
+                BaseObject baseObject = xdocument.getObject(className);
+                if (baseObject != null) {
+                    searchResult.setObject(
+                        this.modelFactory.toRestObject(uriInfo.getBaseUri(), doc, baseObject, false, false));
                 }
+            }
 
-                Link pageLink = new Link();
-                pageLink.setHref(pageUri);
-                pageLink.setRel(Relations.PAGE);
-                searchResult.getLinks().add(pageLink);
-
-                result.add(searchResult);
+            String pageUri;
+            if (StringUtils.isBlank(language)) {
+                pageUri = Utils.createURI(uriInfo.getBaseUri(), PageResource.class, wikiName,
+                    Utils.getSpacesHierarchy(documentReference.getLastSpaceReference()),
+                    documentReference.getName()).toString();
+            } else {
+                searchResult.setLanguage(language);
+                pageUri = Utils.createURI(uriInfo.getBaseUri(), PageTranslationResource.class, wikiName,
+                    Utils.getSpacesHierarchy(documentReference.getLastSpaceReference()),
+                    documentReference.getName(), language).toString();
             }
+
+            Link pageLink = new Link();
+            pageLink.setHref(pageUri);
+            pageLink.setRel(Relations.PAGE);
+            searchResult.getLinks().add(pageLink);
+
+            result.add(searchResult);
         }
 
         return result;
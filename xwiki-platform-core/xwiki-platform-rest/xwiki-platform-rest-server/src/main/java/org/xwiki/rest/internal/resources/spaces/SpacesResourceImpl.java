@@ -19,21 +19,27 @@
  */
 package org.xwiki.rest.internal.resources.spaces;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
+import org.xwiki.rest.internal.PageSummaryProjection;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Spaces;
 import org.xwiki.rest.resources.spaces.SpacesResource;
-
-import com.xpn.xwiki.api.Document;
-import com.xpn.xwiki.api.XWiki;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
 /**
  * @version $Id$
@@ -42,6 +48,19 @@
 @Named("org.xwiki.rest.internal.resources.spaces.SpacesResourceImpl")
 public class SpacesResourceImpl extends XWikiResource implements SpacesResource
 {
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private PageSummaryProjection pageSummaryProjection;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private ModelFactory modelFactory;
+
     @Override
     public Spaces getSpaces(String wikiName, Integer start, Integer number)
             throws XWikiRestException
@@ -53,18 +72,27 @@ public Spaces getSpaces(String wikiName, Integer start, Integer number)
                     componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden")).setOffset(start)
                     .setLimit(number).setWiki(wikiName).execute();
 
+            List<DocumentReference> homeReferences = new ArrayList<>(spaceNames.size());
             for (String spaceName : spaceNames) {
-                List<String> spaceList = Utils.getSpacesFromSpaceId(spaceName);
-                String homeId = Utils.getPageId(wikiName, spaceList, "WebHome");
-                Document home = null;
+                homeReferences.add(new DocumentReference(wikiName, Utils.getSpacesFromSpaceId(spaceName), "WebHome"));
+            }
+
+            // Check the rights and the existence of all the space home pages at once instead of loading them
+            Set<DocumentReference> viewableHomes =
+                new HashSet<>(this.authorization.filter(Right.VIEW, homeReferences));
+            List<String> homeNames = new ArrayList<>(viewableHomes.size());
+            for (DocumentReference homeReference : viewableHomes) {
+                homeNames.add(this.localSerializer.serialize(homeReference));
+            }
+            Set<String> existingHomes = this.pageSummaryProjection.getExistingDocuments(wikiName, homeNames);
 
-                XWiki xwikiApi = Utils.getXWikiApi(componentManager);
-                if (xwikiApi.hasAccessLevel("view", homeId)) {
-                    if (xwikiApi.exists(homeId)) {
-                        home = Utils.getXWikiApi(componentManager).getDocument(homeId);
-                    }
-                    spaces.getSpaces().add(DomainObjectFactory
-                            .createSpace(objectFactory, uriInfo.getBaseUri(), wikiName, spaceList, home));
+            for (int i = 0; i < spaceNames.size(); ++i) {
+                DocumentReference homeReference = homeReferences.get(i);
+                if (viewableHomes.contains(homeReference)) {
+                    DocumentReference home =
+                        existingHomes.contains(this.localSerializer.serialize(homeReference)) ? homeReference : null;
+                    spaces.getSpaces().add(this.modelFactory.toRestSpace(uriInfo.getBaseUri(), wikiName,
+                        Utils.getSpacesFromSpaceId(spaceNames.get(i)), home));
                 }
             }
         } catch (Exception e) {
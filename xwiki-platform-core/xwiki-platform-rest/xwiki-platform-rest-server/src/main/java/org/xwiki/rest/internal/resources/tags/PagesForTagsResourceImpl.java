@@ -20,8 +20,11 @@
 package org.xwiki.rest.internal.resources.tags;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
@@ -29,18 +32,19 @@
 import org.xwiki.query.QueryException;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.PageSummaryProjection;
 import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.tags.PagesForTagsResource;
 
-import com.xpn.xwiki.api.Document;
-
 @Component
 @Named("org.xwiki.rest.internal.resources.tags.PagesForTagsResourceImpl")
 public class PagesForTagsResourceImpl extends XWikiResource implements PagesForTagsResource
 {
+    @Inject
+    private PageSummaryProjection pageSummaryProjection;
+
     @Override
     public Pages getTags(String wikiName, String tagNames, Integer start, Integer number, Boolean withPrettyNames)
             throws XWikiRestException
@@ -54,28 +58,21 @@ public Pages getTags(String wikiName, String tagNames, Integer start, Integer nu
 
             String[] tagNamesArray = tagNames.split(",");
 
-            List<String> documentNames = new ArrayList<String>();
+            /* Avoid duplicates */
+            Set<String> documentNames = new LinkedHashSet<String>();
             for (String tagName : tagNamesArray) {
-                List<String> documentNamesForTag = getDocumentsWithTag(tagName);
-
-                /* Avoid duplicates */
-                for (String documentName : documentNamesForTag) {
-                    if (!documentNames.contains(documentName)) {
-                        documentNames.add(documentName);
-                    }
-                }
+                documentNames.addAll(getDocumentsWithTag(tagName));
             }
 
-            RangeIterable<String> ri = new RangeIterable<String>(documentNames, start, number);
+            RangeIterable<String> ri = new RangeIterable<String>(new ArrayList<String>(documentNames), start, number);
 
+            // Select only the columns needed to build the summaries instead of loading each document
+            List<String> rangeNames = new ArrayList<String>();
             for (String documentName : ri) {
-                Document doc = Utils.getXWikiApi(componentManager).getDocument(documentName);
-                if (doc != null) {
-                    pages.getPageSummaries().add(DomainObjectFactory
-                            .createPageSummary(objectFactory, uriInfo.getBaseUri(), doc, Utils.getXWikiApi(
-                                    componentManager), withPrettyNames));
-                }
+                rangeNames.add(documentName);
             }
+            pages.getPageSummaries().addAll(this.pageSummaryProjection.toRestPageSummaries(uriInfo.getBaseUri(),
+                wikiName, this.pageSummaryProjection.getRows(rangeNames), null, withPrettyNames));
 
             return pages;
         } catch (Exception e) {
@@ -0,0 +1,290 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceProvider;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.Relations;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PageSummaryProjection}.
+ *
+ * @version $Id$
+ */
+public class PageSummaryProjectionTest
+{
+    @Rule
+    public MockitoComponentMockingRule<PageSummaryProjection> mocker =
+        new MockitoComponentMockingRule<>(PageSummaryProjection.class);
+
+    private final WikiReference wikiReference = new WikiReference("wiki");
+
+    private final DocumentReference pageReference = new DocumentReference("wiki", "Space", "Page");
+
+    private final DocumentReference otherReference = new DocumentReference("wiki", "Space", "Other");
+
+    private final DocumentReference parentReference = new DocumentReference("wiki", "Space", "Parent");
+
+    /**
+     * The results of the queries, indexed by a part of their statement.
+     */
+    private final Map<String, List<?>> results = new LinkedHashMap<>();
+
+    private ContextualAuthorizationManager authorization;
+
+    private ComponentManager contextComponentManager;
+
+    private URI baseURI;
+
+    @Before
+    public void configure() throws Exception
+    {
+        this.baseURI = new URI("/xwiki/rest");
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        XWiki xwiki = mock(XWiki.class);
+        when(xcontext.getWiki()).thenReturn(xwiki);
+        when(xwiki.Param("xwiki.title.compatibility", "0")).thenReturn("0");
+        Provider<XWikiContext> xcontextProvider = this.mocker.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(xcontext);
+
+        this.contextComponentManager = mock(ComponentManager.class);
+        when(this.contextComponentManager.getInstance(QueryFilter.class, "hidden"))
+            .thenReturn(mock(QueryFilter.class));
+        Provider<ComponentManager> componentManagerProvider = this.mocker
+            .getInstance(new DefaultParameterizedType(null, Provider.class, ComponentManager.class), "context");
+        when(componentManagerProvider.get()).thenReturn(this.contextComponentManager);
+
+        // Check each right with hasAccess
+        this.authorization = this.mocker.getInstance(ContextualAuthorizationManager.class);
+        doCallRealMethod().when(this.authorization).filter(any(Right.class), any());
+        when(this.authorization.hasAccess(Right.VIEW, this.pageReference)).thenReturn(true);
+        when(this.authorization.hasAccess(Right.VIEW, this.parentReference)).thenReturn(true);
+
+        DocumentReferenceResolver<String> resolver = this.mocker.getInstance(DocumentReferenceResolver.TYPE_STRING);
+        EntityReferenceSerializer<String> serializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        EntityReferenceSerializer<String> localSerializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+        for (DocumentReference reference : Arrays.asList(this.pageReference, this.otherReference,
+            this.parentReference)) {
+            String fullName = "Space." + reference.getName();
+            when(resolver.resolve(fullName, this.wikiReference)).thenReturn(reference);
+            when(serializer.serialize(reference)).thenReturn("wiki:" + fullName);
+            when(localSerializer.serialize(reference)).thenReturn(fullName);
+        }
+        when(localSerializer.serialize(this.pageReference.getLastSpaceReference())).thenReturn("Space");
+
+        EntityReference relativeParentReference = new EntityReference("Parent", EntityType.DOCUMENT);
+        EntityReferenceResolver<String> relativeResolver =
+            this.mocker.getInstance(EntityReferenceResolver.TYPE_STRING, "relative");
+        when(relativeResolver.resolve("Space.Parent", EntityType.DOCUMENT)).thenReturn(relativeParentReference);
+        DocumentReferenceResolver<EntityReference> explicitResolver =
+            this.mocker.getInstance(DocumentReferenceResolver.TYPE_REFERENCE, "explicit");
+        when(explicitResolver.resolve(relativeParentReference, this.pageReference)).thenReturn(this.parentReference);
+
+        EntityReferenceProvider defaultReferenceProvider = this.mocker.getInstance(EntityReferenceProvider.class);
+        when(defaultReferenceProvider.getDefaultReference(EntityType.DOCUMENT))
+            .thenReturn(new EntityReference("WebHome", EntityType.DOCUMENT));
+
+        QueryManager queryManager = this.mocker.getInstance(QueryManager.class);
+        when(queryManager.createQuery(anyString(), eq(Query.HQL))).then(invocation -> {
+            String statement = invocation.getArgument(0);
+
+            Query query = mock(Query.class);
+            when(query.bindValue(anyString(), any())).thenReturn(query);
+            when(query.addFilter(any())).thenReturn(query);
+            when(query.setWiki(any())).thenReturn(query);
+
+            List<?> result = Collections.emptyList();
+            for (Map.Entry<String, List<?>> entry : this.results.entrySet()) {
+                if (statement.contains(entry.getKey())) {
+                    result = entry.getValue();
+                    break;
+                }
+            }
+            when(query.execute()).thenReturn((List) result);
+
+            return query;
+        });
+    }
+
+    private Object[] row(String fullName, long id, String parent)
+    {
+        return new Object[] {fullName, id, "Title", "xwiki/2.1", "1.1", "XWiki.Author", parent, ""};
+    }
+
+    private List<String> getRelations(PageSummary pageSummary)
+    {
+        List<String> relations = new ArrayList<>();
+        for (Link link : pageSummary.getLinks()) {
+            relations.add(link.getRel());
+        }
+
+        return relations;
+    }
+
+    @Test
+    public void toRestPageSummariesSkipsPagesWithoutViewRight() throws Exception
+    {
+        List<PageSummary> pageSummaries = this.mocker.getComponentUnderTest().toRestPageSummaries(this.baseURI,
+            "wiki", Arrays.asList(row("Space.Other", 1L, null), row("Space.Page", 2L, null)), null, false);
+
+        assertEquals(1, pageSummaries.size());
+        PageSummary pageSummary = pageSummaries.get(0);
+        assertEquals("wiki:Space.Page", pageSummary.getId());
+        assertEquals("Space.Page", pageSummary.getFullName());
+        assertEquals("Space", pageSummary.getSpace());
+        assertEquals("Page", pageSummary.getName());
+        assertEquals("Title", pageSummary.getTitle());
+        assertEquals("1.1", pageSummary.getVersion());
+        assertEquals("", pageSummary.getParentId());
+        assertEquals(Arrays.asList(Relations.SPACE, Relations.HISTORY, Relations.SYNTAXES, Relations.PAGE),
+            getRelations(pageSummary));
+    }
+
+    @Test
+    public void toRestPageSummariesWithLinks() throws Exception
+    {
+        this.results.put("select doc.fullName from", Arrays.asList("Space.Parent"));
+        this.results.put("obj.className from",
+            Arrays.asList(new Object[] {"Space.Page", "XWiki.XWikiComments"}, new Object[] {"Space.Page",
+                "XWiki.TagClass"}));
+        this.results.put("DBStringListProperty", Arrays.asList("Space.Page"));
+        this.results.put("XWikiAttachment", Arrays.asList(2L));
+        this.results.put("doc.parent in", Collections.singletonList(new Object[] {"Space.Page", "Space"}));
+
+        List<PageSummary> pageSummaries = this.mocker.getComponentUnderTest().toRestPageSummaries(this.baseURI,
+            "wiki", Arrays.<Object[]>asList(row("Space.Page", 2L, "Space.Parent")), null, false);
+
+        assertEquals(1, pageSummaries.size());
+        PageSummary pageSummary = pageSummaries.get(0);
+        assertEquals("Space.Parent", pageSummary.getParent());
+        assertEquals("wiki:Space.Parent", pageSummary.getParentId());
+        assertEquals(Arrays.asList(Relations.SPACE, Relations.PARENT, Relations.HISTORY, Relations.CHILDREN,
+            Relations.COMMENTS, Relations.ATTACHMENTS, Relations.OBJECTS, Relations.TAGS, Relations.SYNTAXES,
+            Relations.PAGE), getRelations(pageSummary));
+    }
+
+    @Test
+    public void toRestPageSummariesWithoutTagsProperty() throws Exception
+    {
+        // The tag object exists but has no tags property
+        this.results.put("obj.className from",
+            Collections.singletonList(new Object[] {"Space.Page", "XWiki.TagClass"}));
+
+        List<PageSummary> pageSummaries = this.mocker.getComponentUnderTest().toRestPageSummaries(this.baseURI,
+            "wiki", Arrays.<Object[]>asList(row("Space.Page", 2L, null)), null, false);
+
+        List<String> relations = getRelations(pageSummaries.get(0));
+        assertTrue(relations.contains(Relations.OBJECTS));
+        assertFalse(relations.contains(Relations.TAGS));
+    }
+
+    @Test
+    public void toRestPageSummariesWithParentFilter() throws Exception
+    {
+        this.results.put("select doc.fullName from", Arrays.asList("Space.Parent"));
+
+        PageSummaryProjection projection = this.mocker.getComponentUnderTest();
+        List<Object[]> rows = Arrays.<Object[]>asList(row("Space.Page", 2L, "Space.Parent"));
+
+        assertEquals(1,
+            projection.toRestPageSummaries(this.baseURI, "wiki", rows, Pattern.compile(".*Parent"), false).size());
+        assertEquals(0,
+            projection.toRestPageSummaries(this.baseURI, "wiki", rows, Pattern.compile(".*Other"), false).size());
+
+        // The parent cannot be used to filter when the current user is not allowed to see it
+        when(this.authorization.hasAccess(Right.VIEW, this.parentReference)).thenReturn(false);
+
+        assertEquals(0,
+            projection.toRestPageSummaries(this.baseURI, "wiki", rows, Pattern.compile(".*Parent"), false).size());
+    }
+
+    @Test
+    public void toRestPageSummariesLooksUpTheHiddenFilterEachTime() throws Exception
+    {
+        PageSummaryProjection projection = this.mocker.getComponentUnderTest();
+        List<Object[]> rows = Arrays.<Object[]>asList(row("Space.Page", 2L, null));
+
+        projection.toRestPageSummaries(this.baseURI, "wiki", rows, null, false);
+        projection.toRestPageSummaries(this.baseURI, "wiki", rows, null, false);
+
+        // The hidden filter depends on the preferences of the current user
+        verify(this.contextComponentManager, times(2)).getInstance(QueryFilter.class, "hidden");
+    }
+
+    @Test
+    public void getRows() throws Exception
+    {
+        Object[] pageRow = row("Space.Page", 2L, null);
+        Object[] otherRow = row("Space.Other", 1L, null);
+        this.results.put("doc.syntaxId", Arrays.asList(pageRow, otherRow));
+
+        // The rows are returned in the order of the names, without the documents which don't exist
+        assertEquals(Arrays.asList(otherRow, pageRow),
+            this.mocker.getComponentUnderTest().getRows(Arrays.asList("Space.Other", "Space.Missing", "Space.Page")));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.comments;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link CommentsResourceImpl}.
+ *
+ * @version $Id$
+ */
+public class CommentsResourceImplTest
+{
+    private final BaseObject comment0 = mock(BaseObject.class);
+
+    private final BaseObject comment2 = mock(BaseObject.class);
+
+    private final BaseObject comment3 = mock(BaseObject.class);
+
+    /**
+     * The second comment has been deleted.
+     */
+    private final List<BaseObject> comments = Arrays.asList(this.comment0, null, this.comment2, this.comment3);
+
+    @Test
+    public void getRangeSkipsDeletedComments()
+    {
+        assertEquals(Arrays.asList(this.comment0, this.comment2, this.comment3),
+            CommentsResourceImpl.getRange(this.comments, 0, -1));
+        assertEquals(Arrays.asList(this.comment2, this.comment3),
+            CommentsResourceImpl.getRange(this.comments, 1, -1));
+        assertEquals(Arrays.asList(this.comment0, this.comment2),
+            CommentsResourceImpl.getRange(this.comments, -1, 2));
+        assertEquals(Arrays.asList(this.comment3), CommentsResourceImpl.getRange(this.comments, 2, 5));
+    }
+
+    @Test
+    public void getRangeOutOfBounds()
+    {
+        assertEquals(Collections.emptyList(), CommentsResourceImpl.getRange(this.comments, 0, 0));
+        assertEquals(Collections.emptyList(), CommentsResourceImpl.getRange(this.comments, 3, -1));
+        assertEquals(Collections.emptyList(), CommentsResourceImpl.getRange(null, 0, -1));
+    }
+}
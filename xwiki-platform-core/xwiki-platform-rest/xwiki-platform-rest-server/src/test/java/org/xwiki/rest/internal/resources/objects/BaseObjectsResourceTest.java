@@ -0,0 +1,78 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.objects;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link BaseObjectsResource}.
+ *
+ * @version $Id$
+ */
+public class BaseObjectsResourceTest
+{
+    private final BaseObject a0 = mock(BaseObject.class);
+
+    private final BaseObject a1 = mock(BaseObject.class);
+
+    private final BaseObject b0 = mock(BaseObject.class);
+
+    private final BaseObject c0 = mock(BaseObject.class);
+
+    private final BaseObject c1 = mock(BaseObject.class);
+
+    private final List<List<BaseObject>> objects =
+        Arrays.asList(Arrays.asList(this.a0, this.a1), Arrays.asList(this.b0), Arrays.asList(this.c0, this.c1));
+
+    @Test
+    public void getRangeWithAllObjects()
+    {
+        assertEquals(Arrays.asList(this.a0, this.a1, this.b0, this.c0, this.c1),
+            BaseObjectsResource.getRange(this.objects, 0, -1));
+        assertEquals(Arrays.asList(this.a0, this.a1, this.b0, this.c0, this.c1),
+            BaseObjectsResource.getRange(this.objects, -1, 10));
+    }
+
+    @Test
+    public void getRangeAcrossClasses()
+    {
+        assertEquals(Arrays.asList(this.a1, this.b0, this.c0), BaseObjectsResource.getRange(this.objects, 1, 3));
+        assertEquals(Arrays.asList(this.b0, this.c0, this.c1), BaseObjectsResource.getRange(this.objects, 2, -1));
+        assertEquals(Arrays.asList(this.c1), BaseObjectsResource.getRange(this.objects, 4, 2));
+    }
+
+    @Test
+    public void getRangeOutOfBounds()
+    {
+        assertEquals(Collections.emptyList(), BaseObjectsResource.getRange(this.objects, 0, 0));
+        assertEquals(Collections.emptyList(), BaseObjectsResource.getRange(this.objects, 5, 1));
+        assertEquals(Collections.emptyList(), BaseObjectsResource.getRange(this.objects, 10, -1));
+        assertEquals(Collections.emptyList(), BaseObjectsResource.getRange(Collections.emptyList(), 0, -1));
+    }
+}
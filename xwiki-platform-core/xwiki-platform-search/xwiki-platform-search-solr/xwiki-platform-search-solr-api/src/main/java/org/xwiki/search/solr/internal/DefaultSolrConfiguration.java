@@ -104,6 +104,20 @@ public class DefaultSolrConfiguration implements SolrConfiguration
      */
     public static final int SOLR_INDEXER_QUEUE_CAPACITY_DEFAULT = 100000;
 
+    /**
+     * The name of the configuration property containing the number of metadata extraction threads.
+     *
+     * @since 10.0RC1
+     */
+    public static final String SOLR_INDEXER_THREADS_PROPERTY = "solr.indexer.threads";
+
+    /**
+     * The default number of metadata extraction threads.
+     *
+     * @since 10.0RC1
+     */
+    public static final int SOLR_INDEXER_THREADS_DEFAULT = 1;
+
     /**
      * The name of the configuration property indicating if a synchronization should be run at startup.
      */
@@ -114,6 +128,20 @@ public class DefaultSolrConfiguration implements SolrConfiguration
      */
     public static final boolean SOLR_SYNCHRONIZE_AT_STARTUP_DEFAULT = true;
 
+    /**
+     * The name of the configuration property indicating if the index operations should be recorded in a change log.
+     *
+     * @since 10.0RC1
+     */
+    public static final String SOLR_INDEXER_CHANGELOG_PROPERTY = "solr.indexer.changeLog";
+
+    /**
+     * Indicate if the index operations should be recorded in a change log by default.
+     *
+     * @since 10.0RC1
+     */
+    public static final boolean SOLR_INDEXER_CHANGELOG_DEFAULT = false;
+
     /**
      * The Solr configuration source.
      */
@@ -160,9 +188,21 @@ public int getIndexerQueueCapacity()
             .getProperty(SOLR_INDEXER_QUEUE_CAPACITY_PROPERTY, SOLR_INDEXER_QUEUE_CAPACITY_DEFAULT);
     }
 
+    @Override
+    public int getIndexerThreads()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_THREADS_PROPERTY, SOLR_INDEXER_THREADS_DEFAULT);
+    }
+
     @Override
     public boolean synchronizeAtStartup()
     {
         return this.configuration.getProperty(SOLR_SYNCHRONIZE_AT_STARTUP, SOLR_SYNCHRONIZE_AT_STARTUP_DEFAULT);
     }
+
+    @Override
+    public boolean isIndexerChangeLogEnabled()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_CHANGELOG_PROPERTY, SOLR_INDEXER_CHANGELOG_DEFAULT);
+    }
 }
@@ -19,14 +19,21 @@
  */
 package org.xwiki.search.solr.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.solr.common.SolrInputDocument;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -63,6 +70,10 @@
  * This implementation does not directly process the given leaf-references, but adds them to a processing queue, in the
  * order they were received. The {@link Runnable} part of this implementation is the one that sequentially reads and
  * processes the queue.
+ * <p>
+ * The metadata extraction can be distributed over several worker threads (see
+ * {@link SolrConfiguration#getIndexerThreads()}) but the extracted documents are always sent to the Solr server in the
+ * order they were queued so that several operations on the same entity are applied in the right order.
  * 
  * @version $Id$
  * @since 5.1M2
@@ -97,6 +108,11 @@ public class DefaultSolrIndexer implements SolrIndexer, Initializable, Disposabl
          */
         public IndexOperation operation;
 
+        /**
+         * The position of the change log to checkpoint once this entry is committed, {@code -1} if none.
+         */
+        public long changeLogPosition = -1;
+
         /**
          * @param indexReference the reference of the entity to index.
          * @param operation the indexing operation to perform.
@@ -163,6 +179,11 @@ public String toString()
          */
         public IndexOperation operation;
 
+        /**
+         * The position of the change log right after this entry, {@code -1} if none.
+         */
+        public long changeLogPosition = -1;
+
         /**
          * @param reference the reference of the entity to index.
          * @param recurse also apply operation to reference children.
@@ -213,15 +234,21 @@ public void runInternal()
                             references = Arrays.asList(queueEntry.reference);
                         }
 
+                        // Only the last resolved entry moves the change log checkpoint
+                        IndexQueueEntry indexEntry = null;
                         for (EntityReference reference : references) {
-                            indexQueue.put(new IndexQueueEntry(reference, queueEntry.operation));
+                            if (indexEntry != null) {
+                                indexQueue.put(indexEntry);
+                            }
+                            indexEntry = new IndexQueueEntry(reference, queueEntry.operation);
                         }
+                        put(indexEntry, queueEntry);
                     } else {
                         if (queueEntry.recurse) {
-                            indexQueue.put(new IndexQueueEntry(solrRefereceResolver.getQuery(queueEntry.reference),
-                                queueEntry.operation));
+                            put(new IndexQueueEntry(solrRefereceResolver.getQuery(queueEntry.reference),
+                                queueEntry.operation), queueEntry);
                         } else if (queueEntry.reference != null) {
-                            indexQueue.put(new IndexQueueEntry(queueEntry.reference, queueEntry.operation));
+                            put(new IndexQueueEntry(queueEntry.reference, queueEntry.operation), queueEntry);
                         }
                     }
                 } catch (Throwable e) {
@@ -232,6 +259,14 @@ public void runInternal()
 
             logger.debug("Stop SOLR resolver thread");
         }
+
+        private void put(IndexQueueEntry indexEntry, ResolveQueueEntry queueEntry) throws InterruptedException
+        {
+            if (indexEntry != null) {
+                indexEntry.changeLogPosition = queueEntry.changeLogPosition;
+                indexQueue.put(indexEntry);
+            }
+        }
     }
 
     /**
@@ -285,6 +320,9 @@ public void runInternal()
     @Inject
     private JobExecutor jobs;
 
+    @Inject
+    private SolrIndexChangeLog changeLog;
+
     /**
      * The queue of index operation to perform.
      */
@@ -305,6 +343,12 @@ public void runInternal()
      */
     private Thread resolveThread;
 
+    /**
+     * The thread pool in which the metadata are extracted, {@code null} when the extraction is done in the index
+     * thread.
+     */
+    private ExecutorService extractExecutor;
+
     /**
      * Indicate of the component has been disposed.
      */
@@ -315,6 +359,16 @@ public void runInternal()
      */
     private volatile int batchSize;
 
+    /**
+     * The number of entries taken from the index queue and currently being extracted.
+     */
+    private volatile int processingSize;
+
+    /**
+     * The position of the change log to checkpoint at the next successful commit.
+     */
+    private long changeLogPosition = -1;
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -322,6 +376,15 @@ public void initialize() throws InitializationException
         this.resolveQueue = new LinkedBlockingQueue<>();
         this.indexQueue = new LinkedBlockingQueue<>(this.configuration.getIndexerQueueCapacity());
 
+        // Create the metadata extraction thread pool (the index thread is enough if only one thread is configured)
+        int threads = this.configuration.getIndexerThreads();
+        if (threads > 1) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki Solr extraction thread %d").daemon(true).priority(Thread.NORM_PRIORITY - 1)
+                .build();
+            this.extractExecutor = Executors.newFixedThreadPool(threads, factory);
+        }
+
         // Launch the resolve thread
         this.resolveThread = new Thread(new Resolver());
         this.resolveThread.setName("XWiki Solr resolve thread");
@@ -379,6 +442,10 @@ public void run()
             }
         }
 
+        if (this.extractExecutor != null) {
+            this.extractExecutor.shutdownNow();
+        }
+
         this.logger.debug("Stop SOLR indexer thread");
     }
 
@@ -393,40 +460,122 @@ private boolean processBatch(IndexQueueEntry queueEntry)
     {
         SolrInstance solrInstance = this.solrInstanceProvider.get();
 
+        int chunkSize = Math.max(this.configuration.getIndexerBatchSize(), 1);
+
         int length = 0;
 
+        boolean next = true;
+
+        List<IndexQueueEntry> chunk = new ArrayList<>(chunkSize);
         for (IndexQueueEntry batchEntry = queueEntry; batchEntry != null; batchEntry = this.indexQueue.poll()) {
             if (batchEntry == INDEX_QUEUE_ENTRY_STOP) {
-                // Discard the current batch and stop the indexing thread.
-                return false;
+                // Send what has already been taken from the queue and stop the indexing thread.
+                next = false;
+
+                break;
+            }
+
+            chunk.add(batchEntry);
+            this.processingSize = chunk.size();
+
+            if (chunk.size() >= chunkSize) {
+                length = processChunk(chunk, solrInstance, length);
+                chunk.clear();
+
+                if (Thread.currentThread().isInterrupted()) {
+                    next = false;
+
+                    break;
+                }
+            }
+        }
+
+        if (!chunk.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            processChunk(chunk, solrInstance, length);
+        }
+
+        this.processingSize = 0;
+
+        // Commit what's left
+        if (this.batchSize > 0) {
+            commit();
+        } else {
+            // Nothing to commit, the processed entries did not modify the index
+            this.changeLog.checkpoint(this.changeLogPosition);
+        }
+
+        return next;
+    }
+
+    /**
+     * Extract the metadata of the passed entries (in parallel if extraction threads are configured) and send them to
+     * the Solr server in the order of the entries.
+     * 
+     * @param entries the entries to process
+     * @param solrInstance the Solr instance to send the changes to
+     * @param currentLength the length of the changes sent since the last commit
+     * @return the length of the changes sent since the last commit
+     */
+    private int processChunk(List<IndexQueueEntry> entries, SolrInstance solrInstance, int currentLength)
+    {
+        int length = currentLength;
+
+        // Start the extraction of all the entries to index
+        List<FutureTask<LengthSolrInputDocument>> extractions = new ArrayList<>(entries.size());
+        for (IndexQueueEntry entry : entries) {
+            FutureTask<LengthSolrInputDocument> extraction = null;
+            if (IndexOperation.INDEX.equals(entry.operation)) {
+                extraction = new FutureTask<>(() -> extractSolrDocument(entry.reference));
+                if (this.extractExecutor != null) {
+                    this.extractExecutor.execute(extraction);
+                }
             }
+            extractions.add(extraction);
+        }
 
-            IndexOperation operation = batchEntry.operation;
+        // Apply the operations in the order they were queued
+        for (int i = 0; i < entries.size(); ++i) {
+            IndexQueueEntry batchEntry = entries.get(i);
 
-            // For the current contiguous operations queue, group the changes
             try {
-                this.ecim.initialize(new ExecutionContext());
+                if (IndexOperation.INDEX.equals(batchEntry.operation)) {
+                    FutureTask<LengthSolrInputDocument> extraction = extractions.get(i);
+                    if (this.extractExecutor == null) {
+                        // No extraction thread, extract the metadata in the current thread
+                        extraction.run();
+                    }
 
-                if (IndexOperation.INDEX.equals(operation)) {
-                    LengthSolrInputDocument solrDocument = getSolrDocument(batchEntry.reference);
+                    LengthSolrInputDocument solrDocument = extraction.get();
                     if (solrDocument != null) {
                         solrInstance.add(solrDocument);
                         length += solrDocument.getLength();
                         ++this.batchSize;
                     }
-                } else if (IndexOperation.DELETE.equals(operation)) {
-                    if (batchEntry.reference == null) {
-                        solrInstance.deleteByQuery(batchEntry.deleteQuery);
-                    } else {
-                        solrInstance.delete(this.solrRefereceResolver.getId(batchEntry.reference));
-                    }
+                } else if (IndexOperation.DELETE.equals(batchEntry.operation)) {
+                    delete(batchEntry, solrInstance);
 
                     ++this.batchSize;
                 }
+            } catch (InterruptedException e) {
+                this.logger.warn("The SOLR index thread has been interrupted while processing entry [{}]",
+                    batchEntry, e);
+
+                // Restore the interrupted status and give up the rest of the chunk: the following entries are not
+                // marked as processed in the change log so they will be replayed at next startup.
+                Thread.currentThread().interrupt();
+                cancel(extractions.subList(i, extractions.size()));
+
+                break;
+            } catch (ExecutionException e) {
+                this.logger.error("Failed to process entry [{}]", batchEntry, e.getCause());
             } catch (Throwable e) {
                 this.logger.error("Failed to process entry [{}]", batchEntry, e);
-            } finally {
-                this.execution.removeContext();
+            }
+
+            this.processingSize = entries.size() - i - 1;
+
+            if (batchEntry.changeLogPosition > this.changeLogPosition) {
+                this.changeLogPosition = batchEntry.changeLogPosition;
             }
 
             // Commit the index changes so that they become available to queries. This is a costly operation and that is
@@ -437,12 +586,56 @@ private boolean processBatch(IndexQueueEntry queueEntry)
             }
         }
 
-        // Commit what's left
-        if (this.batchSize > 0) {
-            commit();
+        return length;
+    }
+
+    /**
+     * @param extractions the extractions to cancel
+     */
+    private void cancel(List<FutureTask<LengthSolrInputDocument>> extractions)
+    {
+        for (FutureTask<LengthSolrInputDocument> extraction : extractions) {
+            if (extraction != null) {
+                extraction.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @param reference the reference of the entity to extract metadata from
+     * @return the {@link SolrInputDocument} containing extracted metadata from the passed reference; {@code null} if
+     *         the reference type is not supported
+     * @throws Exception when failing to extract the metadata
+     */
+    private LengthSolrInputDocument extractSolrDocument(EntityReference reference) throws Exception
+    {
+        this.ecim.initialize(new ExecutionContext());
+
+        try {
+            return getSolrDocument(reference);
+        } finally {
+            this.execution.removeContext();
         }
+    }
+
+    /**
+     * @param entry the delete entry
+     * @param solrInstance the Solr instance to send the changes to
+     * @throws Exception when failing to delete the entry
+     */
+    private void delete(IndexQueueEntry entry, SolrInstance solrInstance) throws Exception
+    {
+        this.ecim.initialize(new ExecutionContext());
 
-        return true;
+        try {
+            if (entry.reference == null) {
+                solrInstance.deleteByQuery(entry.deleteQuery);
+            } else {
+                solrInstance.delete(this.solrRefereceResolver.getId(entry.reference));
+            }
+        } finally {
+            this.execution.removeContext();
+        }
     }
 
     /**
@@ -454,6 +647,8 @@ private void commit()
 
         try {
             solrInstance.commit();
+
+            this.changeLog.checkpoint(this.changeLogPosition);
         } catch (Exception e) {
             this.logger.error("Failed to commit index changes to the Solr server. Rolling back.", e);
 
@@ -545,11 +740,18 @@ public void delete(EntityReference reference, boolean recurse)
     private void addToQueue(EntityReference reference, boolean recurse, IndexOperation operation)
     {
         if (!this.disposed) {
-            // Don't block because the capacity of the resolver queue is not limited.
-            try {
-                this.resolveQueue.put(new ResolveQueueEntry(reference, recurse, operation));
-            } catch (InterruptedException e) {
-                this.logger.error("Failed to add reference [{}] to Solr indexing queue", reference, e);
+            ResolveQueueEntry entry = new ResolveQueueEntry(reference, recurse, operation);
+
+            // Record and queue the operation atomically so that the change log and the queue have the same order.
+            synchronized (this.changeLog) {
+                entry.changeLogPosition = this.changeLog.append(operation, reference, recurse);
+
+                // Don't block because the capacity of the resolver queue is not limited.
+                try {
+                    this.resolveQueue.put(entry);
+                } catch (InterruptedException e) {
+                    this.logger.error("Failed to add reference [{}] to Solr indexing queue", reference, e);
+                }
             }
         }
     }
@@ -557,7 +759,19 @@ private void addToQueue(EntityReference reference, boolean recurse, IndexOperati
     @Override
     public int getQueueSize()
     {
-        return this.indexQueue.size() + this.resolveQueue.size() + this.batchSize;
+        return this.indexQueue.size() + this.resolveQueue.size() + this.processingSize + this.batchSize;
+    }
+
+    @Override
+    public int getResolveQueueSize()
+    {
+        return this.resolveQueue.size();
+    }
+
+    @Override
+    public int getIndexQueueSize()
+    {
+        return this.indexQueue.size();
     }
 
     @Override
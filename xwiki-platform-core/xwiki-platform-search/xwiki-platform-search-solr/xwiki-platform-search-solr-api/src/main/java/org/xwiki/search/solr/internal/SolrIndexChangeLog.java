@@ -0,0 +1,379 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.LocaleUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+
+/**
+ * Persistent log of the index operations queued by {@link DefaultSolrIndexer}.
+ * <p>
+ * Each operation is appended to a file before being queued and the position of the last operation committed to the
+ * Solr server is remembered in a checkpoint file. After a restart (or a crash) only the operations located after the
+ * checkpoint have to be indexed again, instead of comparing the whole database with the whole Solr index. The log is
+ * truncated each time all the operations it contains have been committed.
+ * <p>
+ * The log and the checkpoint are flushed to the disk at each checkpoint, i.e. after each Solr commit, and not after
+ * each append since it would slow down every save. A crash of the JVM does not lose anything but a crash of the
+ * operating system can lose the operations appended since the last checkpoint.
+ * 
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component(roles = SolrIndexChangeLog.class)
+@Singleton
+public class SolrIndexChangeLog implements Initializable, Disposable
+{
+    /**
+     * A change recorded in the log.
+     * 
+     * @version $Id$
+     */
+    public static class Change
+    {
+        private final IndexOperation operation;
+
+        private final EntityReference reference;
+
+        private final boolean recurse;
+
+        /**
+         * @param operation the operation to apply
+         * @param reference the reference of the entity
+         * @param recurse also apply the operation to the entity children
+         */
+        public Change(IndexOperation operation, EntityReference reference, boolean recurse)
+        {
+            this.operation = operation;
+            this.reference = reference;
+            this.recurse = recurse;
+        }
+
+        /**
+         * @return the operation to apply
+         */
+        public IndexOperation getOperation()
+        {
+            return this.operation;
+        }
+
+        /**
+         * @return the reference of the entity
+         */
+        public EntityReference getReference()
+        {
+            return this.reference;
+        }
+
+        /**
+         * @return true if the operation should also be applied to the entity children
+         */
+        public boolean isRecurse()
+        {
+            return this.recurse;
+        }
+    }
+
+    private static final String LOG_FILE = "changes.log";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    private static final int FIELD_COUNT = 5;
+
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private SolrConfiguration configuration;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    @Named("explicit")
+    private EntityReferenceResolver<String> resolver;
+
+    private File directory;
+
+    private FileChannel channel;
+
+    private long checkpoint;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        if (!this.configuration.isIndexerChangeLogEnabled()) {
+            return;
+        }
+
+        this.directory = new File(this.environment.getPermanentDirectory(), "cache/solr/changelog");
+
+        try {
+            this.directory.mkdirs();
+
+            File checkpointFile = new File(this.directory, CHECKPOINT_FILE);
+            if (checkpointFile.exists()) {
+                this.checkpoint = Long.parseLong(FileUtils.readFileToString(checkpointFile, ENCODING).trim());
+            } else {
+                // Nothing is known about the current state of the index
+                this.checkpoint = -1;
+            }
+
+            this.channel = FileChannel.open(new File(this.directory, LOG_FILE).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel.position(this.channel.size());
+        } catch (Exception e) {
+            this.logger.error("Failed to open the Solr index change log located in [{}]. Disabling it.",
+                this.directory, e);
+
+            close();
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        close();
+    }
+
+    private synchronized void close()
+    {
+        IOUtils.closeQuietly(this.channel);
+        this.channel = null;
+    }
+
+    /**
+     * @return true if the operations are recorded in the log
+     */
+    public boolean isEnabled()
+    {
+        return this.channel != null;
+    }
+
+    /**
+     * @param operation the operation to apply
+     * @param reference the reference of the entity
+     * @param recurse also apply the operation to the entity children
+     * @return the position of the log right after the appended operation, to pass to {@link #checkpoint(long)} once the
+     *         operation is committed, or {@code -1} if the log is disabled
+     */
+    public synchronized long append(IndexOperation operation, EntityReference reference, boolean recurse)
+    {
+        if (this.channel == null) {
+            return -1;
+        }
+
+        try {
+            Locale locale = reference instanceof DocumentReference ? ((DocumentReference) reference).getLocale() : null;
+
+            StringBuilder line = new StringBuilder();
+            line.append(operation.name()).append(FIELD_SEPARATOR);
+            line.append(recurse).append(FIELD_SEPARATOR);
+            line.append(reference.getType().name()).append(FIELD_SEPARATOR);
+            line.append(locale != null ? locale : "").append(FIELD_SEPARATOR);
+            line.append(URLEncoder.encode(this.serializer.serialize(reference), ENCODING));
+            line.append(LINE_SEPARATOR);
+
+            ByteBuffer buffer = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+
+            return this.channel.position();
+        } catch (IOException e) {
+            this.logger.error("Failed to append [{}] to the Solr index change log. Disabling it.", reference, e);
+
+            // Make sure the next restart won't trust an incomplete log
+            reset(-1);
+
+            close();
+
+            return -1;
+        }
+    }
+
+    /**
+     * Remember that all the operations located before the passed position have been committed.
+     * 
+     * @param position the position returned by {@link #append(IndexOperation, EntityReference, boolean)} for the last
+     *            committed operation
+     */
+    public synchronized void checkpoint(long position)
+    {
+        if (this.channel == null || position <= this.checkpoint) {
+            return;
+        }
+
+        try {
+            if (position >= this.channel.size()) {
+                // Everything has been committed, start again with an empty log
+                this.channel.truncate(0);
+                this.channel.position(0);
+                this.channel.force(false);
+
+                reset(0);
+            } else {
+                // Make sure the operations not yet committed survive a crash before moving the checkpoint
+                this.channel.force(false);
+
+                reset(position);
+            }
+        } catch (IOException e) {
+            this.logger.error("Failed to update the Solr index change log checkpoint", e);
+        }
+    }
+
+    /**
+     * Start trusting the log when no checkpoint exists yet, usually because the whole index is about to be
+     * synchronized. All the operations currently recorded are kept since some of them might still be queued.
+     */
+    public synchronized void initializeCheckpoint()
+    {
+        if (this.channel != null && this.checkpoint < 0) {
+            reset(0);
+        }
+    }
+
+    private void reset(long position)
+    {
+        try {
+            File checkpointFile = new File(this.directory, CHECKPOINT_FILE);
+            if (position < 0) {
+                Files.deleteIfExists(checkpointFile.toPath());
+            } else {
+                File tmpFile = new File(this.directory, CHECKPOINT_FILE + ".tmp");
+                try (FileChannel tmpChannel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(String.valueOf(position).getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        tmpChannel.write(buffer);
+                    }
+                    tmpChannel.force(true);
+                }
+                Files.move(tmpFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            this.checkpoint = position;
+        } catch (IOException e) {
+            this.logger.error("Failed to write the Solr index change log checkpoint", e);
+        }
+    }
+
+    /**
+     * @return the operations recorded after the last checkpoint or {@code null} if the log cannot be trusted (disabled,
+     *         never checkpointed or corrupted) in which case a full synchronization is required
+     */
+    public synchronized List<Change> getChanges()
+    {
+        if (this.channel == null || this.checkpoint < 0) {
+            return null;
+        }
+
+        List<Change> changes = new ArrayList<>();
+
+        try {
+            long end = this.channel.size();
+            if (this.checkpoint > end) {
+                return null;
+            }
+
+            // Use a dedicated channel so that the append position is not modified
+            try (FileChannel reader = FileChannel.open(new File(this.directory, LOG_FILE).toPath())) {
+                reader.position(this.checkpoint);
+                BufferedReader lines = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(reader), StandardCharsets.UTF_8));
+                for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                    changes.add(parse(line));
+                }
+            }
+        } catch (Exception e) {
+            this.logger.warn("The Solr index change log is corrupted: {}", e.getMessage());
+
+            return null;
+        }
+
+        return changes;
+    }
+
+    private Change parse(String line) throws UnsupportedEncodingException
+    {
+        String[] fields = StringUtils.splitPreserveAllTokens(line, FIELD_SEPARATOR);
+        if (fields.length != FIELD_COUNT) {
+            throw new IllegalArgumentException(String.format("Invalid line [%s]", line));
+        }
+
+        IndexOperation operation = IndexOperation.valueOf(fields[0]);
+        boolean recurse = Boolean.parseBoolean(fields[1]);
+        EntityType type = EntityType.valueOf(fields[2]);
+        EntityReference reference = this.resolver.resolve(URLDecoder.decode(fields[4], ENCODING), type);
+        if (!fields[3].isEmpty()) {
+            reference = new DocumentReference(reference, LocaleUtils.toLocale(fields[3]));
+        }
+
+        return new Change(operation, reference, recurse);
+    }
+}
@@ -32,6 +32,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.event.Event;
+import org.xwiki.search.solr.internal.SolrIndexChangeLog.Change;
 import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.api.SolrIndexerException;
@@ -39,6 +40,9 @@
 
 /**
  * Automatically start synchronization at startup.
+ * <p>
+ * When the change log is enabled (see {@link SolrConfiguration#isIndexerChangeLogEnabled()}) only the changes recorded
+ * after the last committed checkpoint are indexed again.
  * 
  * @version $Id$
  * @since 5.1RC1
@@ -70,6 +74,9 @@ public class SolrIndexInitializeListener implements EventListener
     @Inject
     private SolrConfiguration configuration;
 
+    @Inject
+    private SolrIndexChangeLog changeLog;
+
     @Override
     public List<Event> getEvents()
     {
@@ -85,6 +92,25 @@ public String getName()
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
+        // Only replay the changes which were not committed before the last shutdown when the change log can be trusted
+        List<Change> changes = this.changeLog.getChanges();
+        if (changes != null) {
+            this.logger.info("Indexing [{}] changes recorded in the Solr index change log", changes.size());
+
+            SolrIndexer indexer = this.solrIndexer.get();
+            for (Change change : changes) {
+                if (change.getOperation() == IndexOperation.DELETE) {
+                    indexer.delete(change.getReference(), change.isRecurse());
+                } else {
+                    indexer.index(change.getReference(), change.isRecurse());
+                }
+            }
+
+            return;
+        }
+
+        this.changeLog.initializeCheckpoint();
+
         if (this.configuration.synchronizeAtStartup()) {
             // Start synchronization
             IndexerRequest request = new IndexerRequest();
@@ -73,9 +73,23 @@
      */
     int getIndexerQueueCapacity();
 
+    /**
+     * @return the number of threads used to extract the metadata of the entities to index
+     * @since 10.0RC1
+     */
+    int getIndexerThreads();
+
     /**
      * @return true if a full synchronization job between the database and SOLR index should be run when XWiki starts
      * @since 6.1M2
      */
     boolean synchronizeAtStartup();
+
+    /**
+     * @return true if the index operations should be recorded in a persistent change log so that only the changes
+     *         which were not committed yet are indexed again when XWiki starts, instead of running a full
+     *         synchronization between the database and the SOLR index
+     * @since 10.0RC1
+     */
+    boolean isIndexerChangeLogEnabled();
 }
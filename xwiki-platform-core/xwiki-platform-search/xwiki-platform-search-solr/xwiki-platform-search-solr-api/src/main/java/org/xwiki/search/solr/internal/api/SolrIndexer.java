@@ -60,6 +60,19 @@
      */
     int getQueueSize();
 
+    /**
+     * @return the number of root references waiting to be resolved into entities to index or delete
+     * @since 10.0RC1
+     */
+    int getResolveQueueSize();
+
+    /**
+     * @return the number of entities waiting in the (bounded) index/delete queue; when it reaches the configured
+     *         capacity the resolver is blocked until the indexer catches up
+     * @since 10.0RC1
+     */
+    int getIndexQueueSize();
+
     /**
      * Start an indexing with specific criteria.
      * 
@@ -190,6 +190,24 @@ public int getQueueSize()
         return this.solrIndexer.getQueueSize();
     }
 
+    /**
+     * @return the number of root references waiting to be resolved into entities to index or delete
+     * @since 10.0RC1
+     */
+    public int getResolveQueueSize()
+    {
+        return this.solrIndexer.getResolveQueueSize();
+    }
+
+    /**
+     * @return the number of entities waiting to be indexed or deleted; the resolver waits when this queue is full
+     * @since 10.0RC1
+     */
+    public int getIndexQueueSize()
+    {
+        return this.solrIndexer.getIndexQueueSize();
+    }
+
     /**
      * Extract a {@link DocumentReference} from the given {@link SolrDocument} (e.g. search result).
      * 
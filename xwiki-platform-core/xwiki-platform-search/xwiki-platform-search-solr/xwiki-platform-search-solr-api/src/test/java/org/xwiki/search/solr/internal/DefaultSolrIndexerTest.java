@@ -20,13 +20,25 @@
 package org.xwiki.search.solr.internal;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.inject.Provider;
+
+import org.apache.solr.common.SolrInputDocument;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+import org.xwiki.search.solr.internal.metadata.LengthSolrInputDocument;
+import org.xwiki.search.solr.internal.metadata.SolrMetadataExtractor;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import com.xpn.xwiki.XWiki;
@@ -36,7 +48,10 @@
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -91,4 +106,56 @@ public void testIndexEmptyWiki() throws Exception
 
         // index.index(wikiReference);
     }
+
+    @Test
+    public void indexWithSeveralExtractionThreads() throws Exception
+    {
+        when(this.mockConfig.getIndexerQueueCapacity()).thenReturn(100);
+        when(this.mockConfig.getIndexerBatchSize()).thenReturn(10);
+        when(this.mockConfig.getIndexerBatchMaxLengh()).thenReturn(10000);
+        when(this.mockConfig.getIndexerThreads()).thenReturn(4);
+
+        SolrIndexChangeLog changeLog = this.mocker.getInstance(SolrIndexChangeLog.class);
+        when(changeLog.append(any(), any(), eq(false))).thenReturn(42L);
+
+        Provider<SolrInstance> solrInstanceProvider =
+            this.mocker.getInstance(new DefaultParameterizedType(null, Provider.class, SolrInstance.class));
+        SolrInstance solrInstance = mock(SolrInstance.class);
+        when(solrInstanceProvider.get()).thenReturn(solrInstance);
+
+        int count = 5;
+        List<EntityReference> references = new ArrayList<>();
+        List<LengthSolrInputDocument> documents = new ArrayList<>();
+        SolrMetadataExtractor extractor = this.mocker.registerMockComponent(SolrMetadataExtractor.class, "document");
+        for (int i = 0; i < count; ++i) {
+            DocumentReference reference = new DocumentReference("wiki", "Space", "Page" + i);
+            LengthSolrInputDocument document = new LengthSolrInputDocument();
+            long delay = (count - i) * 50L;
+            // The first documents are the slowest to extract so that the extractions end in the reverse order
+            when(extractor.getSolrDocument(reference)).then(invocation -> {
+                Thread.sleep(delay);
+                return document;
+            });
+
+            references.add(reference);
+            documents.add(document);
+        }
+
+        SolrIndexer indexer = this.mocker.getComponentUnderTest();
+        for (EntityReference reference : references) {
+            indexer.index(reference, false);
+        }
+
+        verify(solrInstance, timeout(10000).times(count)).add(any(SolrInputDocument.class));
+        verify(changeLog, timeout(10000).atLeastOnce()).checkpoint(42L);
+
+        // The documents are sent in the order they were queued, even if their extraction ended in the reverse order,
+        // and the change log is checkpointed only once they are committed
+        InOrder inOrder = inOrder(solrInstance, changeLog);
+        for (LengthSolrInputDocument document : documents) {
+            inOrder.verify(solrInstance).add(document);
+        }
+        inOrder.verify(solrInstance).commit();
+        inOrder.verify(changeLog).checkpoint(42L);
+    }
 }
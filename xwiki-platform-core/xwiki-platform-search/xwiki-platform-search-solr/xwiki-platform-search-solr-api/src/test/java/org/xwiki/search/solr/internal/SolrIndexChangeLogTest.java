@@ -0,0 +1,130 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.search.solr.internal.SolrIndexChangeLog.Change;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SolrIndexChangeLog}.
+ * 
+ * @version $Id$
+ */
+public class SolrIndexChangeLogTest
+{
+    @Rule
+    public MockitoComponentMockingRule<SolrIndexChangeLog> mocker =
+        new MockitoComponentMockingRule<>(SolrIndexChangeLog.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+
+    private WikiReference wikiReference = new WikiReference("wiki");
+
+    @Before
+    public void setUp() throws Exception
+    {
+        Environment environment = this.mocker.getInstance(Environment.class);
+        when(environment.getPermanentDirectory()).thenReturn(this.folder.newFolder());
+
+        EntityReferenceSerializer<String> serializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(any(DocumentReference.class))).thenReturn("wiki:Space.Page");
+        when(serializer.serialize(this.wikiReference)).thenReturn("wiki");
+
+        EntityReferenceResolver<String> resolver =
+            this.mocker.getInstance(EntityReferenceResolver.TYPE_STRING, "explicit");
+        when(resolver.resolve("wiki:Space.Page", EntityType.DOCUMENT)).thenReturn(this.documentReference);
+        when(resolver.resolve("wiki", EntityType.WIKI)).thenReturn(this.wikiReference);
+    }
+
+    @Test
+    public void replayChangesAfterCheckpoint() throws Exception
+    {
+        SolrConfiguration configuration = this.mocker.getInstance(SolrConfiguration.class);
+        when(configuration.isIndexerChangeLogEnabled()).thenReturn(true);
+
+        SolrIndexChangeLog changeLog = this.mocker.getComponentUnderTest();
+
+        assertTrue(changeLog.isEnabled());
+        // Never checkpointed
+        assertNull(changeLog.getChanges());
+
+        changeLog.initializeCheckpoint();
+
+        long position = changeLog.append(IndexOperation.INDEX, this.documentReference, false);
+        changeLog.append(IndexOperation.INDEX, new DocumentReference(this.documentReference, Locale.FRENCH), false);
+        long end = changeLog.append(IndexOperation.DELETE, this.wikiReference, true);
+
+        assertEquals(3, changeLog.getChanges().size());
+
+        changeLog.checkpoint(position);
+
+        List<Change> changes = changeLog.getChanges();
+        assertEquals(2, changes.size());
+        assertEquals(IndexOperation.INDEX, changes.get(0).getOperation());
+        assertEquals(new DocumentReference(this.documentReference, Locale.FRENCH), changes.get(0).getReference());
+        assertFalse(changes.get(0).isRecurse());
+        assertEquals(IndexOperation.DELETE, changes.get(1).getOperation());
+        assertEquals(this.wikiReference, changes.get(1).getReference());
+        assertTrue(changes.get(1).isRecurse());
+
+        // Everything is committed, the log is truncated
+        changeLog.checkpoint(end);
+
+        assertTrue(changeLog.getChanges().isEmpty());
+        assertEquals(0, new File(this.mocker.getInstance(Environment.class).getPermanentDirectory(),
+            "cache/solr/changelog/changes.log").length());
+    }
+
+    @Test
+    public void disabled() throws Exception
+    {
+        SolrIndexChangeLog changeLog = this.mocker.getComponentUnderTest();
+
+        assertFalse(changeLog.isEnabled());
+        assertEquals(-1, changeLog.append(IndexOperation.INDEX, this.documentReference, false));
+        assertNull(changeLog.getChanges());
+    }
+}
@@ -35,6 +35,7 @@
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.reference.SolrEntityReferenceResolver;
 import org.xwiki.security.authorization.AuthorizationManager;
 import org.xwiki.security.authorization.Right;
@@ -307,4 +308,15 @@ public void resolveWithImplicitType() throws Exception
         document.setField(FieldUtils.TYPE, "SPACE");
         assertSame(spaceReference, this.service.resolve(document, parameters));
     }
+
+    @Test
+    public void getQueueSizes() throws Exception
+    {
+        SolrIndexer indexer = this.mocker.getInstance(SolrIndexer.class);
+        when(indexer.getResolveQueueSize()).thenReturn(3);
+        when(indexer.getIndexQueueSize()).thenReturn(42);
+
+        assertEquals(3, this.service.getResolveQueueSize());
+        assertEquals(42, this.service.getIndexQueueSize());
+    }
 }
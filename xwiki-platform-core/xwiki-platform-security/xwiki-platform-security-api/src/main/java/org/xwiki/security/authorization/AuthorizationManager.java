@@ -19,6 +19,10 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -73,6 +77,34 @@ void checkAccess(Right right, DocumentReference userReference, EntityReference e
      */
     boolean hasAccess(Right right, DocumentReference userReference, EntityReference entityReference);
 
+    /**
+     * Filter the passed entities to keep only the ones on which the user identified by {@code userReference} has the
+     * access identified by {@code right}. This is equivalent to calling
+     * {@link #hasAccess(Right, DocumentReference, EntityReference)} for each entity but implementations are free to
+     * share the work done for entities having common ancestors.
+     * This function should be used for interface matters (e.g. filtering a list of search results).
+     *
+     * @param <E> the type of the entity references
+     * @param right the right to check
+     * @param userReference the user to check the right for
+     * @param entityReferences the entities on which to check the right
+     * @return the entities on which the user has the specified right, in the same order as the passed entities
+     * @since 10.0RC1
+     */
+    default <E extends EntityReference> List<E> filter(Right right, DocumentReference userReference,
+        Collection<E> entityReferences)
+    {
+        List<E> result = new ArrayList<>(entityReferences.size());
+
+        for (E entityReference : entityReferences) {
+            if (hasAccess(right, userReference, entityReference)) {
+                result.add(entityReference);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Register a new custom {@link Right}.
      *
@@ -19,6 +19,10 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.EntityReference;
 
@@ -80,4 +84,28 @@
      * @return {@code true} if the user has the specified right on the entity, {@code false} otherwise
      */
     boolean hasAccess(Right right, EntityReference entityReference);
+
+    /**
+     * Filter the passed entities to keep only the ones on which the current user has the access identified by
+     * {@code right}, taking into account the same context restrictions as {@link #hasAccess(Right, EntityReference)}.
+     *
+     * @param <E> the type of the entity references
+     * @param right the right to check
+     * @param entityReferences the entities on which to check the right
+     * @return the entities on which the current user has the specified right, in the same order as the passed
+     *         entities
+     * @since 10.0RC1
+     */
+    default <E extends EntityReference> List<E> filter(Right right, Collection<E> entityReferences)
+    {
+        List<E> result = new ArrayList<>(entityReferences.size());
+
+        for (E entityReference : entityReferences) {
+            if (hasAccess(right, entityReference)) {
+                result.add(entityReference);
+            }
+        }
+
+        return result;
+    }
 }
@@ -19,6 +19,12 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -108,13 +114,56 @@ public boolean hasAccess(Right right, DocumentReference userReference, EntityRef
         try {
             return hasSecurityAccess(right, userReference, entityReference, false);
         } catch (Exception e) {
-            this.logger.error(String.format("Failed to load rights for user [%s] on [%s].",
-                (userReference == null) ? AuthorizationException.NULL_USER : userReference,
-                (entityReference == null) ? AuthorizationException.NULL_ENTITY : entityReference), e);
+            logLoadFailure(userReference, entityReference, e);
             return false;
         }
     }
 
+    @Override
+    public <E extends EntityReference> List<E> filter(Right right, DocumentReference userReference,
+        Collection<E> entityReferences)
+    {
+        if (isSuperAdmin(userReference)) {
+            return new ArrayList<>(entityReferences);
+        }
+
+        if (right == null || right == Right.ILLEGAL || (!right.isReadOnly() && xwikiBridge.isWikiReadOnly())
+            || (userReference == null && xwikiBridge.needsAuthentication(right))) {
+            return new ArrayList<>();
+        }
+
+        UserSecurityReference user = securityReferenceFactory.newUserReference(userReference);
+
+        // The access of the user on the entities already resolved during this call, shared by all the entities which
+        // inherit their rules from the same ancestor (e.g. the pages of a same space)
+        Map<SecurityReference, SecurityAccess> settled = new HashMap<>();
+
+        List<E> result = new ArrayList<>(entityReferences.size());
+        for (E entityReference : entityReferences) {
+            try {
+                SecurityAccess securityAccess =
+                    getAccess(user, securityReferenceFactory.newEntityReference(entityReference), settled);
+
+                RuleState access = securityAccess.get(right);
+                logAccess(access, userReference, entityReference, right, "access inquiry", true);
+                if (access == RuleState.ALLOW) {
+                    result.add(entityReference);
+                }
+            } catch (Exception e) {
+                logLoadFailure(userReference, entityReference, e);
+            }
+        }
+
+        return result;
+    }
+
+    private void logLoadFailure(DocumentReference userReference, EntityReference entityReference, Exception e)
+    {
+        this.logger.error(String.format("Failed to load rights for user [%s] on [%s].",
+            (userReference == null) ? AuthorizationException.NULL_USER : userReference,
+            (entityReference == null) ? AuthorizationException.NULL_ENTITY : entityReference), e);
+    }
+
     /**
      * Verifies if the user identified by {@code userReference} has the access identified by {@code right} on the
      * entity identified by {@code entityReference}. Note that some rights may be checked higher in hierarchy of the
@@ -237,6 +286,57 @@ private SecurityAccess getAccess(UserSecurityReference user, SecurityReference e
         return access;
     }
 
+    /**
+     * Obtain the access for the user on the given entity, reusing the access already settled for one of its ancestors
+     * when possible, and load it into the cache if unavailable.
+     *
+     * @param user The user identity.
+     * @param entity The entity.  May be of type DOCUMENT, WIKI, or SPACE.
+     * @param settled the access already settled for the user, updated with the references for which the access of
+     *            the entity is valid
+     * @return the cached access entry.
+     * @exception org.xwiki.security.authorization.AuthorizationException if an error occurs
+     */
+    private SecurityAccess getAccess(UserSecurityReference user, SecurityReference entity,
+        Map<SecurityReference, SecurityAccess> settled) throws AuthorizationException
+    {
+        List<SecurityReference> visited = new ArrayList<>();
+
+        for (SecurityReference ref = entity; ref != null; ref = ref.getParentSecurityReference()) {
+            SecurityAccess access = settled.get(ref);
+            if (access == null) {
+                visited.add(ref);
+
+                if (Right.getEnabledRights(ref.getSecurityType()).isEmpty()) {
+                    continue;
+                }
+
+                SecurityRuleEntry entry = securityCache.get(ref);
+                if (entry == null) {
+                    break;
+                } else if (entry.isEmpty()) {
+                    continue;
+                }
+
+                SecurityAccessEntry accessEntry = securityCache.get(user, ref);
+                if (accessEntry == null) {
+                    break;
+                }
+                access = accessEntry.getAccess();
+            }
+
+            // All the visited references have no rules of their own so they share the same access
+            for (SecurityReference visitedReference : visited) {
+                settled.put(visitedReference, access);
+            }
+
+            return access;
+        }
+
+        // Some entries are missing from the cache, load them
+        return getAccess(user, entity);
+    }
+
     /**
      * Log access conclusion.
      * @param access The ALLOW or DENY state
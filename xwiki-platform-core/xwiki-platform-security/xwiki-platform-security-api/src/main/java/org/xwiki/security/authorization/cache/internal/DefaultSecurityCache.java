@@ -25,9 +25,8 @@
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashSet;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -54,6 +53,12 @@
 
 /**
  * Default implementation of the security cache.
+ * <p>
+ * Lookups are optimistic: they are done without lock and validated against a version which is incremented when a
+ * modification of the cache starts and when it ends. A lookup which overlapped a modification is done again with the
+ * lock so that it never sees a partially applied modification (e.g. a cascaded removal in progress). Insertions and
+ * removals (including the disposal of evicted entries), which may cascade through the parent/child graph (that can
+ * span several wikis because of global users and groups), are serialized with a single write lock.
  *
  * @version $Id$
  * @since 4.0M2 
@@ -72,14 +77,14 @@ public class DefaultSecurityCache implements SecurityCache, Initializable
     @Inject
     private Logger logger;
 
-    /** Fair read-write lock used for fair scheduling of cache access. */
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
+    /** Fair lock used to serialize the modifications of the cache. Readers only take it after a failed validation. */
+    private final ReentrantLock writeLock = new ReentrantLock(true);
 
-    /** Fair read lock. */
-    private final Lock readLock = readWriteLock.readLock();
-
-    /** Fair write lock. */
-    private final Lock writeLock = readWriteLock.writeLock();
+    /**
+     * Incremented when a modification of the cache starts and when it ends, so it is odd while a modification is in
+     * progress. Used by the lock free lookups to detect that they overlapped a modification.
+     */
+    private volatile long version;
 
     /** The keys in the cache are generated from instances of {@link org.xwiki.model.reference.EntityReference}. */
     @Inject
@@ -129,22 +134,23 @@ private class SecurityCacheEntry implements DisposableCacheValue
         /**
          * The cached security entry.
          */
-        private SecurityEntry entry;
+        private volatile SecurityEntry entry;
 
         /**
-         * Parents of this cached entry.
+         * Parents of this cached entry. The collection is never modified once assigned to this field since it can be
+         * read without lock.
          */
-        private Collection<SecurityCacheEntry> parents;
+        private volatile Collection<SecurityCacheEntry> parents;
 
         /**
-         * Children of this cached entry.
+         * Children of this cached entry. Only accessed with the write lock.
          */
         private Collection<SecurityCacheEntry> children;
 
         /**
          * True if this entry has been removed.
          */
-        private boolean disposed;
+        private volatile boolean disposed;
 
         /**
          * Create a new cache entry for a security rule, linking it to its parent.
@@ -262,16 +268,17 @@ private SecurityCacheEntry(SecurityEntry entry, Collection<GroupSecurityReferenc
             this.entry = entry;
             int parentSize = groups.size() + ((parentReference == null) ? 0 : 1);
             if (parentSize > 0) {
-                this.parents = new ArrayList<SecurityCacheEntry>(parentSize);
+                Collection<SecurityCacheEntry> newParents = new ArrayList<SecurityCacheEntry>(parentSize);
                 if (parentReference != null) {
                     SecurityCacheEntry parent = DefaultSecurityCache.this.getEntry(parentReference);
                     if (parent == null) {
                         throw new ParentEntryEvictedException();
                     }
-                    this.parents.add(parent);
+                    newParents.add(parent);
                     parent.addChild(this);
                 }
-                addParentGroups(groups, parentReference);
+                addParentGroups(newParents, groups, parentReference);
+                this.parents = newParents;
                 logNewEntry();
             } else {
                 this.parents = null;
@@ -282,12 +289,14 @@ private SecurityCacheEntry(SecurityEntry entry, Collection<GroupSecurityReferenc
         /**
          * Add provided groups as parent of this entry, excluding the main parent reference.
          *
+         * @param newParents the collection of parents being built for this entry.
          * @param groups the list of groups to add.
          * @param parentReference the main parent reference to exclude.
          * @throws ParentEntryEvictedException if the parents required are no more available in the cache.
          */
-        private void addParentGroups(Collection<GroupSecurityReference> groups,
-            SecurityReference parentReference) throws ParentEntryEvictedException
+        private void addParentGroups(Collection<SecurityCacheEntry> newParents,
+            Collection<GroupSecurityReference> groups, SecurityReference parentReference)
+            throws ParentEntryEvictedException
         {
             for (GroupSecurityReference group : groups) {
                 if (group.equals(parentReference)) {
@@ -300,7 +309,7 @@ private void addParentGroups(Collection<GroupSecurityReference> groups,
                 if (parent == null) {
                     throw new ParentEntryEvictedException();
                 }
-                this.parents.add(parent);
+                newParents.add(parent);
                 parent.addChild(this);
             }
         }
@@ -319,15 +328,18 @@ boolean updateParentGroups(Collection<GroupSecurityReference> groups)
             }
 
             if (groups != null && !groups.isEmpty()) {
+                // Build the new parents before publishing them since they can be read without lock
+                Collection<SecurityCacheEntry> newParents;
                 if (this.parents == null) {
-                    this.parents = new ArrayList<SecurityCacheEntry>(groups.size());
-                    addParentGroups(groups, null);
+                    newParents = new ArrayList<SecurityCacheEntry>(groups.size());
+                    addParentGroups(newParents, groups, null);
                 } else {
                     SecurityCacheEntry parent = this.parents.iterator().next();
-                    this.parents = new ArrayList<SecurityCacheEntry>(groups.size() + 1);
-                    this.parents.add(parent);
-                    addParentGroups(groups, parent.entry.getReference());
+                    newParents = new ArrayList<SecurityCacheEntry>(groups.size() + 1);
+                    newParents.add(parent);
+                    addParentGroups(newParents, groups, parent.entry.getReference());
                 }
+                this.parents = newParents;
             }
 
             return true;
@@ -377,16 +389,21 @@ String getKey()
 
         /**
          * Dispose this entry from the cache, removing all children relation in its parents, and removing
-         * all its children recursively. This method is not thread safe in regards to the cache, proper
-         * locking should be done externally.
+         * all its children recursively. The cache may dispose evicted entries from any thread so the write lock is
+         * taken (it is reentrant, so it's fine when the disposal is triggered by a modification of this cache).
          */
         @Override
         public void dispose()
         {
-            if (!disposed) {
-                disposed = true;
-                disconnectFromParents();
-                disposeChildren();
+            lock();
+            try {
+                if (!disposed) {
+                    disposed = true;
+                    disconnectFromParents();
+                    disposeChildren();
+                }
+            } finally {
+                unlock();
             }
         }
 
@@ -534,19 +551,63 @@ private String getEntryKey(SecurityAccessEntry entry)
     }
 
     /**
-     * @param reference the reference requested.
-     * @return a security cache entry corresponding to given reference, null if none is available in the cache.
+     * Take the write lock and mark the start of a modification when it is not already held by the current thread.
      */
-    private SecurityCacheEntry getEntry(SecurityReference reference)
+    private void lock()
+    {
+        this.writeLock.lock();
+        if (this.writeLock.getHoldCount() == 1) {
+            this.version++;
+        }
+    }
+
+    /**
+     * Mark the end of the modification when the write lock is released by the outermost holder and release it.
+     */
+    private void unlock()
     {
-        readLock.lock();
+        if (this.writeLock.getHoldCount() == 1) {
+            this.version++;
+        }
+        this.writeLock.unlock();
+    }
+
+    /**
+     * Execute a lookup without lock and execute it again with the write lock if it overlapped a modification of the
+     * cache.
+     *
+     * @param <T> the type of the result
+     * @param lookup the lookup to execute
+     * @return the result of the lookup, consistent with a state of the cache in between two modifications
+     */
+    private <T> T read(Supplier<T> lookup)
+    {
+        long stamp = this.version;
+        if ((stamp & 1) == 0) {
+            T result = lookup.get();
+            if (stamp == this.version) {
+                return result;
+            }
+        }
+
+        // A modification was in progress, wait for it to be fully applied
+        this.writeLock.lock();
         try {
-            return cache.get(getEntryKey(reference));
+            return lookup.get();
         } finally {
-            readLock.unlock();
+            this.writeLock.unlock();
         }
     }
 
+    /**
+     * @param reference the reference requested.
+     * @return a security cache entry corresponding to given reference, null if none is available in the cache.
+     */
+    private SecurityCacheEntry getEntry(SecurityReference reference)
+    {
+        return cache.get(getEntryKey(reference));
+    }
+
     /**
      * @param userReference the user reference requested.
      * @param reference the reference requested.
@@ -555,12 +616,7 @@ private SecurityCacheEntry getEntry(SecurityReference reference)
      */
     private SecurityCacheEntry getEntry(UserSecurityReference userReference, SecurityReference reference)
     {
-        readLock.lock();
-        try {
-            return cache.get(getEntryKey(userReference, reference));
-        } finally {
-            readLock.unlock();
-        }
+        return cache.get(getEntryKey(userReference, reference));
     }
 
     /**
@@ -571,12 +627,7 @@ private SecurityCacheEntry getEntry(UserSecurityReference userReference, Securit
      */
     private SecurityCacheEntry getShadowEntry(SecurityReference userReference, SecurityReference wiki)
     {
-        readLock.lock();
-        try {
-            return cache.get(getShadowEntryKey(userReference, wiki));
-        } finally {
-            readLock.unlock();
-        }
+        return cache.get(getShadowEntryKey(userReference, wiki));
     }
 
     /**
@@ -677,7 +728,7 @@ private void add(SecurityEntry entry, Collection<GroupSecurityReference> groups)
     {
         String key = getEntryKey(entry);
 
-        writeLock.lock();
+        lock();
         try {
             if (isAlreadyInserted(key, entry, groups)) {
                 return;
@@ -686,7 +737,7 @@ private void add(SecurityEntry entry, Collection<GroupSecurityReference> groups)
 
             logger.debug("Added rule/shadow entry [{}] into the cache.", key);
         } finally {
-            writeLock.unlock();
+            unlock();
         }
     }
 
@@ -746,7 +797,7 @@ private void internalAdd(SecurityAccessEntry entry, SecurityReference wiki)
     {
         String key = getEntryKey(entry);
 
-        writeLock.lock();
+        lock();
         try {
             if (isAlreadyInserted(key, entry)) {
                 return;
@@ -756,7 +807,7 @@ private void internalAdd(SecurityAccessEntry entry, SecurityReference wiki)
             logger.debug("Added access entry [{}] into the cache.", key);
         } finally {
             newEntry = null;
-            writeLock.unlock();
+            unlock();
         }
     }
 
@@ -766,14 +817,14 @@ private void internalAdd(SecurityAccessEntry entry, SecurityReference wiki)
      * @return the entry stored in the internal cache or Null if no entry was found.
      */
     SecurityEntry get(String entryKey) {
-        SecurityCacheEntry entry = cache.get(entryKey);
+        SecurityCacheEntry entry = read(() -> cache.get(entryKey));
         return (entry != null) ? entry.getEntry() : null;
     }
 
     @Override
     public SecurityAccessEntry get(UserSecurityReference user, SecurityReference entity)
     {
-        SecurityCacheEntry entry = getEntry(user, entity);
+        SecurityCacheEntry entry = read(() -> getEntry(user, entity));
         if (entry == null) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Miss read access entry for [{}].", getEntryKey(user, entity));
@@ -789,7 +840,7 @@ public SecurityAccessEntry get(UserSecurityReference user, SecurityReference ent
     @Override
     public SecurityRuleEntry get(SecurityReference entity)
     {
-        SecurityCacheEntry entry = getEntry(entity);
+        SecurityCacheEntry entry = read(() -> getEntry(entity));
         if (entry == null) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Miss read rule entry for [{}].", getEntryKey(entity));
@@ -805,7 +856,7 @@ public SecurityRuleEntry get(SecurityReference entity)
     @Override
     public void remove(UserSecurityReference user, SecurityReference entity)
     {
-        writeLock.lock();
+        lock();
         try {
             SecurityCacheEntry entry = getEntry(user, entity);
             if (entry != null) {
@@ -815,14 +866,14 @@ public void remove(UserSecurityReference user, SecurityReference entity)
                 this.cache.remove(entry.getKey());
             }
         } finally {
-            writeLock.unlock();
+            unlock();
         }
     }
 
     @Override
     public void remove(SecurityReference entity)
     {
-        writeLock.lock();
+        lock();
         try {
             SecurityCacheEntry entry = getEntry(entity);
             if (entry != null) {
@@ -832,12 +883,17 @@ public void remove(SecurityReference entity)
                 this.cache.remove(entry.getKey());
             }
         } finally {
-            writeLock.unlock();
+            unlock();
         }
     }
 
     @Override
     public Collection<GroupSecurityReference> getImmediateGroupsFor(UserSecurityReference user)
+    {
+        return read(() -> internalGetImmediateGroupsFor(user));
+    }
+
+    private Collection<GroupSecurityReference> internalGetImmediateGroupsFor(UserSecurityReference user)
     {
         Collection<GroupSecurityReference> groups = new HashSet<>();
 
@@ -860,6 +916,12 @@ public Collection<GroupSecurityReference> getImmediateGroupsFor(UserSecurityRefe
 
     @Override
     public Collection<GroupSecurityReference> getGroupsFor(UserSecurityReference user, SecurityReference entityWiki)
+    {
+        return read(() -> internalGetGroupsFor(user, entityWiki));
+    }
+
+    private Collection<GroupSecurityReference> internalGetGroupsFor(UserSecurityReference user,
+        SecurityReference entityWiki)
     {
         Collection<GroupSecurityReference> groups = new HashSet<>();
         
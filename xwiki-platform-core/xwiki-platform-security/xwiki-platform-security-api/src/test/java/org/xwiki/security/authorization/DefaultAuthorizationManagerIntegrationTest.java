@@ -21,8 +21,10 @@
 package org.xwiki.security.authorization;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -66,13 +68,17 @@
 import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.annotation.ComponentList;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.xwiki.security.authorization.Right.ADMIN;
 import static org.xwiki.security.authorization.Right.COMMENT;
@@ -204,6 +210,30 @@ protected void assertAccess(RightSet allowedRights, DocumentReference userRefere
         }
     }
 
+    /**
+     * Assert that filtering the given entities gives the same result as checking each of them individually.
+     * @param right the right to check.
+     * @param userReference the reference of the user to test.
+     * @param entityReferences the references of the entities to filter.
+     * @return the filtered entities.
+     */
+    protected List<EntityReference> assertFilter(Right right, DocumentReference userReference,
+        List<EntityReference> entityReferences)
+    {
+        List<EntityReference> expected = new ArrayList<>();
+        for (EntityReference entityReference : entityReferences) {
+            if (authorizationManager.hasAccess(right, userReference, entityReference)) {
+                expected.add(entityReference);
+            }
+        }
+
+        List<EntityReference> filtered = authorizationManager.filter(right, userReference, entityReferences);
+        assertThat(String.format("Unexpected [%s] right filtering for [%s].", right,
+            getUserReadableName(userReference)), filtered, equalTo(expected));
+
+        return filtered;
+    }
+
     private boolean compareReferenceNullSafe(EntityReference entity1, EntityReference entity2) {
         return entity1 == entity2 || (entity1 != null && entity1.equals(entity2));
     }
@@ -741,4 +771,62 @@ public void testLoadUserInAnotherWikiAfterUserDoc() throws Exception
             securityReferenceFactory.newEntityReference(getDoc("any document", "any space", "subwiki"))),
             nullValue());
     }
+
+    @Test
+    public void testFilterMixedAccess() throws Exception
+    {
+        initialiseWikiMock("groupAccess");
+
+        List<EntityReference> entities = Arrays.asList(
+            getXDoc("any document", "any space"),
+            getXDoc("docDenyGroupA", "any space"),
+            getXDoc("docAllowGroupA", "any space"),
+            getXDoc("docDenyGroupB", "any space"),
+            getXDoc("docDenyGroupAAllowUserA", "any space"),
+            getXDoc("docDenyGroupBAllowGroupA", "any space"));
+
+        // Nothing is cached yet, the entries are loaded while filtering
+        assertThat(authorizationManager.filter(VIEW, getXUser("userA"), entities), equalTo(Arrays.asList(
+            entities.get(0), entities.get(2), entities.get(4))));
+
+        // The same results are found with the cached entries, in the original order, for all the rights
+        for (Right right : values()) {
+            assertFilter(right, getXUser("userA"), entities);
+            assertFilter(right, getXUser("userB"), entities);
+            assertFilter(right, null, entities);
+        }
+
+        // Super admin gets everything and an illegal right nothing
+        assertThat(authorizationManager.filter(ADMIN, SUPERADMIN, entities), equalTo(entities));
+        assertThat(authorizationManager.filter(ILLEGAL, getXUser("userA"), entities).isEmpty(),
+            equalTo(true));
+    }
+
+    @Test
+    public void testFilterWithSettledAccess() throws Exception
+    {
+        initialiseWikiMock("inheritancePolicyForGlobalFullWikiAccess");
+
+        // Documents inheriting the access of their space interleaved with documents having their own rules
+        List<EntityReference> entities = Arrays.asList(
+            getXDoc("any document", "spaceAllowA"),
+            getXDoc("docDenyA", "spaceAllowA"),
+            getXDoc("another document", "spaceAllowA"),
+            getXSpace("spaceAllowA"),
+            getXDoc("any document", "any space"),
+            getXDoc("yet another document", "spaceAllowA"),
+            getXDoc("another document", "any space"));
+
+        for (Right right : Arrays.asList(VIEW, EDIT, ADMIN)) {
+            assertFilter(right, getXUser("userA"), entities);
+        }
+
+        // Once the rules are cached, the access settled for the space is reused for the documents without rules
+        // of their own, without loading anything
+        clearInvocations(securityEntryReader);
+        List<EntityReference> filtered = assertFilter(VIEW, getXUser("userA"), entities);
+        assertThat(filtered, equalTo(Arrays.asList(entities.get(0), entities.get(1), entities.get(2),
+            entities.get(3), entities.get(5))));
+        verify(securityEntryReader, never()).read(any(SecurityReference.class));
+    }
 }
@@ -26,6 +26,7 @@
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -56,10 +57,13 @@
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
+import static org.hamcrest.CoreMatchers.anyOf;
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
@@ -809,4 +813,71 @@ public boolean keepAccess(SecurityAccessEntry entry) {
             }
         });
     }
+
+    @Test
+    public void testLookupsDuringCascadedRemovals() throws Exception
+    {
+        Map<String, SecurityEntry> entries = InsertUsersWithouShadow();
+
+        // The group and its members which are removed and added again in loop
+        List<SecurityRuleEntry> removedEntries = new ArrayList<>();
+        for (SecurityReference ref : Arrays.asList(xgroupRef, groupXUserRef, bothGroupXUserRef)) {
+            for (SecurityEntry entry : entries.values()) {
+                if (entry.getReference() == ref) {
+                    removedEntries.add((SecurityRuleEntry) entry);
+                }
+            }
+        }
+
+        Collection<GroupSecurityReference> expectedGroups = securityCache.getGroupsFor(bothGroupXUserRef, null);
+        assertThat(expectedGroups.size(), is(2));
+
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 1000; ++i) {
+                    securityCache.remove(xgroupRef);
+                    for (SecurityRuleEntry entry : removedEntries) {
+                        AddRuleEntry(entry);
+                    }
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (writer.isAlive()) {
+                        // Either the user is not cached, or it is with all its groups, never in between
+                        Collection<GroupSecurityReference> groups =
+                            securityCache.getGroupsFor(bothGroupXUserRef, null);
+                        assertThat(groups, anyOf(equalTo(expectedGroups), nullValue()));
+
+                        SecurityRuleEntry group = securityCache.get(xgroupRef);
+                        assertTrue(group == null || group.getReference() == xgroupRef);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.toString(), failures.isEmpty());
+
+        // Everything has been added back
+        assertThat(securityCache.getGroupsFor(bothGroupXUserRef, null), equalTo(expectedGroups));
+        checkEntries(entries, new Keeper());
+    }
 }
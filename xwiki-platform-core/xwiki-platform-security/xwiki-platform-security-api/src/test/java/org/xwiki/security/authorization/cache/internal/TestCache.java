@@ -20,6 +20,7 @@
 
 package org.xwiki.security.authorization.cache.internal;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -43,7 +44,7 @@
  */
 public class TestCache<T> implements Cache<T>
 {
-    private Map<String, T> cache = new HashMap<String, T>();
+    private Map<String, T> cache = Collections.synchronizedMap(new HashMap<String, T>());
     private CacheEntryListener<T> listener;
     private String lastInsertedKey;
 
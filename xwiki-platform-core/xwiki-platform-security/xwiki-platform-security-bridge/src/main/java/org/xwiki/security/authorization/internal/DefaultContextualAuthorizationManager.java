@@ -19,8 +19,11 @@
  */
 package org.xwiki.security.authorization.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -136,6 +139,33 @@ private boolean hasAccess(Right right, DocumentReference user, EntityReference e
         return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
     }
 
+    @Override
+    public <E extends EntityReference> List<E> filter(Right right, Collection<E> entities)
+    {
+        if (CONTENT_AUTHOR_RIGHTS.contains(right)) {
+            // The user to check depends on each entity (its content author)
+            return ContextualAuthorizationManager.super.filter(right, entities);
+        }
+
+        List<EntityReference> fullReferences = new ArrayList<>(entities.size());
+        for (EntityReference entity : entities) {
+            fullReferences.add(getFullReference(entity));
+        }
+
+        Set<EntityReference> allowed = new HashSet<>(this.authorizationManager.filter(right,
+            this.xcontextProvider.get().getUserReference(), fullReferences));
+
+        List<E> result = new ArrayList<>(allowed.size());
+        int index = 0;
+        for (E entity : entities) {
+            if (allowed.contains(fullReferences.get(index++))) {
+                result.add(entity);
+            }
+        }
+
+        return result;
+    }
+
     private EntityReference getFullReference(EntityReference reference)
     {
         return reference != null ? this.resolver.resolve(reference, reference.getType()) : null;
@@ -19,6 +19,9 @@
  */
 package org.xwiki.security.authorization.internal;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -33,10 +36,12 @@
 import com.xpn.xwiki.test.MockitoOldcoreRule;
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Validate {@link DefaultContextualAuthorizationManager}.
@@ -88,4 +93,20 @@ public void hasAccess() throws Exception
         verify(this.authorizationManager).hasAccess(same(Right.VIEW), isNull(DocumentReference.class),
             eq(new DocumentReference(localReference, this.currentWikiReference)));
     }
+
+    @Test
+    public void filter() throws Exception
+    {
+        LocalDocumentReference allowedReference = new LocalDocumentReference("space", "allowed");
+        LocalDocumentReference deniedReference = new LocalDocumentReference("space", "denied");
+        DocumentReference allowedFullReference = new DocumentReference(allowedReference, this.currentWikiReference);
+        DocumentReference deniedFullReference = new DocumentReference(deniedReference, this.currentWikiReference);
+
+        when(this.authorizationManager.filter(Right.VIEW, null,
+            Arrays.asList(allowedFullReference, deniedFullReference)))
+                .thenReturn(Collections.singletonList(allowedFullReference));
+
+        assertEquals(Arrays.asList(allowedReference), this.mocker.getComponentUnderTest().filter(Right.VIEW,
+            Arrays.asList(allowedReference, deniedReference)));
+    }
 }
@@ -27,9 +27,11 @@
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
+import org.xwiki.skinx.internal.SkinExtensionResponseCache;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.XWikiAction;
 import com.xpn.xwiki.web.XWikiRequest;
 import com.xpn.xwiki.web.XWikiResponse;
@@ -59,6 +61,15 @@ public abstract class AbstractSxAction extends XWikiAction
     /** What http header parameter is used to specify when the cache should expire. */
     private static final String CACHE_EXPIRES_HEADER = "Expires";
 
+    /** What http header parameter is used to specify the version of the response. */
+    private static final String ETAG_HEADER = "ETag";
+
+    /** What http header parameter is used by the browser to send the version of the response it has. */
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    /** The name of the gzip content encoding. */
+    private static final String GZIP_ENCODING = "gzip";
+
     /** The response will be sent to the browser as a byte array in this character set. */
     private static final String RESPONSE_CHARACTER_SET = "UTF-8";
 
@@ -86,7 +97,34 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
         XWikiRequest request = context.getRequest();
         XWikiResponse response = context.getResponse();
 
-        String extensionContent = sxSource.getContent();
+        boolean minify =
+            BooleanUtils.toBoolean(StringUtils.defaultIfEmpty(request.get(COMPRESS_SCRIPT_REQUEST_PARAMETER), "true"));
+
+        // Minifying the content is expensive so keep the result as long as the extension source does not change
+        SkinExtensionResponseCache cache = Utils.getComponent(SkinExtensionResponseCache.class);
+        String cacheKey = sxSource.getCacheKey();
+        if (cacheKey != null) {
+            cacheKey = String.format("%s/%s/%s", sxType.getClass().getName(), minify, cacheKey);
+        }
+        SkinExtensionResponseCache.Entry entry = cacheKey != null ? cache.get(cacheKey) : null;
+
+        if (entry == null) {
+            String extensionContent = sxSource.getContent();
+            if (minify) {
+                extensionContent = sxType.getCompressor().compress(extensionContent);
+            }
+
+            try {
+                entry = new SkinExtensionResponseCache.Entry(extensionContent.getBytes(RESPONSE_CHARACTER_SET));
+            } catch (IOException e) {
+                getLogger().warn("Failed to encode SX content: [{}]", e.getMessage());
+                return;
+            }
+
+            if (cacheKey != null) {
+                cache.set(cacheKey, entry);
+            }
+        }
 
         response.setContentType(sxType.getContentType());
 
@@ -109,27 +147,64 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
             response.setHeader(CACHE_CONTROL_HEADER, "no-cache, no-store, must-revalidate");
         }
 
-        if (BooleanUtils.toBoolean(StringUtils.defaultIfEmpty(
-            request.get(COMPRESS_SCRIPT_REQUEST_PARAMETER), "true"))) {
-            extensionContent = sxType.getCompressor().compress(extensionContent);
+        boolean gzip = false;
+        if (entry.getGzippedContent() != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+            gzip = StringUtils.containsIgnoreCase(request.getHeader("Accept-Encoding"), GZIP_ENCODING);
+        }
+
+        if (cacheKey != null) {
+            String etag = gzip ? entry.getGzippedETag() : entry.getETag();
+            response.setHeader(ETAG_HEADER, etag);
+
+            if (matchesETag(request.getHeader(IF_NONE_MATCH_HEADER), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        byte[] content = gzip ? entry.getGzippedContent() : entry.getContent();
+        if (gzip) {
+            response.setHeader("Content-Encoding", GZIP_ENCODING);
         }
 
         try {
-            response.setContentLength(extensionContent.getBytes(RESPONSE_CHARACTER_SET).length);
-            response.getOutputStream().write(extensionContent.getBytes(RESPONSE_CHARACTER_SET));
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
         } catch (IOException ex) {
             getLogger().warn("Failed to send SX content: [{}]", ex.getMessage());
         }
 
     }
 
+    /**
+     * @param ifNoneMatch the value of the If-None-Match request header
+     * @param etag the ETag of the response
+     * @return {@code true} if the browser already has the response
+     */
+    private boolean matchesETag(String ifNoneMatch, String etag)
+    {
+        if (ifNoneMatch != null) {
+            for (String requestETag : StringUtils.split(ifNoneMatch, ',')) {
+                // Weak comparison is allowed for If-None-Match
+                String value = StringUtils.removeStart(requestETag.trim(), "W/");
+                if ("*".equals(value) || value.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public String render(XWikiContext context) throws XWikiException
     {
         SxSource sxSource;
 
         if (context.getRequest().getParameter(JAR_RESOURCE_REQUEST_PARAMETER) != null) {
-            sxSource = new SxResourceSource(context.getRequest().getParameter(JAR_RESOURCE_REQUEST_PARAMETER));
+            sxSource = new SxResourceSource(context.getRequest().getParameter(JAR_RESOURCE_REQUEST_PARAMETER),
+                context.getWikiId());
         } else {
             if (context.getDoc().isNew()) {
                 context.getResponse().setStatus(HttpServletResponse.SC_NOT_FOUND);
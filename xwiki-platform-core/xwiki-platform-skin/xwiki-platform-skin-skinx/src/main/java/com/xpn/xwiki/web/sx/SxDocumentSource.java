@@ -55,6 +55,9 @@ public class SxDocumentSource implements SxSource
     /** The name of the property in the script extension object which contains the content type. */
     private static final String CONTENT_TYPE_PROPERTY_NAME = "contentType";
 
+    /** The content type of the extensions written in LESS. */
+    private static final String LESS_CONTENT_TYPE = "LESS";
+
     /** The name of the property in the script extension object which tells us if the content should be parsed. */
     private static final String PARSE_CONTENT_PROPERTY_NAME = "parse";
 
@@ -64,6 +67,9 @@ public class SxDocumentSource implements SxSource
     /** The name of the property in the script extension object which contains the name of the object. */
     private static final String NAME_PROPERTY_NAME = "name";
 
+    /** The separator used between the elements of the cache key. */
+    private static final char CACHE_KEY_SEPARATOR = '/';
+
     /** Logging helper. */
     private static final Logger LOGGER = LoggerFactory.getLogger(SxDocumentSource.class);
 
@@ -129,7 +135,7 @@ public String getContent()
                 }
                 String sxContent = sxObj.getLargeStringValue(CONTENT_PROPERTY_NAME);
                 int parse = sxObj.getIntValue(PARSE_CONTENT_PROPERTY_NAME);
-                if ("LESS".equals(sxObj.getStringValue(CONTENT_TYPE_PROPERTY_NAME))) {
+                if (LESS_CONTENT_TYPE.equals(sxObj.getStringValue(CONTENT_TYPE_PROPERTY_NAME))) {
                     LESSCompiler lessCompiler = Utils.getComponent(LESSCompiler.class);
                     LESSResourceReferenceFactory lessResourceReferenceFactory =
                         Utils.getComponent(LESSResourceReferenceFactory.class);
@@ -166,6 +172,48 @@ public String getContent()
         return resultBuilder.toString();
     }
 
+    @Override
+    public String getCacheKey()
+    {
+        if (getCachePolicy() == CachePolicy.FORBID) {
+            return null;
+        }
+
+        // A new version of the document gets a new key
+        StringBuilder key = new StringBuilder();
+        key.append(this.document.getDocumentReference()).append(CACHE_KEY_SEPARATOR);
+        key.append(this.document.getVersion()).append(CACHE_KEY_SEPARATOR);
+        key.append(this.extension.getClassName());
+
+        if (isContentDynamic()) {
+            // The result of the Velocity or LESS execution depends on the request
+            key.append(CACHE_KEY_SEPARATOR).append(this.context.getLocale());
+            key.append(CACHE_KEY_SEPARATOR).append(this.context.getUserReference());
+            key.append(CACHE_KEY_SEPARATOR);
+            key.append(StringUtils.defaultString(this.context.getRequest().getQueryString()));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * @return {@code true} if the content of one of the extension objects is evaluated with Velocity or LESS
+     */
+    private boolean isContentDynamic()
+    {
+        List<BaseObject> objects = this.document.getObjects(this.extension.getClassName());
+        if (objects != null) {
+            for (BaseObject sxObj : objects) {
+                if (sxObj != null && (sxObj.getIntValue(PARSE_CONTENT_PROPERTY_NAME) == 1
+                    || LESS_CONTENT_TYPE.equals(sxObj.getStringValue(CONTENT_TYPE_PROPERTY_NAME)))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public long getLastModifiedDate()
     {
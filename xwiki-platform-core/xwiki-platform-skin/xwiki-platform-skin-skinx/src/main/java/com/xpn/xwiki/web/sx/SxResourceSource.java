@@ -35,14 +35,30 @@ public class SxResourceSource implements SxSource
     /** The full path of the resource to use as extension. Example: {@code path/to/hello.js}. */
     private String resourceName;
 
+    /** The wiki from which the resource is requested. */
+    private String wikiId;
+
     /**
      * Constructor of this source.
      * 
      * @param resourceName the full path of the resource to use as extension. Example: {@code path/to/hello.js}
      */
     public SxResourceSource(String resourceName)
+    {
+        this(resourceName, null);
+    }
+
+    /**
+     * Constructor of this source.
+     * 
+     * @param resourceName the full path of the resource to use as extension. Example: {@code path/to/hello.js}
+     * @param wikiId the wiki from which the resource is requested
+     * @since 10.0RC1
+     */
+    public SxResourceSource(String resourceName, String wikiId)
     {
         this.resourceName = resourceName;
+        this.wikiId = wikiId;
     }
 
     @Override
@@ -67,6 +83,13 @@ public String getContent()
         }
     }
 
+    @Override
+    public String getCacheKey()
+    {
+        // Resources can be provided by extensions installed in a specific wiki
+        return String.format("%s/%s", this.wikiId, this.resourceName);
+    }
+
     @Override
     public long getLastModifiedDate()
     {
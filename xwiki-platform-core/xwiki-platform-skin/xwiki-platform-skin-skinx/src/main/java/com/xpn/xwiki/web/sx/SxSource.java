@@ -68,4 +68,14 @@
      * @return the cache policy associated with this extension source.
      */
     CachePolicy getCachePolicy();
+
+    /**
+     * @return a key identifying the content of the extension source (which changes when the content changes) so that
+     *         the processed content can be cached on server side, {@code null} if the content should not be cached
+     * @since 10.0RC1
+     */
+    default String getCacheKey()
+    {
+        return null;
+    }
 }
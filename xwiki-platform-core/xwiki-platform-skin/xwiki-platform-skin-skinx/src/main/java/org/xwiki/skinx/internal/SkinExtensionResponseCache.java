@@ -0,0 +1,187 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+/**
+ * Keep in memory the responses of the skin extension actions (the minified content and its gzipped variant) so that
+ * the same extension is not minified again on each request.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component(roles = SkinExtensionResponseCache.class)
+@Singleton
+public class SkinExtensionResponseCache implements Initializable, Disposable
+{
+    /**
+     * A cached skin extension response.
+     *
+     * @version $Id$
+     */
+    public static class Entry
+    {
+        /**
+         * Content smaller than this is not worth compressing.
+         */
+        private static final int GZIP_MIN_LENGTH = 256;
+
+        private final byte[] content;
+
+        private final String etag;
+
+        private final byte[] gzippedContent;
+
+        private final String gzippedETag;
+
+        /**
+         * @param content the content to send
+         */
+        public Entry(byte[] content)
+        {
+            this.content = content;
+
+            String hash = DigestUtils.sha256Hex(content);
+            this.etag = '"' + hash + '"';
+
+            byte[] gzipped = content.length >= GZIP_MIN_LENGTH ? gzip(content) : null;
+            if (gzipped != null && gzipped.length < content.length) {
+                this.gzippedContent = gzipped;
+                // Strong ETags must be different for each encoding of the same content
+                this.gzippedETag = '"' + hash + "-gzip\"";
+            } else {
+                this.gzippedContent = null;
+                this.gzippedETag = null;
+            }
+        }
+
+        private static byte[] gzip(byte[] content)
+        {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(content.length / 2);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(stream)) {
+                gzipStream.write(content);
+            } catch (IOException e) {
+                // Should never happen with a byte array
+                return null;
+            }
+
+            return stream.toByteArray();
+        }
+
+        /**
+         * @return the content to send
+         */
+        public byte[] getContent()
+        {
+            return this.content;
+        }
+
+        /**
+         * @return the strong ETag of the content
+         */
+        public String getETag()
+        {
+            return this.etag;
+        }
+
+        /**
+         * @return the gzipped content, {@code null} if compressing the content is not worth it
+         */
+        public byte[] getGzippedContent()
+        {
+            return this.gzippedContent;
+        }
+
+        /**
+         * @return the strong ETag of the gzipped content, {@code null} if there is no gzipped content
+         */
+        public String getGzippedETag()
+        {
+            return this.gzippedETag;
+        }
+    }
+
+    private static final int CACHE_CAPACITY = 500;
+
+    /**
+     * The cache keys contain the version of the extension document but content produced by Velocity or LESS can also
+     * depend on other documents (e.g. the color theme) so make sure it does not stay forever.
+     */
+    private static final int CACHE_LIFESPAN = 3600;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    private Cache<Entry> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        LRUCacheConfiguration cacheConfiguration = new LRUCacheConfiguration("skinx.responses", CACHE_CAPACITY);
+        cacheConfiguration.getLRUEvictionConfiguration().setLifespan(CACHE_LIFESPAN);
+
+        try {
+            this.cache = this.cacheManager.createNewCache(cacheConfiguration);
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to create the skin extensions cache", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.cache.dispose();
+    }
+
+    /**
+     * @param key the key of the response
+     * @return the cached response or {@code null} if there is none
+     */
+    public Entry get(String key)
+    {
+        return this.cache.get(key);
+    }
+
+    /**
+     * @param key the key of the response
+     * @param entry the response to cache
+     */
+    public void set(String key, Entry entry)
+    {
+        this.cache.set(key, entry);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.web.sx;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.skinx.internal.SkinExtensionResponseCache;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.test.MockitoOldcoreRule;
+import com.xpn.xwiki.web.SsxAction;
+import com.xpn.xwiki.web.XWikiRequest;
+import com.xpn.xwiki.web.XWikiResponse;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate the server side cache, the ETags and the compression of the responses of {@link AbstractSxAction}.
+ *
+ * @version $Id$
+ */
+public class AbstractSxActionTest
+{
+    private static final String CONTENT = StringUtils.repeat(".class { color: red; }\n", 50);
+
+    @Rule
+    public MockitoOldcoreRule oldcore = new MockitoOldcoreRule();
+
+    private final Map<String, SkinExtensionResponseCache.Entry> cacheContent = new HashMap<>();
+
+    private SsxAction action = new SsxAction();
+
+    private SxSource source;
+
+    @Before
+    public void before() throws Exception
+    {
+        SkinExtensionResponseCache cache =
+            this.oldcore.getMocker().registerMockComponent(SkinExtensionResponseCache.class);
+        when(cache.get(anyString())).then(invocation -> this.cacheContent.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheContent.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(cache).set(anyString(), any());
+
+        this.source = mock(SxSource.class);
+        when(this.source.getCacheKey()).thenReturn("xwiki:Space.Page/1.1/XWiki.StyleSheetExtension");
+        when(this.source.getContent()).thenReturn(CONTENT);
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.LONG);
+    }
+
+    private XWikiResponse render(String acceptEncoding, String ifNoneMatch) throws Exception
+    {
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        XWikiRequest request = mock(XWikiRequest.class);
+        when(request.get("minify")).thenReturn("false");
+        when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        xcontext.setRequest(request);
+
+        XWikiResponse response = mock(XWikiResponse.class);
+        when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+        xcontext.setResponse(response);
+
+        this.action.renderExtension(this.source, this.action.getExtensionType(), xcontext);
+
+        return response;
+    }
+
+    private byte[] getWrittenContent(XWikiResponse response) throws Exception
+    {
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(response.getOutputStream()).write(captor.capture());
+
+        return captor.getValue();
+    }
+
+    private String getETag(XWikiResponse response)
+    {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(response).setHeader(eq("ETag"), captor.capture());
+
+        return captor.getValue();
+    }
+
+    @Test
+    public void renderCachedContent() throws Exception
+    {
+        XWikiResponse response = render(null, null);
+
+        assertArrayEquals(CONTENT.getBytes(StandardCharsets.UTF_8), getWrittenContent(response));
+        String etag = getETag(response);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        verify(response).setHeader("Vary", "Accept-Encoding");
+
+        response = render(null, null);
+
+        // The content is taken from the cache
+        assertArrayEquals(CONTENT.getBytes(StandardCharsets.UTF_8), getWrittenContent(response));
+        assertEquals(etag, getETag(response));
+        verify(this.source, times(1)).getContent();
+    }
+
+    @Test
+    public void renderNotModified() throws Exception
+    {
+        String etag = getETag(render(null, null));
+
+        XWikiResponse response = render(null, "\"other\", " + etag);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response, never()).getOutputStream();
+
+        // Weak comparison is used for If-None-Match
+        response = render(null, "W/" + etag);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+
+        // The browser has an outdated version
+        response = render(null, "\"other\"");
+
+        verify(response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertArrayEquals(CONTENT.getBytes(StandardCharsets.UTF_8), getWrittenContent(response));
+    }
+
+    @Test
+    public void renderGzippedContent() throws Exception
+    {
+        String etag = getETag(render(null, null));
+
+        XWikiResponse response = render("gzip, deflate", null);
+
+        verify(response).setHeader("Content-Encoding", "gzip");
+        byte[] content = getWrittenContent(response);
+        verify(response).setContentLength(content.length);
+        assertTrue(content.length < CONTENT.length());
+        assertEquals(CONTENT, IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(content)),
+            StandardCharsets.UTF_8));
+
+        // Each encoding has its own strong ETag
+        String gzipETag = getETag(response);
+        assertNotEquals(etag, gzipETag);
+
+        response = render("gzip", gzipETag);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+
+        // The ETag of the gzipped content does not match the uncompressed content
+        response = render(null, gzipETag);
+
+        verify(response, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void renderSmallContentWithoutGzip() throws Exception
+    {
+        when(this.source.getContent()).thenReturn(".a { color: red; }");
+
+        XWikiResponse response = render("gzip", null);
+
+        verify(response, never()).setHeader(eq("Content-Encoding"), any());
+        verify(response, never()).setHeader(eq("Vary"), any());
+        assertArrayEquals(".a { color: red; }".getBytes(StandardCharsets.UTF_8), getWrittenContent(response));
+    }
+
+    @Test
+    public void renderUncacheableContent() throws Exception
+    {
+        when(this.source.getCacheKey()).thenReturn(null);
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.FORBID);
+
+        render(null, null);
+        XWikiResponse response = render(null, null);
+
+        verify(response, never()).setHeader(eq("ETag"), any());
+        verify(this.source, times(2)).getContent();
+        assertTrue(this.cacheContent.isEmpty());
+    }
+}
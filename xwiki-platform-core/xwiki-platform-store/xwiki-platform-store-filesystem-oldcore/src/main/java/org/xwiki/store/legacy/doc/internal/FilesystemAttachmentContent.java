@@ -23,6 +23,7 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.AutoCloseInputStream;
@@ -108,6 +109,16 @@ public InputStream getContentInputStream()
         }
     }
 
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException
+    {
+        if (this.getFileItem() != null) {
+            return super.transferTo(position, count, target);
+        }
+
+        return transferTo(this.storageFile, position, count, target);
+    }
+
     @Override
     public long getLongSize()
     {
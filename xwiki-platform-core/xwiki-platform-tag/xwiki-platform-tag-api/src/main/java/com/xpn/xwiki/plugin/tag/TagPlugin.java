@@ -25,7 +25,6 @@
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -74,12 +73,6 @@ public class TagPlugin extends XWikiDefaultPlugin implements XWikiPluginInterfac
      */
     public static final String DOC_COMMENT_TAG_ADDED = "plugin.tag.editcomment.added";
 
-    private static final Pattern LIKE_ESCAPE = Pattern.compile("[_%\\\\]");
-
-    private static final String LIKE_REPLACEMENT = "\\\\$0";
-
-    private static final String LIKE_APPEND = ".%";
-
     /**
      * Tag plugin constructor.
      * 
@@ -197,18 +190,7 @@ public Map<String, Integer> getTagCount(XWikiContext context) throws XWikiExcept
     public Map<String, Integer> getTagCount(String spaceReference, XWikiContext context) throws XWikiException
     {
         if (!StringUtils.isBlank(spaceReference)) {
-            StringBuilder where = new StringBuilder();
-            where.append('(');
-            where.append("doc.space = ?");
-            where.append(" OR ");
-            where.append("doc.space LIKE ?");
-            where.append(')');
-
-            // Make sure to escape the LIKE syntax
-            String escapedSpaceReference = LIKE_ESCAPE.matcher(spaceReference).replaceAll(LIKE_REPLACEMENT);
-
-            return getTagCountForQuery("", where.toString(),
-                Arrays.asList(spaceReference, escapedSpaceReference + LIKE_APPEND), context);
+            return TagQueryUtils.getTagCountForSpaces(Arrays.asList(spaceReference), context);
         }
 
         return getTagCount(context);
@@ -230,28 +212,7 @@ public Map<String, Integer> getTagCountForSpaces(String spaces, XWikiContext con
     {
         List<String> spaceRefList = TagParamUtils.spacesParameterToList(spaces);
 
-        List<Object> queryParameter = new ArrayList<>();
-        StringBuilder where = new StringBuilder();
-        boolean first = true;
-        for (String spaceReference : spaceRefList) {
-            if (first) {
-                where.append("(doc.space = ? ");
-                first = false;
-            } else {
-                where.append(" OR doc.space = ? ");
-            }
-            queryParameter.add(spaceReference);
-            where.append("OR doc.space LIKE ?");
-            String escapedSpaceReference = LIKE_ESCAPE.matcher(spaceReference).replaceAll(LIKE_REPLACEMENT);
-            queryParameter.add(escapedSpaceReference + LIKE_APPEND);
-        }
-        // if first is true the "for" loop never ran, and spaces is empty
-        // so only close brace if first is false
-        if (!first) {
-            where.append(')');
-        }
-
-        return getTagCountForQuery("", where.toString(), queryParameter, context);
+        return TagQueryUtils.getTagCountForSpaces(spaceRefList, context);
     }
 
     /**
@@ -25,6 +25,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.query.Query;
@@ -35,6 +36,7 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.plugin.tag.internal.TagIndex;
 import com.xpn.xwiki.web.Utils;
 
 /**
@@ -50,6 +52,12 @@
      */
     public static final String HIDDEN_QUERYFILTER_HINT = HiddenDocumentFilter.HINT;
 
+    private static final Pattern LIKE_ESCAPE = Pattern.compile("[_%\\\\]");
+
+    private static final String LIKE_REPLACEMENT = "\\\\$0";
+
+    private static final String LIKE_APPEND = ".%";
+
     /**
      * Utility class, private constructor.
      */
@@ -73,19 +81,65 @@ public static List<String> getAllTags(XWikiContext context) throws XWikiExceptio
             + "obj.id=prop.id.id and prop.id.name='tags'";
 
         try {
-            Query query = context.getWiki().getStore().getQueryManager().createQuery(hql, Query.HQL);
-            query.addFilter(Utils.<QueryFilter> getComponent(QueryFilter.class, HiddenDocumentFilter.HINT));
-            results = query.execute();
+            results = getTagIndex().getAllTags(context.getWikiId());
+
+            if (results == null) {
+                Query query = context.getWiki().getStore().getQueryManager().createQuery(hql, Query.HQL);
+                query.addFilter(Utils.<QueryFilter> getComponent(QueryFilter.class, HiddenDocumentFilter.HINT));
+                results = query.execute();
+
+                Collections.sort(results, String.CASE_INSENSITIVE_ORDER);
+            }
         } catch (QueryException e) {
             throw new XWikiException(XWikiException.MODULE_XWIKI_STORE, XWikiException.ERROR_XWIKI_UNKNOWN,
-                String.format("Failed to get all tags", hql), e);
+                "Failed to get all tags", e);
         }
 
-        Collections.sort(results, String.CASE_INSENSITIVE_ORDER);
-
         return results;
     }
 
+    /**
+     * Get cardinality map of tags for a list of wiki spaces (including sub spaces).
+     *
+     * @param spaces the local references of the spaces to count tags in, if empty count tags of the whole wiki
+     * @param context XWiki context.
+     * @return map of tags (alphabetical order) with their occurrences counts.
+     * @throws XWikiException if the tags of the wiki cannot be loaded (possible failures: DB access problems, etc).
+     * @since 10.0RC1
+     */
+    public static Map<String, Integer> getTagCountForSpaces(List<String> spaces, XWikiContext context)
+        throws XWikiException
+    {
+        Map<String, Integer> tagCount = getIndexedTagCount(spaces, context);
+        if (tagCount != null) {
+            return tagCount;
+        }
+
+        List<Object> queryParameter = new ArrayList<>();
+        StringBuilder where = new StringBuilder();
+        boolean first = true;
+        for (String spaceReference : spaces) {
+            if (first) {
+                where.append("(doc.space = ? ");
+                first = false;
+            } else {
+                where.append(" OR doc.space = ? ");
+            }
+            queryParameter.add(spaceReference);
+            where.append("OR doc.space LIKE ?");
+            // Make sure to escape the LIKE syntax
+            String escapedSpaceReference = LIKE_ESCAPE.matcher(spaceReference).replaceAll(LIKE_REPLACEMENT);
+            queryParameter.add(escapedSpaceReference + LIKE_APPEND);
+        }
+        // if first is true the "for" loop never ran, and spaces is empty
+        // so only close brace if first is false
+        if (!first) {
+            where.append(')');
+        }
+
+        return getTagCountForQuery("", where.toString(), queryParameter, context);
+    }
+
     /**
      * Get cardinality map of tags matching a parameterized hql query.
      *
@@ -101,6 +155,14 @@ public static List<String> getAllTags(XWikiContext context) throws XWikiExceptio
     public static Map<String, Integer> getTagCountForQuery(String fromHql, String whereHql, List< ? > parameterValues,
             XWikiContext context) throws XWikiException
     {
+        // Counting the tags of the whole wiki doesn't need a query when the tags are indexed
+        if (StringUtils.isBlank(fromHql) && StringUtils.isBlank(whereHql)) {
+            Map<String, Integer> tagCount = getIndexedTagCount(Collections.<String>emptyList(), context);
+            if (tagCount != null) {
+                return tagCount;
+            }
+        }
+
         List<String> results = null;
         Map<String, Integer> tagCount = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
 
@@ -194,13 +256,17 @@ public static List<String> getDocumentsWithTag(String tag, boolean includeHidden
             + "doc.fullName";
 
         try {
-            Query query = context.getWiki().getStore().getQueryManager().createQuery(hql, Query.HQL);
-            query.bindValues(parameters);
-            query.addFilter(Utils.getComponent(QueryFilter.class, UniqueDocumentFilter.HINT));
-            if (!includeHiddenDocuments) {
-                query.addFilter(Utils.getComponent(QueryFilter.class, HiddenDocumentFilter.HINT));
+            results = getTagIndex().getDocumentsWithTag(context.getWikiId(), tag, includeHiddenDocuments);
+
+            if (results == null) {
+                Query query = context.getWiki().getStore().getQueryManager().createQuery(hql, Query.HQL);
+                query.bindValues(parameters);
+                query.addFilter(Utils.getComponent(QueryFilter.class, UniqueDocumentFilter.HINT));
+                if (!includeHiddenDocuments) {
+                    query.addFilter(Utils.getComponent(QueryFilter.class, HiddenDocumentFilter.HINT));
+                }
+                results = query.execute();
             }
-            results = query.execute();
         } catch (QueryException e) {
             throw new XWikiException(XWikiException.MODULE_XWIKI_STORE, XWikiException.ERROR_XWIKI_UNKNOWN,
                 String.format("Failed to search for document with tag [%s]", tag), e);
@@ -208,4 +274,23 @@ public static List<String> getDocumentsWithTag(String tag, boolean includeHidden
 
         return results;
     }
+
+    /**
+     * @return the tag count from the tag index, {@code null} if the tags of the current wiki are not indexed
+     */
+    private static Map<String, Integer> getIndexedTagCount(List<String> spaces, XWikiContext context)
+        throws XWikiException
+    {
+        try {
+            return getTagIndex().getTagCount(context.getWikiId(), spaces);
+        } catch (QueryException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE, XWikiException.ERROR_XWIKI_UNKNOWN,
+                String.format("Failed to get tag count for spaces %s", spaces), e);
+        }
+    }
+
+    private static TagIndex getTagIndex()
+    {
+        return Utils.getComponent(TagIndex.class);
+    }
 }
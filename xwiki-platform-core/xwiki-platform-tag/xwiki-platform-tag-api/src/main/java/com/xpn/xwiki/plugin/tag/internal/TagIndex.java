@@ -0,0 +1,559 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.tag.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.plugin.tag.TagPlugin;
+
+/**
+ * In-memory index of the tags of each wiki, holding for each tag the documents it is set on and its number of
+ * occurrences in each space. The index of a wiki is loaded with a single query the first time it's needed and is then
+ * kept up to date by {@link TagIndexListener}.
+ * <p>
+ * The index is disabled by default ({@value #ENABLED_PROPERTY} in xwiki.properties), in which case the tags are
+ * queried from the database. It keeps the local reference and the tags of every tagged document of each accessed
+ * wiki, which costs in the order of 250 bytes per document plus 100 bytes per tag set on a document (the strings of the
+ * spaces and of the tags being shared). So a wiki is only indexed as long as the number of tags set on its documents
+ * does not exceed {@value #MAX_SIZE_PROPERTY} (100000 by default, i.e. around 20MB), the tags of bigger wikis being
+ * queried from the database until the next restart.
+ * <p>
+ * The index of a wiki is loaded without holding its lock so that the saves of tagged documents are not blocked by the
+ * loading, the documents saved in the meantime being applied on top of the loaded index before it is made available.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component(roles = TagIndex.class)
+@Singleton
+public class TagIndex
+{
+    /**
+     * The name of the property indicating if the tags are indexed in memory.
+     */
+    public static final String ENABLED_PROPERTY = "tag.index.enabled";
+
+    /**
+     * The name of the property holding the maximum number of tags set on the documents of an indexed wiki.
+     */
+    public static final String MAX_SIZE_PROPERTY = "tag.index.maxSize";
+
+    private static final int DEFAULT_MAX_SIZE = 100000;
+
+    private static final String LOAD_STATEMENT = "select doc.fullName, doc.space, doc.hidden, tag "
+        + "from XWikiDocument as doc, BaseObject as obj, DBStringListProperty as prop join prop.list tag "
+        + "where obj.name=doc.fullName and obj.className='XWiki.TagClass' and obj.id=prop.id.id "
+        + "and prop.id.name='tags' and doc.translation=0";
+
+    private static final LocalDocumentReference TAG_CLASS_REFERENCE =
+        new LocalDocumentReference("XWiki", "TagClass");
+
+    private static final String SPACE_SEPARATOR = ".";
+
+    private static final int VISIBLE = 0;
+
+    private static final int HIDDEN = 1;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    /**
+     * Used to retrieve user preference regarding hidden documents.
+     */
+    @Inject
+    @Named("user")
+    private ConfigurationSource userPreferencesSource;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource xwikiPropertiesSource;
+
+    private final Map<String, WikiTags> wikis = new ConcurrentHashMap<>();
+
+    /**
+     * The tags of a document, as stored in the index.
+     */
+    private static final class TaggedDocument
+    {
+        private final String space;
+
+        private final boolean hidden;
+
+        private final Set<String> tags = new LinkedHashSet<>();
+
+        TaggedDocument(String space, boolean hidden)
+        {
+            this.space = space;
+            this.hidden = hidden;
+        }
+    }
+
+    /**
+     * The index of a wiki. All accesses are done while holding the lock of the instance.
+     */
+    private static final class WikiTags
+    {
+        /**
+         * The loaded index, {@code null} until the end of the loading.
+         */
+        private Index index;
+
+        /**
+         * The changes to apply on top of the index being loaded, {@code null} when the index is not being loaded.
+         */
+        private List<Consumer<Index>> pendingChanges;
+
+        /**
+         * {@code true} when the wiki has too many tags to be indexed.
+         */
+        private boolean tooLarge;
+    }
+
+    /**
+     * The tags of the documents of a wiki.
+     */
+    private static final class Index
+    {
+        private final Map<String, TaggedDocument> documents = new HashMap<>();
+
+        /**
+         * Lower case tag -> full names of the documents having it.
+         */
+        private final Map<String, SortedSet<String>> postings = new HashMap<>();
+
+        /**
+         * Space -> tag -> number of visible and hidden documents having it.
+         */
+        private final Map<String, Map<String, int[]>> counts = new HashMap<>();
+
+        /**
+         * The number of tags set on the documents.
+         */
+        private int size;
+
+        void put(String fullName, TaggedDocument document)
+        {
+            remove(fullName);
+
+            if (!document.tags.isEmpty()) {
+                this.documents.put(fullName, document);
+                this.size += document.tags.size();
+
+                Map<String, int[]> spaceCounts = this.counts.computeIfAbsent(document.space, k -> new HashMap<>());
+                for (String tag : document.tags) {
+                    this.postings.computeIfAbsent(tag.toLowerCase(Locale.ROOT), k -> new TreeSet<>()).add(fullName);
+                    spaceCounts.computeIfAbsent(tag, k -> new int[2])[document.hidden ? HIDDEN : VISIBLE]++;
+                }
+            }
+        }
+
+        void remove(String fullName)
+        {
+            TaggedDocument document = this.documents.remove(fullName);
+
+            if (document != null) {
+                this.size -= document.tags.size();
+
+                Map<String, int[]> spaceCounts = this.counts.get(document.space);
+                for (String tag : document.tags) {
+                    String key = tag.toLowerCase(Locale.ROOT);
+                    SortedSet<String> tagDocuments = this.postings.get(key);
+                    tagDocuments.remove(fullName);
+                    if (tagDocuments.isEmpty()) {
+                        this.postings.remove(key);
+                    }
+
+                    int[] tagCounts = spaceCounts.get(tag);
+                    tagCounts[document.hidden ? HIDDEN : VISIBLE]--;
+                    if (tagCounts[VISIBLE] == 0 && tagCounts[HIDDEN] == 0) {
+                        spaceCounts.remove(tag);
+                    }
+                }
+                if (spaceCounts.isEmpty()) {
+                    this.counts.remove(document.space);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @return the distinct tags of the wiki, sorted alphabetically ignoring case, {@code null} if the tags of the wiki
+     *         are not indexed
+     * @throws QueryException when failing to load the index of the wiki
+     */
+    public List<String> getAllTags(String wiki) throws QueryException
+    {
+        Map<String, Integer> tagCounts = getTagCounts(wiki, null);
+        if (tagCounts == null) {
+            return null;
+        }
+
+        List<String> result = new ArrayList<>(tagCounts.keySet());
+        Collections.sort(result, String.CASE_INSENSITIVE_ORDER);
+
+        return result;
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param spaces the local references of the spaces (sub spaces included) to count tags in, {@code null} or empty
+     *            for the whole wiki
+     * @return the number of documents having each tag, ignoring case (alphabetical order), {@code null} if the tags
+     *         of the wiki are not indexed
+     * @throws QueryException when failing to load the index of the wiki
+     */
+    public Map<String, Integer> getTagCount(String wiki, Collection<String> spaces) throws QueryException
+    {
+        Map<String, Integer> tagCounts = getTagCounts(wiki, spaces);
+        if (tagCounts == null) {
+            return null;
+        }
+
+        Map<String, Integer> tagCount = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        // The first case variant (in natural order) is the one used in the result.
+        for (Map.Entry<String, Integer> entry : tagCounts.entrySet()) {
+            tagCount.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+
+        return tagCount;
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param tag the tag to match, ignoring case
+     * @param includeHiddenDocuments if true then include hidden documents, otherwise they are included only if the
+     *            current user asked to display hidden documents
+     * @return the local references of the documents having the tag, in alphabetical order, {@code null} if the tags
+     *         of the wiki are not indexed
+     * @throws QueryException when failing to load the index of the wiki
+     */
+    public List<String> getDocumentsWithTag(String wiki, String tag, boolean includeHiddenDocuments)
+        throws QueryException
+    {
+        // Like the hidden query filter, the hidden documents are displayed when the user asked for it
+        boolean includeHidden = includeHiddenDocuments || isHiddenDocumentsDisplayed();
+
+        WikiTags wikiTags = getWikiTags(wiki);
+        if (wikiTags == null) {
+            return null;
+        }
+
+        List<String> result = new ArrayList<>();
+        synchronized (wikiTags) {
+            // The index might have been dropped in the meantime
+            if (wikiTags.index == null) {
+                return null;
+            }
+
+            Collection<String> tagDocuments = wikiTags.index.postings.get(tag.toLowerCase(Locale.ROOT));
+            if (tagDocuments != null) {
+                for (String fullName : tagDocuments) {
+                    if (includeHidden || !wikiTags.index.documents.get(fullName).hidden) {
+                        result.add(fullName);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Update the index with the current tags of the passed document.
+     *
+     * @param document the document that has been saved
+     */
+    public void update(XWikiDocument document)
+    {
+        WikiTags wikiTags = this.wikis.get(document.getDocumentReference().getWikiReference().getName());
+
+        // Nothing to do if the index of the wiki is not loaded yet, the document will be taken into account when it is
+        if (wikiTags != null) {
+            TaggedDocument taggedDocument = new TaggedDocument(
+                this.localSerializer.serialize(document.getDocumentReference().getLastSpaceReference()),
+                Boolean.TRUE.equals(document.isHidden()));
+            for (BaseObject tagObject : document.getXObjects(TAG_CLASS_REFERENCE)) {
+                if (tagObject != null) {
+                    addTags(taggedDocument, tagObject.getListValue(TagPlugin.TAG_PROPERTY));
+                }
+            }
+
+            String fullName = this.localSerializer.serialize(document.getDocumentReference());
+            synchronized (wikiTags) {
+                if (wikiTags.index != null) {
+                    wikiTags.index.put(fullName, taggedDocument);
+                    checkSize(wikiTags);
+                } else if (wikiTags.pendingChanges != null) {
+                    // The loading might have missed the change
+                    wikiTags.pendingChanges.add(index -> index.put(fullName, taggedDocument));
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the passed document from the index.
+     *
+     * @param documentReference the reference of the document that has been deleted
+     */
+    public void remove(DocumentReference documentReference)
+    {
+        WikiTags wikiTags = this.wikis.get(documentReference.getWikiReference().getName());
+
+        if (wikiTags != null) {
+            String fullName = this.localSerializer.serialize(documentReference);
+            synchronized (wikiTags) {
+                if (wikiTags.index != null) {
+                    wikiTags.index.remove(fullName);
+                } else if (wikiTags.pendingChanges != null) {
+                    wikiTags.pendingChanges.add(index -> index.remove(fullName));
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget the index of the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void removeWiki(String wiki)
+    {
+        this.wikis.remove(wiki);
+    }
+
+    /**
+     * Drop the index of the wiki if it has grown too large.
+     */
+    private void checkSize(WikiTags wikiTags)
+    {
+        if (wikiTags.index.size > getMaxSize()) {
+            wikiTags.index = null;
+            wikiTags.tooLarge = true;
+        }
+    }
+
+    private int getMaxSize()
+    {
+        return this.xwikiPropertiesSource.getProperty(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+    }
+
+    private Map<String, Integer> getTagCounts(String wiki, Collection<String> spaces) throws QueryException
+    {
+        boolean includeHidden = isHiddenDocumentsDisplayed();
+
+        WikiTags wikiTags = getWikiTags(wiki);
+        if (wikiTags == null) {
+            return null;
+        }
+
+        Map<String, Integer> tagCounts = new TreeMap<>();
+        synchronized (wikiTags) {
+            if (wikiTags.index == null) {
+                return null;
+            }
+
+            for (Map.Entry<String, Map<String, int[]>> spaceCounts : wikiTags.index.counts.entrySet()) {
+                if (matches(spaceCounts.getKey(), spaces)) {
+                    for (Map.Entry<String, int[]> entry : spaceCounts.getValue().entrySet()) {
+                        int count = entry.getValue()[VISIBLE] + (includeHidden ? entry.getValue()[HIDDEN] : 0);
+                        if (count > 0) {
+                            tagCounts.merge(entry.getKey(), count, Integer::sum);
+                        }
+                    }
+                }
+            }
+        }
+
+        return tagCounts;
+    }
+
+    private boolean isHiddenDocumentsDisplayed()
+    {
+        Integer preference = this.userPreferencesSource.getProperty("displayHiddenDocuments", Integer.class);
+
+        return preference != null && preference == 1;
+    }
+
+    private boolean matches(String space, Collection<String> spaces)
+    {
+        if (spaces == null || spaces.isEmpty()) {
+            return true;
+        }
+
+        for (String candidate : spaces) {
+            if (space.equals(candidate) || space.startsWith(candidate + SPACE_SEPARATOR)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the index of the wiki, loaded, or {@code null} if the tags of the wiki are not indexed
+     */
+    private WikiTags getWikiTags(String wiki) throws QueryException
+    {
+        if (!this.xwikiPropertiesSource.getProperty(ENABLED_PROPERTY, false)) {
+            return null;
+        }
+
+        WikiTags wikiTags = this.wikis.computeIfAbsent(wiki, k -> new WikiTags());
+
+        synchronized (wikiTags) {
+            // Wait for the index being loaded by another thread
+            while (wikiTags.index == null && wikiTags.pendingChanges != null) {
+                try {
+                    wikiTags.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new QueryException(
+                        String.format("Interrupted while waiting for the tag index of wiki [%s]", wiki), null, e);
+                }
+            }
+
+            if (wikiTags.tooLarge) {
+                return null;
+            }
+
+            if (wikiTags.index != null) {
+                return wikiTags;
+            }
+
+            // Remember the changes happening during the loading
+            wikiTags.pendingChanges = new ArrayList<>();
+        }
+
+        int maxSize = getMaxSize();
+        Index index = null;
+        boolean loaded = false;
+        try {
+            index = load(wiki, maxSize);
+            loaded = true;
+        } finally {
+            synchronized (wikiTags) {
+                if (index != null) {
+                    for (Consumer<Index> change : wikiTags.pendingChanges) {
+                        change.accept(index);
+                    }
+                    wikiTags.index = index;
+                    checkSize(wikiTags);
+                } else if (loaded) {
+                    wikiTags.tooLarge = true;
+                }
+
+                // Let the waiting threads use the index or try to load it again if it failed
+                wikiTags.pendingChanges = null;
+                wikiTags.notifyAll();
+            }
+        }
+
+        return index != null ? wikiTags : null;
+    }
+
+    /**
+     * @return the index of the wiki or {@code null} if more than {@code maxSize} tags are set on its documents
+     */
+    private Index load(String wiki, int maxSize) throws QueryException
+    {
+        Query query = this.queryManager.createQuery(LOAD_STATEMENT, Query.HQL);
+        query.setWiki(wiki);
+        // There is one row per tag set on a document
+        query.setLimit(maxSize + 1);
+        List<Object[]> rows = query.execute();
+        if (rows.size() > maxSize) {
+            return null;
+        }
+
+        // Share the strings of the spaces and of the tags which are repeated a lot
+        Map<String, String> strings = new HashMap<>();
+
+        Map<String, TaggedDocument> documents = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            TaggedDocument document = documents.computeIfAbsent((String) row[0],
+                k -> new TaggedDocument(share((String) row[1], strings), Boolean.TRUE.equals(row[2])));
+            if (row[3] instanceof String) {
+                document.tags.add(share((String) row[3], strings));
+            }
+        }
+
+        Index index = new Index();
+        for (Map.Entry<String, TaggedDocument> entry : documents.entrySet()) {
+            index.put(entry.getKey(), entry.getValue());
+        }
+
+        return index;
+    }
+
+    private String share(String value, Map<String, String> strings)
+    {
+        String sharedValue = strings.putIfAbsent(value, value);
+
+        return sharedValue != null ? sharedValue : value;
+    }
+
+    private void addTags(TaggedDocument document, List<?> tags)
+    {
+        if (tags != null) {
+            for (Object tag : tags) {
+                if (tag instanceof String) {
+                    document.tags.add((String) tag);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.tag.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link TagIndexListener}.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public class TagIndexListenerTest
+{
+    @Rule
+    public MockitoComponentMockingRule<EventListener> mocker =
+        new MockitoComponentMockingRule<>(TagIndexListener.class);
+
+    private DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+
+    private XWikiDocument mockDeletedDocument(int deletedTranslation)
+    {
+        // The source of a delete event is a blank document wrapping the deleted one
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(this.documentReference);
+        when(document.getTranslation()).thenReturn(0);
+
+        XWikiDocument originalDocument = mock(XWikiDocument.class);
+        when(originalDocument.getTranslation()).thenReturn(deletedTranslation);
+        when(document.getOriginalDocument()).thenReturn(originalDocument);
+
+        return document;
+    }
+
+    @Test
+    public void deleteDefaultTranslation() throws Exception
+    {
+        this.mocker.getComponentUnderTest().onEvent(new DocumentDeletedEvent(this.documentReference),
+            mockDeletedDocument(0), null);
+
+        verify(this.mocker.<TagIndex>getInstance(TagIndex.class)).remove(this.documentReference);
+    }
+
+    @Test
+    public void deleteTranslation() throws Exception
+    {
+        this.mocker.getComponentUnderTest().onEvent(new DocumentDeletedEvent(this.documentReference),
+            mockDeletedDocument(1), null);
+
+        verify(this.mocker.<TagIndex>getInstance(TagIndex.class), never()).remove(any());
+    }
+
+    @Test
+    public void updateTranslation() throws Exception
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getTranslation()).thenReturn(1);
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(this.documentReference), document,
+            null);
+
+        verify(this.mocker.<TagIndex>getInstance(TagIndex.class), never()).update(any());
+    }
+}
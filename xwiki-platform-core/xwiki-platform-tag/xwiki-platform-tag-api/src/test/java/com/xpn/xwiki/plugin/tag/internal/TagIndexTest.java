@@ -0,0 +1,258 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.tag.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link TagIndex}.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+public class TagIndexTest
+{
+    @Rule
+    public MockitoComponentMockingRule<TagIndex> mocker = new MockitoComponentMockingRule<>(TagIndex.class);
+
+    private QueryManager queryManager;
+
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private ConfigurationSource userPreferences;
+
+    private ConfigurationSource xwikiProperties;
+
+    private Query query;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.queryManager = this.mocker.getInstance(QueryManager.class);
+        this.localSerializer = this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+        this.userPreferences = this.mocker.getInstance(ConfigurationSource.class, "user");
+        this.xwikiProperties = this.mocker.getInstance(ConfigurationSource.class, "xwikiproperties");
+        when(this.xwikiProperties.getProperty(TagIndex.ENABLED_PROPERTY, false)).thenReturn(true);
+        when(this.xwikiProperties.getProperty(TagIndex.MAX_SIZE_PROPERTY, 100000)).thenReturn(100000);
+
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), any())).thenReturn(this.query);
+        when(this.query.<Object[]>execute()).thenReturn(Arrays.asList(
+            new Object[] {"A.Page1", "A", false, "Tag1"},
+            new Object[] {"A.Page1", "A", false, "tag2"},
+            new Object[] {"A.B.Page2", "A.B", false, "tag1"},
+            new Object[] {"AB.Page3", "AB", null, "Tag2"},
+            new Object[] {"C.Hidden", "C", true, "Tag1"}));
+    }
+
+    @Test
+    public void getTagCount() throws Exception
+    {
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("Tag1", 2);
+        expected.put("Tag2", 2);
+        assertEquals(expected, this.mocker.getComponentUnderTest().getTagCount("wiki", null));
+
+        expected.put("Tag1", 1);
+        expected.put("Tag2", 1);
+        assertEquals(expected, this.mocker.getComponentUnderTest().getTagCount("wiki", Arrays.asList("A.B", "AB")));
+
+        when(this.userPreferences.getProperty("displayHiddenDocuments", Integer.class)).thenReturn(1);
+
+        expected.put("Tag1", 3);
+        expected.put("Tag2", 2);
+        assertEquals(expected, this.mocker.getComponentUnderTest().getTagCount("wiki", Collections.emptyList()));
+
+        assertEquals(Arrays.asList("Tag1", "tag1", "Tag2", "tag2"),
+            this.mocker.getComponentUnderTest().getAllTags("wiki"));
+
+        // The index of the wiki is loaded only once
+        verify(this.query, times(1)).execute();
+        verify(this.query).setWiki("wiki");
+    }
+
+    @Test
+    public void getDocumentsWithTag() throws Exception
+    {
+        assertEquals(Arrays.asList("A.B.Page2", "A.Page1"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "TAG1", false));
+        assertEquals(Arrays.asList("A.B.Page2", "A.Page1", "C.Hidden"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", true));
+        assertEquals(Collections.emptyList(),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag3", true));
+    }
+
+    @Test
+    public void getDocumentsWithTagWhenHiddenDocumentsAreDisplayed() throws Exception
+    {
+        when(this.userPreferences.getProperty("displayHiddenDocuments", Integer.class)).thenReturn(1);
+
+        assertEquals(Arrays.asList("A.B.Page2", "A.Page1", "C.Hidden"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+    }
+
+    @Test
+    public void updateWhileLoading() throws Exception
+    {
+        DocumentReference page1Reference = new DocumentReference("wiki", "A", "Page1");
+        when(this.localSerializer.serialize(page1Reference)).thenReturn("A.Page1");
+        when(this.localSerializer.serialize(page1Reference.getLastSpaceReference())).thenReturn("A");
+
+        XWikiDocument page1 = mock(XWikiDocument.class);
+        when(page1.getDocumentReference()).thenReturn(page1Reference);
+        BaseObject tagObject = mock(BaseObject.class);
+        when(tagObject.getListValue("tags")).thenReturn(Arrays.asList("tag3"));
+        when(page1.getXObjects(any(EntityReference.class))).thenReturn(Arrays.asList(tagObject));
+
+        // The document is saved while the index is loaded, after the query selected its previous tags
+        List<Object[]> rows = this.query.execute();
+        when(this.query.execute()).then(invocation -> {
+            this.mocker.getComponentUnderTest().update(page1);
+
+            return rows;
+        });
+
+        assertEquals(Arrays.asList("A.B.Page2"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+        assertEquals(Arrays.asList("A.Page1"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag3", false));
+    }
+
+    @Test
+    public void updateAndRemove() throws Exception
+    {
+        DocumentReference page1Reference = new DocumentReference("wiki", "A", "Page1");
+        when(this.localSerializer.serialize(page1Reference)).thenReturn("A.Page1");
+        when(this.localSerializer.serialize(page1Reference.getLastSpaceReference())).thenReturn("A");
+
+        XWikiDocument page1 = mock(XWikiDocument.class);
+        when(page1.getDocumentReference()).thenReturn(page1Reference);
+        BaseObject tagObject = mock(BaseObject.class);
+        when(tagObject.getListValue("tags")).thenReturn(Arrays.asList("tag3"));
+        when(page1.getXObjects(any(EntityReference.class))).thenReturn(Arrays.asList(null, tagObject));
+
+        // Not loaded yet
+        this.mocker.getComponentUnderTest().update(page1);
+
+        assertEquals(Arrays.asList("A.B.Page2", "A.Page1"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+
+        this.mocker.getComponentUnderTest().update(page1);
+
+        List<String> expected = Arrays.asList("A.B.Page2");
+        assertEquals(expected, this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+        assertEquals(Arrays.asList("A.Page1"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag3", false));
+        assertEquals(Integer.valueOf(1), this.mocker.getComponentUnderTest().getTagCount("wiki", null).get("tag2"));
+
+        this.mocker.getComponentUnderTest().remove(page1Reference);
+
+        assertEquals(Collections.emptyList(),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag3", false));
+        assertEquals(Arrays.asList("tag1", "Tag2"), this.mocker.getComponentUnderTest().getAllTags("wiki"));
+    }
+
+    @Test
+    public void disabled() throws Exception
+    {
+        when(this.xwikiProperties.getProperty(TagIndex.ENABLED_PROPERTY, false)).thenReturn(false);
+
+        assertNull(this.mocker.getComponentUnderTest().getAllTags("wiki"));
+        assertNull(this.mocker.getComponentUnderTest().getTagCount("wiki", null));
+        assertNull(this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+
+        verifyZeroInteractions(this.queryManager);
+    }
+
+    @Test
+    public void wikiWithTooManyTags() throws Exception
+    {
+        when(this.xwikiProperties.getProperty(TagIndex.MAX_SIZE_PROPERTY, 100000)).thenReturn(4);
+
+        assertNull(this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+        assertNull(this.mocker.getComponentUnderTest().getTagCount("wiki", null));
+
+        // The wiki is not loaded again
+        verify(this.query).setLimit(5);
+        verify(this.query, times(1)).execute();
+    }
+
+    @Test
+    public void updateBeyondMaxSize() throws Exception
+    {
+        when(this.xwikiProperties.getProperty(TagIndex.MAX_SIZE_PROPERTY, 100000)).thenReturn(5);
+
+        DocumentReference page1Reference = new DocumentReference("wiki", "A", "Page1");
+        when(this.localSerializer.serialize(page1Reference)).thenReturn("A.Page1");
+        when(this.localSerializer.serialize(page1Reference.getLastSpaceReference())).thenReturn("A");
+
+        XWikiDocument page1 = mock(XWikiDocument.class);
+        when(page1.getDocumentReference()).thenReturn(page1Reference);
+        BaseObject tagObject = mock(BaseObject.class);
+        when(tagObject.getListValue("tags")).thenReturn(Arrays.asList("tag3", "tag4"));
+        when(page1.getXObjects(any(EntityReference.class))).thenReturn(Arrays.asList(tagObject));
+
+        assertEquals(Arrays.asList("A.B.Page2", "A.Page1"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag1", false));
+
+        // Replacing the 2 tags of the document keeps the index within its limit
+        this.mocker.getComponentUnderTest().update(page1);
+
+        assertEquals(Arrays.asList("A.Page1"),
+            this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag4", false));
+
+        // Adding a tag makes it too large
+        when(tagObject.getListValue("tags")).thenReturn(Arrays.asList("tag3", "tag4", "tag5"));
+        this.mocker.getComponentUnderTest().update(page1);
+
+        assertNull(this.mocker.getComponentUnderTest().getDocumentsWithTag("wiki", "tag4", false));
+        verify(this.query, times(1)).execute();
+    }
+}
@@ -23,12 +23,9 @@
 import java.util.List;
 
 import javax.inject.Inject;
-import javax.inject.Named;
-import javax.inject.Provider;
 
 import org.slf4j.Logger;
 import org.xwiki.component.manager.ComponentLookupException;
-import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.uiextension.UIExtension;
 import org.xwiki.uiextension.UIExtensionManager;
 
@@ -47,13 +44,12 @@ public class DefaultUIExtensionManager implements UIExtensionManager
     private Logger logger;
 
     /**
-     * We use the Context Component Manager to lookup UI Extensions registered as components.
-     * The Context Component Manager allows Extensions to be registered for a specific user, for a specific wiki or for
-     * a whole farm.
+     * Index of the UI Extensions registered as components. The index takes care of looking them up in the Context
+     * Component Manager which allows Extensions to be registered for a specific user, for a specific wiki or for a
+     * whole farm.
      */
     @Inject
-    @Named("context")
-    private Provider<ComponentManager> contextComponentManagerProvider;
+    private UIExtensionIndex index;
 
     @Override
     public List<UIExtension> get(String extensionPointId)
@@ -61,12 +57,7 @@ public List<UIExtension> get(String extensionPointId)
         List<UIExtension> extensions = new ArrayList<UIExtension>();
 
         try {
-            List<UIExtension> allExtensions = contextComponentManagerProvider.get().getInstanceList(UIExtension.class);
-            for (UIExtension extension : allExtensions) {
-                if (extension.getExtensionPointId().equals(extensionPointId)) {
-                    extensions.add(extension);
-                }
-            }
+            extensions = this.index.get(extensionPointId);
         } catch (ComponentLookupException e) {
             logger.error("Failed to lookup UIExtension instances, error: [{}]", e);
         }
@@ -0,0 +1,242 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.uiextension.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.internal.multi.ComponentManagerManager;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.namespace.DocumentNamespace;
+import org.xwiki.model.namespace.SpaceNamespace;
+import org.xwiki.model.namespace.UserNamespace;
+import org.xwiki.model.namespace.WikiNamespace;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.uiextension.UIExtension;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+/**
+ * Index the {@link UIExtension}s available in each set of Component Managers by extension point, so that getting the
+ * extensions of an extension point does not require to go through all the registered extensions.
+ * <p>
+ * The {@link UIExtension}s visible from the Context Component Manager depend on the current user, document, space and
+ * wiki, so an index is kept for each combination of user, document, space and wiki Component Managers which actually
+ * exist. The index is rebuilt when a {@link UIExtension} is registered or unregistered (see
+ * {@link UIExtensionIndexListener}). The current entities are resolved the same way as the user, document, space and
+ * wiki Component Managers do.
+ *
+ * @version $Id$
+ * @since 10.0RC1
+ */
+@Component(roles = UIExtensionIndex.class)
+@Singleton
+public class UIExtensionIndex
+{
+    /**
+     * The extensions visible from a set of Component Managers.
+     */
+    private static class Index
+    {
+        /**
+         * The number of filters results kept for a set of Component Managers. The filters come from scripts and their
+         * combinations are not bounded.
+         */
+        private static final int FILTERED_EXTENSIONS_CAPACITY = 1000;
+
+        private final Map<String, List<UIExtension>> extensions;
+
+        private final ConcurrentMap<String, List<UIExtension>> filteredExtensions = new ConcurrentHashMap<>();
+
+        Index(Map<String, List<UIExtension>> extensions)
+        {
+            this.extensions = extensions;
+        }
+    }
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> contextComponentManagerProvider;
+
+    @Inject
+    private ComponentManagerManager componentManagerManager;
+
+    @Inject
+    private DocumentAccessBridge documentAccessBridge;
+
+    @Inject
+    @Named("current")
+    private Provider<DocumentReference> currentDocumentProvider;
+
+    @Inject
+    @Named("current")
+    private Provider<SpaceReference> currentSpaceProvider;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    private final ConcurrentMap<List<ComponentManager>, Index> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented each time the registered extensions change, to not store an index computed before the change.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @param extensionPointId the identifier of the extension point
+     * @return the {@link UIExtension}s of the extension point visible from the Context Component Manager
+     * @throws ComponentLookupException when failing to lookup the extensions
+     */
+    public List<UIExtension> get(String extensionPointId) throws ComponentLookupException
+    {
+        List<UIExtension> extensions = getIndex().extensions.get(extensionPointId);
+
+        return extensions != null ? new ArrayList<>(extensions) : new ArrayList<>();
+    }
+
+    /**
+     * @param extensionPointId the identifier of the extension point
+     * @param filters the filters applied to the extensions of the extension point
+     * @return the result of applying the filters to the {@link UIExtension}s of the extension point, {@code null} if
+     *         it's not known
+     */
+    public List<UIExtension> getFiltered(String extensionPointId, Map<String, String> filters)
+    {
+        Index index = this.indexes.get(getComponentManagers());
+        if (index != null) {
+            List<UIExtension> extensions = index.filteredExtensions.get(getFilteredKey(extensionPointId, filters));
+            if (extensions != null) {
+                return new ArrayList<>(extensions);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param extensionPointId the identifier of the extension point
+     * @param filters the filters applied to the extensions of the extension point
+     * @param extensions the result of applying the filters to the {@link UIExtension}s of the extension point
+     */
+    public void setFiltered(String extensionPointId, Map<String, String> filters, List<UIExtension> extensions)
+    {
+        Index index = this.indexes.get(getComponentManagers());
+        // Stop remembering new filters results when there are too many of them, until the index is rebuilt
+        if (index != null && index.filteredExtensions.size() < Index.FILTERED_EXTENSIONS_CAPACITY) {
+            index.filteredExtensions.put(getFilteredKey(extensionPointId, filters),
+                Collections.unmodifiableList(new ArrayList<>(extensions)));
+        }
+    }
+
+    /**
+     * Forget all the indexed extensions.
+     */
+    public void invalidate()
+    {
+        this.version.incrementAndGet();
+        this.indexes.clear();
+    }
+
+    private Index getIndex() throws ComponentLookupException
+    {
+        List<ComponentManager> componentManagers = getComponentManagers();
+
+        Index index = this.indexes.get(componentManagers);
+        if (index == null) {
+            long currentVersion = this.version.get();
+
+            Map<String, List<UIExtension>> extensions = new HashMap<>();
+            for (UIExtension extension : this.contextComponentManagerProvider.get()
+                .<UIExtension>getInstanceList(UIExtension.class)) {
+                extensions.computeIfAbsent(extension.getExtensionPointId(), k -> new ArrayList<>()).add(extension);
+            }
+            index = new Index(extensions);
+
+            // Don't keep an index which might have missed some changes
+            if (currentVersion == this.version.get()) {
+                this.indexes.put(componentManagers, index);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the Component Managers involved in the lookups made through the Context Component Manager
+     */
+    private List<ComponentManager> getComponentManagers()
+    {
+        ComponentManager userComponentManager =
+            getComponentManager(UserNamespace.TYPE, this.documentAccessBridge.getCurrentUserReference());
+        ComponentManager documentComponentManager =
+            getComponentManager(DocumentNamespace.TYPE, this.currentDocumentProvider.get());
+        ComponentManager spaceComponentManager =
+            getComponentManager(SpaceNamespace.TYPE, this.currentSpaceProvider.get());
+
+        // Same as the wiki Component Manager: the context wiki is not always the wiki of the current document
+        String wikiId = this.wikiDescriptorManager.getCurrentWikiId();
+        ComponentManager wikiComponentManager = wikiId != null
+            ? this.componentManagerManager.getComponentManager(WikiNamespace.TYPE + ':' + wikiId, false) : null;
+
+        return Arrays.asList(userComponentManager, documentComponentManager, spaceComponentManager,
+            wikiComponentManager);
+    }
+
+    private ComponentManager getComponentManager(String type, EntityReference reference)
+    {
+        if (reference != null) {
+            String namespace = type + ':' + this.serializer.serialize(reference);
+
+            return this.componentManagerManager.getComponentManager(namespace, false);
+        }
+
+        return null;
+    }
+
+    private String getFilteredKey(String extensionPointId, Map<String, String> filters)
+    {
+        StringBuilder key = new StringBuilder(extensionPointId);
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            key.append('\n').append(filter.getKey()).append('=').append(filter.getValue());
+        }
+
+        return key.toString();
+    }
+}
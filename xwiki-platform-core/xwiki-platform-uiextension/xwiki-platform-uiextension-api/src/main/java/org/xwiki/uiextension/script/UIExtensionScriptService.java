@@ -19,8 +19,11 @@
  */
 package org.xwiki.uiextension.script;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -35,6 +38,7 @@
 import org.xwiki.uiextension.UIExtension;
 import org.xwiki.uiextension.UIExtensionFilter;
 import org.xwiki.uiextension.UIExtensionManager;
+import org.xwiki.uiextension.internal.UIExtensionIndex;
 
 /**
  * Allows scripts to easily access Interface Extensions APIs.
@@ -47,6 +51,13 @@
 @Singleton
 public class UIExtensionScriptService implements ScriptService
 {
+    /**
+     * The filters whose result only depends on the identifiers of the extensions. The parameters of the extensions are
+     * evaluated with Velocity for each request so a filter using them can't be cached.
+     */
+    private static final Set<String> CACHEABLE_FILTERS =
+        new HashSet<>(Arrays.asList("select", "exclude", "sortById", "sortByCustomOrder"));
+
     /**
      * The logger to log.
      */
@@ -68,6 +79,12 @@ public class UIExtensionScriptService implements ScriptService
     @Inject
     private UIExtensionManager uiExtensionManager;
 
+    /**
+     * Used to cache the filtered extensions returned by the default UIExtensionManager.
+     */
+    @Inject
+    private UIExtensionIndex uiExtensionIndex;
+
     /**
      * Utility method to split a list of extension names, for example {code}"Panels.Apps,Panels.QuickLinks"{code} to get
      * a List containing those names.
@@ -87,6 +104,11 @@ private String[] parseFilterParameters(String nameList)
      * @return the list of {@link UIExtension} for the given Extension Point
      */
     public List<UIExtension> getExtensions(String extensionPointId)
+    {
+        return getUIExtensionManager(extensionPointId).get(extensionPointId);
+    }
+
+    private UIExtensionManager getUIExtensionManager(String extensionPointId)
     {
         UIExtensionManager manager = this.uiExtensionManager;
 
@@ -100,7 +122,7 @@ public List<UIExtension> getExtensions(String extensionPointId)
             }
         }
 
-        return manager.get(extensionPointId);
+        return manager;
     }
 
     /**
@@ -128,7 +150,19 @@ public List<UIExtension> getExtensions(String extensionPointId)
      */
     public List<UIExtension> getExtensions(String extensionPointId, Map<String, String> filters)
     {
-        List<UIExtension> extensions = getExtensions(extensionPointId);
+        UIExtensionManager manager = getUIExtensionManager(extensionPointId);
+
+        // The result of the filters can be kept until the default UIExtensionManager index changes
+        boolean cacheable =
+            manager == this.uiExtensionManager && CACHEABLE_FILTERS.containsAll(filters.keySet());
+        if (cacheable) {
+            List<UIExtension> extensions = this.uiExtensionIndex.getFiltered(extensionPointId, filters);
+            if (extensions != null) {
+                return extensions;
+            }
+        }
+
+        List<UIExtension> extensions = manager.get(extensionPointId);
 
         for (Map.Entry<String, String> entry : filters.entrySet()) {
             String filterHint = entry.getKey();
@@ -143,6 +177,10 @@ public List<UIExtension> getExtensions(String extensionPointId, Map<String, Stri
             }
         }
 
+        if (cacheable) {
+            this.uiExtensionIndex.setFiltered(extensionPointId, filters, extensions);
+        }
+
         return extensions;
     }
 }
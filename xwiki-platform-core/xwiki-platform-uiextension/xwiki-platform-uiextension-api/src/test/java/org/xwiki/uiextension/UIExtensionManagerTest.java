@@ -25,20 +25,47 @@
 import java.util.Arrays;
 import java.util.HashSet;
 
+import javax.inject.Provider;
+
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
 import org.xwiki.component.internal.ContextComponentManagerProvider;
+import org.xwiki.component.internal.multi.ComponentManagerManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.observation.EventListener;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 import org.xwiki.uiextension.internal.DefaultUIExtensionManager;
+import org.xwiki.uiextension.internal.UIExtensionIndex;
+import org.xwiki.uiextension.internal.UIExtensionIndexListener;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
-@ComponentList(ContextComponentManagerProvider.class)
+@ComponentList({ContextComponentManagerProvider.class, UIExtensionIndex.class, UIExtensionIndexListener.class})
 public class UIExtensionManagerTest
 {
     @Rule
     public MockitoComponentMockingRule<UIExtensionManager> mocker =
         new MockitoComponentMockingRule<UIExtensionManager>(DefaultUIExtensionManager.class);
 
+    @Before
+    public void configure() throws Exception
+    {
+        this.mocker.registerMockComponent(ComponentManagerManager.class);
+        this.mocker.registerMockComponent(DocumentAccessBridge.class);
+        this.mocker.registerMockComponent(EntityReferenceSerializer.TYPE_STRING);
+        this.mocker.registerMockComponent(new DefaultParameterizedType(null, Provider.class, DocumentReference.class),
+            "current");
+        this.mocker.registerMockComponent(new DefaultParameterizedType(null, Provider.class, SpaceReference.class),
+            "current");
+        this.mocker.registerMockComponent(WikiDescriptorManager.class);
+    }
+
     @Test
     public void testGet() throws Exception
     {
@@ -53,6 +80,10 @@ public void testGet() throws Exception
         UIExtension notuix = mocker.registerMockComponent(UIExtension.class, "notuix");
         when(notuix.getExtensionPointId()).thenReturn("notuix");
 
+        // The test component manager doesn't send component registration events
+        EventListener listener = this.mocker.getInstance(EventListener.class, UIExtensionIndexListener.NAME);
+        listener.onEvent(new ComponentDescriptorAddedEvent(UIExtension.class), null, null);
+
         assertEquals(new HashSet<UIExtension>(Arrays.asList(uix1, uix2)), new HashSet<UIExtension>(this.mocker
             .getComponentUnderTest().get("extensionpoint")));
     }
@@ -0,0 +1,177 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.uiextension.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.internal.multi.ComponentManagerManager;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+import org.xwiki.uiextension.UIExtension;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link UIExtensionIndex}.
+ *
+ * @version $Id$
+ */
+public class UIExtensionIndexTest
+{
+    @Rule
+    public MockitoComponentMockingRule<UIExtensionIndex> mocker =
+        new MockitoComponentMockingRule<>(UIExtensionIndex.class);
+
+    private ComponentManager contextComponentManager;
+
+    private UIExtension uix1;
+
+    private UIExtension uix2;
+
+    private UIExtension uix3;
+
+    @Before
+    public void configure() throws Exception
+    {
+        this.contextComponentManager = mock(ComponentManager.class);
+        Provider<ComponentManager> contextComponentManagerProvider =
+            this.mocker.getInstance(new DefaultParameterizedType(null, Provider.class, ComponentManager.class),
+                "context");
+        when(contextComponentManagerProvider.get()).thenReturn(this.contextComponentManager);
+
+        this.uix1 = mockUIExtension("extensionpoint1");
+        this.uix2 = mockUIExtension("extensionpoint1");
+        this.uix3 = mockUIExtension("extensionpoint2");
+        when(this.contextComponentManager.<UIExtension>getInstanceList(UIExtension.class))
+            .thenReturn(Arrays.asList(this.uix1, this.uix2, this.uix3));
+    }
+
+    private UIExtension mockUIExtension(String extensionPointId)
+    {
+        UIExtension extension = mock(UIExtension.class);
+        when(extension.getExtensionPointId()).thenReturn(extensionPointId);
+
+        return extension;
+    }
+
+    @Test
+    public void get() throws Exception
+    {
+        UIExtensionIndex index = this.mocker.getComponentUnderTest();
+
+        assertEquals(Arrays.asList(this.uix1, this.uix2), index.get("extensionpoint1"));
+        assertEquals(Arrays.asList(this.uix3), index.get("extensionpoint2"));
+        assertEquals(Collections.emptyList(), index.get("extensionpoint3"));
+
+        // The returned list can be modified without affecting the index
+        index.get("extensionpoint1").clear();
+        assertEquals(Arrays.asList(this.uix1, this.uix2), index.get("extensionpoint1"));
+
+        verify(this.contextComponentManager, times(1)).getInstanceList(UIExtension.class);
+
+        index.invalidate();
+
+        assertEquals(Arrays.asList(this.uix1, this.uix2), index.get("extensionpoint1"));
+        verify(this.contextComponentManager, times(2)).getInstanceList(UIExtension.class);
+    }
+
+    @Test
+    public void getUsesTheContextWiki() throws Exception
+    {
+        ComponentManagerManager componentManagerManager = this.mocker.getInstance(ComponentManagerManager.class);
+        when(componentManagerManager.getComponentManager("wiki:wiki1", false)).thenReturn(mock(ComponentManager.class));
+        when(componentManagerManager.getComponentManager("wiki:wiki2", false)).thenReturn(mock(ComponentManager.class));
+
+        // The current document is located in another wiki than the context wiki
+        Provider<DocumentReference> currentDocumentProvider =
+            this.mocker.getInstance(new DefaultParameterizedType(null, Provider.class, DocumentReference.class),
+                "current");
+        when(currentDocumentProvider.get()).thenReturn(new DocumentReference("wiki1", "Space", "Page"));
+
+        WikiDescriptorManager wikiDescriptorManager = this.mocker.getInstance(WikiDescriptorManager.class);
+        when(wikiDescriptorManager.getCurrentWikiId()).thenReturn("wiki1");
+
+        UIExtensionIndex index = this.mocker.getComponentUnderTest();
+        index.get("extensionpoint1");
+
+        when(wikiDescriptorManager.getCurrentWikiId()).thenReturn("wiki2");
+        index.get("extensionpoint1");
+
+        verify(this.contextComponentManager, times(2)).getInstanceList(UIExtension.class);
+
+        // Each wiki keeps its index
+        when(wikiDescriptorManager.getCurrentWikiId()).thenReturn("wiki1");
+        index.get("extensionpoint1");
+
+        verify(this.contextComponentManager, times(2)).getInstanceList(UIExtension.class);
+    }
+
+    @Test
+    public void getFiltered() throws Exception
+    {
+        UIExtensionIndex index = this.mocker.getComponentUnderTest();
+
+        // Filters results are only kept once the index exists
+        index.setFiltered("extensionpoint1", Collections.singletonMap("select", "uix1"), Arrays.asList(this.uix1));
+        assertNull(index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix1")));
+
+        index.get("extensionpoint1");
+
+        index.setFiltered("extensionpoint1", Collections.singletonMap("select", "uix1"), Arrays.asList(this.uix1));
+        assertEquals(Arrays.asList(this.uix1),
+            index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix1")));
+        assertNull(index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix2")));
+
+        index.invalidate();
+
+        assertNull(index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix1")));
+    }
+
+    @Test
+    public void getFilteredIsBounded() throws Exception
+    {
+        UIExtensionIndex index = this.mocker.getComponentUnderTest();
+        index.get("extensionpoint1");
+
+        List<UIExtension> extensions = Arrays.asList(this.uix1);
+        for (int i = 0; i < 2000; i++) {
+            index.setFiltered("extensionpoint1", Collections.singletonMap("select", "uix" + i), extensions);
+        }
+
+        assertEquals(extensions, index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix0")));
+        assertEquals(extensions, index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix999")));
+        assertNull(index.getFiltered("extensionpoint1", Collections.singletonMap("select", "uix1000")));
+    }
+}
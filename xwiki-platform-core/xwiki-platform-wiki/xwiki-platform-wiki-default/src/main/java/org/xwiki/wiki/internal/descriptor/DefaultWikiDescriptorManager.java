@@ -69,11 +69,8 @@ public class DefaultWikiDescriptorManager implements WikiDescriptorManager
     @Override
     public Collection<WikiDescriptor> getAll() throws WikiManagerException
     {
-        // Note: Ideally to improve performance we could imagine loading all XWikiServerClasses at initialization time
-        // (in initialize()) and thereafter only use the cache. The problem with this approach is that our Cache will
-        // need to be unbounded which is not the case right now. This would mean being able to put all descriptors in
-        // the cache and thus it might not scale if there were a very large number of wikis.
-        // Note that the full list of ids is cached since it takes a lot less memory that descriptors.
+        // Note: all the descriptors are loaded at once the first time the list of wikis is needed and thereafter
+        // kept up to date by the WikiDescriptorListener. Since they are all in memory, getting them by id is cheap.
 
         Collection<String> wikiIds = getAllIds();
 
@@ -98,33 +95,59 @@ public Collection<String> getAllIds() throws WikiManagerException
         Collection<String> wikiIds = this.cache.getWikiIds();
 
         if (wikiIds == null) {
-            List<String> documentNames;
-            try {
-                documentNames = this.descriptorDocumentHelperProvider.get().getAllXWikiServerClassDocumentNames();
-            } catch (Exception e) {
-                throw new WikiManagerException("Failed to get wiki ids", e);
+            Collection<String> registeredIds = this.cache.getRegisteredWikiIds();
+            if (registeredIds == null) {
+                registeredIds = loadAll();
             }
 
-            wikiIds = new HashSet<String>(documentNames.size());
+            wikiIds = new HashSet<String>(registeredIds);
 
-            boolean foundMainWiki = false;
+            // Make sure we always return a descriptor for main wiki, even a virtual one
+            wikiIds.add(getMainWikiId());
 
-            XWikiContext xcontext = this.xcontextProvider.get();
+            this.cache.setWikiIds(Collections.unmodifiableCollection(wikiIds));
+        }
 
-            for (String documentName : documentNames) {
-                String wikId = this.descriptorDocumentHelperProvider.get().getWikiIdFromDocumentFullname(documentName);
+        return wikiIds;
+    }
 
-                wikiIds.add(wikId);
+    /**
+     * Load all the descriptors and register them in the cache.
+     *
+     * @return the identifiers of the loaded descriptors
+     */
+    private synchronized Collection<String> loadAll() throws WikiManagerException
+    {
+        Collection<String> registeredIds = this.cache.getRegisteredWikiIds();
+        if (registeredIds != null) {
+            return registeredIds;
+        }
 
-                foundMainWiki |= xcontext.isMainWiki(wikId);
-            }
+        long version = this.cache.startLoading();
 
-            // Make sure we always return a descriptor for main wiki, even a virtual one
-            if (!foundMainWiki) {
-                wikiIds.add(getMainWikiId());
+        List<XWikiDocument> documents;
+        try {
+            documents = this.descriptorDocumentHelperProvider.get().getAllXWikiServerClassDocument();
+        } catch (Exception e) {
+            throw new WikiManagerException("Failed to get wiki ids", e);
+        }
+
+        List<DefaultWikiDescriptor> descriptors = new ArrayList<>(documents.size());
+        for (XWikiDocument document : documents) {
+            DefaultWikiDescriptor descriptor = buildDescriptor(document);
+            if (descriptor != null) {
+                descriptors.add(descriptor);
             }
+        }
 
-            this.cache.setWikiIds(Collections.unmodifiableCollection(wikiIds));
+        if (this.cache.register(descriptors, version)) {
+            return this.cache.getRegisteredWikiIds();
+        }
+
+        // Some descriptors changed while loading them: they will be loaded again next time
+        List<String> wikiIds = new ArrayList<>(descriptors.size());
+        for (DefaultWikiDescriptor descriptor : descriptors) {
+            wikiIds.add(descriptor.getId());
         }
 
         return wikiIds;
@@ -137,11 +160,8 @@ public WikiDescriptor getByAlias(String wikiAlias) throws WikiManagerException
 
         // If not found in the cache then query the wiki and add to the cache if found.
         //
-        // Note that an alternative implementation would have been to find all Wiki Descriptors at startup but this
-        // would have meant keeping them all in memory at once. Since we want to be able to scale to any number of
-        // subwikis we only cache the most used one. This allows inactive wikis to not take up any memory for example.
-        // Note that In order for performance to be maximum it also means we need to have a cache size at least as
-        // large as the max # of wikis being used at once.
+        // Note that once all the descriptors are registered in the cache this only happens for unknown aliases, which
+        // are then remembered in a bounded cache.
         if (descriptor == null) {
             XWikiDocument document = descriptorDocumentHelperProvider.get().findXWikiServerClassDocument(wikiAlias);
             if (document != null) {
@@ -230,15 +250,22 @@ public WikiDescriptor getCurrentWikiDescriptor() throws WikiManagerException
     }
 
     private DefaultWikiDescriptor buildDescriptorFromDocument(XWikiDocument document)
+    {
+        DefaultWikiDescriptor descriptor = buildDescriptor(document);
+        // Add to the cache
+        if (descriptor != null) {
+            cache.add(descriptor);
+        }
+
+        return descriptor;
+    }
+
+    private DefaultWikiDescriptor buildDescriptor(XWikiDocument document)
     {
         DefaultWikiDescriptor descriptor = null;
         List<BaseObject> serverClassObjects = document.getXObjects(DefaultWikiDescriptor.SERVER_CLASS);
         if (serverClassObjects != null && !serverClassObjects.isEmpty()) {
             descriptor = this.wikiDescriptorBuilderProvider.get().buildDescriptorObject(serverClassObjects, document);
-            // Add to the cache
-            if (descriptor != null) {
-                cache.add(descriptor);
-            }
         }
 
         return descriptor;
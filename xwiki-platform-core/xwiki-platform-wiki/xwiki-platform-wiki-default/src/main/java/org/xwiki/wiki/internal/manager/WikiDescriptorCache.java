@@ -20,7 +20,10 @@
 package org.xwiki.wiki.internal.manager;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -36,6 +39,10 @@
 
 /**
  * Component that handle caching for wiki descriptors.
+ * <p>
+ * Once {@link #register(Collection, long) registered} the complete list of descriptors is kept in memory and indexed
+ * by identifier and alias. The bounded caches are then only used to remember identifiers and aliases which don't match
+ * any wiki.
  * 
  * @version $Id$
  * @since 5.3M2
@@ -53,6 +60,20 @@ public class WikiDescriptorCache implements Initializable
 
     private Collection<String> wikiIds;
 
+    private volatile Map<String, DefaultWikiDescriptor> registryById;
+
+    private volatile Map<String, DefaultWikiDescriptor> registryByAlias;
+
+    /**
+     * The descriptors added while the registry is being loaded.
+     */
+    private Map<String, DefaultWikiDescriptor> loading;
+
+    /**
+     * Incremented each time a descriptor is removed or the list of wikis is invalidated.
+     */
+    private long version;
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -78,8 +99,23 @@ private Cache<DefaultWikiDescriptor> createCache(String cacheId) throws Initiali
      *
      * @param descriptor descriptor to add
      */
-    public void add(DefaultWikiDescriptor descriptor)
+    public synchronized void add(DefaultWikiDescriptor descriptor)
     {
+        if (this.registryById != null) {
+            this.registryById.put(descriptor.getId(), descriptor);
+            this.wikiIdCache.remove(descriptor.getId());
+            for (String alias : descriptor.getAliases()) {
+                this.registryByAlias.put(alias, descriptor);
+                this.wikiAliasCache.remove(alias);
+            }
+
+            return;
+        }
+
+        if (this.loading != null) {
+            this.loading.put(descriptor.getId(), descriptor);
+        }
+
         // Update the wiki name cache
         addFromId(descriptor.getId(), descriptor);
 
@@ -119,8 +155,19 @@ public void addFromId(String wikiId, DefaultWikiDescriptor descriptor)
      * @since 8.4.6
      * @since 9.9RC1
      */
-    public void remove(String wikiId, List<String> aliases)
+    public synchronized void remove(String wikiId, List<String> aliases)
     {
+        ++this.version;
+
+        if (this.registryById != null) {
+            this.registryById.remove(wikiId);
+            for (String alias : aliases) {
+                // Don't remove an alias which has been given to another wiki in the meantime
+                this.registryByAlias.computeIfPresent(alias,
+                    (key, descriptor) -> wikiId.equals(descriptor.getId()) ? null : descriptor);
+            }
+        }
+
         // Remove from the wiki name cache
         this.wikiIdCache.remove(wikiId);
 
@@ -138,7 +185,10 @@ public void remove(String wikiId, List<String> aliases)
      */
     public DefaultWikiDescriptor getFromId(String wikiId)
     {
-        return wikiIdCache.get(wikiId);
+        Map<String, DefaultWikiDescriptor> registry = this.registryById;
+        DefaultWikiDescriptor descriptor = registry != null ? registry.get(wikiId) : null;
+
+        return descriptor != null ? descriptor : wikiIdCache.get(wikiId);
     }
 
     /**
@@ -149,15 +199,22 @@ public DefaultWikiDescriptor getFromId(String wikiId)
      */
     public DefaultWikiDescriptor getFromAlias(String wikiAlias)
     {
-        return wikiAliasCache.get(wikiAlias);
+        Map<String, DefaultWikiDescriptor> registry = this.registryByAlias;
+        DefaultWikiDescriptor descriptor = registry != null ? registry.get(wikiAlias) : null;
+
+        return descriptor != null ? descriptor : wikiAliasCache.get(wikiAlias);
     }
 
     /**
      * @param wikiIds the full list of wikis identifiers
      * @since 6.2M1
      */
-    public void setWikiIds(Collection<String> wikiIds)
+    public synchronized void setWikiIds(Collection<String> wikiIds)
     {
+        if (wikiIds == null) {
+            ++this.version;
+        }
+
         this.wikiIds = wikiIds;
     }
 
@@ -169,4 +226,81 @@ public Collection<String> getWikiIds()
     {
         return this.wikiIds;
     }
+
+    /**
+     * Indicate that the complete list of descriptors is about to be loaded.
+     *
+     * @return the version to pass to {@link #register(Collection, long)} once the descriptors are loaded
+     * @since 10.0RC1
+     */
+    public synchronized long startLoading()
+    {
+        if (this.loading == null) {
+            this.loading = new ConcurrentHashMap<>();
+        }
+
+        return this.version;
+    }
+
+    /**
+     * Keep in memory the complete list of descriptors. The registry is then updated through {@link #add} and
+     * {@link #remove}.
+     *
+     * @param descriptors all the wiki descriptors
+     * @param loadingVersion the version returned by {@link #startLoading()} before loading the descriptors
+     * @return {@code true} if the registry has been set, {@code false} if a descriptor was removed or the list of wikis
+     *         was invalidated while loading the descriptors, in which case they might be outdated
+     * @since 10.0RC1
+     */
+    public synchronized boolean register(Collection<DefaultWikiDescriptor> descriptors, long loadingVersion)
+    {
+        Map<String, DefaultWikiDescriptor> added = this.loading;
+        this.loading = null;
+
+        if (this.registryById != null) {
+            return true;
+        }
+
+        if (loadingVersion != this.version) {
+            return false;
+        }
+
+        Map<String, DefaultWikiDescriptor> byId = new ConcurrentHashMap<>();
+        Map<String, DefaultWikiDescriptor> byAlias = new ConcurrentHashMap<>();
+        for (DefaultWikiDescriptor descriptor : descriptors) {
+            index(descriptor, byId, byAlias);
+        }
+        // Descriptors added in the meantime are at least as recent as the loaded ones
+        if (added != null) {
+            for (DefaultWikiDescriptor descriptor : added.values()) {
+                index(descriptor, byId, byAlias);
+            }
+        }
+
+        this.registryByAlias = byAlias;
+        this.registryById = byId;
+
+        return true;
+    }
+
+    private void index(DefaultWikiDescriptor descriptor, Map<String, DefaultWikiDescriptor> byId,
+        Map<String, DefaultWikiDescriptor> byAlias)
+    {
+        byId.put(descriptor.getId(), descriptor);
+        for (String alias : descriptor.getAliases()) {
+            byAlias.put(alias, descriptor);
+        }
+    }
+
+    /**
+     * @return the identifiers of all the registered descriptors or {@code null} if the complete list of descriptors
+     *         has not been {@link #register(Collection, long) registered} yet
+     * @since 10.0RC1
+     */
+    public Collection<String> getRegisteredWikiIds()
+    {
+        Map<String, DefaultWikiDescriptor> registry = this.registryById;
+
+        return registry != null ? Collections.unmodifiableSet(registry.keySet()) : null;
+    }
 }
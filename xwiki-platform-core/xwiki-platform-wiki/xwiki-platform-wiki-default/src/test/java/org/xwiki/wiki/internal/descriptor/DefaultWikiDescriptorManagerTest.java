@@ -198,22 +198,12 @@ public void getByAliasWhenNotInCacheAndItDoesntExist() throws Exception
     @Test
     public void getAll() throws Exception
     {
-        // Get the XWikiDocuments for the Document References
+        // Get the XWikiDocuments containing the descriptors
         XWikiDocument document1 = mock(XWikiDocument.class);
         XWikiDocument document2 = mock(XWikiDocument.class);
         XWikiDocument maindocument = mock(XWikiDocument.class);
-
-        DefaultWikiDescriptor descriptor3 = new DefaultWikiDescriptor("wikiid3", "wikialias3");
-
-        // Get documents
-        when(descriptorDocumentHelper.getAllXWikiServerClassDocumentNames()).thenReturn(
-                Arrays.asList("XWiki.XWikiServerWikiid1", "XWiki.XWikiServerWikiid2", "XWiki.XWikiServerWikiid3"));
-        when(descriptorDocumentHelper.getWikiIdFromDocumentFullname("XWiki.XWikiServerWikiid1")).thenReturn("wikiid1");
-        when(descriptorDocumentHelper.getWikiIdFromDocumentFullname("XWiki.XWikiServerWikiid2")).thenReturn("wikiid2");
-        when(descriptorDocumentHelper.getWikiIdFromDocumentFullname("XWiki.XWikiServerWikiid3")).thenReturn("wikiid3");
-        when(cache.getFromId("wikiid3")).thenReturn(descriptor3);
-        when(descriptorDocumentHelper.getDocumentFromWikiId("wikiid1")).thenReturn(document1);
-        when(descriptorDocumentHelper.getDocumentFromWikiId("wikiid2")).thenReturn(document2);
+        when(descriptorDocumentHelper.getAllXWikiServerClassDocument()).thenReturn(
+            Arrays.asList(document1, document2));
         when(descriptorDocumentHelper.getDocumentFromWikiId("xwiki")).thenReturn(maindocument);
 
         when(maindocument.isNew()).thenReturn(true);
@@ -229,16 +219,33 @@ public void getAll() throws Exception
         when(wikiDescriptorBuilder.buildDescriptorObject(anyListOf(BaseObject.class), any(XWikiDocument.class))).
                 thenReturn(descriptor1, descriptor2);
 
+        // Registering the descriptors makes them available from the cache
+        when(cache.startLoading()).thenReturn(42L);
+        when(cache.register(Arrays.asList(descriptor1, descriptor2), 42L)).thenReturn(true);
+        when(cache.getRegisteredWikiIds()).thenReturn(null, null, Arrays.asList("wikiid1", "wikiid2"));
+        when(cache.getFromId("wikiid1")).thenReturn(descriptor1);
+        when(cache.getFromId("wikiid2")).thenReturn(descriptor2);
+
         Collection<WikiDescriptor> descriptors = this.mocker.getComponentUnderTest().getAll();
-        assertEquals(4, descriptors.size());
+        assertEquals(3, descriptors.size());
+
+        // Verify that the descriptors were loaded at once and not one by one
+        verify(descriptorDocumentHelper, never()).getDocumentFromWikiId("wikiid1");
+        verify(descriptorDocumentHelper, never()).getDocumentFromWikiId("wikiid2");
+        verify(cache, never()).add(any(DefaultWikiDescriptor.class));
+    }
+
+    @Test
+    public void getAllIdsWhenRegistered() throws Exception
+    {
+        when(cache.getRegisteredWikiIds()).thenReturn(Arrays.asList("wikiid1"));
 
-        // Verify that XWiki.XWikiServerWikiid3 has not be loaded
-        verify(descriptorDocumentHelper, never()).getDocumentFromWikiId("wikiid3");
+        Collection<String> wikiIds = this.mocker.getComponentUnderTest().getAllIds();
 
-        // Verify all descriptors were put in cache except those which was already there
-        verify(cache).add(descriptor1);
-        verify(cache).add(descriptor2);
-        verify(cache, never()).add(descriptor3);
+        assertEquals(2, wikiIds.size());
+        assertTrue(wikiIds.contains("wikiid1"));
+        assertTrue(wikiIds.contains("xwiki"));
+        verify(descriptorDocumentHelper, never()).getAllXWikiServerClassDocument();
     }
 
     @Test
@@ -19,6 +19,8 @@
  */
 package org.xwiki.wiki.internal.manager;
 
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,8 +31,14 @@
 import org.xwiki.wiki.descriptor.WikiDescriptor;
 import org.xwiki.wiki.internal.descriptor.DefaultWikiDescriptor;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -87,4 +95,57 @@ public void remove() throws Exception
         verify(wikiAliasCache).remove("alias2");
     }
 
+    @Test
+    public void register() throws Exception
+    {
+        WikiDescriptorCache cache = this.mocker.getComponentUnderTest();
+        assertNull(cache.getRegisteredWikiIds());
+
+        DefaultWikiDescriptor descriptor1 = new DefaultWikiDescriptor("wikiid1", "wikialias1");
+        DefaultWikiDescriptor descriptor2 = new DefaultWikiDescriptor("wikiid2", "wikialias2");
+        assertTrue(cache.register(Arrays.asList(descriptor1, descriptor2), cache.startLoading()));
+
+        assertEquals(2, cache.getRegisteredWikiIds().size());
+        assertSame(descriptor1, cache.getFromId("wikiid1"));
+        assertSame(descriptor2, cache.getFromAlias("wikialias2"));
+
+        // Registered descriptors are updated in memory
+        DefaultWikiDescriptor descriptor3 = new DefaultWikiDescriptor("wikiid3", "wikialias3");
+        cache.add(descriptor3);
+        cache.remove(descriptor1.getId(), descriptor1.getAliases());
+
+        assertSame(descriptor3, cache.getFromAlias("wikialias3"));
+        assertNull(cache.getFromId("wikiid1"));
+        assertFalse(cache.getRegisteredWikiIds().contains("wikiid1"));
+        assertTrue(cache.getRegisteredWikiIds().contains("wikiid3"));
+        verify(wikiIdCache, never()).set("wikiid3", descriptor3);
+    }
+
+    @Test
+    public void registerWhenRemovedWhileLoading() throws Exception
+    {
+        WikiDescriptorCache cache = this.mocker.getComponentUnderTest();
+
+        DefaultWikiDescriptor descriptor = new DefaultWikiDescriptor("wikiid", "wikialias");
+        long version = cache.startLoading();
+        cache.remove(descriptor.getId(), descriptor.getAliases());
+
+        assertFalse(cache.register(Arrays.asList(descriptor), version));
+        assertNull(cache.getRegisteredWikiIds());
+    }
+
+    @Test
+    public void registerWhenAddedWhileLoading() throws Exception
+    {
+        WikiDescriptorCache cache = this.mocker.getComponentUnderTest();
+
+        DefaultWikiDescriptor descriptor1 = new DefaultWikiDescriptor("wikiid1", "wikialias1");
+        DefaultWikiDescriptor descriptor2 = new DefaultWikiDescriptor("wikiid2", "wikialias2");
+        long version = cache.startLoading();
+        cache.add(descriptor2);
+
+        assertTrue(cache.register(Arrays.asList(descriptor1), version));
+        assertSame(descriptor2, cache.getFromId("wikiid2"));
+        assertEquals(2, cache.getRegisteredWikiIds().size());
+    }
 }